@@ -0,0 +1,49 @@
+package io.github.wysohn.triggerreactor.benchmark;
+
+import io.github.wysohn.triggerreactor.core.script.interpreter.Interpreter;
+import io.github.wysohn.triggerreactor.core.script.parser.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Running a script parsed in advance, as it's done when a Trigger is activated.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterpreterBenchmark {
+    @Param({Scripts.ARITHMETIC, Scripts.INTERPOLATION, Scripts.METHOD_CALLS, Scripts.FOR_COLLECTION,
+            Scripts.IF_CHAIN, Scripts.GLOBAL_VARIABLES})
+    public String script;
+
+    private Node root;
+    private Scripts.Environment environment;
+
+    @Setup
+    public void setup() throws Exception {
+        root = Scripts.parse(Scripts.get(script));
+        environment = new Scripts.Environment();
+    }
+
+    @Benchmark
+    public Map<String, Object> interpret() throws Exception {
+        Interpreter interpreter = environment.newInterpreter(root);
+        interpreter.startWithContext(null);
+        return interpreter.getVars();
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.wysohn.triggerreactor.benchmark;
+
+import io.github.wysohn.triggerreactor.core.script.Token;
+import io.github.wysohn.triggerreactor.core.script.lexer.Lexer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokenizing a whole script.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LexerBenchmark {
+    @Param({Scripts.ARITHMETIC, Scripts.INTERPOLATION, Scripts.METHOD_CALLS, Scripts.FOR_COLLECTION,
+            Scripts.IF_CHAIN, Scripts.GLOBAL_VARIABLES})
+    public String script;
+
+    private String source;
+
+    @Setup
+    public void setup() {
+        source = Scripts.get(script);
+    }
+
+    @Benchmark
+    public void tokenize(Blackhole blackhole) throws Exception {
+        Lexer lexer = new Lexer(source, StandardCharsets.UTF_8);
+
+        Token token;
+        while ((token = lexer.getToken()) != null)
+            blackhole.consume(token);
+    }
+}
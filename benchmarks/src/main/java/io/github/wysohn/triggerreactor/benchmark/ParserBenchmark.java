@@ -0,0 +1,43 @@
+package io.github.wysohn.triggerreactor.benchmark;
+
+import io.github.wysohn.triggerreactor.core.script.parser.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing a whole script, including the tokenizing done along the way, as it's done when a Trigger is loaded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+    @Param({Scripts.ARITHMETIC, Scripts.INTERPOLATION, Scripts.METHOD_CALLS, Scripts.FOR_COLLECTION,
+            Scripts.IF_CHAIN, Scripts.GLOBAL_VARIABLES})
+    public String script;
+
+    private String source;
+
+    @Setup
+    public void setup() {
+        source = Scripts.get(script);
+    }
+
+    @Benchmark
+    public Node parse() throws Exception {
+        return Scripts.parse(source);
+    }
+}
@@ -0,0 +1,237 @@
+package io.github.wysohn.triggerreactor.benchmark;
+
+import io.github.wysohn.triggerreactor.core.manager.trigger.share.CommonFunctions;
+import io.github.wysohn.triggerreactor.core.script.interpreter.Executor;
+import io.github.wysohn.triggerreactor.core.script.interpreter.Interpreter;
+import io.github.wysohn.triggerreactor.core.script.interpreter.Placeholder;
+import io.github.wysohn.triggerreactor.core.script.lexer.Lexer;
+import io.github.wysohn.triggerreactor.core.script.lexer.LexerException;
+import io.github.wysohn.triggerreactor.core.script.parser.Node;
+import io.github.wysohn.triggerreactor.core.script.parser.Parser;
+import io.github.wysohn.triggerreactor.core.script.parser.ParserException;
+import io.github.wysohn.triggerreactor.tools.timings.Timings;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The scripts the benchmarks run, each stressing one part of the language, and the environment a Trigger would give
+ * them: an executor, placeholders, the functions of {@link CommonFunctions}, and a few variables. The names are
+ * the values of the {@code script} parameter of the benchmarks.
+ */
+public class Scripts {
+    public static final String ARITHMETIC = "arithmetic";
+    public static final String INTERPOLATION = "interpolation";
+    public static final String METHOD_CALLS = "method_calls";
+    public static final String FOR_COLLECTION = "for_collection";
+    public static final String IF_CHAIN = "if_chain";
+    public static final String GLOBAL_VARIABLES = "global_variables";
+
+    private static final Map<String, String> SCRIPTS = new LinkedHashMap<>();
+
+    static {
+        SCRIPTS.put(ARITHMETIC, ""
+                + "sum = 0\n"
+                + "product = 1.0\n"
+                + "FOR i = 0:200\n"
+                + "    sum = sum + i * 3 - i / 2 + i % 7\n"
+                + "    product = product * 1.001 + 0.5 - 0.25\n"
+                + "ENDFOR\n"
+                + "average = sum / 200.0\n");
+
+        SCRIPTS.put(INTERPOLATION, ""
+                + "FOR i = 0:50\n"
+                + "    message = \"Hello ${playername}, you have ${money} dollars and \" + i + \" items\"\n"
+                + "    #MESSAGE message\n"
+                + "    #MESSAGE \"[${playername}] \" + message + \" at \" + $x + \", \" + $y + \", \" + $z\n"
+                + "ENDFOR\n");
+
+        SCRIPTS.put(METHOD_CALLS, ""
+                + "FOR i = 0:50\n"
+                + "    player.setHealth(player.getHealth() + 0.5)\n"
+                + "    name = player.getName().toUpperCase()\n"
+                + "    player.level = player.level + 1\n"
+                + "    roll = random(6) + 1\n"
+                + "    IF player.hasPermission(\"vip\") && name.length() > 3\n"
+                + "        player.setHealth(parseDouble(round(player.getHealth() % 20, 1)))\n"
+                + "    ENDIF\n"
+                + "ENDFOR\n");
+
+        SCRIPTS.put(FOR_COLLECTION, ""
+                + "total = 0\n"
+                + "FOR item = items\n"
+                + "    total = total + item.length()\n"
+                + "ENDFOR\n"
+                + "FOR amount = amounts\n"
+                + "    total = total + amount\n"
+                + "ENDFOR\n"
+                + "FOR name = names\n"
+                + "    IF name == \"item50\"\n"
+                + "        #BREAK\n"
+                + "    ENDIF\n"
+                + "    total = total + 1\n"
+                + "ENDFOR\n");
+
+        StringBuilder chain = new StringBuilder();
+        chain.append("FOR i = 0:50\n");
+        chain.append("    IF i == 0\n");
+        chain.append("        result = 0\n");
+        for (int depth = 1; depth < 20; depth++) {
+            chain.append("    ELSEIF i == ").append(depth).append("\n");
+            chain.append("        result = ").append(depth).append("\n");
+        }
+        chain.append("    ELSE\n");
+        chain.append("        IF i > 40 && i < 45 || i == 49\n");
+        chain.append("            IF i % 2 == 0\n");
+        chain.append("                result = -1\n");
+        chain.append("            ELSE\n");
+        chain.append("                result = -2\n");
+        chain.append("            ENDIF\n");
+        chain.append("        ELSE\n");
+        chain.append("            result = -3\n");
+        chain.append("        ENDIF\n");
+        chain.append("    ENDIF\n");
+        chain.append("ENDFOR\n");
+        SCRIPTS.put(IF_CHAIN, chain.toString());
+
+        SCRIPTS.put(GLOBAL_VARIABLES, ""
+                + "FOR i = 0:50\n"
+                + "    {\"counter\"} = {\"counter\"} + 1\n"
+                + "    {\"player.\" + i} = i\n"
+                + "    {?\"session\"} = {\"counter\"} * 2\n"
+                + "    IF {\"player.\" + i} != null\n"
+                + "        {\"last\"} = {\"player.\" + i} + {?\"session\"}\n"
+                + "    ENDIF\n"
+                + "ENDFOR\n");
+    }
+
+    /**
+     * @param name name of the script
+     * @return the source code of the script
+     */
+    public static String get(String name) {
+        String source = SCRIPTS.get(name);
+        if (source == null)
+            throw new IllegalArgumentException("No script named " + name + ". Choose from " + SCRIPTS.keySet());
+
+        return source;
+    }
+
+    public static Node parse(String source) throws IOException, LexerException, ParserException {
+        return new Parser(new Lexer(source, StandardCharsets.UTF_8)).parse();
+    }
+
+    /**
+     * The state shared by all the executions of a script, like a Trigger shares its maps with its interpreters.
+     */
+    public static class Environment {
+        private final Map<String, Executor> executorMap = new HashMap<>();
+        private final Map<String, Placeholder> placeholderMap = new HashMap<>();
+        private final Map<Object, Object> gvars = new HashMap<>();
+        private final CommonFunctions selfReference = new CommonFunctions();
+
+        private final List<String> items = new ArrayList<>();
+        private final int[] amounts = new int[100];
+        private final String[] names = new String[100];
+
+        private long sink;
+
+        public Environment() {
+            executorMap.put("MESSAGE", new Executor() {
+                @Override
+                protected Integer execute(Timings.Timing timing, boolean sync, Map<String, Object> vars,
+                                          Object context, Object... args) throws Exception {
+                    for (Object arg : args)
+                        sink += String.valueOf(arg).length();
+                    return null;
+                }
+            });
+
+            placeholderMap.put("playername", constant("wysohn"));
+            placeholderMap.put("money", constant(1234.5));
+            placeholderMap.put("x", constant(100));
+            placeholderMap.put("y", constant(64));
+            placeholderMap.put("z", constant(-200));
+
+            for (int i = 0; i < 100; i++) {
+                items.add("item" + i);
+                amounts[i] = i;
+                names[i] = "item" + i;
+            }
+
+            gvars.put("counter", 0);
+        }
+
+        /**
+         * @param root the parsed script
+         * @return an interpreter ready to run the script once. A new one is needed for each execution.
+         */
+        public Interpreter newInterpreter(Node root) {
+            Map<String, Object> vars = new HashMap<>();
+            vars.put("player", new Player("wysohn"));
+            vars.put("items", items);
+            vars.put("amounts", amounts);
+            vars.put("names", names);
+
+            Interpreter interpreter = new Interpreter(root);
+            interpreter.setExecutorMap(executorMap);
+            interpreter.setPlaceholderMap(placeholderMap);
+            interpreter.setGvars(gvars);
+            interpreter.setVars(vars);
+            interpreter.setSelfReference(selfReference);
+            return interpreter;
+        }
+
+        /**
+         * @return sum of the lengths of the messages sent so far, so the messages aren't dead code
+         */
+        public long getSink() {
+            return sink;
+        }
+
+        private static Placeholder constant(Object value) {
+            return new Placeholder() {
+                @Override
+                public Object parse(Timings.Timing timing, Object context, Map<String, Object> vars,
+                                    Object... args) throws Exception {
+                    return value;
+                }
+            };
+        }
+    }
+
+    /**
+     * Stands in for the player object of the events.
+     */
+    public static class Player {
+        public int level = 0;
+
+        private final String name;
+        private double health = 10.0;
+
+        public Player(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getHealth() {
+            return health;
+        }
+
+        public void setHealth(double health) {
+            this.health = health;
+        }
+
+        public boolean hasPermission(String permission) {
+            return true;
+        }
+    }
+}
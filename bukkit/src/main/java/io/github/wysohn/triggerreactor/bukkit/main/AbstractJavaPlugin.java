@@ -47,6 +47,7 @@ import io.github.wysohn.triggerreactor.core.script.interpreter.Interpreter;
 import io.github.wysohn.triggerreactor.core.script.parser.Node;
 import io.github.wysohn.triggerreactor.core.script.wrapper.SelfReference;
 import io.github.wysohn.triggerreactor.tools.ContinuingTasks;
+import io.github.wysohn.triggerreactor.tools.ReflectionCache;
 import io.github.wysohn.triggerreactor.tools.mysql.MiniConnectionPoolManager;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
@@ -63,6 +64,7 @@ import org.bukkit.entity.HumanEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.Cancellable;
 import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
 import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockEvent;
@@ -71,6 +73,7 @@ import org.bukkit.event.entity.PlayerDeathEvent;
 import org.bukkit.event.inventory.*;
 import org.bukkit.event.player.PlayerCommandPreprocessEvent;
 import org.bukkit.event.player.PlayerEvent;
+import org.bukkit.event.server.PluginDisableEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
@@ -107,6 +110,8 @@ public abstract class AbstractJavaPlugin extends JavaPlugin implements ICommandM
         PluginCommand trg = this.getCommand("triggerreactor");
         trg.setExecutor(this);
 
+        Bukkit.getPluginManager().registerEvents(new ReflectionCacheListener(), this);
+
         registerAPIs();
         initBungeeHelper();
         initMysql();
@@ -224,9 +229,21 @@ public abstract class AbstractJavaPlugin extends JavaPlugin implements ICommandM
                 .append(() -> Bukkit.getPluginManager().callEvent(new TriggerReactorStopEvent()))
                 .append(() -> bungeeConnectionThread.interrupt())
                 .append(() -> core.onCoreDisable(this))
+                .append(ReflectionCache::clear)
                 .run(Throwable::printStackTrace);
     }
 
+    /**
+     * The classes of other plugins may be cached while running the scripts. Drop them when the plugin is
+     * disabled, so the class loader of the plugin can be unloaded.
+     */
+    private static class ReflectionCacheListener implements Listener {
+        @EventHandler
+        public void onPluginDisable(PluginDisableEvent e) {
+            ReflectionCache.invalidate(e.getPlugin().getClass().getClassLoader());
+        }
+    }
+
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
         if (sender instanceof Player) {
@@ -189,6 +189,7 @@ public class BukkitTriggerReactorCore extends TriggerReactorCore implements Plug
         return bukkit.getBungeeHelper();
     }
 
+    @Override
     public Lag getTpsHelper() {
         return tpsHelper;
     }
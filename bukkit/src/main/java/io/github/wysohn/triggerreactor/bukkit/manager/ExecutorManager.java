@@ -16,6 +16,7 @@
  *******************************************************************************/
 package io.github.wysohn.triggerreactor.bukkit.manager;
 
+import io.github.wysohn.triggerreactor.bukkit.manager.builtin.BuiltinExecutors;
 import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
 import io.github.wysohn.triggerreactor.core.manager.AbstractExecutorManager;
 import io.github.wysohn.triggerreactor.core.script.interpreter.Executor;
@@ -46,6 +47,9 @@ public class ExecutorManager extends AbstractExecutorManager implements BukkitSc
 
         this.executorFolder = new File(plugin.getDataFolder(), "Executor");
 
+        for (Executor executor : BuiltinExecutors.getAll())
+            registerNativeExecutor(executor);
+
         reload();
     }
 
@@ -58,19 +62,10 @@ public class ExecutorManager extends AbstractExecutorManager implements BukkitSc
             }
         };
 
-        jsExecutors.clear();
-        for (File file : executorFolder.listFiles(filter)) {
-            try {
-                reloadExecutors(file, filter);
-            } catch (ScriptException | IOException e) {
-                e.printStackTrace();
-                plugin.getLogger().warning("Could not load executor " + file.getName());
-                continue;
-            }
-        }
+        Map<String, Executor> executors = loadExecutors(executorFolder, filter);
 
         //manually add CMDOP after reload is done
-        this.jsExecutors.put("CMDOP", new Executor() {
+        executors.put("CMDOP", new Executor() {
 
             @Override
             protected Integer execute(Timings.Timing timing, boolean sync, Map<String, Object> variables, Object e,
@@ -95,6 +90,8 @@ public class ExecutorManager extends AbstractExecutorManager implements BukkitSc
             }
 
         });
+
+        publishExecutors(executors);
     }
 
 
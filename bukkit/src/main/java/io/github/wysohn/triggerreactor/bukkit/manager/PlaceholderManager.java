@@ -16,8 +16,10 @@
  *******************************************************************************/
 package io.github.wysohn.triggerreactor.bukkit.manager;
 
+import io.github.wysohn.triggerreactor.bukkit.manager.builtin.BuiltinPlaceholders;
 import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
 import io.github.wysohn.triggerreactor.core.manager.AbstractPlaceholderManager;
+import io.github.wysohn.triggerreactor.core.script.interpreter.Placeholder;
 import io.github.wysohn.triggerreactor.tools.JarUtil;
 import io.github.wysohn.triggerreactor.tools.JarUtil.CopyOption;
 
@@ -38,6 +40,9 @@ public class PlaceholderManager extends AbstractPlaceholderManager implements Bu
 
         this.placeholderFolder = new File(plugin.getDataFolder(), "Placeholder");
 
+        for (Placeholder placeholder : BuiltinPlaceholders.getAll())
+            registerNativePlaceholder(placeholder);
+
         reload();
     }
 
@@ -50,16 +55,7 @@ public class PlaceholderManager extends AbstractPlaceholderManager implements Bu
             }
         };
 
-        jsPlaceholders.clear();
-        for (File file : placeholderFolder.listFiles(filter)) {
-            try {
-                reloadPlaceholders(file, filter);
-            } catch (ScriptException | IOException e) {
-                e.printStackTrace();
-                plugin.getLogger().warning("Could not load placeholder " + file.getName());
-                continue;
-            }
-        }
+        publishPlaceholders(loadPlaceholders(placeholderFolder, filter));
     }
 
     @Override
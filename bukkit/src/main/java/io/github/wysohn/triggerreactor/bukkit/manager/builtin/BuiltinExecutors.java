@@ -0,0 +1,191 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.bukkit.manager.builtin;
+
+import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import io.github.wysohn.triggerreactor.core.script.interpreter.Executor;
+import io.github.wysohn.triggerreactor.core.script.interpreter.NativeInfo;
+import io.github.wysohn.triggerreactor.tools.timings.Timings;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.Location;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.potion.PotionEffectType;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * Java versions of the most frequently used Executors. They behave the same as the .js files of the same
+ * name, which can still be used by modifying the .js file in the Executor folder.
+ */
+public class BuiltinExecutors {
+    public static Executor[] getAll() {
+        return new Executor[]{
+                new MessageExecutor(),
+                new TpExecutor(),
+                new SoundExecutor(),
+                new PotionExecutor(),
+        };
+    }
+
+    static double toDouble(Object value) {
+        if (value instanceof Number)
+            return ((Number) value).doubleValue();
+        return Double.parseDouble(String.valueOf(value));
+    }
+
+    @NativeInfo(name = "MESSAGE")
+    public static class MessageExecutor extends Executor {
+        private static Method setPlaceholders = null;
+
+        @Override
+        protected Integer execute(Timings.Timing timing, boolean sync, Map<String, Object> vars, Object context,
+                                  Object... args) throws Exception {
+            CommandSender player = (CommandSender) vars.get("player");
+            boolean placeholderAPI = Bukkit.getPluginManager().isPluginEnabled("PlaceholderAPI");
+
+            for (int i = 0; i < args.length; i++) {
+                String text = String.valueOf(args[i]);
+                if (placeholderAPI && player instanceof Player) {
+                    text = (String) getSetPlaceholders().invoke(null, player, text);
+                } else {
+                    text = ChatColor.translateAlternateColorCodes('&', text);
+                }
+
+                player.sendMessage(text);
+            }
+            return null;
+        }
+
+        private static Method getSetPlaceholders() throws ReflectiveOperationException {
+            if (setPlaceholders == null) {
+                Class<?> clazz = Class.forName("me.clip.placeholderapi.PlaceholderAPI");
+                try {
+                    setPlaceholders = clazz.getMethod("setPlaceholders", Player.class, String.class);
+                } catch (NoSuchMethodException ex) {
+                    setPlaceholders = clazz.getMethod("setPlaceholders", OfflinePlayer.class, String.class);
+                }
+            }
+            return setPlaceholders;
+        }
+    }
+
+    @NativeInfo(name = "TP")
+    public static class TpExecutor extends Executor {
+        @Override
+        protected Integer execute(Timings.Timing timing, boolean sync, Map<String, Object> vars, Object context,
+                                  Object... args) throws Exception {
+            Entity player = (Entity) vars.get("player");
+
+            switch (args.length) {
+                case 1:
+                    if (args[0] instanceof Entity)
+                        player.teleport((Entity) args[0]);
+                    else
+                        player.teleport((Location) args[0]);
+                    return null;
+                case 3:
+                    player.teleport(new Location(player.getWorld(),
+                            toDouble(args[0]), toDouble(args[1]), toDouble(args[2])));
+                    return null;
+                case 4:
+                    Player target = Bukkit.getPlayer(String.valueOf(args[3]));
+                    target.teleport(new Location(player.getWorld(),
+                            toDouble(args[0]), toDouble(args[1]), toDouble(args[2])));
+                    return null;
+                case 5:
+                    player.teleport(new Location(player.getWorld(),
+                            toDouble(args[0]), toDouble(args[1]), toDouble(args[2]),
+                            (float) toDouble(args[3]), (float) toDouble(args[4])));
+                    return null;
+                default:
+                    TriggerReactorCore.getInstance().getLogger().warning("Teleport Cancelled. Invalid arguments");
+                    return Executor.STOP;
+            }
+        }
+    }
+
+    @NativeInfo(name = "SOUND", minArgs = 4, maxArgs = 4)
+    public static class SoundExecutor extends Executor {
+        @Override
+        protected Integer execute(Timings.Timing timing, boolean sync, Map<String, Object> vars, Object context,
+                                  Object... args) throws Exception {
+            Player player = (Player) vars.get("player");
+
+            Location location = (Location) args[0];
+            float volume = (float) toDouble(args[2]);
+            float pitch = (float) toDouble(args[3]);
+
+            org.bukkit.Sound sound = null;
+            if (args[1] instanceof org.bukkit.Sound) {
+                sound = (org.bukkit.Sound) args[1];
+            } else {
+                try {
+                    sound = org.bukkit.Sound.valueOf(String.valueOf(args[1]));
+                } catch (IllegalArgumentException ex) {
+                    // custom sound of resource pack
+                }
+            }
+
+            if (sound != null)
+                player.playSound(location, sound, volume, pitch);
+            else
+                player.playSound(location, String.valueOf(args[1]), volume, pitch);
+            return null;
+        }
+    }
+
+    @NativeInfo(name = "POTION", minArgs = 2)
+    public static class PotionExecutor extends Executor {
+        @Override
+        protected Integer execute(Timings.Timing timing, boolean sync, Map<String, Object> vars, Object context,
+                                  Object... args) throws Exception {
+            LivingEntity player = (LivingEntity) vars.get("player");
+            if (player == null)
+                return null;
+
+            if (!(args[0] instanceof String))
+                throw new IllegalArgumentException("Invalid parameters. First parameter wasn't a String");
+
+            String typeName = ((String) args[0]).toUpperCase();
+            PotionEffectType type = PotionEffectType.getByName(typeName);
+            if (type == null)
+                throw new IllegalArgumentException("Invalid PotionEffectType named " + typeName);
+
+            if (!(args[1] instanceof Number))
+                throw new IllegalArgumentException("Second parameter should be a number.");
+
+            int level = 1;
+            if (args.length > 2) {
+                if (!(args[2] instanceof Number))
+                    throw new IllegalArgumentException("Third parameter should be a number");
+                else
+                    level = ((Number) args[2]).intValue();
+            }
+
+            PotionEffect effect = new PotionEffect(type, ((Number) args[1]).intValue(), level - 1);
+            player.addPotionEffect(effect);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.bukkit.manager.builtin;
+
+import io.github.wysohn.triggerreactor.core.script.interpreter.NativeInfo;
+import io.github.wysohn.triggerreactor.core.script.interpreter.Placeholder;
+import io.github.wysohn.triggerreactor.core.script.interpreter.ThreadAffinity;
+import io.github.wysohn.triggerreactor.tools.timings.Timings;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+import org.bukkit.permissions.Permissible;
+
+import java.util.Map;
+
+/**
+ * Java versions of the most frequently used Placeholders. They behave the same as the .js files of the same
+ * name, which can still be used by modifying the .js file in the Placeholder folder.
+ */
+public class BuiltinPlaceholders {
+    public static Placeholder[] getAll() {
+        return new Placeholder[]{
+                new PlayerNamePlaceholder(),
+                new XPlaceholder(),
+                new YPlaceholder(),
+                new ZPlaceholder(),
+                new HasPermissionPlaceholder(),
+        };
+    }
+
+    @NativeInfo(name = "playername", affinity = ThreadAffinity.ANY_THREAD)
+    public static class PlayerNamePlaceholder extends Placeholder {
+        @Override
+        public Object parse(Timings.Timing timing, Object context, Map<String, Object> vars,
+                            Object... args) throws Exception {
+            CommandSender player = (CommandSender) vars.get("player");
+            if (player == null)
+                return null;
+
+            return player.getName();
+        }
+    }
+
+    @NativeInfo(name = "x")
+    public static class XPlaceholder extends Placeholder {
+        @Override
+        public Object parse(Timings.Timing timing, Object context, Map<String, Object> vars,
+                            Object... args) throws Exception {
+            Entity player = (Entity) vars.get("player");
+            if (player == null)
+                return null;
+
+            return player.getLocation().getBlockX();
+        }
+    }
+
+    @NativeInfo(name = "y")
+    public static class YPlaceholder extends Placeholder {
+        @Override
+        public Object parse(Timings.Timing timing, Object context, Map<String, Object> vars,
+                            Object... args) throws Exception {
+            Entity player = (Entity) vars.get("player");
+            if (player == null)
+                return null;
+
+            return player.getLocation().getBlockY();
+        }
+    }
+
+    @NativeInfo(name = "z")
+    public static class ZPlaceholder extends Placeholder {
+        @Override
+        public Object parse(Timings.Timing timing, Object context, Map<String, Object> vars,
+                            Object... args) throws Exception {
+            Entity player = (Entity) vars.get("player");
+            if (player == null)
+                return null;
+
+            return player.getLocation().getBlockZ();
+        }
+    }
+
+    @NativeInfo(name = "haspermission")
+    public static class HasPermissionPlaceholder extends Placeholder {
+        @Override
+        public Object parse(Timings.Timing timing, Object context, Map<String, Object> vars,
+                            Object... args) throws Exception {
+            Permissible player = (Permissible) vars.get("player");
+            if (player == null)
+                return null;
+
+            if (args.length != 1)
+                return null;
+
+            if (!(args[0] instanceof String))
+                return null;
+
+            return player.hasPermission((String) args[0]);
+        }
+    }
+}
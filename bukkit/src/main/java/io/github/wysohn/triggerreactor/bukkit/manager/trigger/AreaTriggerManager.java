@@ -146,25 +146,29 @@ public class AreaTriggerManager extends AbstractAreaTriggerManager implements Bu
     }
 
     @Override
-    public void reload() {
-        super.reload();
+    public Runnable prepareReload() {
+        Runnable publish = super.prepareReload();
 
-        //re-register entities
-        for (World w : Bukkit.getWorlds()) {
-            for (Entity e : w.getEntities()) {
-                UUID uuid = e.getUniqueId();
+        return () -> {
+            publish.run();
 
-                if (e.isDead() || !e.isValid())
-                    continue;
+            //re-register entities
+            for (World w : Bukkit.getWorlds()) {
+                for (Entity e : w.getEntities()) {
+                    UUID uuid = e.getUniqueId();
 
-                SimpleLocation previous = null;
-                SimpleLocation current = LocationUtil.convertToSimpleLocation(e.getLocation());
+                    if (e.isDead() || !e.isValid())
+                        continue;
 
-                entityLocationMap.put(uuid, current);
-                entityTrackMap.put(uuid, new WeakReference<IEntity>(new BukkitEntity(e)));
-                onEntityBlockMoveAsync(e, previous, current);
+                    SimpleLocation previous = null;
+                    SimpleLocation current = LocationUtil.convertToSimpleLocation(e.getLocation());
+
+                    entityLocationMap.put(uuid, current);
+                    entityTrackMap.put(uuid, new WeakReference<IEntity>(new BukkitEntity(e)));
+                    onEntityBlockMoveAsync(e, previous, current);
+                }
             }
-        }
+        };
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
@@ -35,7 +35,6 @@ import org.bukkit.plugin.IllegalPluginAccessException;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
-import java.util.Map.Entry;
 
 public class CustomTriggerManager extends AbstractCustomTriggerManager implements BukkitTriggerManager {
     static final Map<String, Class<? extends Event>> EVENTS = new TreeMap<String, Class<? extends Event>>(String.CASE_INSENSITIVE_ORDER);
@@ -95,15 +94,6 @@ public class CustomTriggerManager extends AbstractCustomTriggerManager implement
         }
     }
 
-    @Override
-    public void reload() {
-        for (Entry<EventHook, Listener> entry : registeredListerners.entrySet()) {
-            HandlerList.unregisterAll(entry.getValue());
-        }
-        registeredListerners.clear();
-        super.reload();
-    }
-
     private static final String basePackageName = "org.bukkit.event";
 
     public Collection<String> getAbbreviations() {
@@ -134,6 +124,7 @@ public class CustomTriggerManager extends AbstractCustomTriggerManager implement
 
     @Override
     protected void registerEvent(TriggerReactorCore plugin, Class<?> clazz, EventHook eventHook) {
+        // one listener per event class; the eventHook dispatches to all the triggers of the event
         Listener listener = new Listener() {
         };
         try {
@@ -148,7 +139,7 @@ public class CustomTriggerManager extends AbstractCustomTriggerManager implement
         } catch (IllegalPluginAccessException e) {
             //event with no handler list will throw this exception
             //which means it's a base event
-            if (!BASEEVENTS.contains(BASEEVENTS))
+            if (!BASEEVENTS.contains(clazz))
                 BASEEVENTS.add((Class<? extends Event>) clazz);
         }
     }
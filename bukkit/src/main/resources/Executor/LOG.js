@@ -14,6 +14,7 @@
  *     You should have received a copy of the GNU General Public License
  *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
  *******************************************************************************/
+threadAffinity = "ANY_THREAD"
 function LOG(args){
     for(var i = 0; i < args.length ; i++)
         print(args[i]);
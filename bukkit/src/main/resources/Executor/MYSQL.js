@@ -14,6 +14,7 @@
  *     You should have received a copy of the GNU General Public License
  *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
  *******************************************************************************/
+threadAffinity = "ASYNC_PREFERRED"
 function MYSQL(args){
 	if(args.length < 2)
 		throw new Error("Invalid parameters. Need [String, Any]");
@@ -0,0 +1,150 @@
+package js;
+
+import io.github.wysohn.triggerreactor.core.manager.AbstractExecutorManager.JSExecutor;
+import io.github.wysohn.triggerreactor.core.manager.AbstractPlaceholderManager.JSPlaceholder;
+import io.github.wysohn.triggerreactor.core.manager.IScriptEngineInitializer;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares the time and the heap needed to load all the bundled Executors and Placeholders with a new engine
+ * for each file (the previous way) and with the shared engines of {@link IScriptEngineInitializer#getNashornEngine(ScriptEngineManager)}.
+ * The heap is measured right after loading, after the main thread evaluated every script, and after an async
+ * thread did the same, since each thread using a script gets its own global of the script.
+ * <p>
+ * Not a unit test. Run the main method from the test classpath of bukkit/legacy or bukkit/latest. Each way is
+ * measured in a separate JVM, so neither of them benefits from the classes loaded by the other.
+ */
+public class EngineStartupBenchmark {
+    private static final String LEGACY = "legacy";
+    private static final String POOLED = "pooled";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0) {
+            measure(args[0]);
+            return;
+        }
+
+        System.out.println(String.format("%-8s %8s %12s %10s %10s %10s", "mode", "scripts", "time", "loaded",
+                "+main", "+async"));
+        fork(LEGACY);
+        fork(POOLED);
+    }
+
+    private static void fork(String mode) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-Xmx1g", "-cp", System.getProperty("java.class.path"),
+                EngineStartupBenchmark.class.getName(), mode)
+                .redirectErrorStream(true)
+                .start();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null)
+                System.out.println(line);
+        }
+        process.waitFor();
+    }
+
+    private static void measure(String mode) throws Exception {
+        File[] executors = listScripts("Executor");
+        File[] placeholders = listScripts("Placeholder");
+
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+
+        ScriptEngineManager sem = new ScriptEngineManager(null);
+        List<Object> loaded = new ArrayList<>();
+        for (File file : executors)
+            loaded.add(new JSExecutor(nameOf(file), engine(mode, sem), file));
+        for (File file : placeholders)
+            loaded.add(new JSPlaceholder(nameOf(file), engine(mode, sem), file));
+
+        long elapsed = System.nanoTime() - start;
+        long heapLoaded = usedHeap();
+
+        // the global of each script is created on the first use in each thread, so compare after both
+        // the main thread and an async thread have used every script
+        for (Object script : loaded)
+            threadAffinity(script);
+        long heapMain = usedHeap();
+
+        List<Object> asyncScopes = new ArrayList<>();
+        Thread async = new Thread(() -> {
+            for (Object script : loaded)
+                asyncScopes.add(bind(script));
+        });
+        async.start();
+        async.join();
+        long heapAsync = usedHeap();
+
+        System.out.println(String.format("%-8s %8d %9.1f ms %7.1f MB %7.1f MB %7.1f MB", mode, loaded.size(),
+                elapsed / 1_000_000.0, megabytes(heapLoaded - heapBefore), megabytes(heapMain - heapBefore),
+                megabytes(heapAsync - heapBefore)));
+        if (asyncScopes.size() != loaded.size())
+            throw new IllegalStateException("Not all the scripts were bound in the async thread.");
+    }
+
+    private static Object threadAffinity(Object script) {
+        if (script instanceof JSExecutor)
+            return ((JSExecutor) script).getThreadAffinity();
+        else
+            return ((JSPlaceholder) script).getThreadAffinity();
+    }
+
+    /**
+     * Same as the first call of the script in a thread other than the one which evaluated it first.
+     */
+    private static Object bind(Object script) {
+        try {
+            Method bind = script.getClass().getDeclaredMethod("bind");
+            bind.setAccessible(true);
+            return bind.invoke(script);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static double megabytes(long bytes) {
+        return bytes / 1024.0 / 1024.0;
+    }
+
+    private static ScriptEngine engine(String mode, ScriptEngineManager sem) {
+        if (LEGACY.equals(mode))
+            return sem.getEngineByName("nashorn");
+        else
+            return IScriptEngineInitializer.getNashornEngine(sem);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static String nameOf(File file) {
+        return file.getName().substring(0, file.getName().indexOf('.'));
+    }
+
+    private static File[] listScripts(String folder) throws Exception {
+        URL url = Thread.currentThread().getContextClassLoader().getResource(folder);
+        if (url == null)
+            throw new IllegalStateException(folder + " folder is not in the classpath.");
+
+        File[] files = new File(url.toURI()).listFiles((dir, name) -> name.endsWith(".js"));
+        if (files == null)
+            return new File[0];
+        Arrays.sort(files);
+        return files;
+    }
+}
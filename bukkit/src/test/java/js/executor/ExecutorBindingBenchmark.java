@@ -0,0 +1,172 @@
+package js.executor;
+
+import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import io.github.wysohn.triggerreactor.core.manager.AbstractExecutorManager.JSExecutor;
+import io.github.wysohn.triggerreactor.core.script.validation.ValidationResult;
+import io.github.wysohn.triggerreactor.core.script.validation.Validator;
+import io.github.wysohn.triggerreactor.tools.timings.Timings;
+import jdk.nashorn.api.scripting.JSObject;
+import org.mockito.Mockito;
+
+import javax.script.*;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.util.*;
+
+/**
+ * Compares the cost of calling each bundled Executor with the previous way (new global scope and
+ * evaluation of the whole script for every call) and with the pre-bound function of {@link JSExecutor}.
+ * <p>
+ * Not a unit test. Run the main method from the test classpath of bukkit/legacy or bukkit/latest, optionally
+ * with the Executor folder and the number of iterations as the arguments.
+ */
+public class ExecutorBindingBenchmark {
+    private static final int WARMUP = 200;
+
+    public static void main(String[] args) throws Exception {
+        File folder = args.length > 0 ? new File(args[0]) : findExecutorFolder();
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        TriggerReactorCore mockMain = Mockito.mock(TriggerReactorCore.class);
+        Mockito.when(mockMain.isServerThread()).thenReturn(true);
+        Field instance = TriggerReactorCore.class.getDeclaredField("instance");
+        instance.setAccessible(true);
+        instance.set(null, mockMain);
+
+        ScriptEngineManager sem = new ScriptEngineManager(null);
+        ScriptEngine engine = sem.getEngineByName("nashorn");
+
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("player", null);
+
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(".js"));
+        if (files == null)
+            throw new IllegalArgumentException(folder + " is not a folder.");
+        Arrays.sort(files);
+
+        // errors thrown by the executors are expected since there is no real server
+        PrintStream err = System.err;
+        System.setErr(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        }));
+
+        long beforeTotal = 0L;
+        long afterTotal = 0L;
+        StringBuilder report = new StringBuilder();
+        try {
+            for (File file : files) {
+                String name = file.getName().substring(0, file.getName().indexOf('.'));
+
+                LegacyExecutor legacy = new LegacyExecutor(name, engine, file);
+                JSExecutor executor = new JSExecutor(name, engine, file);
+
+                for (int i = 0; i < WARMUP; i++) {
+                    legacy.run(variables);
+                    run(executor, variables);
+                }
+
+                long start = System.nanoTime();
+                for (int i = 0; i < iterations; i++)
+                    legacy.run(variables);
+                long before = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int i = 0; i < iterations; i++)
+                    run(executor, variables);
+                long after = System.nanoTime() - start;
+
+                beforeTotal += before;
+                afterTotal += after;
+                report.append(String.format("%-16s %10.2f us %10.2f us %8.1fx%n", name,
+                        before / 1000.0 / iterations, after / 1000.0 / iterations, (double) before / after));
+            }
+        } finally {
+            System.setErr(err);
+        }
+
+        System.out.println(String.format("%-16s %13s %13s %9s", "executor", "before/call", "after/call", "speedup"));
+        System.out.print(report);
+        System.out.println(String.format("%-16s %10.2f us %10.2f us %8.1fx", "total",
+                beforeTotal / 1000.0 / iterations, afterTotal / 1000.0 / iterations, (double) beforeTotal / afterTotal));
+    }
+
+    private static void run(JSExecutor executor, Map<String, Object> variables) {
+        try {
+            executor.execute(Timings.LIMBO, true, variables, null);
+        } catch (Exception ex) {
+            // ignore
+        }
+    }
+
+    private static File findExecutorFolder() throws Exception {
+        URL url = Thread.currentThread().getContextClassLoader().getResource("Executor");
+        if (url == null)
+            throw new IllegalStateException("Executor folder is not in the classpath.");
+        return new File(url.toURI());
+    }
+
+    /**
+     * Same steps as the JSExecutor used to take for every call.
+     */
+    private static class LegacyExecutor {
+        private final String executorName;
+        private final ScriptEngine engine;
+        private final CompiledScript compiled;
+        private boolean firstRun = true;
+        private Validator validator;
+
+        private LegacyExecutor(String executorName, ScriptEngine engine, File file) throws Exception {
+            this.executorName = executorName;
+            this.engine = engine;
+
+            StringBuilder builder = new StringBuilder();
+            try (Scanner scanner = new Scanner(new FileInputStream(file), "UTF-8")) {
+                while (scanner.hasNextLine())
+                    builder.append(scanner.nextLine()).append('\n');
+            }
+            compiled = ((Compilable) engine).compile(builder.toString());
+        }
+
+        private void run(Map<String, Object> variables) {
+            try {
+                Bindings bindings = engine.createBindings();
+                bindings.put("event", null);
+                bindings.putAll(variables);
+
+                ScriptContext scriptContext = new SimpleScriptContext();
+                try {
+                    scriptContext.setBindings(bindings, ScriptContext.ENGINE_SCOPE);
+                    compiled.eval(scriptContext);
+                } catch (ScriptException e2) {
+                    e2.printStackTrace();
+                }
+
+                if (firstRun) {
+                    JSObject validation = (JSObject) scriptContext.getAttribute("validation");
+                    if (validation != null)
+                        validator = Validator.from(validation);
+                    firstRun = false;
+                }
+
+                if (validator != null) {
+                    ValidationResult result = validator.validate();
+                    if (result.getOverload() == -1)
+                        return;
+                    scriptContext.setAttribute("overload", result.getOverload(), ScriptContext.ENGINE_SCOPE);
+                }
+
+                JSObject jsObject = (JSObject) scriptContext.getAttribute(executorName);
+                if (jsObject != null)
+                    jsObject.call(null, (Object) new Object[0]);
+            } catch (Exception ex) {
+                // ignore
+            }
+        }
+    }
+}
@@ -12,6 +12,7 @@ import io.github.wysohn.triggerreactor.core.config.serialize.UUIDSerializer;
 import io.github.wysohn.triggerreactor.core.manager.location.SimpleChunkLocation;
 import io.github.wysohn.triggerreactor.core.manager.location.SimpleLocation;
 import io.github.wysohn.triggerreactor.tools.ValidationUtil;
+import io.github.wysohn.triggerreactor.tools.jfr.JfrEvents;
 
 import java.io.*;
 import java.lang.reflect.Array;
@@ -20,6 +21,7 @@ import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 public class GsonConfigSource implements IConfigSource {
@@ -62,6 +64,8 @@ public class GsonConfigSource implements IConfigSource {
 
     private final ITypeValidator typeValidator;
 
+    private final AtomicLong flushes = new AtomicLong();
+
     GsonConfigSource(File file) {
         this(file, f -> {
             try {
@@ -157,6 +161,8 @@ public class GsonConfigSource implements IConfigSource {
      * Blocking operation
      */
     private void cacheToFile() {
+        flushes.incrementAndGet();
+        Object event = JfrEvents.beginConfigFlush();
         try (Writer fw = this.writerFactory.apply(file)) {
             synchronized (cache) {
                 String ser = gson.toJson(cache);
@@ -164,6 +170,8 @@ public class GsonConfigSource implements IConfigSource {
             }
         } catch (Exception e) {
             e.printStackTrace();
+        } finally {
+            JfrEvents.commitConfigFlush(event, file.getPath());
         }
     }
 
@@ -262,6 +270,13 @@ public class GsonConfigSource implements IConfigSource {
         }
     }
 
+    /**
+     * @return number of times the cache was written to the file
+     */
+    public long getFlushCount() {
+        return flushes.get();
+    }
+
     /**
      * Shutdown the saving tasks. Blocks the thread until the scheduled tasks are done.
      */
@@ -44,20 +44,33 @@ import io.github.wysohn.triggerreactor.core.manager.trigger.repeating.RepeatingT
 import io.github.wysohn.triggerreactor.core.manager.trigger.share.api.AbstractAPISupport;
 import io.github.wysohn.triggerreactor.core.script.interpreter.Interpreter;
 import io.github.wysohn.triggerreactor.core.script.interpreter.Interpreter.ProcessInterrupter;
+import io.github.wysohn.triggerreactor.core.script.interpreter.ScriptProfiler;
 import io.github.wysohn.triggerreactor.core.script.interpreter.TaskSupervisor;
 import io.github.wysohn.triggerreactor.core.script.wrapper.SelfReference;
+import io.github.wysohn.triggerreactor.tools.GeneratedInvokers;
+import io.github.wysohn.triggerreactor.tools.Lag;
 import io.github.wysohn.triggerreactor.tools.ScriptEditor.SaveHandler;
 import io.github.wysohn.triggerreactor.tools.TimeUtil;
+import io.github.wysohn.triggerreactor.tools.metrics.Gauge;
+import io.github.wysohn.triggerreactor.tools.metrics.Metrics;
 import io.github.wysohn.triggerreactor.tools.stream.SenderOutputStream;
+import io.github.wysohn.triggerreactor.tools.timings.FlightRecorder;
+import io.github.wysohn.triggerreactor.tools.timings.ResourceAccounting;
 import io.github.wysohn.triggerreactor.tools.timings.Timings;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
 
@@ -73,7 +86,14 @@ public abstract class TriggerReactorCore implements TaskSupervisor {
     protected Map<String, AbstractAPISupport> sharedVars = new HashMap<>();
     private PluginConfigManager pluginConfigManager;
     private GlobalVariableManager globalVariableManager;
+    private TriggerFileWatchManager triggerFileWatchManager;
+    private ReflectionManager reflectionManager;
+    private MetricsManager metricsManager;
+    private StallWatchdogManager stallWatchdogManager;
+    private ResourceAccountingManager resourceAccountingManager;
+    private LoadSheddingManager loadSheddingManager;
     private boolean debugging = false;
+    private final AtomicBoolean reloading = new AtomicBoolean(false);
     protected TriggerReactorCore() {
         instance = this;
     }
@@ -122,9 +142,39 @@ public abstract class TriggerReactorCore implements TaskSupervisor {
         return globalVariableManager;
     }
 
+    public final TriggerFileWatchManager getTriggerFileWatchManager() {
+        return triggerFileWatchManager;
+    }
+
+    public final ReflectionManager getReflectionManager() {
+        return reflectionManager;
+    }
+
+    public final MetricsManager getMetricsManager() {
+        return metricsManager;
+    }
+
+    public final StallWatchdogManager getStallWatchdogManager() {
+        return stallWatchdogManager;
+    }
+
+    public final ResourceAccountingManager getResourceAccountingManager() {
+        return resourceAccountingManager;
+    }
+
+    public final LoadSheddingManager getLoadSheddingManager() {
+        return loadSheddingManager;
+    }
+
     public void onCoreEnable() {
         pluginConfigManager = new PluginConfigManager(this);
         globalVariableManager = new GlobalVariableManager(this);
+        triggerFileWatchManager = new TriggerFileWatchManager(this);
+        reflectionManager = new ReflectionManager(this);
+        metricsManager = new MetricsManager(this);
+        stallWatchdogManager = new StallWatchdogManager(this);
+        resourceAccountingManager = new ResourceAccountingManager(this);
+        loadSheddingManager = new LoadSheddingManager(this);
     }
 
     public void onCoreDisable() {
@@ -219,6 +269,23 @@ public abstract class TriggerReactorCore implements TaskSupervisor {
         return debugging;
     }
 
+    /**
+     * Mark that the Triggers are being reloaded. Only one reload can be in progress at a time, or the one
+     * finished last would publish the Triggers it loaded, which may be older than the other one's.
+     *
+     * @return true if marked; false if another reload is already in progress.
+     */
+    public boolean beginReload() {
+        return reloading.compareAndSet(false, true);
+    }
+
+    /**
+     * Mark that the reload started with {@link #beginReload()} is finished, including the publishing.
+     */
+    public void endReload() {
+        reloading.set(false);
+    }
+
     /**
      * Show glowstones to indicate the walk/click triggers in the chunk. This should send block change packet
      * instead of changing the real block.
@@ -485,13 +552,20 @@ public abstract class TriggerReactorCore implements TaskSupervisor {
 
             };
         } else {
-            return callSyncMethod(call);
+            return callSyncMethod(Metrics.syncHop(call));
         }
     }
 
     @Override
     public void submitAsync(Runnable run) {
-        new Thread(run).start();
+        new Thread(() -> {
+            runningAsyncBlocks.incrementAndGet();
+            try {
+                run.run();
+            } finally {
+                runningAsyncBlocks.decrementAndGet();
+            }
+        }).start();
     }
 
     /**
@@ -508,6 +582,15 @@ public abstract class TriggerReactorCore implements TaskSupervisor {
      */
     public abstract boolean isServerThread();
 
+    /**
+     * Get the TPS measured by the platform.
+     *
+     * @return the tps helper; null if the platform doesn't measure it.
+     */
+    public Lag getTpsHelper() {
+        return null;
+    }
+
     /**
      * extract useful custom variables manually from 'context'
      *
@@ -1623,6 +1706,8 @@ public abstract class TriggerReactorCore implements TaskSupervisor {
                         }
                     } else if (args.length == 2 && args[1].equalsIgnoreCase("reset")) {
                         Timings.reset();
+                        ResourceAccounting.reset();
+                        getPlaceholderManager().getCache().resetStats();
 
                         sender.sendMessage("&aReset Complete.");
                     } else if (args.length > 1 && args[1].equalsIgnoreCase("print")) {
@@ -1650,6 +1735,30 @@ public abstract class TriggerReactorCore implements TaskSupervisor {
 
                         try {
                             Timings.printAll(os);
+                            os.write('\n');
+                            getPlaceholderManager().getCache().printStats(os);
+                            os.write('\n');
+                            ResourceAccounting.printTop(os, 5);
+                            os.write('\n');
+                            os.flush();
+                        } catch (IOException ex) {
+                            ex.printStackTrace();
+                        }
+                    } else if (args.length == 2 && args[1].equalsIgnoreCase("invokers")) {
+                        OutputStream os = new SenderOutputStream(sender);
+                        try {
+                            GeneratedInvokers.printStats(os, 10);
+                            os.write('\n');
+                            os.flush();
+                        } catch (IOException ex) {
+                            ex.printStackTrace();
+                        }
+                    } else if (args.length == 2 && args[1].equalsIgnoreCase("accounting")) {
+                        OutputStream os = new SenderOutputStream(sender);
+                        try {
+                            ResourceAccounting.printTop(os, 10);
+                            os.write('\n');
+                            os.flush();
                         } catch (IOException ex) {
                             ex.printStackTrace();
                         }
@@ -1658,7 +1767,87 @@ public abstract class TriggerReactorCore implements TaskSupervisor {
                         sendCommandDesc(sender, "/triggerreactor[trg] timings reset", "turn on/off timings analysis. Also analysis will be reset.");
                         sendCommandDesc(sender, "/triggerreactor[trg] timings print", "Show analysis result.");
                         sendCommandDesc(sender, "/triggerreactor[trg] timings print xx", "Save analysis to file named xx.timings");
+                        sendCommandDesc(sender, "/triggerreactor[trg] timings invokers", "Show the most called methods and the generated invokers.");
+                        sendCommandDesc(sender, "/triggerreactor[trg] timings accounting", "Show the triggers which allocated the most and used the most CPU time.");
+                    }
+                    return true;
+                } else if (args[0].equalsIgnoreCase("profile")) {
+                    if (args.length != 3) {
+                        sendCommandDesc(sender, "/triggerreactor[trg] profile <trigger> <seconds>", "Profile the script of the trigger line by line.");
+                        return true;
+                    }
+
+                    if (!INTEGER_PATTERN.matcher(args[2]).matches() || Integer.parseInt(args[2]) < 1) {
+                        sender.sendMessage("&c" + args[2] + " is not a valid number of seconds.");
+                        return true;
+                    }
+                    int seconds = Integer.parseInt(args[2]);
+
+                    Map<Trigger, ScriptProfiler> profilers = new LinkedHashMap<>();
+                    for (Trigger trigger : findTriggers(args[1])) {
+                        ScriptProfiler profiler = trigger.attachProfiler();
+                        if (profiler != null)
+                            profilers.put(trigger, profiler);
+                    }
+
+                    if (profilers.isEmpty()) {
+                        sender.sendMessage("&7No Trigger found with that name.");
+                        return true;
                     }
+
+                    sender.sendMessage("&7Profiling &6" + profilers.size() + "&7 trigger(s) for &6" + seconds + "&7 seconds...");
+                    CACHED_THREAD_POOL.submit(() -> {
+                        try {
+                            Thread.sleep(seconds * 1000L);
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                        }
+
+                        File folder = new File(getDataFolder(), "profiles");
+                        if (!folder.exists())
+                            folder.mkdirs();
+
+                        List<String> written = new ArrayList<>();
+                        for (Entry<Trigger, ScriptProfiler> entry : profilers.entrySet()) {
+                            entry.getKey().detachProfiler(entry.getValue());
+
+                            ScriptProfiler profiler = entry.getValue();
+                            File listing = new File(folder, profiler.getName() + ".profile");
+                            File collapsed = new File(folder, profiler.getName() + ".collapsed");
+                            try (Writer listingWriter = new OutputStreamWriter(new FileOutputStream(listing), StandardCharsets.UTF_8);
+                                 Writer collapsedWriter = new OutputStreamWriter(new FileOutputStream(collapsed), StandardCharsets.UTF_8)) {
+                                profiler.writeListing(listingWriter, 10);
+                                profiler.writeCollapsed(collapsedWriter);
+                                written.add(profiler.getName() + " (" + profiler.getExecutions() + " executions)");
+                            } catch (IOException ex) {
+                                ex.printStackTrace();
+                            }
+                        }
+
+                        runTask(() -> {
+                            sender.sendMessage("&aProfiling complete. Saved to " + folder.getPath());
+                            for (String name : written)
+                                sender.sendMessage("&7- &6" + name);
+                        });
+                    });
+                    return true;
+                } else if (args.length == 1 && args[0].equalsIgnoreCase("dump")) {
+                    File folder = new File(getDataFolder(), "dumps");
+                    File file = new File(folder, "trace-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".json");
+                    CACHED_THREAD_POOL.submit(() -> {
+                        if (!folder.exists())
+                            folder.mkdirs();
+
+                        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+                            FlightRecorder.TRIGGERS.writeTrace(writer);
+                        } catch (IOException ex) {
+                            ex.printStackTrace();
+                            runTask(() -> sender.sendMessage("&cCould not write the dump. Check console for details."));
+                            return;
+                        }
+
+                        runTask(() -> sender.sendMessage("&aSaved the recent trigger executions to " + file.getPath()));
+                    });
                     return true;
                 } else if (args[0].equalsIgnoreCase("saveall")) {
                     for (Manager manager : Manager.getManagers())
@@ -1666,13 +1855,50 @@ public abstract class TriggerReactorCore implements TaskSupervisor {
                     sender.sendMessage("Save complete!");
                     return true;
                 } else if (args[0].equalsIgnoreCase("reload")) {
-                    for (Manager manager : Manager.getManagers())
-                        manager.reload();
+                    if (!beginReload()) {
+                        sender.sendMessage("&cTriggers are being reloaded already. Try again after it's done.");
+                        return true;
+                    }
+
+                    // settings, variables, executors, etc. first since the triggers depend on them
+                    List<AbstractTriggerManager<?>> triggerManagers = new ArrayList<>();
+                    try {
+                        for (Manager manager : Manager.getManagers()) {
+                            if (manager instanceof AbstractTriggerManager)
+                                triggerManagers.add((AbstractTriggerManager<?>) manager);
+                            else
+                                manager.reload();
+                        }
+
+                        getExecutorManager().reload();
+                        getPlaceholderManager().reload();
+                    } catch (RuntimeException ex) {
+                        endReload();
+                        throw ex;
+                    }
 
-                    getExecutorManager().reload();
-                    getPlaceholderManager().reload();
+                    // load the triggers in background, and only swap them in the server thread
+                    sender.sendMessage("Reloading triggers...");
+                    CACHED_THREAD_POOL.submit(() -> {
+                        List<Runnable> publishes = new ArrayList<>();
+                        try {
+                            for (AbstractTriggerManager<?> manager : triggerManagers)
+                                publishes.add(manager.prepareReload());
+                        } catch (Exception ex) {
+                            endReload();
+                            handleException(sender, ex);
+                            return;
+                        }
 
-                    sender.sendMessage("Reload Complete!");
+                        runTask(() -> {
+                            try {
+                                publishes.forEach(Runnable::run);
+                            } finally {
+                                endReload();
+                            }
+                            sender.sendMessage("Reload Complete!");
+                        });
+                    });
                     return true;
                 } else if (args[0].equalsIgnoreCase("help")) {
                     int page = 0;
@@ -1717,13 +1943,47 @@ public abstract class TriggerReactorCore implements TaskSupervisor {
         void sendParagraph(ICommandSender sender);
     }
 
+    /**
+     * Find the Triggers which have the given name from all the Trigger managers. Area Triggers are
+     * replaced with their enter and exit Triggers, since these are the ones which have the scripts.
+     *
+     * @param name name of the Trigger
+     * @return the Triggers found. Empty if nothing found.
+     */
+    protected List<Trigger> findTriggers(String name) {
+        List<Trigger> triggers = new ArrayList<>();
+        for (Manager manager : Manager.getManagers()) {
+            if (!(manager instanceof AbstractTriggerManager<?>))
+                continue;
+
+            Trigger trigger = ((AbstractTriggerManager<?>) manager).get(name);
+            if (trigger instanceof AreaTrigger) {
+                AreaTrigger areaTrigger = (AreaTrigger) trigger;
+                if (areaTrigger.getEnterTrigger() != null)
+                    triggers.add(areaTrigger.getEnterTrigger());
+                if (areaTrigger.getExitTrigger() != null)
+                    triggers.add(areaTrigger.getExitTrigger());
+            } else if (trigger != null) {
+                triggers.add(trigger);
+            }
+        }
+        return triggers;
+    }
+
+    private static final AtomicInteger runningAsyncBlocks = new AtomicInteger();
+
+    static {
+        Metrics.register(new Gauge("triggerreactor_async_blocks_running",
+                "Number of ASYNC blocks running at the moment.", runningAsyncBlocks::get));
+    }
+
     /**
      * Cached Pool for thread execution.
      */
     protected static final ExecutorService CACHED_THREAD_POOL = Executors.newCachedThreadPool(new ThreadFactory() {
         @Override
         public Thread newThread(Runnable r) {
-            return new Thread() {{
+            return new Thread(r) {{
                 this.setPriority(MIN_PRIORITY);
             }};
         }
@@ -1818,6 +2078,12 @@ public abstract class TriggerReactorCore implements TaskSupervisor {
             sender.sendMessage("&b/triggerreactor[trg] timings reset &8- &7turn on/off timings analysis. Also analysis will be reset.");
             sender.sendMessage("&b/triggerreactor[trg] timings print &8- &7Show analysis result.");
             sender.sendMessage("  &b/triggerreactor[trg] timings print xx &8- &7Save analysis to file named xx.timings");
+            sender.sendMessage("&b/triggerreactor[trg] timings invokers &8- &7Show the most called methods and the generated invokers.");
+            sender.sendMessage("&b/triggerreactor[trg] timings accounting &8- &7Show the triggers which allocated the most and used the most CPU time.");
+            sender.sendMessage("&b/triggerreactor[trg] profile <trigger> <seconds> &8- &7Profile the script of the trigger line by line.");
+            sender.sendMessage("  &7Saves the annotated script and the stacks for the flame graph tools in the profiles folder.");
+            sender.sendMessage("&b/triggerreactor[trg] dump &8- &7Save the recent trigger executions in the dumps folder.");
+            sender.sendMessage("  &7The file can be opened with chrome://tracing or Perfetto.");
         }));
     }};
     private static final Pattern INTEGER_PATTERN = Pattern.compile("^[0-9]+$");
@@ -1862,8 +2128,8 @@ public abstract class TriggerReactorCore implements TaskSupervisor {
 
         switch (args.length) {
             case 1:
-                return filter(Arrays.asList("area", "click", "cmd", "command", "custom", "del", "delete", "help", "inventory", "item", "list",
-                        "reload", "repeat", "run", "call", "saveall", "search", "sudo", "synccustom", "timings", "variables", "version", "walk"), args[0]);
+                return filter(Arrays.asList("area", "click", "cmd", "command", "custom", "del", "delete", "dump", "help", "inventory", "item", "list",
+                        "profile", "reload", "repeat", "run", "call", "saveall", "search", "sudo", "synccustom", "timings", "variables", "version", "walk"), args[0]);
             case 2:
                 switch (args[0].toLowerCase()) {
                     case "area":
@@ -1894,7 +2160,7 @@ public abstract class TriggerReactorCore implements TaskSupervisor {
                     case "synccustom":
                         return filter(triggerNames(getInstance().getCustomManager()), args[1]);
                     case "timings":
-                        return filter(Arrays.asList("print", "toggle", "reset"), args[1]);
+                        return filter(Arrays.asList("print", "toggle", "reset", "invokers", "accounting"), args[1]);
                     case "call":
                         return filter(triggerNames(getInstance().getNamedTriggerManager()), args[1]);
                 }
@@ -18,9 +18,13 @@ package io.github.wysohn.triggerreactor.core.manager;
 
 import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
 import io.github.wysohn.triggerreactor.core.script.interpreter.Executor;
+import io.github.wysohn.triggerreactor.core.script.interpreter.NativeExecutor;
+import io.github.wysohn.triggerreactor.core.script.interpreter.NativeInfo;
+import io.github.wysohn.triggerreactor.core.script.interpreter.ThreadAffinity;
 import io.github.wysohn.triggerreactor.core.script.validation.ValidationException;
 import io.github.wysohn.triggerreactor.core.script.validation.ValidationResult;
 import io.github.wysohn.triggerreactor.core.script.validation.Validator;
+import io.github.wysohn.triggerreactor.tools.SwappableMap;
 import io.github.wysohn.triggerreactor.tools.timings.Timings;
 import jdk.nashorn.api.scripting.JSObject;
 
@@ -29,51 +33,71 @@ import java.io.*;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 public abstract class AbstractExecutorManager extends AbstractJavascriptBasedManager implements KeyValueManager<Executor> {
-    protected Map<String, Executor> jsExecutors = new HashMap<>();
+    protected final SwappableMap<String, Executor> jsExecutors = new SwappableMap<>();
+    protected final Map<String, Executor> nativeExecutors = new HashMap<>();
 
     public AbstractExecutorManager(TriggerReactorCore plugin) throws ScriptException {
         super(plugin);
+
+        registerNativeExecutor(new PlaceholderCache.ClearExecutor(plugin));
+    }
+
+    /**
+     * Register an Executor implemented in Java. It will be available from the next reload, unless the user
+     * provides a .js file with the same name.
+     *
+     * @param executor the Executor annotated with {@link NativeInfo}
+     * @throws IllegalArgumentException if the Executor is not annotated with {@link NativeInfo}
+     */
+    public void registerNativeExecutor(Executor executor) {
+        NativeExecutor nativeExecutor = new NativeExecutor(executor);
+        nativeExecutors.put(nativeExecutor.getInfo().name(), nativeExecutor);
     }
 
     /**
      * Loads all the Executor files and files under the folders. If Executors are inside the folder, the folder
      * name will be added infront of them. For example, an Executor named test is under folder named hi, then
      * its name will be hi:test; therefore, you should #hi:test to call this executor.
+     * <p>
+     * The files are compiled in parallel, and nothing is changed until {@link #publishExecutors(Map)} is called.
      *
-     * @param file   the target file/folder
+     * @param folder the Executor folder
      * @param filter the filter for Executors. Usually you check if the file ends withd .js or is a folder.
-     * @throws ScriptException
-     * @throws IOException
+     * @return the loaded Executors by their names
      */
-    protected void reloadExecutors(File file, FileFilter filter) throws ScriptException, IOException {
-        reloadExecutors(new Stack<String>(), file, filter);
+    protected Map<String, Executor> loadExecutors(File folder, FileFilter filter) {
+        List<ScriptFile> scripts = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (ScriptFile script : findScripts(folder, filter)) {
+            if (!overridesNative(script, nativeExecutors, "executor"))
+                continue;
+
+            if (!names.add(script.name)) {
+                plugin.getLogger().warning(script.name + " already registered! Duplicating executors?");
+                continue;
+            }
+
+            scripts.add(script);
+        }
+
+        return loadScripts(scripts, JSExecutor::new, "executor");
     }
 
-    private void reloadExecutors(Stack<String> name, File file, FileFilter filter) throws ScriptException, IOException {
-        if (file.isDirectory()) {
-            name.push(file.getName());
-            for (File f : file.listFiles(filter)) {
-                reloadExecutors(name, f, filter);
-            }
-            name.pop();
-        } else {
-            StringBuilder builder = new StringBuilder();
-            for (int i = name.size() - 1; i >= 0; i--) {
-                builder.append(name.get(i) + ":");
-            }
-            String fileName = file.getName();
-            fileName = fileName.substring(0, fileName.indexOf("."));
-            builder.append(fileName);
-
-            if (jsExecutors.containsKey(builder.toString())) {
-                plugin.getLogger().warning(builder.toString() + " already registered! Duplicating executors?");
-            } else {
-                JSExecutor exec = new JSExecutor(fileName, IScriptEngineInitializer.getNashornEngine(sem), file);
-                jsExecutors.put(builder.toString(), exec);
-            }
+    /**
+     * Replace all the Executors at once with the loaded ones, along with the native Executors that are not
+     * overridden by the .js files. Triggers running at the moment keep using the Executors they started with.
+     *
+     * @param executors the Executors from {@link #loadExecutors(File, FileFilter)}, and any other Executors to add
+     */
+    protected void publishExecutors(Map<String, Executor> executors) {
+        for (Entry<String, Executor> entry : nativeExecutors.entrySet()) {
+            executors.putIfAbsent(entry.getKey(), entry.getValue());
         }
+
+        jsExecutors.swap(executors);
     }
 
     /* (non-Javadoc)
@@ -112,30 +136,41 @@ public abstract class AbstractExecutorManager extends AbstractJavascriptBasedMan
         return this.jsExecutors;
     }
 
+    /**
+     * Executor written in JavaScript.
+     * <p>
+     * The script is evaluated only once for each thread, and the resulting function is kept bound to its own
+     * global scope. Each execution only puts the variables into the scope, calls the function, and then
+     * takes the variables out again, instead of creating a new global scope and evaluating the whole
+     * script every time.
+     */
     public static class JSExecutor extends Executor {
         private final String executorName;
+        private final String displayName;
         private final String sourceCode;
 
         private ScriptEngine engine = null;
         private CompiledScript compiled = null;
-        private boolean firstRun = true;
-        private Validator validator = null;
+        private volatile boolean firstRun = true;
+        private volatile Validator validator = null;
+        private volatile ThreadAffinity affinity = ThreadAffinity.MAIN_ONLY;
+
+        private final ThreadLocal<BoundScope> boundScope = new ThreadLocal<>();
+        private final AtomicReference<BoundScope> unclaimedScope = new AtomicReference<>();
 
         public JSExecutor(String executorName, ScriptEngine engine, File file) throws ScriptException, IOException {
             this(executorName, engine, new FileInputStream(file));
         }
 
         public JSExecutor(String executorName, ScriptEngine engine, InputStream file) throws ScriptException, IOException {
+            this(executorName, engine, readSource(file));
+        }
+
+        public JSExecutor(String executorName, ScriptEngine engine, String sourceCode) throws ScriptException {
             this.executorName = executorName;
+            this.displayName = "#" + executorName;
             this.engine = engine;
-
-            StringBuilder builder = new StringBuilder();
-            InputStreamReader reader = new InputStreamReader(file);
-            int read = -1;
-            while ((read = reader.read()) != -1)
-                builder.append((char) read);
-            reader.close();
-            sourceCode = builder.toString();
+            this.sourceCode = sourceCode;
 
             Compilable compiler = (Compilable) engine;
             compiled = compiler.compile(sourceCode);
@@ -149,6 +184,29 @@ public abstract class AbstractExecutorManager extends AbstractJavascriptBasedMan
             this.validator = Validator.from(validation);
         }
 
+        private void registerThreadAffinity(ScriptContext context) {
+            Object value = context.getAttribute("threadAffinity");
+            if (value == null) {
+                return;
+            }
+
+            ThreadAffinity affinity = ThreadAffinity.parse(value);
+            if (affinity == null) {
+                TriggerReactorCore.getInstance().getLogger().warning(executorName + ".js has invalid threadAffinity "
+                        + value + ". MAIN_ONLY will be used instead.");
+                return;
+            }
+            this.affinity = affinity;
+        }
+
+        @Override
+        public ThreadAffinity getThreadAffinity() {
+            // declared in the script, so it's known only after the script is evaluated
+            if (firstRun)
+                evaluate();
+            return affinity;
+        }
+
         public ValidationResult validate(Object... args) {
             if (firstRun) {
                 throw new RuntimeException("the executor must be run at least once before using validate");
@@ -156,25 +214,25 @@ public abstract class AbstractExecutorManager extends AbstractJavascriptBasedMan
             return validator.validate(args);
         }
 
-        @Override
-        public Integer execute(Timings.Timing timing, boolean sync, Map<String, Object> variables, Object e,
-                               Object... args) throws Exception {
-            Timings.Timing time = timing.getTiming("Executors").getTiming(executorName);
-            time.setDisplayName("#" + executorName);
-
-
-            final Bindings bindings = engine.createBindings();
-
-            bindings.put("event", e);
-            for (Map.Entry<String, Object> entry : variables.entrySet()) {
-                String key = entry.getKey();
-                Object value = entry.getValue();
-                bindings.put(key, value);
-            }
+        /**
+         * Evaluate the script for the first time to read what it declares. The scope is kept for the first
+         * thread which calls the function, so the top level of the script is not run twice for that thread.
+         */
+        private synchronized void evaluate() {
+            if (firstRun)
+                unclaimedScope.set(bind());
+        }
 
+        /**
+         * Evaluate the script in a new global scope.
+         *
+         * @return the scope with the executor function bound to it.
+         */
+        private BoundScope bind() {
+            Bindings bindings = engine.createBindings();
             ScriptContext scriptContext = new SimpleScriptContext();
+            scriptContext.setBindings(bindings, ScriptContext.ENGINE_SCOPE);
             try {
-                scriptContext.setBindings(bindings, ScriptContext.ENGINE_SCOPE);
                 compiled.eval(scriptContext);
             } catch (ScriptException e2) {
                 e2.printStackTrace();
@@ -182,30 +240,51 @@ public abstract class AbstractExecutorManager extends AbstractJavascriptBasedMan
 
             if (firstRun) {
                 registerValidationInfo(scriptContext);
+                registerThreadAffinity(scriptContext);
                 firstRun = false;
             }
 
+            return new BoundScope(bindings, (JSObject) scriptContext.getAttribute(executorName));
+        }
+
+        @Override
+        public Integer execute(Timings.Timing timing, boolean sync, Map<String, Object> variables, Object e,
+                               Object... args) throws Exception {
+            Timings.Timing time = timing.getChild("Executors").getChild(executorName, displayName);
+
+            // validation info is available only after the script is evaluated at least once
+            if (firstRun)
+                evaluate();
+
+            Integer overload = null;
             if (validator != null) {
                 ValidationResult result = validator.validate(args);
-                int overload = result.getOverload();
+                overload = result.getOverload();
                 if (overload == -1) {
                     throw new ValidationException(result.getError());
                 }
-                scriptContext.setAttribute("overload", overload, ScriptContext.ENGINE_SCOPE);
             }
 
-            JSObject jsObject = (JSObject) scriptContext.getAttribute(executorName);
-            if (jsObject == null)
-                throw new Exception(executorName + ".js does not have 'function " + executorName + "()'.");
-
+            final Integer finalOverload = overload;
+            final ThreadAffinity affinity = this.affinity;
+            final boolean mainThread = sync || affinity == ThreadAffinity.MAIN_ONLY;
             Callable<Integer> call = new Callable<Integer>() {
                 @Override
                 public Integer call() throws Exception {
                     Object argObj = args;
                     Object result = null;
 
-                    try (Timings.Timing t = time.begin(true)) {
-                        result = jsObject.call(null, argObj);
+                    BoundScope scope = BoundScope.acquire(boundScope, unclaimedScope, JSExecutor.this::bind);
+                    try {
+                        if (scope.getFunction() == null)
+                            throw new Exception(executorName + ".js does not have 'function " + executorName + "()'.");
+
+                        scope.enter(e, variables, finalOverload);
+                        try (Timings.Handle t = time.begin(mainThread)) {
+                            result = scope.getFunction().call(null, argObj);
+                        }
+                    } finally {
+                        scope.exit();
                     }
 
                     if (result instanceof Integer)
@@ -215,37 +294,7 @@ public abstract class AbstractExecutorManager extends AbstractJavascriptBasedMan
                 }
             };
 
-            if (TriggerReactorCore.getInstance().isServerThread()) {
-                Integer result = null;
-
-                try {
-                    result = call.call();
-                } catch (Exception e1) {
-                    e1.printStackTrace();
-                    throw new Exception("#" + executorName + " encountered error.", e1);
-                }
-                return result;
-            } else {
-                Future<Integer> future = runSyncTaskForFuture(call);
-                if (future == null) {
-                    //probably server is shutting down
-                    if (!TriggerReactorCore.getInstance().isEnabled()) {
-                        return call.call();
-                    } else {
-                        throw new Exception("#" + executorName + " couldn't be finished. The server returned null Future.");
-                    }
-                } else {
-                    Integer result = null;
-                    try {
-                        result = future.get(5, TimeUnit.SECONDS);
-                    } catch (InterruptedException | ExecutionException e1) {
-                        throw new Exception("#" + executorName + " encountered error.", e1);
-                    } catch (TimeoutException e1) {
-                        throw new Exception("#" + executorName + " was stopped. It took longer than 5 seconds to process. Is the server lagging?", e1);
-                    }
-                    return result;
-                }
-            }
+            return callWithAffinity("#" + executorName, affinity, call);
         }
     }
 
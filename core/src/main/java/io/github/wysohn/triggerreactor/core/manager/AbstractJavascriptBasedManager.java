@@ -19,9 +19,18 @@ package io.github.wysohn.triggerreactor.core.manager;
 import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
 import io.github.wysohn.triggerreactor.core.manager.trigger.share.api.AbstractAPISupport;
 
+import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
+import java.io.*;
+import java.nio.file.Files;
+import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
@@ -82,4 +91,189 @@ public abstract class AbstractJavascriptBasedManager extends Manager implements
         initScriptEngine(sem);
     }
 
-}
\ No newline at end of file
+    /**
+     * Find all the script files under the folder. If the scripts are inside the sub folders, the folder
+     * names will be added in front of them. For example, a script named test under the folder named hi will
+     * be named hi:test.
+     *
+     * @param folder the folder to search
+     * @param filter the filter for the scripts. Also accept the folders to search the sub folders.
+     * @return the script files, in the order they were found.
+     */
+    protected static List<ScriptFile> findScripts(File folder, FileFilter filter) {
+        List<ScriptFile> scripts = new ArrayList<>();
+        findScripts(new Stack<String>(), folder, filter, scripts);
+        return scripts;
+    }
+
+    private static void findScripts(Stack<String> name, File folder, FileFilter filter, List<ScriptFile> scripts) {
+        File[] files = folder.listFiles(filter);
+        if (files == null)
+            return;
+
+        for (File file : files) {
+            if (file.isDirectory()) {
+                name.push(file.getName());
+                findScripts(name, file, filter, scripts);
+                name.pop();
+            } else {
+                StringBuilder builder = new StringBuilder();
+                for (int i = name.size() - 1; i >= 0; i--) {
+                    builder.append(name.get(i) + ":");
+                }
+                String fileName = file.getName();
+                fileName = fileName.substring(0, fileName.indexOf("."));
+                builder.append(fileName);
+
+                scripts.add(new ScriptFile(builder.toString(), fileName, file, name.isEmpty()));
+            }
+        }
+    }
+
+    /**
+     * Read and compile the scripts in parallel, using as many threads as the number of the shared engines.
+     * The scripts which failed to load are reported and left out.
+     *
+     * @param scripts the scripts to load
+     * @param loader  creates the Executor/Placeholder from the source code
+     * @param type    'executor' or 'placeholder.' Used in the error message.
+     * @return the loaded scripts by their names
+     */
+    protected <T> Map<String, T> loadScripts(List<ScriptFile> scripts, ScriptLoader<T> loader, String type) {
+        Map<String, T> loaded = new HashMap<>();
+        if (scripts.isEmpty())
+            return loaded;
+
+        ScriptEnginePool engines = ScriptEnginePool.of(sem);
+        ThreadLocal<ScriptEngine> threadEngine = ThreadLocal.withInitial(engines::next);
+
+        int threads = Math.min(engines.size(), scripts.size());
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, (runnable) -> {
+            Thread thread = new Thread(runnable, "TriggerReactor -- Script Loader " + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (ScriptFile script : scripts) {
+                futures.add(pool.submit(() -> {
+                    String sourceCode = new String(Files.readAllBytes(script.file.toPath()));
+                    return loader.load(script.fileName, threadEngine.get(), sourceCode);
+                }));
+            }
+
+            for (int i = 0; i < scripts.size(); i++) {
+                ScriptFile script = scripts.get(i);
+                try {
+                    loaded.put(script.name, futures.get(i).get());
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                    plugin.getLogger().warning("Could not load " + type + " " + script.file.getName());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    plugin.getLogger().warning("Interrupted while loading " + type + " " + script.file.getName());
+                    break;
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        return loaded;
+    }
+
+    /**
+     * Read the whole source code of a script at once.
+     *
+     * @param stream the stream to read. Closed after reading.
+     * @return the source code
+     * @throws IOException
+     */
+    protected static String readSource(InputStream stream) throws IOException {
+        try (InputStream is = stream) {
+            ByteArrayOutputStream source = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int len;
+            while ((len = is.read(buffer)) > 0)
+                source.write(buffer, 0, len);
+            return new String(source.toByteArray());
+        }
+    }
+
+    /**
+     * Check if the file is identical to the one bundled in the plugin jar. The bundled files are copied to the
+     * plugin folder every time, so only the files which are different from the bundled ones are provided by
+     * the users.
+     *
+     * @param file the file in the plugin folder. Ex) plugins/TriggerReactor/Executor/MESSAGE.js
+     * @return true if the file is the same as the bundled one; false if it's modified, or there is no such
+     * file in the jar.
+     */
+    protected boolean isBundledCopy(File file) {
+        String resource = file.getParentFile().getName() + "/" + file.getName();
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(resource)) {
+            if (is == null)
+                return false;
+
+            ByteArrayOutputStream bundled = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int len;
+            while ((len = is.read(buffer)) > 0)
+                bundled.write(buffer, 0, len);
+
+            return Arrays.equals(bundled.toByteArray(), Files.readAllBytes(file.toPath()));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Check if the script should be loaded even though there is a native one of the same name. Only the .js
+     * files at the top level of the folder can replace the native ones, and only if the users modified them.
+     *
+     * @param script  the script found in the folder
+     * @param natives the native ones by their names
+     * @param type    type of the script for the message. Ex) executor
+     * @return false if the native one should be used instead of the script
+     */
+    protected boolean overridesNative(ScriptFile script, Map<String, ?> natives, String type) {
+        if (!script.topLevel || !natives.containsKey(script.fileName))
+            return true;
+
+        if (isBundledCopy(script.file))
+            return false;
+
+        plugin.getLogger().info(script.file.getName() + " is used instead of the built-in " + type + " " + script.fileName);
+        return true;
+    }
+
+    protected static class ScriptFile {
+        /**
+         * Name with the folders. Ex) hi:test
+         */
+        protected final String name;
+        /**
+         * File name without the extension, which is also the name of the function. Ex) test
+         */
+        protected final String fileName;
+        protected final File file;
+        /**
+         * true if the file is not in a sub folder.
+         */
+        protected final boolean topLevel;
+
+        private ScriptFile(String name, String fileName, File file, boolean topLevel) {
+            this.name = name;
+            this.fileName = fileName;
+            this.file = file;
+            this.topLevel = topLevel;
+        }
+    }
+
+    @FunctionalInterface
+    protected interface ScriptLoader<T> {
+        T load(String fileName, ScriptEngine engine, String sourceCode) throws ScriptException;
+    }
+}
@@ -17,10 +17,15 @@
 package io.github.wysohn.triggerreactor.core.manager;
 
 import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import io.github.wysohn.triggerreactor.core.script.interpreter.CacheScope;
+import io.github.wysohn.triggerreactor.core.script.interpreter.NativeInfo;
+import io.github.wysohn.triggerreactor.core.script.interpreter.NativePlaceholder;
 import io.github.wysohn.triggerreactor.core.script.interpreter.Placeholder;
+import io.github.wysohn.triggerreactor.core.script.interpreter.ThreadAffinity;
 import io.github.wysohn.triggerreactor.core.script.validation.ValidationException;
 import io.github.wysohn.triggerreactor.core.script.validation.ValidationResult;
 import io.github.wysohn.triggerreactor.core.script.validation.Validator;
+import io.github.wysohn.triggerreactor.tools.SwappableMap;
 import io.github.wysohn.triggerreactor.tools.timings.Timings;
 import jdk.nashorn.api.scripting.JSObject;
 
@@ -29,24 +34,82 @@ import java.io.*;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 public abstract class AbstractPlaceholderManager extends AbstractJavascriptBasedManager implements KeyValueManager<Placeholder> {
-    protected Map<String, Placeholder> jsPlaceholders = new HashMap<>();
+    protected final SwappableMap<String, Placeholder> jsPlaceholders = new SwappableMap<>();
+    protected final Map<String, Placeholder> nativePlaceholders = new HashMap<>();
+    protected final PlaceholderCache cache = new PlaceholderCache();
 
     public AbstractPlaceholderManager(TriggerReactorCore plugin) throws ScriptException {
         super(plugin);
     }
 
-    protected void reloadPlaceholders(File file, FileFilter filter) throws ScriptException, IOException {
-        String fileName = file.getName();
-        fileName = fileName.substring(0, fileName.indexOf("."));
+    /**
+     * Register a Placeholder implemented in Java. It will be available from the next reload, unless the user
+     * provides a .js file with the same name.
+     *
+     * @param placeholder the Placeholder annotated with {@link NativeInfo}
+     * @throws IllegalArgumentException if the Placeholder is not annotated with {@link NativeInfo}
+     */
+    public void registerNativePlaceholder(Placeholder placeholder) {
+        NativePlaceholder nativePlaceholder = new NativePlaceholder(placeholder);
+        nativePlaceholders.put(nativePlaceholder.getInfo().name(), nativePlaceholder);
+    }
+
+    /**
+     * @return the cache of the Placeholders which declared a cache TTL.
+     */
+    public PlaceholderCache getCache() {
+        return cache;
+    }
 
-        if (jsPlaceholders.containsKey(fileName)) {
-            plugin.getLogger().warning(fileName + " already registered! Duplicating placerholders?");
-        } else {
-            JSPlaceholder placeholder = new JSPlaceholder(fileName, IScriptEngineInitializer.getNashornEngine(sem), file);
-            jsPlaceholders.put(fileName, placeholder);
+    /**
+     * Loads all the Placeholder files in the folder. The files are compiled in parallel, and nothing is changed
+     * until {@link #publishPlaceholders(Map)} is called.
+     *
+     * @param folder the Placeholder folder
+     * @param filter the filter for Placeholders. Usually you check if the file ends with .js
+     * @return the loaded Placeholders by their names
+     */
+    protected Map<String, Placeholder> loadPlaceholders(File folder, FileFilter filter) {
+        List<ScriptFile> scripts = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (ScriptFile script : findScripts(folder, filter)) {
+            if (!overridesNative(script, nativePlaceholders, "placeholder"))
+                continue;
+
+            if (!names.add(script.name)) {
+                plugin.getLogger().warning(script.name + " already registered! Duplicating placerholders?");
+                continue;
+            }
+
+            scripts.add(script);
+        }
+
+        Map<String, Placeholder> placeholders = new HashMap<>();
+        for (Entry<String, JSPlaceholder> entry : loadScripts(scripts, JSPlaceholder::new, "placeholder").entrySet()) {
+            placeholders.put(entry.getKey(), cache.wrap(entry.getKey(), entry.getValue()));
         }
+        return placeholders;
+    }
+
+    /**
+     * Replace all the Placeholders at once with the loaded ones, along with the native Placeholders that are
+     * not overridden by the .js files. The cached results of the previous Placeholders are dropped, and the
+     * cache settings are read again.
+     *
+     * @param placeholders the Placeholders from {@link #loadPlaceholders(File, FileFilter)}
+     */
+    protected void publishPlaceholders(Map<String, Placeholder> placeholders) {
+        for (Entry<String, Placeholder> entry : nativePlaceholders.entrySet()) {
+            placeholders.putIfAbsent(entry.getKey(), cache.wrap(entry.getKey(), entry.getValue()));
+        }
+
+        jsPlaceholders.swap(placeholders);
+
+        cache.loadSettings(plugin);
+        cache.invalidate();
     }
 
     @Override
@@ -73,14 +136,27 @@ public abstract class AbstractPlaceholderManager extends AbstractJavascriptBased
         return jsPlaceholders;
     }
 
+    /**
+     * Placeholder written in JavaScript.
+     * <p>
+     * Like {@link AbstractExecutorManager.JSExecutor}, the script is evaluated only once for each thread, and
+     * each call only puts the variables into the bound scope and calls the function.
+     */
     public static class JSPlaceholder extends Placeholder {
         private final String placeholderName;
+        private final String displayName;
         private final String sourceCode;
 
         private ScriptEngine engine = null;
         private CompiledScript compiled = null;
-        private boolean firstRun = true;
-        private Validator validator = null;
+        private volatile boolean firstRun = true;
+        private volatile Validator validator = null;
+        private volatile ThreadAffinity affinity = ThreadAffinity.MAIN_ONLY;
+        private volatile long cacheTtl = 0L;
+        private volatile CacheScope cacheScope = CacheScope.ARGS;
+
+        private final ThreadLocal<BoundScope> boundScope = new ThreadLocal<>();
+        private final AtomicReference<BoundScope> unclaimedScope = new AtomicReference<>();
 
         public JSPlaceholder(String placeholderName, ScriptEngine engine, File file) throws ScriptException, IOException {
             this(placeholderName, engine, new FileInputStream(file));
@@ -94,22 +170,81 @@ public abstract class AbstractPlaceholderManager extends AbstractJavascriptBased
             this.validator = Validator.from(validation);
         }
 
+        private void registerThreadAffinity(ScriptContext context) {
+            Object value = context.getAttribute("threadAffinity");
+            if (value == null) {
+                return;
+            }
+
+            ThreadAffinity affinity = ThreadAffinity.parse(value);
+            if (affinity == null) {
+                TriggerReactorCore.getInstance().getLogger().warning(placeholderName + ".js has invalid threadAffinity "
+                        + value + ". MAIN_ONLY will be used instead.");
+                return;
+            }
+            this.affinity = affinity;
+        }
+
+        private void registerCacheInfo(ScriptContext context) {
+            Object ttl = context.getAttribute("cacheTtl");
+            if (ttl == null) {
+                return;
+            }
+
+            if (!(ttl instanceof Number)) {
+                TriggerReactorCore.getInstance().getLogger().warning(placeholderName + ".js has invalid cacheTtl "
+                        + ttl + ". The result will not be cached.");
+                return;
+            }
+
+            Object value = context.getAttribute("cacheScope");
+            CacheScope scope = value == null ? CacheScope.ARGS : CacheScope.parse(value);
+            if (scope == null) {
+                TriggerReactorCore.getInstance().getLogger().warning(placeholderName + ".js has invalid cacheScope "
+                        + value + ". ARGS will be used instead.");
+                scope = CacheScope.ARGS;
+            }
+
+            this.cacheScope = scope;
+            this.cacheTtl = ((Number) ttl).longValue();
+        }
+
         public JSPlaceholder(String placeholderName, ScriptEngine engine, InputStream file) throws ScriptException, IOException {
+            this(placeholderName, engine, readSource(file));
+        }
+
+        public JSPlaceholder(String placeholderName, ScriptEngine engine, String sourceCode) throws ScriptException {
             this.placeholderName = placeholderName;
+            this.displayName = "$" + placeholderName;
             this.engine = engine;
-
-            StringBuilder builder = new StringBuilder();
-            InputStreamReader reader = new InputStreamReader(file);
-            int read = -1;
-            while ((read = reader.read()) != -1)
-                builder.append((char) read);
-            reader.close();
-            sourceCode = builder.toString();
+            this.sourceCode = sourceCode;
 
             Compilable compiler = (Compilable) engine;
             compiled = compiler.compile(sourceCode);
         }
 
+        @Override
+        public ThreadAffinity getThreadAffinity() {
+            // declared in the script, so it's known only after the script is evaluated
+            if (firstRun)
+                evaluate();
+            return affinity;
+        }
+
+        @Override
+        public long getCacheTtl() {
+            if (firstRun)
+                evaluate();
+            return cacheTtl;
+        }
+
+        @Override
+        public CacheScope getCacheScope() {
+            if (firstRun)
+                evaluate();
+            return cacheScope;
+        }
+
         public ValidationResult validate(Object... args) {
             if (firstRun) {
                 throw new RuntimeException("the executor must be run at least once before using validate");
@@ -117,24 +252,25 @@ public abstract class AbstractPlaceholderManager extends AbstractJavascriptBased
             return validator.validate(args);
         }
 
-        @Override
-        public Object parse(Timings.Timing timing, Object context, Map<String, Object> variables,
-                            Object... args) throws Exception {
-            Timings.Timing time = timing.getTiming("Executors").getTiming(placeholderName);
-            time.setDisplayName("$" + placeholderName);
-
-            final Bindings bindings = engine.createBindings();
-
-            bindings.put("event", context);
-            for (Map.Entry<String, Object> entry : variables.entrySet()) {
-                String key = entry.getKey();
-                Object value = entry.getValue();
-                bindings.put(key, value);
-            }
+        /**
+         * Evaluate the script for the first time to read what it declares. The scope is kept for the first
+         * thread which calls the function, so the top level of the script is not run twice for that thread.
+         */
+        private synchronized void evaluate() {
+            if (firstRun)
+                unclaimedScope.set(bind());
+        }
 
+        /**
+         * Evaluate the script in a new global scope.
+         *
+         * @return the scope with the placeholder function bound to it.
+         */
+        private BoundScope bind() {
+            Bindings bindings = engine.createBindings();
             ScriptContext scriptContext = new SimpleScriptContext();
+            scriptContext.setBindings(bindings, ScriptContext.ENGINE_SCOPE);
             try {
-                scriptContext.setBindings(bindings, ScriptContext.ENGINE_SCOPE);
                 compiled.eval(scriptContext);
             } catch (ScriptException e2) {
                 e2.printStackTrace();
@@ -142,67 +278,59 @@ public abstract class AbstractPlaceholderManager extends AbstractJavascriptBased
 
             if (firstRun) {
                 registerValidationInfo(scriptContext);
+                registerThreadAffinity(scriptContext);
+                registerCacheInfo(scriptContext);
                 firstRun = false;
             }
 
+            return new BoundScope(bindings, (JSObject) scriptContext.getAttribute(placeholderName));
+        }
+
+        @Override
+        public Object parse(Timings.Timing timing, Object context, Map<String, Object> variables,
+                            Object... args) throws Exception {
+            Timings.Timing time = timing.getChild("Executors").getChild(placeholderName, displayName);
+
+            // validation info is available only after the script is evaluated at least once
+            if (firstRun)
+                evaluate();
+
+            Integer overload = null;
             if (validator != null) {
                 ValidationResult result = validator.validate(args);
-                int overload = result.getOverload();
+                overload = result.getOverload();
                 if (overload == -1) {
                     throw new ValidationException(result.getError());
                 }
-                scriptContext.setAttribute("overload", overload, ScriptContext.ENGINE_SCOPE);
             }
 
-            JSObject jsObject = (JSObject) scriptContext.getAttribute(placeholderName);
-            if (jsObject == null)
-                throw new Exception(placeholderName + ".js does not have 'function " + placeholderName + "()'.");
-
+            final Integer finalOverload = overload;
+            final ThreadAffinity affinity = this.affinity;
+            final boolean mainThread = affinity == ThreadAffinity.MAIN_ONLY;
             Callable<Object> call = new Callable<Object>() {
                 @Override
                 public Object call() throws Exception {
                     Object argObj = args;
                     Object result = null;
 
-                    try (Timings.Timing t = time.begin(true)) {
-                        result = jsObject.call(null, argObj);
+                    BoundScope scope = BoundScope.acquire(boundScope, unclaimedScope, JSPlaceholder.this::bind);
+                    try {
+                        if (scope.getFunction() == null)
+                            throw new Exception(placeholderName + ".js does not have 'function " + placeholderName + "()'.");
+
+                        scope.enter(context, variables, finalOverload);
+                        try (Timings.Handle t = time.begin(mainThread)) {
+                            result = scope.getFunction().call(null, argObj);
+                        }
+                    } finally {
+                        scope.exit();
                     }
 
                     return result;
                 }
             };
 
-            if (TriggerReactorCore.getInstance().isServerThread()) {
-                Object result = null;
-                try {
-                    result = call.call();
-                } catch (Exception e1) {
-                    e1.printStackTrace();
-                    throw new Exception("$" + placeholderName + " encountered error.", e1);
-                }
-                return result;
-            } else {
-                Future<Object> future = runSyncTaskForFuture(call);
-
-                if (future == null) {
-                    //probably server is shutting down
-                    if (!TriggerReactorCore.getInstance().isEnabled()) {
-                        return call.call();
-                    } else {
-                        throw new Exception("$" + placeholderName + " couldn't be finished. The server returned null Future.");
-                    }
-                } else {
-                    Object result = null;
-                    try {
-                        result = future.get(5, TimeUnit.SECONDS);
-                    } catch (InterruptedException | ExecutionException e1) {
-                        throw new Exception("$" + placeholderName + " encountered error.", e1);
-                    } catch (TimeoutException e1) {
-                        throw new Exception("$" + placeholderName + " was stopped. It took longer than 5 seconds to process. Is the server lagging?", e1);
-                    }
-                    return result;
-                }
-            }
+            return callWithAffinity("$" + placeholderName, affinity, call);
         }
     }
 }
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.core.manager;
+
+import jdk.nashorn.api.scripting.JSObject;
+
+import javax.script.Bindings;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Global scope of an evaluated JS script, and the function defined in it.
+ * <p>
+ * Whatever the script defined at the top level is kept as the baseline. Variables of the
+ * execution are put before the call, and the scope is restored to the baseline right after,
+ * so nothing leaks into the next execution.
+ */
+class BoundScope {
+    private final Bindings bindings;
+    private final JSObject function;
+    private final Map<String, Object> baseline;
+
+    private final List<String> entered = new ArrayList<>();
+    private boolean inUse = false;
+
+    BoundScope(Bindings bindings, JSObject function) {
+        this.bindings = bindings;
+        this.function = function;
+        this.baseline = new HashMap<>(bindings);
+    }
+
+    /**
+     * Get the scope bound to the current thread, or bind a new one if there is none yet.
+     * Nashorn globals are not thread safe, so the scopes are never shared between threads.
+     *
+     * @param bound     the scopes bound to each thread
+     * @param unclaimed the scope evaluated to read the declarations of the script, which is not bound to any
+     *                  thread yet. The first thread without a scope takes it, so the script is not evaluated
+     *                  again for that thread.
+     * @param bind      evaluates the script in a new global scope
+     * @return the scope; a temporary one if the bound scope is already in use by this thread.
+     */
+    static BoundScope acquire(ThreadLocal<BoundScope> bound, AtomicReference<BoundScope> unclaimed,
+                              Supplier<BoundScope> bind) {
+        BoundScope scope = bound.get();
+        if (scope == null) {
+            scope = unclaimed.getAndSet(null);
+            if (scope == null)
+                scope = bind.get();
+            if (scope.function == null)
+                return scope;
+            bound.set(scope);
+        }
+
+        if (scope.inUse)
+            return bind.get();
+
+        scope.inUse = true;
+        return scope;
+    }
+
+    JSObject getFunction() {
+        return function;
+    }
+
+    void enter(Object e, Map<String, Object> variables, Integer overload) {
+        put("event", e);
+        for (Map.Entry<String, Object> entry : variables.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+        if (overload != null)
+            put("overload", overload);
+    }
+
+    private void put(String key, Object value) {
+        entered.add(key);
+        bindings.put(key, value);
+    }
+
+    void exit() {
+        for (String key : entered) {
+            if (baseline.containsKey(key))
+                bindings.put(key, baseline.get(key));
+            else
+                bindings.remove(key);
+        }
+        entered.clear();
+
+        // the function assigned to undeclared variables
+        if (bindings.size() != baseline.size()) {
+            for (String key : new ArrayList<>(bindings.keySet())) {
+                if (!baseline.containsKey(key))
+                    bindings.remove(key);
+            }
+        }
+
+        inUse = false;
+    }
+}
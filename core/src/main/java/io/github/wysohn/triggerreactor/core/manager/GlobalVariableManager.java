@@ -20,9 +20,12 @@ import io.github.wysohn.triggerreactor.core.config.IMigratable;
 import io.github.wysohn.triggerreactor.core.config.IMigrationHelper;
 import io.github.wysohn.triggerreactor.core.config.source.ConfigSourceFactory;
 import io.github.wysohn.triggerreactor.core.config.source.DelegatedConfigSource;
+import io.github.wysohn.triggerreactor.core.config.source.GsonConfigSource;
 import io.github.wysohn.triggerreactor.core.config.source.IConfigSource;
 import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
 import io.github.wysohn.triggerreactor.core.script.interpreter.TemporaryGlobalVariableKey;
+import io.github.wysohn.triggerreactor.tools.metrics.Gauge;
+import io.github.wysohn.triggerreactor.tools.metrics.Metrics;
 
 import java.io.File;
 import java.util.HashMap;
@@ -39,6 +42,12 @@ public final class GlobalVariableManager extends Manager implements IMigratable
     public GlobalVariableManager(TriggerReactorCore plugin, IConfigSource configSource) {
         super(plugin);
         this.configSource = configSource;
+
+        if (configSource instanceof GsonConfigSource) {
+            GsonConfigSource source = (GsonConfigSource) configSource;
+            Metrics.register(Gauge.counter("triggerreactor_global_variable_flushes_total",
+                    "Number of times the global variables were written to the file.", source::getFlushCount));
+        }
     }
 
     @Override
@@ -79,6 +88,8 @@ public final class GlobalVariableManager extends Manager implements IMigratable
      * @param key the key
      */
     public void remove(String key) {
+        if (Metrics.on)
+            Metrics.GLOBAL_VARIABLE_WRITES.inc();
         configSource.put(key, null);
     }
 
@@ -100,6 +111,8 @@ public final class GlobalVariableManager extends Manager implements IMigratable
      * @throws Exception
      */
     public void put(String key, Object value) {
+        if (Metrics.on)
+            Metrics.GLOBAL_VARIABLE_WRITES.inc();
         configSource.put(key, value);
     }
 
@@ -34,7 +34,14 @@ public interface IScriptEngineInitializer {
         sem.put(name, value);
     }
 
+    /**
+     * Get one of the engines shared by the scripts. Use {@link ScriptEngine#createBindings()} to give each
+     * script its own global scope.
+     *
+     * @param sem the ScriptEngineManager which holds the global variables
+     * @return the engine
+     */
     static ScriptEngine getNashornEngine(ScriptEngineManager sem) {
-        return sem.getEngineByName("nashorn");
+        return ScriptEnginePool.of(sem).next();
     }
 }
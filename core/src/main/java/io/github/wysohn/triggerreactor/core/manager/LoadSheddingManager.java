@@ -0,0 +1,280 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.core.manager;
+
+import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import io.github.wysohn.triggerreactor.core.manager.trigger.Trigger;
+import io.github.wysohn.triggerreactor.tools.Lag;
+import io.github.wysohn.triggerreactor.tools.metrics.Counter;
+import io.github.wysohn.triggerreactor.tools.metrics.Metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Skips the activations of the low priority Triggers while the server is struggling.
+ * <p>
+ * Once a second, the TPS measured by {@link Lag} and the time the sync Triggers spent in the server thread per
+ * tick are compared with the thresholds in the config. Below 'LoadShedding.MinTps', or above
+ * 'LoadShedding.MaxTriggerMillisPerTick', only one in 'LoadShedding.SampleRate' activations of the
+ * {@link Priority#LOW} Triggers runs. Below 'LoadShedding.CriticalTps', the LOW Triggers don't run at all, and
+ * the {@link Priority#NORMAL} Triggers are sampled instead. {@link Priority#HIGH} Triggers always run.
+ * <p>
+ * The priority of a Trigger is 'LoadPriority' in its config. If not set, the async custom Triggers and the walk
+ * Triggers are LOW, and the others are NORMAL. A skipped activation of a repeating Trigger is simply deferred to
+ * its next interval.
+ * <p>
+ * The skipped activations are counted by the type of the Trigger, and the counts are logged at most once per
+ * 'LoadShedding.ReportIntervalMillis'. It's disabled by default. Set 'LoadShedding.Enable' to true in the
+ * config to enable it.
+ */
+public class LoadSheddingManager extends Manager {
+    private static final String ENABLE = "LoadShedding.Enable";
+    private static final String MIN_TPS = "LoadShedding.MinTps";
+    private static final String CRITICAL_TPS = "LoadShedding.CriticalTps";
+    private static final String MAX_TRIGGER_MILLIS = "LoadShedding.MaxTriggerMillisPerTick";
+    private static final String SAMPLE_RATE = "LoadShedding.SampleRate";
+    private static final String REPORT_INTERVAL = "LoadShedding.ReportIntervalMillis";
+
+    private static final long EVALUATION_INTERVAL = 1000L;
+    private static final double MILLIS_PER_TICK = 50.0;
+
+    private static final Counter SHED_ACTIVATIONS = Metrics.register(new Counter("triggerreactor_shed_activations_total",
+            "Trigger activations skipped by the load shedding.", "type", "priority"));
+
+    // null while not running
+    private static volatile LoadSheddingManager active = null;
+    private static final LongAdder syncNanos = new LongAdder();
+
+    private double minTps = 18.0;
+    private double criticalTps = 10.0;
+    private double maxTriggerMillisPerTick = 10.0;
+    private int sampleRate = 4;
+    private long reportIntervalMillis = 60_000L;
+
+    private volatile Level level = Level.NONE;
+    private volatile long lastEvaluation;
+    private long lastReport;
+    private final Map<String, LongAdder> shed = new ConcurrentHashMap<>();
+
+    public LoadSheddingManager(TriggerReactorCore plugin) {
+        super(plugin);
+    }
+
+    /**
+     * Decide whether the Trigger can be activated now. Always true if the load shedding is not running.
+     *
+     * @param trigger the Trigger about to be activated
+     * @return true if it can run; false if it should be skipped
+     */
+    public static boolean admit(Trigger trigger) {
+        LoadSheddingManager manager = active;
+        return manager == null || manager.decide(trigger);
+    }
+
+    /**
+     * Count the time a sync Trigger spent in the server thread. Does nothing if the load shedding is not running.
+     *
+     * @param nanos how long it took
+     */
+    public static void onSyncExecution(long nanos) {
+        if (active != null)
+            syncNanos.add(nanos);
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    @Override
+    public void reload() {
+        stop();
+
+        if (!plugin.isConfigSet(ENABLE) || !plugin.isConfigSet(MIN_TPS) || !plugin.isConfigSet(CRITICAL_TPS)
+                || !plugin.isConfigSet(MAX_TRIGGER_MILLIS) || !plugin.isConfigSet(SAMPLE_RATE)
+                || !plugin.isConfigSet(REPORT_INTERVAL)) {
+            if (!plugin.isConfigSet(ENABLE))
+                plugin.setConfig(ENABLE, false);
+            if (!plugin.isConfigSet(MIN_TPS))
+                plugin.setConfig(MIN_TPS, minTps);
+            if (!plugin.isConfigSet(CRITICAL_TPS))
+                plugin.setConfig(CRITICAL_TPS, criticalTps);
+            if (!plugin.isConfigSet(MAX_TRIGGER_MILLIS))
+                plugin.setConfig(MAX_TRIGGER_MILLIS, maxTriggerMillisPerTick);
+            if (!plugin.isConfigSet(SAMPLE_RATE))
+                plugin.setConfig(SAMPLE_RATE, sampleRate);
+            if (!plugin.isConfigSet(REPORT_INTERVAL))
+                plugin.setConfig(REPORT_INTERVAL, reportIntervalMillis);
+            plugin.saveConfig();
+        }
+
+        Boolean enable = plugin.getConfig(ENABLE, false);
+        Number minTps = plugin.getConfig(MIN_TPS, this.minTps);
+        Number criticalTps = plugin.getConfig(CRITICAL_TPS, this.criticalTps);
+        Number maxTriggerMillis = plugin.getConfig(MAX_TRIGGER_MILLIS, maxTriggerMillisPerTick);
+        Number sampleRate = plugin.getConfig(SAMPLE_RATE, this.sampleRate);
+        Number reportInterval = plugin.getConfig(REPORT_INTERVAL, reportIntervalMillis);
+        if (minTps != null)
+            this.minTps = minTps.doubleValue();
+        if (criticalTps != null)
+            this.criticalTps = criticalTps.doubleValue();
+        if (maxTriggerMillis != null)
+            this.maxTriggerMillisPerTick = maxTriggerMillis.doubleValue();
+        if (sampleRate != null)
+            this.sampleRate = Math.max(1, sampleRate.intValue());
+        if (reportInterval != null)
+            this.reportIntervalMillis = Math.max(0L, reportInterval.longValue());
+        if (enable == null || !enable)
+            return;
+
+        start();
+    }
+
+    @Override
+    public void saveAll() {
+
+    }
+
+    @Override
+    public void disable() {
+        stop();
+    }
+
+    private synchronized void start() {
+        level = Level.NONE;
+        lastEvaluation = System.currentTimeMillis();
+        lastReport = lastEvaluation;
+        syncNanos.reset();
+        active = this;
+    }
+
+    private synchronized void stop() {
+        if (active == this)
+            active = null;
+
+        report();
+        level = Level.NONE;
+    }
+
+    private boolean decide(Trigger trigger) {
+        long now = System.currentTimeMillis();
+        if (now - lastEvaluation >= EVALUATION_INTERVAL)
+            evaluate(now);
+
+        Level level = this.level;
+        if (level == Level.NONE)
+            return true;
+
+        Priority priority = trigger.getLoadPriority();
+        boolean admitted;
+        switch (priority) {
+            case LOW:
+                admitted = level == Level.SHED && sample();
+                break;
+            case NORMAL:
+                admitted = level != Level.CRITICAL || sample();
+                break;
+            default:
+                admitted = true;
+                break;
+        }
+
+        if (!admitted) {
+            String type = trigger.getClass().getSimpleName();
+            shed.computeIfAbsent(type, k -> new LongAdder()).increment();
+            if (Metrics.on)
+                SHED_ACTIVATIONS.labels(type, priority.name()).inc();
+        }
+        return admitted;
+    }
+
+    private boolean sample() {
+        return sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+    }
+
+    synchronized void evaluate(long now) {
+        long elapsed = now - lastEvaluation;
+        if (active != this || elapsed < EVALUATION_INTERVAL)
+            return;
+        lastEvaluation = now;
+
+        Lag lag = plugin.getTpsHelper();
+        double tps = lag == null ? 20.0 : lag.getTPS(20);
+        double triggerMillisPerTick = syncNanos.sumThenReset() / 1_000_000.0 / (elapsed / MILLIS_PER_TICK);
+
+        Level next;
+        if (tps < criticalTps) {
+            next = Level.CRITICAL;
+        } else if (tps < minTps || triggerMillisPerTick > maxTriggerMillisPerTick) {
+            next = Level.SHED;
+        } else {
+            next = Level.NONE;
+        }
+
+        if (next != level) {
+            plugin.getLogger().info(String.format("Load shedding: %s -> %s (TPS: %.1f, sync triggers: %.2fms/tick)",
+                    level, next, tps, triggerMillisPerTick));
+            level = next;
+        }
+
+        if (now - lastReport >= reportIntervalMillis) {
+            lastReport = now;
+            report();
+        }
+    }
+
+    private void report() {
+        Map<String, Long> counts = new TreeMap<>();
+        long total = 0L;
+        for (Map.Entry<String, LongAdder> entry : shed.entrySet()) {
+            long count = entry.getValue().sumThenReset();
+            if (count > 0L) {
+                counts.put(entry.getKey(), count);
+                total += count;
+            }
+        }
+        if (total == 0L)
+            return;
+
+        plugin.getLogger().info("Load shedding skipped " + total + " trigger activation(s) " + counts);
+    }
+
+    /**
+     * How important the Trigger is while the server is struggling.
+     */
+    public enum Priority {
+        /**
+         * Never skipped.
+         */
+        HIGH,
+        /**
+         * Sampled when the TPS is critical.
+         */
+        NORMAL,
+        /**
+         * Sampled when the server is struggling, and skipped when the TPS is critical.
+         */
+        LOW
+    }
+
+    public enum Level {
+        NONE, SHED, CRITICAL
+    }
+}
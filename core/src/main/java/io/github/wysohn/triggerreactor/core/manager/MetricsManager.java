@@ -0,0 +1,145 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.core.manager;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import io.github.wysohn.triggerreactor.tools.metrics.Metrics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves {@link Metrics} in the text format of Prometheus at http://127.0.0.1:&lt;port&gt;/metrics.
+ * <p>
+ * The server only listens on the loopback address, and runs in its own thread, so a slow scraper can't
+ * block the server thread. The metrics are only recorded while the endpoint is enabled.
+ * <p>
+ * It's disabled by default. Set 'Metrics.Enable' to true in the config to enable it.
+ */
+public class MetricsManager extends Manager {
+    private static final String ENABLE = "Metrics.Enable";
+    private static final String PORT = "Metrics.Port";
+
+    private int port = 9464;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public MetricsManager(TriggerReactorCore plugin) {
+        super(plugin);
+    }
+
+    @Override
+    public void reload() {
+        stop();
+
+        if (!plugin.isConfigSet(ENABLE) || !plugin.isConfigSet(PORT)) {
+            if (!plugin.isConfigSet(ENABLE))
+                plugin.setConfig(ENABLE, false);
+            if (!plugin.isConfigSet(PORT))
+                plugin.setConfig(PORT, port);
+            plugin.saveConfig();
+        }
+
+        Boolean enable = plugin.getConfig(ENABLE, false);
+        Number port = plugin.getConfig(PORT, this.port);
+        if (port != null)
+            this.port = port.intValue();
+        if (enable == null || !enable)
+            return;
+
+        start();
+    }
+
+    @Override
+    public void saveAll() {
+
+    }
+
+    @Override
+    public void disable() {
+        stop();
+    }
+
+    private synchronized void start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException e) {
+            e.printStackTrace();
+            plugin.getLogger().warning("Could not open the metrics endpoint on port " + port + ".");
+            return;
+        }
+
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r);
+            thread.setName("TriggerReactor -- Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/metrics", this::handle);
+        server.start();
+
+        Metrics.on = true;
+        plugin.getLogger().info("Metrics are available at http://127.0.0.1:" + port + "/metrics");
+    }
+
+    private synchronized void stop() {
+        Metrics.on = false;
+
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (Writer writer = new OutputStreamWriter(buffer, StandardCharsets.UTF_8)) {
+                Metrics.write(writer);
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, buffer.size());
+            try (OutputStream os = exchange.getResponseBody()) {
+                buffer.writeTo(os);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,395 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.core.manager;
+
+import io.github.wysohn.triggerreactor.core.bridge.entity.IEntity;
+import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import io.github.wysohn.triggerreactor.core.script.interpreter.CacheScope;
+import io.github.wysohn.triggerreactor.core.script.interpreter.Executor;
+import io.github.wysohn.triggerreactor.core.script.interpreter.NativeInfo;
+import io.github.wysohn.triggerreactor.core.script.interpreter.Placeholder;
+import io.github.wysohn.triggerreactor.core.script.interpreter.ThreadAffinity;
+import io.github.wysohn.triggerreactor.tools.timings.Timings;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.text.DecimalFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Reuses the results of the Placeholders which declared a cache TTL, so the expensive ones (economy,
+ * permission plugins, database, etc.) are not evaluated every time they are used.
+ * <p>
+ * The number of cached results is limited by 'PlaceholderCache.MaxSize' in the config, and the least recently
+ * used results are dropped first when the limit is reached. The results can be dropped early with
+ * #CLEARPLACEHOLDERCACHE.
+ * <p>
+ * Lookups don't share a lock, so the Placeholders used from many threads at once don't wait for each other.
+ */
+public class PlaceholderCache {
+    public static final String MAX_SIZE = "PlaceholderCache.MaxSize";
+
+    private static final ClassValue<Method> UNIQUE_ID_METHODS = new ClassValue<Method>() {
+        @Override
+        protected Method computeValue(Class<?> type) {
+            try {
+                return type.getMethod("getUniqueId");
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+    };
+
+    private final LongSupplier clock;
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private final LongAdder evictions = new LongAdder();
+
+    private volatile int maxSize = 1000;
+    private final Map<Key, CachedValue> entries = new ConcurrentHashMap<>();
+    // orders the uses of the entries, so the least recently used ones can be found
+    private final AtomicLong uses = new AtomicLong();
+    private final Object trimLock = new Object();
+
+    public PlaceholderCache() {
+        this(System::currentTimeMillis);
+    }
+
+    public PlaceholderCache(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Read the settings from the plugin config, and write the defaults if they are not set yet.
+     *
+     * @param plugin the plugin
+     */
+    public void loadSettings(TriggerReactorCore plugin) {
+        if (!plugin.isConfigSet(MAX_SIZE)) {
+            plugin.setConfig(MAX_SIZE, maxSize);
+            plugin.saveConfig();
+        }
+
+        Number maxSize = plugin.getConfig(MAX_SIZE, this.maxSize);
+        if (maxSize != null)
+            setMaxSize(maxSize.intValue());
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = Math.max(0, maxSize);
+
+        trim(this.maxSize);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Wrap the Placeholder so its results are cached if {@link Placeholder#getCacheTtl()} is positive.
+     * Otherwise, the Placeholder is returned as is.
+     *
+     * @param name        name of the Placeholder
+     * @param placeholder the Placeholder to wrap
+     * @return the wrapped Placeholder, or the Placeholder itself if it's not to be cached
+     */
+    public Placeholder wrap(String name, Placeholder placeholder) {
+        if (placeholder.getCacheTtl() <= 0L)
+            return placeholder;
+
+        return new CachedPlaceholder(name, placeholder);
+    }
+
+    /**
+     * Drop all the cached results.
+     */
+    public void invalidate() {
+        entries.clear();
+    }
+
+    /**
+     * Drop the cached results of the Placeholder.
+     *
+     * @param name name of the Placeholder
+     */
+    public void invalidate(String name) {
+        entries.keySet().removeIf(key -> key.name.equals(name));
+    }
+
+    /**
+     * Drop the cached results of the Placeholder for the player. The results cached with
+     * {@link CacheScope#GLOBAL} are dropped as well since they are shared with the player.
+     *
+     * @param name   name of the Placeholder
+     * @param player the player
+     */
+    public void invalidate(String name, Object player) {
+        Object playerKey = playerKey(player);
+        entries.keySet().removeIf(key -> key.name.equals(name)
+                && (key.player == null || key.player.equals(playerKey)));
+    }
+
+    public long getHits(String name) {
+        Stats stats = this.stats.get(name);
+        return stats == null ? 0L : stats.hits.sum();
+    }
+
+    public long getMisses(String name) {
+        Stats stats = this.stats.get(name);
+        return stats == null ? 0L : stats.misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public void resetStats() {
+        stats.clear();
+        evictions.reset();
+    }
+
+    /**
+     * Print the hit/miss counts of each cached Placeholder in the same format as {@link Timings#printAll(OutputStream)}.
+     *
+     * @param stream the stream to print to
+     * @throws IOException
+     */
+    public void printStats(OutputStream stream) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        builder.append(" > Placeholder Cache[").append(size()).append('/').append(maxSize).append(']')
+                .append(" -- (evictions: ").append(evictions.sum()).append(')');
+
+        List<String> names = new ArrayList<>(stats.keySet());
+        Collections.sort(names);
+        for (String name : names) {
+            long hits = getHits(name);
+            long misses = getMisses(name);
+            builder.append('\n').append("   > $").append(name)
+                    .append(" -- (hits: ").append(hits)
+                    .append(", misses: ").append(misses)
+                    .append(", hit rate: ").append(df.format(hits * 100.0 / Math.max(1L, hits + misses))).append("%)");
+        }
+
+        stream.write(builder.toString().getBytes());
+    }
+
+    /**
+     * Drop the least recently used results until there are no more than the given number of them. Only one
+     * thread trims at a time, and the lookups are not blocked while it does.
+     *
+     * @param target the number of results to keep
+     */
+    private void trim(int target) {
+        synchronized (trimLock) {
+            if (entries.size() <= target)
+                return;
+
+            List<Map.Entry<Key, CachedValue>> oldest = new ArrayList<>(entries.entrySet());
+            oldest.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsed));
+            for (Map.Entry<Key, CachedValue> entry : oldest) {
+                if (entries.size() <= target)
+                    break;
+
+                if (entries.remove(entry.getKey(), entry.getValue()))
+                    evictions.increment();
+            }
+        }
+    }
+
+    private Stats getStats(String name) {
+        return stats.computeIfAbsent(name, (n) -> new Stats());
+    }
+
+    /**
+     * Use the UUID if possible, so the cache doesn't hold the player instance after the player left.
+     */
+    private static Object playerKey(Object player) {
+        if (player == null)
+            return null;
+
+        if (player instanceof IEntity)
+            return ((IEntity) player).getUniqueId();
+
+        Method method = UNIQUE_ID_METHODS.get(player.getClass());
+        if (method != null) {
+            try {
+                return method.invoke(player);
+            } catch (ReflectiveOperationException e) {
+                // fall through
+            }
+        }
+        return player;
+    }
+
+    private class CachedPlaceholder extends Placeholder {
+        private final String name;
+        private final Placeholder placeholder;
+
+        private CachedPlaceholder(String name, Placeholder placeholder) {
+            this.name = name;
+            this.placeholder = placeholder;
+        }
+
+        @Override
+        public ThreadAffinity getThreadAffinity() {
+            return placeholder.getThreadAffinity();
+        }
+
+        @Override
+        public long getCacheTtl() {
+            return placeholder.getCacheTtl();
+        }
+
+        @Override
+        public CacheScope getCacheScope() {
+            return placeholder.getCacheScope();
+        }
+
+        @Override
+        public Object parse(Timings.Timing timing, Object context, Map<String, Object> vars,
+                            Object... args) throws Exception {
+            long ttl = placeholder.getCacheTtl();
+            if (ttl <= 0L || maxSize == 0)
+                return placeholder.parse(timing, context, vars, args);
+
+            CacheScope scope = placeholder.getCacheScope();
+            Key key = new Key(name,
+                    scope == CacheScope.GLOBAL ? null : playerKey(vars == null ? null : vars.get("player")),
+                    scope == CacheScope.ARGS ? args : null);
+
+            long now = clock.getAsLong();
+            CachedValue cached = entries.get(key);
+            if (cached != null && cached.expireAt <= now) {
+                entries.remove(key, cached);
+                cached = null;
+            }
+
+            Stats stats = getStats(name);
+            if (cached != null) {
+                cached.lastUsed = uses.incrementAndGet();
+                stats.hits.increment();
+                return cached.value;
+            }
+
+            stats.misses.increment();
+            Object value = placeholder.parse(timing, context, vars, args);
+            entries.put(key, new CachedValue(value, clock.getAsLong() + ttl, uses.incrementAndGet()));
+
+            int maxSize = PlaceholderCache.this.maxSize;
+            if (entries.size() > maxSize)
+                trim(maxSize - maxSize / 10); // a bit more than needed, so it doesn't trim on every miss
+            return value;
+        }
+    }
+
+    private static class Key {
+        private final String name;
+        private final Object player;
+        private final Object[] args;
+        private final int hash;
+
+        private Key(String name, Object player, Object[] args) {
+            this.name = name;
+            this.player = player;
+            this.args = args;
+            this.hash = Objects.hash(name, player) * 31 + Arrays.deepHashCode(args);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+
+            Key other = (Key) o;
+            return hash == other.hash
+                    && name.equals(other.name)
+                    && Objects.equals(player, other.player)
+                    && Arrays.deepEquals(args, other.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static class CachedValue {
+        private final Object value;
+        private final long expireAt;
+        private volatile long lastUsed;
+
+        private CachedValue(Object value, long expireAt, long lastUsed) {
+            this.value = value;
+            this.expireAt = expireAt;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private static class Stats {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+    }
+
+    /**
+     * #CLEARPLACEHOLDERCACHE drops all the cached results.
+     * <br>
+     * #CLEARPLACEHOLDERCACHE "name" drops the cached results of $name.
+     * <br>
+     * #CLEARPLACEHOLDERCACHE "name" player drops the cached results of $name for the player.
+     */
+    @NativeInfo(name = "CLEARPLACEHOLDERCACHE", maxArgs = 2, affinity = ThreadAffinity.ANY_THREAD)
+    public static class ClearExecutor extends Executor {
+        private final TriggerReactorCore plugin;
+
+        public ClearExecutor(TriggerReactorCore plugin) {
+            this.plugin = plugin;
+        }
+
+        @Override
+        protected Integer execute(Timings.Timing timing, boolean sync, Map<String, Object> vars, Object context,
+                                  Object... args) throws Exception {
+            PlaceholderCache cache = plugin.getPlaceholderManager().getCache();
+            if (args.length == 0) {
+                cache.invalidate();
+                return null;
+            }
+
+            String name = String.valueOf(args[0]);
+            if (name.startsWith("$"))
+                name = name.substring(1);
+
+            if (args.length == 1) {
+                cache.invalidate(name);
+            } else {
+                cache.invalidate(name, args[1]);
+            }
+            return null;
+        }
+    }
+
+    private static final DecimalFormat df = new DecimalFormat("#.##");
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.core.manager;
+
+import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import io.github.wysohn.triggerreactor.tools.GeneratedInvokers;
+import io.github.wysohn.triggerreactor.tools.ReflectionCache;
+
+/**
+ * Applies the settings of {@link ReflectionCache} and {@link GeneratedInvokers} from the config.
+ * <p>
+ * The generated invokers are disabled by default. Set 'Reflection.GeneratedInvokers.Enable' to true in the
+ * config to enable it.
+ */
+public class ReflectionManager extends Manager {
+    private static final String CACHE_SIZE = "Reflection.CacheSize";
+    private static final String INVOKERS_ENABLE = "Reflection.GeneratedInvokers.Enable";
+    private static final String INVOKERS_THRESHOLD = "Reflection.GeneratedInvokers.Threshold";
+    private static final String INVOKERS_MAX_CLASSES = "Reflection.GeneratedInvokers.MaxClasses";
+
+    public ReflectionManager(TriggerReactorCore plugin) {
+        super(plugin);
+    }
+
+    @Override
+    public void reload() {
+        if (!plugin.isConfigSet(CACHE_SIZE) || !plugin.isConfigSet(INVOKERS_ENABLE)
+                || !plugin.isConfigSet(INVOKERS_THRESHOLD) || !plugin.isConfigSet(INVOKERS_MAX_CLASSES)) {
+            if (!plugin.isConfigSet(CACHE_SIZE))
+                plugin.setConfig(CACHE_SIZE, ReflectionCache.getMaxSize());
+            if (!plugin.isConfigSet(INVOKERS_ENABLE))
+                plugin.setConfig(INVOKERS_ENABLE, GeneratedInvokers.isEnabled());
+            if (!plugin.isConfigSet(INVOKERS_THRESHOLD))
+                plugin.setConfig(INVOKERS_THRESHOLD, GeneratedInvokers.getThreshold());
+            if (!plugin.isConfigSet(INVOKERS_MAX_CLASSES))
+                plugin.setConfig(INVOKERS_MAX_CLASSES, GeneratedInvokers.getMaxClasses());
+            plugin.saveConfig();
+        }
+
+        Number cacheSize = plugin.getConfig(CACHE_SIZE, ReflectionCache.getMaxSize());
+        Boolean enable = plugin.getConfig(INVOKERS_ENABLE, GeneratedInvokers.isEnabled());
+        Number threshold = plugin.getConfig(INVOKERS_THRESHOLD, GeneratedInvokers.getThreshold());
+        Number maxClasses = plugin.getConfig(INVOKERS_MAX_CLASSES, GeneratedInvokers.getMaxClasses());
+        if (cacheSize != null)
+            ReflectionCache.setMaxSize(cacheSize.intValue());
+        if (threshold != null)
+            GeneratedInvokers.setThreshold(threshold.longValue());
+        if (maxClasses != null)
+            GeneratedInvokers.setMaxClasses(maxClasses.intValue());
+        GeneratedInvokers.setEnabled(enable != null && enable);
+    }
+
+    @Override
+    public void saveAll() {
+
+    }
+
+    @Override
+    public void disable() {
+        ReflectionCache.clear();
+    }
+}
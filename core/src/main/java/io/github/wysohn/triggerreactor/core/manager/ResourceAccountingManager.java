@@ -0,0 +1,75 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.core.manager;
+
+import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import io.github.wysohn.triggerreactor.tools.timings.ResourceAccounting;
+
+/**
+ * Applies the settings of {@link ResourceAccounting} from the config. The results are shown by
+ * '/trg timings print' and '/trg timings accounting'.
+ * <p>
+ * It's disabled by default. Set 'Accounting.Enable' to true in the config to enable it. Only one in
+ * 'Accounting.SampleRate' activations is measured, so it can be left on.
+ */
+public class ResourceAccountingManager extends Manager {
+    private static final String ENABLE = "Accounting.Enable";
+    private static final String SAMPLE_RATE = "Accounting.SampleRate";
+
+    private int sampleRate = 100;
+
+    public ResourceAccountingManager(TriggerReactorCore plugin) {
+        super(plugin);
+    }
+
+    @Override
+    public void reload() {
+        if (!plugin.isConfigSet(ENABLE) || !plugin.isConfigSet(SAMPLE_RATE)) {
+            if (!plugin.isConfigSet(ENABLE))
+                plugin.setConfig(ENABLE, false);
+            if (!plugin.isConfigSet(SAMPLE_RATE))
+                plugin.setConfig(SAMPLE_RATE, sampleRate);
+            plugin.saveConfig();
+        }
+
+        Boolean enable = plugin.getConfig(ENABLE, false);
+        Number sampleRate = plugin.getConfig(SAMPLE_RATE, this.sampleRate);
+        if (sampleRate != null)
+            this.sampleRate = Math.max(1, sampleRate.intValue());
+        if (enable == null || !enable) {
+            ResourceAccounting.setSampleRate(0);
+            return;
+        }
+
+        if (!ResourceAccounting.isSupported()) {
+            plugin.getLogger().warning("Resource accounting is enabled, but this JVM can't measure the CPU time"
+                    + " and the allocation of the threads.");
+            return;
+        }
+        ResourceAccounting.setSampleRate(this.sampleRate);
+    }
+
+    @Override
+    public void saveAll() {
+
+    }
+
+    @Override
+    public void disable() {
+        ResourceAccounting.setSampleRate(0);
+    }
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.core.manager;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A few Nashorn engines shared by all the Executors and Placeholders of a {@link ScriptEngineManager}.
+ * <p>
+ * Creating an engine is expensive, and each engine keeps its own copy of the compiled classes. Scripts
+ * compiled by the same engine share them, yet each Executor/Placeholder still runs in its own global scope
+ * made by {@link ScriptEngine#createBindings()}, so the scripts can't see each other's top level variables.
+ * The global variables put into the ScriptEngineManager are visible to all of them as before.
+ * <p>
+ * More than one engine is kept so the scripts can be compiled by several threads without waiting for each
+ * other. The size can be changed with the system property 'triggerreactor.scriptEngines'.
+ */
+public class ScriptEnginePool {
+    private static final Map<ScriptEngineManager, ScriptEnginePool> pools = new WeakHashMap<>();
+
+    private final ScriptEngine[] engines;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private ScriptEnginePool(ScriptEngineManager sem, int size) {
+        this.engines = new ScriptEngine[size];
+        for (int i = 0; i < size; i++) {
+            engines[i] = sem.getEngineByName("nashorn");
+            if (engines[i] == null)
+                throw new IllegalStateException("Nashorn is not available.");
+        }
+    }
+
+    /**
+     * @param sem the ScriptEngineManager which holds the global variables
+     * @return the pool of the ScriptEngineManager. Created on the first call.
+     */
+    public static ScriptEnginePool of(ScriptEngineManager sem) {
+        synchronized (pools) {
+            return pools.computeIfAbsent(sem, (key) -> new ScriptEnginePool(key, defaultSize()));
+        }
+    }
+
+    private static int defaultSize() {
+        int size = Math.min(4, Runtime.getRuntime().availableProcessors());
+        return Math.max(1, Integer.getInteger("triggerreactor.scriptEngines", size));
+    }
+
+    /**
+     * @return one of the engines, in round robin.
+     */
+    public ScriptEngine next() {
+        return engines[Math.floorMod(next.getAndIncrement(), engines.length)];
+    }
+
+    public int size() {
+        return engines.length;
+    }
+}
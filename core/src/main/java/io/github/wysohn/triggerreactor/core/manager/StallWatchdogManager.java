@@ -0,0 +1,258 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.core.manager;
+
+import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import io.github.wysohn.triggerreactor.core.script.Token;
+import io.github.wysohn.triggerreactor.core.script.interpreter.Interpreter;
+import io.github.wysohn.triggerreactor.core.script.parser.Node;
+import io.github.wysohn.triggerreactor.tools.metrics.Gauge;
+import io.github.wysohn.triggerreactor.tools.metrics.Metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Watches the sync Triggers running in the server thread, and reports the ones which block the server thread
+ * longer than the threshold.
+ * <p>
+ * Each sync Trigger pushes a {@link Frame} while it's running, so the Triggers started by #CALL are stacked on
+ * top of the caller. When the bottom of the stack exceeds the threshold, the watchdog thread logs the stack once
+ * with the node each interpreter is processing, which is the Executor or the Placeholder in progress if there is
+ * one, and the top of the Java stack of the server thread. The reports are limited to one per
+ * 'Watchdog.ReportIntervalMillis'; the rest are only counted.
+ * <p>
+ * It's disabled by default. Set 'Watchdog.Enable' to true in the config to enable it.
+ */
+public class StallWatchdogManager extends Manager {
+    private static final String ENABLE = "Watchdog.Enable";
+    private static final String THRESHOLD = "Watchdog.ThresholdMillis";
+    private static final String REPORT_INTERVAL = "Watchdog.ReportIntervalMillis";
+
+    private static volatile boolean running = false;
+    // only the server thread changes it
+    private static volatile Frame top = null;
+
+    private static final AtomicLong stalls = new AtomicLong();
+
+    static {
+        Metrics.register(Gauge.counter("triggerreactor_main_thread_stalls_total",
+                "Number of times a sync Trigger blocked the server thread longer than the threshold.", stalls::get));
+    }
+
+    private long thresholdMillis = 50L;
+    private long reportIntervalMillis = 10_000L;
+
+    private Thread watchThread;
+    private long lastReport = 0L;
+    private long suppressed = 0L;
+
+    public StallWatchdogManager(TriggerReactorCore plugin) {
+        super(plugin);
+    }
+
+    public static boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return number of stalls detected so far
+     */
+    public static long getStalls() {
+        return stalls.get();
+    }
+
+    /**
+     * Mark that the Trigger started running in the server thread. Does nothing if the watchdog is not running.
+     *
+     * @param name        name of the Trigger
+     * @param interpreter the interpreter running the Trigger
+     * @return the frame to be passed to {@link #exit(Frame)}; null if not watched.
+     */
+    public static Frame enter(String name, Interpreter interpreter) {
+        if (!running)
+            return null;
+
+        Frame frame = new Frame(top, Thread.currentThread(), name, interpreter);
+        top = frame;
+        return frame;
+    }
+
+    /**
+     * @param frame the frame returned by {@link #enter(String, Interpreter)}. Can be null.
+     */
+    public static void exit(Frame frame) {
+        if (frame == null)
+            return;
+
+        top = frame.parent;
+    }
+
+    @Override
+    public void reload() {
+        stop();
+
+        if (!plugin.isConfigSet(ENABLE) || !plugin.isConfigSet(THRESHOLD) || !plugin.isConfigSet(REPORT_INTERVAL)) {
+            if (!plugin.isConfigSet(ENABLE))
+                plugin.setConfig(ENABLE, false);
+            if (!plugin.isConfigSet(THRESHOLD))
+                plugin.setConfig(THRESHOLD, thresholdMillis);
+            if (!plugin.isConfigSet(REPORT_INTERVAL))
+                plugin.setConfig(REPORT_INTERVAL, reportIntervalMillis);
+            plugin.saveConfig();
+        }
+
+        Boolean enable = plugin.getConfig(ENABLE, false);
+        Number threshold = plugin.getConfig(THRESHOLD, thresholdMillis);
+        Number reportInterval = plugin.getConfig(REPORT_INTERVAL, reportIntervalMillis);
+        if (threshold != null)
+            thresholdMillis = Math.max(1L, threshold.longValue());
+        if (reportInterval != null)
+            reportIntervalMillis = Math.max(0L, reportInterval.longValue());
+        if (enable == null || !enable)
+            return;
+
+        start();
+    }
+
+    @Override
+    public void saveAll() {
+
+    }
+
+    @Override
+    public void disable() {
+        stop();
+    }
+
+    private synchronized void start() {
+        running = true;
+
+        watchThread = new Thread(this::watch);
+        watchThread.setName("TriggerReactor -- Watchdog");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    private synchronized void stop() {
+        running = false;
+        top = null;
+
+        if (watchThread != null) {
+            watchThread.interrupt();
+            watchThread = null;
+        }
+    }
+
+    private void watch() {
+        long thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        long period = Math.max(1L, thresholdMillis / 4);
+
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(period);
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            Frame current = top;
+            if (current == null)
+                continue;
+
+            Frame bottom = current;
+            while (bottom.parent != null)
+                bottom = bottom.parent;
+
+            long elapsed = System.nanoTime() - bottom.started;
+            if (bottom.reported || elapsed < thresholdNanos)
+                continue;
+
+            bottom.reported = true;
+            stalls.incrementAndGet();
+            report(current, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+    }
+
+    private void report(Frame current, long elapsedMillis) {
+        long now = System.currentTimeMillis();
+        if (now - lastReport < reportIntervalMillis) {
+            suppressed++;
+            return;
+        }
+        lastReport = now;
+
+        String message = "Server thread has been blocked for " + elapsedMillis + "ms by " + describe(current)
+                + describeJava(current.thread);
+        if (suppressed > 0) {
+            message += " (" + suppressed + " more stall(s) since the last report)";
+            suppressed = 0L;
+        }
+        plugin.getLogger().warning(message);
+    }
+
+    /**
+     * @param current the top of the stack
+     * @return the stack from the bottom. Ex) CommandTrigger.a (3:1 #CALL) > NamedTrigger.b (5:5 #WAIT)
+     */
+    static String describe(Frame current) {
+        StringBuilder builder = new StringBuilder();
+        for (Frame frame = current; frame != null; frame = frame.parent) {
+            StringBuilder entry = new StringBuilder(frame.name);
+            Node node = frame.interpreter == null ? null : frame.interpreter.getCurrentNode();
+            if (node != null) {
+                Token token = node.getToken();
+                entry.append(" (").append(token.row).append(':').append(token.col).append(' ');
+                if (token.type == Token.Type.EXECUTOR)
+                    entry.append('#');
+                else if (token.type == Token.Type.PLACEHOLDER)
+                    entry.append('$');
+                entry.append(token.value).append(')');
+            }
+
+            if (builder.length() > 0)
+                entry.append(" > ");
+            builder.insert(0, entry);
+        }
+        return builder.toString();
+    }
+
+    private static String describeJava(Thread thread) {
+        StackTraceElement[] trace = thread.getStackTrace();
+        return trace.length == 0 ? "" : " at " + trace[0];
+    }
+
+    /**
+     * A sync Trigger running in the server thread. Immutable except the flag used by the watchdog thread, so the
+     * watchdog thread can walk the stack while the server thread pushes and pops.
+     */
+    public static class Frame {
+        private final Frame parent;
+        private final Thread thread;
+        private final String name;
+        private final Interpreter interpreter;
+        private final long started = System.nanoTime();
+
+        private boolean reported = false;
+
+        Frame(Frame parent, Thread thread, String name, Interpreter interpreter) {
+            this.parent = parent;
+            this.thread = thread;
+            this.name = name;
+            this.interpreter = interpreter;
+        }
+    }
+}
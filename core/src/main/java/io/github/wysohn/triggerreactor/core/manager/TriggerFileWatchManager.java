@@ -0,0 +1,354 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.core.manager;
+
+import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import io.github.wysohn.triggerreactor.core.manager.trigger.AbstractTriggerManager;
+import io.github.wysohn.triggerreactor.core.manager.trigger.Trigger;
+import io.github.wysohn.triggerreactor.core.manager.trigger.TriggerInfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches the folder of each trigger manager, and reloads only the Triggers whose files are changed.
+ * <p>
+ * Changes are collected until no more change happens for the debounce time, and then the Triggers are
+ * parsed in the watcher thread. Only the swap of the new Triggers happens in the server thread. If the Triggers are
+ * being reloaded with the command at the moment, the changes wait until it's done.
+ * <p>
+ * It's disabled by default. Set 'FileWatcher.Enable' to true in the config to enable it.
+ */
+public class TriggerFileWatchManager extends Manager {
+    private static final String ENABLE = "FileWatcher.Enable";
+    private static final String DEBOUNCE = "FileWatcher.DebounceMillis";
+
+    private final Map<WatchKey, WatchedFolder> watchedFolders = new ConcurrentHashMap<>();
+    private final Map<AbstractTriggerManager<?>, Set<File>> pending = new HashMap<>();
+    private final Map<File, Long> checksums = new HashMap<>();
+
+    private long debounceMillis = 500L;
+    private WatchService watchService;
+    private Thread watchThread;
+    private volatile boolean watching = false;
+
+    public TriggerFileWatchManager(TriggerReactorCore plugin) {
+        super(plugin);
+    }
+
+    @Override
+    public void reload() {
+        stop();
+
+        if (!plugin.isConfigSet(ENABLE) || !plugin.isConfigSet(DEBOUNCE)) {
+            if (!plugin.isConfigSet(ENABLE))
+                plugin.setConfig(ENABLE, false);
+            if (!plugin.isConfigSet(DEBOUNCE))
+                plugin.setConfig(DEBOUNCE, debounceMillis);
+            plugin.saveConfig();
+        }
+
+        Boolean enable = plugin.getConfig(ENABLE, false);
+        Number debounce = plugin.getConfig(DEBOUNCE, debounceMillis);
+        if (enable == null || !enable)
+            return;
+        if (debounce != null)
+            debounceMillis = Math.max(50L, debounce.longValue());
+
+        // start after all the other managers are reloaded
+        plugin.runTask(this::start);
+    }
+
+    @Override
+    public void saveAll() {
+
+    }
+
+    /**
+     * @return true if the folders are registered and the changes are being watched
+     */
+    public boolean isWatching() {
+        return watching;
+    }
+
+    @Override
+    public void disable() {
+        stop();
+    }
+
+    private synchronized void start() {
+        if (watchThread != null)
+            return;
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            e.printStackTrace();
+            plugin.getLogger().warning("Could not start the file watcher.");
+            return;
+        }
+
+        WatchService service = watchService;
+        watchThread = new Thread(() -> watch(service));
+        watchThread.setName("TriggerReactor -- File Watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    private synchronized void stop() {
+        if (watchThread != null) {
+            watchThread.interrupt();
+            watchThread = null;
+        }
+
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            watchService = null;
+        }
+
+        watching = false;
+        watchedFolders.clear();
+        synchronized (pending) {
+            pending.clear();
+        }
+    }
+
+    private void watch(WatchService service) {
+        for (Manager manager : Manager.getManagers()) {
+            if (!(manager instanceof AbstractTriggerManager))
+                continue;
+
+            AbstractTriggerManager<?> triggerManager = (AbstractTriggerManager<?>) manager;
+            File folder = triggerManager.getFolder();
+            if (!folder.exists())
+                folder.mkdirs();
+
+            try {
+                register(service, triggerManager, folder);
+            } catch (IOException e) {
+                e.printStackTrace();
+                plugin.getLogger().warning("Could not watch " + folder);
+            }
+        }
+
+        watching = true;
+
+        long lastEvent = 0L;
+        while (!Thread.currentThread().isInterrupted()) {
+            WatchKey key;
+            try {
+                key = service.poll(debounceMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                break;
+            }
+
+            if (key == null) {
+                // nothing happened during the debounce time
+                if (lastEvent != 0L && System.currentTimeMillis() - lastEvent >= debounceMillis && flush())
+                    lastEvent = 0L;
+                continue;
+            }
+
+            WatchedFolder watched = watchedFolders.get(key);
+            if (watched != null) {
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    File file;
+                    if (event.kind() == OVERFLOW) {
+                        // lost track of the events. Consider everything changed.
+                        file = watched.manager.getFolder();
+                    } else {
+                        file = watched.folder.toPath().resolve((Path) event.context()).toFile();
+                        if (event.kind() == ENTRY_CREATE && file.isDirectory()) {
+                            try {
+                                register(service, watched.manager, file);
+                            } catch (IOException e) {
+                                e.printStackTrace();
+                            }
+                        }
+                    }
+
+                    synchronized (pending) {
+                        pending.computeIfAbsent(watched.manager, (m) -> new HashSet<>()).add(file);
+                    }
+                }
+                lastEvent = System.currentTimeMillis();
+            }
+
+            if (!key.reset())
+                watchedFolders.remove(key);
+        }
+    }
+
+    private void register(WatchService service, AbstractTriggerManager<?> manager, File folder) throws IOException {
+        WatchKey key = folder.toPath().register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        watchedFolders.put(key, new WatchedFolder(manager, folder));
+
+        File[] files = folder.listFiles();
+        if (files == null)
+            return;
+
+        for (File file : files) {
+            if (file.isDirectory()) {
+                register(service, manager, file);
+            } else if (isTriggerFile(file)) {
+                checksums.put(file, checksum(file));
+            }
+        }
+    }
+
+    /**
+     * Reload the Triggers of the changed files.
+     *
+     * @return true if done; false if another reload is in progress. The changes are kept to be tried again later.
+     */
+    private boolean flush() {
+        if (!plugin.beginReload())
+            return false;
+
+        Map<AbstractTriggerManager<?>, Set<File>> changes;
+        synchronized (pending) {
+            changes = new HashMap<>(pending);
+            pending.clear();
+        }
+
+        List<Runnable> publishes = new ArrayList<>();
+        try {
+            for (Map.Entry<AbstractTriggerManager<?>, Set<File>> entry : changes.entrySet()) {
+                Set<File> files = new HashSet<>();
+                for (File file : entry.getValue()) {
+                    if (file.isDirectory() || file.equals(entry.getKey().getFolder())) {
+                        files.add(file);
+                    } else if (isTriggerFile(file) && isContentChanged(file)) {
+                        files.add(file);
+                    }
+                }
+
+                if (files.isEmpty())
+                    continue;
+
+                Runnable publish = prepareChanges(entry.getKey(), files);
+                if (publish != null)
+                    publishes.add(publish);
+            }
+        } catch (RuntimeException ex) {
+            plugin.endReload();
+            throw ex;
+        }
+
+        if (publishes.isEmpty()) {
+            plugin.endReload();
+            return true;
+        }
+
+        plugin.runTask(() -> {
+            try {
+                publishes.forEach(Runnable::run);
+            } finally {
+                plugin.endReload();
+            }
+        });
+        return true;
+    }
+
+    /**
+     * @return the task to publish the changes in the server thread; null if nothing to publish.
+     */
+    private <T extends Trigger> Runnable prepareChanges(AbstractTriggerManager<T> manager, Set<File> files) {
+        // parse off the server thread
+        AbstractTriggerManager.TriggerChanges<T> changes = manager.prepareChanges(files);
+        if (changes.isEmpty())
+            return null;
+
+        // loading creates the config file if it was missing, which is not a change to react to
+        for (T trigger : changes.getLoaded().values())
+            rememberConfigFile(manager.getFolder(), trigger.getInfo().getSourceCodeFile());
+
+        return () -> {
+            manager.applyChanges(changes);
+
+            if (!changes.getLoaded().isEmpty())
+                plugin.getLogger().info("Reloaded " + changes.getLoaded().keySet() + " from changed files.");
+            if (!changes.getRemoved().isEmpty())
+                plugin.getLogger().info("Unregistered " + changes.getRemoved() + " since the files were deleted.");
+        };
+    }
+
+    /**
+     * Compare with the last checksum, so the files saved by the plugin itself without any actual change,
+     * or the files touched without modification, won't trigger the reload.
+     */
+    private boolean isContentChanged(File file) {
+        if (!file.exists()) {
+            checksums.remove(file);
+            return true;
+        }
+
+        long checksum = checksum(file);
+        Long previous = checksums.put(file, checksum);
+        return previous == null || previous != checksum;
+    }
+
+    private void rememberConfigFile(File folder, File source) {
+        if (source == null)
+            return;
+
+        String name = source.isDirectory() ? source.getName() : TriggerInfo.extractName(source);
+        File config = new File(folder, name + ".json");
+        if (config.exists())
+            checksums.put(config, checksum(config));
+    }
+
+    /**
+     * Only the sources and their configs. The temporary files of the editors, such as .swp or the ones with no
+     * extension, are ignored.
+     */
+    private static boolean isTriggerFile(File file) {
+        String name = file.getName();
+        return name.endsWith(".trg") || name.endsWith(".json");
+    }
+
+    private static long checksum(File file) {
+        CRC32 crc = new CRC32();
+        try {
+            crc.update(Files.readAllBytes(file.toPath()));
+        } catch (IOException e) {
+            return -1L;
+        }
+        return crc.getValue();
+    }
+
+    private static class WatchedFolder {
+        private final AbstractTriggerManager<?> manager;
+        private final File folder;
+
+        private WatchedFolder(AbstractTriggerManager<?> manager, File folder) {
+            this.manager = manager;
+            this.folder = folder;
+        }
+    }
+}
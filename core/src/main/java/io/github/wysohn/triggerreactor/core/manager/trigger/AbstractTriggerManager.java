@@ -31,7 +31,7 @@ import java.util.logging.Logger;
 
 public abstract class AbstractTriggerManager<T extends Trigger> extends Manager {
     private final Observer observer = new Observer();
-    private final Map<String, T> triggers = new ConcurrentHashMap<>();
+    private volatile Map<String, T> triggers = new ConcurrentHashMap<>();
 
     protected final File folder;
     protected final ITriggerLoader<T> loader;
@@ -54,10 +54,24 @@ public abstract class AbstractTriggerManager<T extends Trigger> extends Manager
 
     @Override
     public void reload() {
+        prepareReload().run();
+    }
+
+    /**
+     * Load all the Triggers and build the new indexes without touching the Triggers currently in use, so it can
+     * be done off the server thread. The returned task publishes the new generation of Triggers with a reference
+     * swap, and it must be run in the server thread.
+     * <p>
+     * Activations already in progress will finish with the Triggers of the previous generation. If a Trigger
+     * fails to load, it is logged and the Trigger of the previous generation is kept in its place.
+     *
+     * @return the task which publishes the newly loaded Triggers.
+     */
+    public Runnable prepareReload() {
         if (!folder.exists())
             folder.mkdirs();
 
-        triggers.clear();
+        Map<String, T> loaded = new ConcurrentHashMap<>();
 
         for (TriggerInfo info : loader.listTriggers(folder, configSourceFactory)) {
             try {
@@ -66,16 +80,45 @@ public abstract class AbstractTriggerManager<T extends Trigger> extends Manager
                 T t = loader.load(info);
                 Optional.ofNullable(t)
                         .ifPresent(trigger -> {
-                            if (has(info.getTriggerName())) {
+                            if (loaded.containsKey(info.getTriggerName())) {
                                 plugin.getLogger().warning(info + " is already registered! Duplicated Trigger?");
                             } else {
-                                put(info.getTriggerName(), trigger);
+                                trigger.setObserver(observer);
+                                loaded.put(info.getTriggerName(), trigger);
                             }
                         });
             } catch (Exception e) {
-                throw new RuntimeException("Failed to load " + info, e);
+                e.printStackTrace();
+                plugin.getLogger().warning("Failed to load " + info + ". The previously loaded one will be kept.");
+
+                // one broken file should not take the whole reload down with it
+                T previous = triggers.get(info.getTriggerName());
+                if (previous != null)
+                    loaded.putIfAbsent(info.getTriggerName(), previous);
             }
         }
+
+        Runnable swapIndexes = prepareIndexes(loaded);
+
+        return () -> {
+            CircuitBreaker.loadSettings(plugin);
+
+            triggers = loaded;
+            swapIndexes.run();
+        };
+    }
+
+    /**
+     * Build the indexes of the manager (location cache, for example) for the newly loaded Triggers.
+     * This is called off the server thread, so it must not modify anything currently in use.
+     *
+     * @param loaded the newly loaded Triggers, which are not published yet.
+     * @return the task to be run in the server thread right after the new Triggers are published. It should
+     * only swap in the prepared indexes.
+     */
+    protected Runnable prepareIndexes(Map<String, T> loaded) {
+        return () -> {
+        };
     }
 
     public void reload(String triggerName) {
@@ -121,6 +164,102 @@ public abstract class AbstractTriggerManager<T extends Trigger> extends Manager
         return deleted;
     }
 
+    /**
+     * Load the Triggers affected by the changed files. This does not change anything in this manager,
+     * so it is safe to call it from any thread. Use {@link #applyChanges(TriggerChanges)} to publish the result.
+     * <p>
+     * Only the Triggers whose files are changed are loaded, so the config sources of the others are left alone.
+     *
+     * @param changedFiles files that were created, modified, or deleted. If the folder of this manager itself
+     *                     is included, every Trigger is considered as changed.
+     * @return the Triggers to be replaced and the names of the Triggers to be unregistered.
+     */
+    public TriggerChanges<T> prepareChanges(Collection<File> changedFiles) {
+        Map<String, T> loaded = new HashMap<>();
+        Set<String> removed = new HashSet<>();
+
+        for (TriggerInfo info : loader.listTriggers(folder, configSourceFactory,
+                source -> isAffected(source, changedFiles))) {
+            try {
+                info.reloadConfig();
+
+                T t = loader.load(info);
+                if (t != null)
+                    loaded.put(info.getTriggerName(), t);
+            } catch (Exception e) {
+                e.printStackTrace();
+                plugin.getLogger().warning("Failed to load " + info + " after the file was changed.");
+            }
+        }
+
+        for (T trigger : triggers.values()) {
+            TriggerInfo info = trigger.getInfo();
+            File source = info.getSourceCodeFile();
+            if (source != null && !source.exists() && !loaded.containsKey(info.getTriggerName())
+                    && isAffected(source, changedFiles))
+                removed.add(info.getTriggerName());
+        }
+
+        return new TriggerChanges<>(loaded, removed);
+    }
+
+    /**
+     * @param source the source file of a Trigger, or its folder if the Trigger has one (Area Trigger for example)
+     */
+    private boolean isAffected(File source, Collection<File> changedFiles) {
+        String sourceName = source.isDirectory() ? source.getName() : TriggerInfo.extractName(source);
+        for (File file : changedFiles) {
+            if (file.equals(folder) || file.equals(source))
+                return true;
+
+            // the file inside the folder of the trigger
+            if (file.toPath().startsWith(source.toPath()))
+                return true;
+
+            // the config file, which is named after the source file
+            String name = file.getName();
+            if (name.endsWith(".json")) {
+                name = name.substring(0, name.length() - ".json".length());
+                if (name.equals(sourceName)
+                        && (folder.equals(file.getParentFile()) || file.getParentFile().equals(source.getParentFile())))
+                    return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Publish the changes prepared by {@link #prepareChanges(Collection)}. Must be called from the server thread.
+     *
+     * @param changes the changes
+     */
+    public void applyChanges(TriggerChanges<T> changes) {
+        for (String name : changes.getRemoved()) {
+            replaceTrigger(name, triggers.get(name), null);
+        }
+
+        for (Map.Entry<String, T> entry : changes.getLoaded().entrySet()) {
+            replaceTrigger(entry.getKey(), triggers.get(entry.getKey()), entry.getValue());
+        }
+    }
+
+    /**
+     * Swap the Trigger without touching its files. Override it to also update the indexes of the manager,
+     * such as the location cache or the registered commands.
+     *
+     * @param name     name of the Trigger
+     * @param previous the Trigger currently registered. Can be null.
+     * @param current  the Trigger to replace the previous one. Null to just unregister the previous one.
+     */
+    protected void replaceTrigger(String name, T previous, T current) {
+        if (current == null) {
+            triggers.remove(name);
+        } else {
+            put(name, current);
+        }
+    }
+
     public Collection<T> getAllTriggers() {
         return triggers.values();
     }
@@ -187,6 +326,28 @@ public abstract class AbstractTriggerManager<T extends Trigger> extends Manager
         }
     }
 
+    public static final class TriggerChanges<T extends Trigger> {
+        private final Map<String, T> loaded;
+        private final Set<String> removed;
+
+        public TriggerChanges(Map<String, T> loaded, Set<String> removed) {
+            this.loaded = loaded;
+            this.removed = removed;
+        }
+
+        public Map<String, T> getLoaded() {
+            return loaded;
+        }
+
+        public Set<String> getRemoved() {
+            return removed;
+        }
+
+        public boolean isEmpty() {
+            return loaded.isEmpty() && removed.isEmpty();
+        }
+    }
+
     @SuppressWarnings("serial")
     public static final class TriggerInitFailedException extends Exception {
 
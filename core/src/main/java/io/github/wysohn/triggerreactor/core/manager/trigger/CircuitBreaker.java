@@ -0,0 +1,295 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.core.manager.trigger;
+
+import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops a Trigger which keeps failing from flooding the console and wasting the server resources.
+ * <p>
+ * The breaker is CLOSED normally. If the Trigger fails {@link #getThreshold()} times within
+ * {@link #getWindowMillis()}, the breaker becomes OPEN, and the Trigger will not be activated
+ * until {@link #getCooldownMillis()} passes. After the cooldown, the breaker becomes HALF_OPEN and allows
+ * exactly one activation; the breaker will be CLOSED again if it succeeds, or it will be OPEN again if it fails.
+ * <p>
+ * While the breaker is not CLOSED, errors are only counted instead of being reported one by one.
+ */
+public class CircuitBreaker {
+    public static final String THRESHOLD = "CircuitBreaker.Threshold";
+    public static final String WINDOW = "CircuitBreaker.WindowMillis";
+    public static final String COOLDOWN = "CircuitBreaker.CooldownMillis";
+
+    private static volatile int threshold = 5;
+    private static volatile long windowMillis = 10_000L;
+    private static volatile long cooldownMillis = 30_000L;
+
+    /**
+     * Read the settings from the plugin config, and write the defaults if they are not set yet.
+     *
+     * @param plugin the plugin
+     */
+    public static void loadSettings(TriggerReactorCore plugin) {
+        // every trigger manager loads these on reload, so only touch the file if a default was written
+        boolean written = writeDefault(plugin, THRESHOLD, threshold);
+        written |= writeDefault(plugin, WINDOW, windowMillis);
+        written |= writeDefault(plugin, COOLDOWN, cooldownMillis);
+        if (written)
+            plugin.saveConfig();
+
+        Number threshold = plugin.getConfig(THRESHOLD, CircuitBreaker.threshold);
+        Number window = plugin.getConfig(WINDOW, CircuitBreaker.windowMillis);
+        Number cooldown = plugin.getConfig(COOLDOWN, CircuitBreaker.cooldownMillis);
+        if (threshold != null)
+            CircuitBreaker.threshold = threshold.intValue();
+        if (window != null)
+            CircuitBreaker.windowMillis = window.longValue();
+        if (cooldown != null)
+            CircuitBreaker.cooldownMillis = cooldown.longValue();
+    }
+
+    private static boolean writeDefault(TriggerReactorCore plugin, String key, Object value) {
+        if (plugin.isConfigSet(key))
+            return false;
+
+        plugin.setConfig(key, value);
+        return true;
+    }
+
+    /**
+     * @return number of failures to open the breaker. 0 or less disables the breaker.
+     */
+    public static int getThreshold() {
+        return threshold;
+    }
+
+    public static long getWindowMillis() {
+        return windowMillis;
+    }
+
+    public static long getCooldownMillis() {
+        return cooldownMillis;
+    }
+
+    public static void setThreshold(int threshold) {
+        CircuitBreaker.threshold = threshold;
+    }
+
+    public static void setWindowMillis(long windowMillis) {
+        CircuitBreaker.windowMillis = windowMillis;
+    }
+
+    public static void setCooldownMillis(long cooldownMillis) {
+        CircuitBreaker.cooldownMillis = cooldownMillis;
+    }
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final LongSupplier clock;
+
+    private volatile State state = State.CLOSED;
+    private long[] failureTimes = new long[0];
+    private int failureIndex = 0;
+    private int failureCount = 0;
+    private long openedAt;
+
+    private final AtomicLong totalFailures = new AtomicLong();
+    private final AtomicLong suppressedFailures = new AtomicLong();
+    private final AtomicLong skippedActivations = new AtomicLong();
+
+    public CircuitBreaker() {
+        this(System::currentTimeMillis);
+    }
+
+    public CircuitBreaker(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getTotalFailures() {
+        return totalFailures.get();
+    }
+
+    /**
+     * @return errors that were counted but not reported since the breaker was opened last time.
+     */
+    public long getSuppressedFailures() {
+        return suppressedFailures.get();
+    }
+
+    /**
+     * @return activations skipped since the breaker was opened last time.
+     */
+    public long getSkippedActivations() {
+        return skippedActivations.get();
+    }
+
+    /**
+     * Check if the Trigger can be activated now.
+     *
+     * @return true if allowed; false if the breaker is open and the activation should be skipped.
+     */
+    public boolean allowActivation() {
+        // the common case; no lock involved
+        if (state == State.CLOSED)
+            return true;
+
+        synchronized (this) {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (clock.getAsLong() - openedAt >= cooldownMillis) {
+                        // let only one activation pass through as a trial
+                        state = State.HALF_OPEN;
+                        return true;
+                    }
+                    break;
+                case HALF_OPEN:
+                    // trial is still in progress
+                    break;
+            }
+        }
+
+        skippedActivations.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Notify that an activation finished. It only matters when the breaker is HALF_OPEN, and it will close
+     * the breaker since the trial activation did not fail.
+     *
+     * @return true if the breaker was closed by this call
+     */
+    public boolean onSuccess() {
+        if (state != State.HALF_OPEN)
+            return false;
+
+        synchronized (this) {
+            if (state != State.HALF_OPEN)
+                return false;
+
+            close();
+            return true;
+        }
+    }
+
+    /**
+     * Notify that an activation failed.
+     *
+     * @return the result which tells how this failure should be reported.
+     */
+    public synchronized Result onFailure() {
+        totalFailures.incrementAndGet();
+
+        int threshold = CircuitBreaker.threshold;
+        if (threshold <= 0) {
+            return Result.REPORT;
+        }
+
+        long now = clock.getAsLong();
+        switch (state) {
+            case HALF_OPEN:
+                // trial failed
+                suppressedFailures.incrementAndGet();
+                open(now);
+                return Result.REOPENED;
+            case OPEN:
+                suppressedFailures.incrementAndGet();
+                return Result.SUPPRESS;
+            case CLOSED:
+            default:
+                if (failureTimes.length != threshold) {
+                    failureTimes = new long[threshold];
+                    failureIndex = 0;
+                    failureCount = 0;
+                }
+
+                // ring buffer of the last N failures; the oldest is overwritten
+                failureTimes[failureIndex] = now;
+                failureIndex = (failureIndex + 1) % threshold;
+                if (failureCount < threshold)
+                    failureCount++;
+
+                // once full, the next slot holds the oldest of the last N failures
+                long oldest = failureTimes[failureIndex];
+                if (failureCount == threshold && now - oldest <= windowMillis) {
+                    suppressedFailures.set(0L);
+                    skippedActivations.set(0L);
+                    open(now);
+                    return Result.TRIPPED;
+                }
+                return Result.REPORT;
+        }
+    }
+
+    private void open(long now) {
+        state = State.OPEN;
+        openedAt = now;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        failureTimes = new long[0];
+        failureIndex = 0;
+        failureCount = 0;
+    }
+
+    /**
+     * Close the breaker and forget all the failures so far.
+     */
+    public synchronized void reset() {
+        close();
+        suppressedFailures.set(0L);
+        skippedActivations.set(0L);
+    }
+
+    @Override
+    public String toString() {
+        State state = this.state;
+        if (state == State.CLOSED)
+            return state.name();
+
+        return state.name() + "(errors=" + suppressedFailures.get() + ", skipped=" + skippedActivations.get() + ")";
+    }
+
+    public enum Result {
+        /**
+         * Report the error as usual.
+         */
+        REPORT,
+        /**
+         * This error opened the breaker. Report it, and then the Trigger is suspended.
+         */
+        TRIPPED,
+        /**
+         * The trial activation failed, so the breaker is open again. Report only the summary.
+         */
+        REOPENED,
+        /**
+         * The breaker is already open. Only count the error.
+         */
+        SUPPRESS
+    }
+}
@@ -7,13 +7,28 @@ import io.github.wysohn.triggerreactor.core.config.source.IConfigSource;
 import java.io.File;
 import java.util.Arrays;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 public interface ITriggerLoader<T extends Trigger> {
     default TriggerInfo[] listTriggers(File folder, ConfigSourceFactory fn) {
+        return listTriggers(folder, fn, file -> true);
+    }
+
+    /**
+     * List only the Triggers whose source file (or folder) is accepted by the filter. The config source is not
+     * created for the others.
+     *
+     * @param folder the folder of the manager
+     * @param fn     the factory of the config sources
+     * @param filter the filter of the source files
+     * @return the Triggers
+     */
+    default TriggerInfo[] listTriggers(File folder, ConfigSourceFactory fn, Predicate<File> filter) {
         return Optional.ofNullable(folder.listFiles())
                 .map(files -> Arrays.stream(files)
                         .filter(File::isFile)
                         .filter(file -> file.getName().endsWith(".trg"))
+                        .filter(filter)
                         .map(file -> {
                             String name = TriggerInfo.extractName(file);
                             IConfigSource config = fn.create(folder, name);
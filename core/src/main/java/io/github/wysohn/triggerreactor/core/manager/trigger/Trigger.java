@@ -2,11 +2,16 @@ package io.github.wysohn.triggerreactor.core.manager.trigger;
 
 import io.github.wysohn.triggerreactor.core.bridge.entity.IPlayer;
 import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import io.github.wysohn.triggerreactor.core.config.source.IConfigSource;
+import io.github.wysohn.triggerreactor.core.manager.LoadSheddingManager;
+import io.github.wysohn.triggerreactor.core.manager.StallWatchdogManager;
 import io.github.wysohn.triggerreactor.core.manager.trigger.AbstractTriggerManager.TriggerInitFailedException;
 import io.github.wysohn.triggerreactor.core.script.interpreter.Executor;
 import io.github.wysohn.triggerreactor.core.script.interpreter.Interpreter;
 import io.github.wysohn.triggerreactor.core.script.interpreter.InterpreterException;
 import io.github.wysohn.triggerreactor.core.script.interpreter.Placeholder;
+import io.github.wysohn.triggerreactor.core.script.interpreter.ScriptProfiler;
+import io.github.wysohn.triggerreactor.core.script.interpreter.SyncRegionInference;
 import io.github.wysohn.triggerreactor.core.script.lexer.Lexer;
 import io.github.wysohn.triggerreactor.core.script.lexer.LexerException;
 import io.github.wysohn.triggerreactor.core.script.parser.Node;
@@ -15,19 +20,30 @@ import io.github.wysohn.triggerreactor.core.script.parser.ParserException;
 import io.github.wysohn.triggerreactor.core.script.warning.Warning;
 import io.github.wysohn.triggerreactor.tools.StringUtils;
 import io.github.wysohn.triggerreactor.tools.ValidationUtil;
+import io.github.wysohn.triggerreactor.tools.jfr.JfrEvents;
+import io.github.wysohn.triggerreactor.tools.metrics.Gauge;
+import io.github.wysohn.triggerreactor.tools.metrics.Metrics;
 import io.github.wysohn.triggerreactor.tools.observer.IObservable;
 import io.github.wysohn.triggerreactor.tools.observer.IObserver;
+import io.github.wysohn.triggerreactor.tools.timings.FlightRecorder;
+import io.github.wysohn.triggerreactor.tools.timings.ResourceAccounting;
 import io.github.wysohn.triggerreactor.tools.timings.Timings;
 
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.*;
 
 public abstract class Trigger implements Cloneable, IObservable {
+    /**
+     * Key of the {@link LoadSheddingManager.Priority} in the config of the Trigger.
+     */
+    public static final String LOAD_PRIORITY = "LoadPriority";
+
     protected final Map<UUID, Long> cooldowns = new ConcurrentHashMap<>();
     protected final TriggerInfo info;
 
@@ -41,11 +57,16 @@ public abstract class Trigger implements Cloneable, IObservable {
 
     private boolean sync = false;
 
+    protected final CircuitBreaker breaker = new CircuitBreaker();
+    private final Timings.CachedTiming cachedTiming = new Timings.CachedTiming(this::getTimingId);
+    private volatile ScriptProfiler profiler = null;
+    private volatile LoadSheddingManager.Priority loadPriority = null;
+
     /**
      * This constructor <b>does not</b> initialize the fields. It is essential to call {@link #init()} method
      * in order to make the Trigger work properly. If you want to create a Trigger with customized
      * behavior, it's not necessary to call {@link #init()} but need to override {@link #initInterpreter(Map)},
-     * {@link #startInterpretation(Object, Map, Interpreter, boolean)}, or {@link #activate(Object, Map)} method as your need
+     * {@link #startInterpretation(Object, Map, Interpreter, boolean, UUID)}, or {@link #activate(Object, Map)} method as your need
      */
     public Trigger(TriggerInfo info, String script) {
         super();
@@ -96,13 +117,19 @@ public abstract class Trigger implements Cloneable, IObservable {
             Lexer lexer = new Lexer(script, charset);
             Parser parser = new Parser(lexer);
 
-            root = parser.parse(true);
+            Node parsed = parser.parse(true);
             List<Warning> warnings = parser.getWarnings();
 
             AbstractTriggerManager.reportWarnings(warnings, this);
             executorMap = TriggerReactorCore.getInstance().getExecutorManager().getBackedMap();
             placeholderMap = TriggerReactorCore.getInstance().getPlaceholderManager().getBackedMap();
             gvarMap = TriggerReactorCore.getInstance().getVariableManager().getGlobalVariableAdapter();
+
+            root = new SyncRegionInference(executorMap, placeholderMap).apply(parsed);
+            if (TriggerReactorCore.getInstance().isDebugging() && SyncRegionInference.hasImplicitSync(root)) {
+                TriggerReactorCore.getInstance().getLogger().info("Implicit SYNC regions of " + info + ":\n"
+                        + SyncRegionInference.dump(root));
+            }
         } catch (Exception ex) {
             throw new TriggerInitFailedException("Failed to initialize Trigger [" + this.getClass().getSimpleName()
                     + " -- " + info + "]!", ex);
@@ -146,6 +173,75 @@ public abstract class Trigger implements Cloneable, IObservable {
      */
     public void setSync(boolean sync) {
         this.sync = sync;
+        // the default priority may depend on it. See CustomTrigger
+        loadPriority = null;
+    }
+
+    /**
+     * Get the priority of this Trigger for the load shedding. It's 'LoadPriority' in the config of this Trigger,
+     * or {@link #getDefaultLoadPriority()} if not set.
+     *
+     * @return the priority
+     */
+    public LoadSheddingManager.Priority getLoadPriority() {
+        LoadSheddingManager.Priority priority = loadPriority;
+        if (priority != null)
+            return priority;
+
+        priority = getDefaultLoadPriority();
+        IConfigSource config = info.getConfig();
+        String value = config == null ? null : config.get(LOAD_PRIORITY, String.class).orElse(null);
+        if (value != null) {
+            try {
+                priority = LoadSheddingManager.Priority.valueOf(value.toUpperCase());
+            } catch (IllegalArgumentException ex) {
+                TriggerReactorCore.getInstance().getLogger().warning("Trigger [" + info + "] has an invalid "
+                        + LOAD_PRIORITY + " " + value + ". Use one of "
+                        + Arrays.toString(LoadSheddingManager.Priority.values()));
+            }
+        }
+        return loadPriority = priority;
+    }
+
+    /**
+     * @return the priority used if 'LoadPriority' is not set in the config. Override to change it.
+     */
+    protected LoadSheddingManager.Priority getDefaultLoadPriority() {
+        return LoadSheddingManager.Priority.NORMAL;
+    }
+
+    /**
+     * Get the circuit breaker of this Trigger, which suspends the Trigger if it keeps failing.
+     *
+     * @return the circuit breaker
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return breaker;
+    }
+
+    /**
+     * Start profiling the script of this Trigger line by line. Only the interpretations started after this
+     * call are profiled, and the profiler stops counting if the script is changed.
+     *
+     * @return the profiler; null if this Trigger has no script to profile.
+     */
+    public ScriptProfiler attachProfiler() {
+        if (root == null || script == null)
+            return null;
+
+        ScriptProfiler profiler = new ScriptProfiler(getTimingId(), script, root);
+        this.profiler = profiler;
+        return profiler;
+    }
+
+    /**
+     * Stop profiling. Nothing happens if another profiler is attached since.
+     *
+     * @param profiler the profiler returned by {@link #attachProfiler()}
+     */
+    public void detachProfiler(ScriptProfiler profiler) {
+        if (this.profiler == profiler)
+            this.profiler = null;
     }
 
     /**
@@ -154,10 +250,21 @@ public abstract class Trigger implements Cloneable, IObservable {
      *
      * @param e          the Event associated with this Trigger
      * @param scriptVars the temporary local variables
-     * @return true if activated; false if on cooldown
+     * @return true if activated; false if on cooldown or suspended by the circuit breaker
      */
     public boolean activate(Object e, Map<String, Object> scriptVars) {
-        if (checkCooldown(e)) {
+        IPlayer player = TriggerReactorCore.getInstance().extractPlayerFromContext(e);
+        UUID playerId = player == null ? null : player.getUniqueId();
+        if (checkCooldown(e, playerId)) {
+            return false;
+        }
+
+        // shed first, so a half-open breaker does not give away its trial to an activation that never runs
+        if (!LoadSheddingManager.admit(this)) {
+            return false;
+        }
+
+        if (!breaker.allowActivation()) {
             return false;
         }
 
@@ -169,24 +276,19 @@ public abstract class Trigger implements Cloneable, IObservable {
 
         Interpreter interpreter = initInterpreter(scriptVars);
 
-        startInterpretation(e, scriptVars, interpreter, isSync());
+        startInterpretation(e, scriptVars, interpreter, isSync(), playerId);
         return true;
     }
 
     /**
-     * @param e
+     * @param e        the context
+     * @param playerId the player extracted from the context; null if there is no player in the context
      * @return true if cooldown; false if not cooldown or 'e' is not a compatible type
      */
-    protected boolean checkCooldown(Object e) {
-        IPlayer iPlayer = TriggerReactorCore.getInstance().extractPlayerFromContext(e);
-
-        if (iPlayer != null) {
-            UUID uuid = iPlayer.getUniqueId();
-
-            if (uuid != null) {
-                Long end = cooldowns.get(uuid);
-                return end != null && System.currentTimeMillis() < end;
-            }
+    protected boolean checkCooldown(Object e, UUID playerId) {
+        if (playerId != null) {
+            Long end = cooldowns.get(playerId);
+            return end != null && System.currentTimeMillis() < end;
         }
         return false;
     }
@@ -207,6 +309,11 @@ public abstract class Trigger implements Cloneable, IObservable {
         interpreter.setSelfReference(TriggerReactorCore.getInstance().getSelfReference());
 
         interpreter.setSync(isSync());
+        interpreter.setTrigger(getClass().getSimpleName(), info.getTriggerName());
+
+        ScriptProfiler profiler = this.profiler;
+        if (profiler != null && profiler.getRoot() == root)
+            interpreter.setProfiler(profiler);
 
         return interpreter;
     }
@@ -221,16 +328,59 @@ public abstract class Trigger implements Cloneable, IObservable {
      *                    has called this method. This is useful when this trigger has to cancel an Event;
      *                    set it to false will let it run in separate thread. This is more efficient if you
      *                    only need to read data from Event and never interact with it.
+     * @param playerId    the player extracted from the Event; null if there is no player in the Event
      */
-    protected void startInterpretation(Object e, Map<String, Object> scriptVars, Interpreter interpreter, boolean sync) {
+    protected void startInterpretation(Object e, Map<String, Object> scriptVars, Interpreter interpreter, boolean sync,
+                                       UUID playerId) {
+        // getClass() in the Callable would be the Callable itself
+        String type = getClass().getSimpleName();
         Callable<Void> call = new Callable<Void>() {
             @Override
             public Void call() throws Exception {
-                try (Timings.Timing t = Timings.getTiming(getTimingId()).begin(sync)) {
-                    start(t, e, scriptVars, interpreter, sync);
+                Timings.Timing timing = cachedTiming.get();
+                boolean metrics = Metrics.on;
+                if (metrics)
+                    Metrics.TRIGGER_ACTIVATIONS.labels(type, info.getTriggerName()).inc();
+                long begin = System.nanoTime();
+                FlightRecorder.Outcome outcome = FlightRecorder.Outcome.OK;
+
+                StallWatchdogManager.Frame frame = sync && StallWatchdogManager.isRunning()
+                        ? StallWatchdogManager.enter(getTimingId(), interpreter) : null;
+                ResourceAccounting.Sample sample = ResourceAccounting.begin();
+                Object event = JfrEvents.beginTrigger();
+                Timings.Handle handle = timing.begin(sync);
+                try {
+                    if (!start(timing, e, scriptVars, interpreter, sync))
+                        outcome = FlightRecorder.Outcome.ERROR;
                 } catch (Exception ex) {
-                    TriggerReactorCore.getInstance().handleException(e, new Exception(
+                    outcome = FlightRecorder.Outcome.ERROR;
+                    handleFailure(e, new Exception(
                             "Trigger [" + info + "] produced an error!", ex));
+                } finally {
+                    handle.close();
+                    StallWatchdogManager.exit(frame);
+                }
+                long duration = System.nanoTime() - begin;
+                if (sync)
+                    LoadSheddingManager.onSyncExecution(duration);
+
+                if (sample != null)
+                    sample.end(getTimingId());
+                JfrEvents.commitTrigger(event, type, info.getTriggerName(), sync,
+                        outcome == FlightRecorder.Outcome.ERROR);
+
+                FlightRecorder.TRIGGERS.record(type, info.getTriggerName(),
+                        Thread.currentThread(), begin, duration, sync, outcome, playerId);
+
+                if (metrics) {
+                    Metrics.TRIGGER_DURATION.labels(type, info.getTriggerName())
+                            .record(duration);
+                }
+
+                if (outcome == FlightRecorder.Outcome.OK && breaker.onSuccess()) {
+                    TriggerReactorCore.getInstance().getLogger().info("Trigger [" + info + "] is working again. "
+                            + breaker.getSuppressedFailures() + " error(s) were suppressed and "
+                            + breaker.getSkippedActivations() + " activation(s) were skipped while it was suspended.");
                 }
                 return null;
             }
@@ -244,13 +394,13 @@ public abstract class Trigger implements Cloneable, IObservable {
 
                 }
             } else {
-                Future<Void> future = TriggerReactorCore.getInstance().callSyncMethod(call);
+                Future<Void> future = TriggerReactorCore.getInstance().callSyncMethod(Metrics.syncHop(call));
                 try {
                     future.get(3, TimeUnit.SECONDS);
                 } catch (InterruptedException | ExecutionException e1) {
 
                 } catch (TimeoutException e1) {
-                    TriggerReactorCore.getInstance().handleException(e, new RuntimeException(
+                    handleFailure(e, new RuntimeException(
                             "Took too long to process Trigger [" + info + "]! Is the server lagging?",
                             e1));
                 }
@@ -268,16 +418,52 @@ public abstract class Trigger implements Cloneable, IObservable {
      * @param interpreter
      * @param sync
      * @param timing
+     * @return true if finished; false if failed. The failure is already reported with
+     * {@link #handleFailure(Object, Throwable)}.
      */
-    protected void start(Timings.Timing timing, Object e, Map<String, Object> scriptVars, Interpreter interpreter,
-                         boolean sync) {
+    protected boolean start(Timings.Timing timing, Object e, Map<String, Object> scriptVars, Interpreter interpreter,
+                            boolean sync) {
         try {
             interpreter.startWithContextAndInterrupter(e,
                     TriggerReactorCore.getInstance().createInterrupter(e, interpreter, cooldowns),
                     timing);
+            return true;
         } catch (InterpreterException ex) {
-            TriggerReactorCore.getInstance().handleException(e,
-                    new Exception("Could not finish interpretation for [" + info + "]!", ex));
+            handleFailure(e, new Exception("Could not finish interpretation for [" + info + "]!", ex));
+            return false;
+        }
+    }
+
+    /**
+     * Report the error produced by this Trigger. Depending on the state of the {@link CircuitBreaker},
+     * the error may be only counted instead of being reported.
+     *
+     * @param e  the context
+     * @param ex the error
+     */
+    protected void handleFailure(Object e, Throwable ex) {
+        if (Metrics.on)
+            Metrics.TRIGGER_ERRORS.labels(getClass().getSimpleName(), info.getTriggerName()).inc();
+
+        switch (breaker.onFailure()) {
+            case REPORT:
+                TriggerReactorCore.getInstance().handleException(e, ex);
+                break;
+            case TRIPPED:
+                TriggerReactorCore.getInstance().handleException(e, ex);
+                TriggerReactorCore.getInstance().getLogger().warning("Trigger [" + info + "] failed "
+                        + CircuitBreaker.getThreshold() + " times within " + CircuitBreaker.getWindowMillis()
+                        + "ms. It will be suspended for " + CircuitBreaker.getCooldownMillis() + "ms.");
+                break;
+            case REOPENED:
+                TriggerReactorCore.getInstance().getLogger().warning("Trigger [" + info + "] is still failing. "
+                        + "It will be suspended for another " + CircuitBreaker.getCooldownMillis() + "ms. ("
+                        + breaker.getSuppressedFailures() + " error(s) suppressed, "
+                        + breaker.getSkippedActivations() + " activation(s) skipped so far)");
+                break;
+            case SUPPRESS:
+            default:
+                break;
         }
     }
 
@@ -288,9 +474,10 @@ public abstract class Trigger implements Cloneable, IObservable {
      * @param scriptVars
      * @param interpreter
      * @param sync
+     * @return true if finished; false if failed.
      */
-    protected void start(Object e, Map<String, Object> scriptVars, Interpreter interpreter, boolean sync) {
-        start(Timings.LIMBO, e, scriptVars, interpreter, sync);
+    protected boolean start(Object e, Map<String, Object> scriptVars, Interpreter interpreter, boolean sync) {
+        return start(Timings.LIMBO, e, scriptVars, interpreter, sync);
     }
 
     @Override
@@ -298,8 +485,13 @@ public abstract class Trigger implements Cloneable, IObservable {
 
     @Override
     public String toString() {
-        return "[" + getClass().getSimpleName() + "=" + info + " sync=" + sync + "]";
+        return "[" + getClass().getSimpleName() + "=" + info + " sync=" + sync + " breaker=" + breaker + "]";
     }
 
     private static final ExecutorService ASYNC_POOL = Executors.newCachedThreadPool();
+
+    static {
+        Metrics.register(new Gauge("triggerreactor_async_triggers_running",
+                "Number of async Triggers running at the moment.", ((ThreadPoolExecutor) ASYNC_POOL)::getActiveCount));
+    }
 }
\ No newline at end of file
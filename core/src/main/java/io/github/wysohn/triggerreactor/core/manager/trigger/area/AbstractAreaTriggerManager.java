@@ -43,7 +43,7 @@ public abstract class AbstractAreaTriggerManager extends AbstractTaggedTriggerMa
     protected static final String LARGEST = "Largest";
     protected static final String SYNC = "Sync";
 
-    protected Map<SimpleChunkLocation, Map<Area, AreaTrigger>> areaTriggersByLocation = new ConcurrentHashMap<>();
+    protected volatile Map<SimpleChunkLocation, Map<Area, AreaTrigger>> areaTriggersByLocation = new ConcurrentHashMap<>();
 
     /**
      * The child class should update this map with its own way. Though, the entity which garbage-corrected will
@@ -60,10 +60,11 @@ public abstract class AbstractAreaTriggerManager extends AbstractTaggedTriggerMa
     public AbstractAreaTriggerManager(TriggerReactorCore plugin, File folder) {
         super(plugin, folder, new ITriggerLoader<AreaTrigger>() {
             @Override
-            public TriggerInfo[] listTriggers(File folder, ConfigSourceFactory fn) {
+            public TriggerInfo[] listTriggers(File folder, ConfigSourceFactory fn, Predicate<File> filter) {
                 return Optional.ofNullable(folder.listFiles())
                         .map(files -> Arrays.stream(files)
                                 .filter(File::isDirectory)
+                                .filter(filter)
                                 .map(file -> {
                                     String name = file.getName();
                                     IConfigSource config = fn.create(folder, name);
@@ -199,17 +200,18 @@ public abstract class AbstractAreaTriggerManager extends AbstractTaggedTriggerMa
     }
 
     @Override
-    public void reload() {
-        entityLocationMap.clear();
-        entityTrackMap.clear();
-
-        super.reload();
+    protected Runnable prepareIndexes(Map<String, AreaTrigger> loaded) {
+        Map<SimpleChunkLocation, Map<Area, AreaTrigger>> areaTriggersByLocation = new ConcurrentHashMap<>();
+        for (AreaTrigger trigger : loaded.values()) {
+            setupArea(areaTriggersByLocation, trigger);
+        }
 
-        areaTriggersByLocation.clear();
+        return () -> {
+            entityLocationMap.clear();
+            entityTrackMap.clear();
 
-        for (AreaTrigger trigger : getAllTriggers()) {
-            this.setupArea(trigger);
-        }
+            this.areaTriggersByLocation = areaTriggersByLocation;
+        };
     }
 
     /**
@@ -292,6 +294,11 @@ public abstract class AbstractAreaTriggerManager extends AbstractTaggedTriggerMa
      * @param trigger
      */
     protected void setupArea(AreaTrigger trigger) {
+        setupArea(areaTriggersByLocation, trigger);
+    }
+
+    private static void setupArea(Map<SimpleChunkLocation, Map<Area, AreaTrigger>> areaTriggersByLocation,
+                                  AreaTrigger trigger) {
         Area area = trigger.area;
 
         Set<SimpleChunkLocation> sclocs = Area.getAllChunkLocations(area);
@@ -306,6 +313,21 @@ public abstract class AbstractAreaTriggerManager extends AbstractTaggedTriggerMa
         }
     }
 
+    @Override
+    protected void replaceTrigger(String name, AreaTrigger previous, AreaTrigger current) {
+        if (previous != null) {
+            for (SimpleChunkLocation scloc : Area.getAllChunkLocations(previous.area)) {
+                Optional.ofNullable(areaTriggersByLocation.get(scloc))
+                        .ifPresent(map -> map.remove(previous.area));
+            }
+        }
+
+        super.replaceTrigger(name, previous, current);
+
+        if (current != null)
+            setupArea(current);
+    }
+
     @Override
     public AreaTrigger remove(String name) {
         AreaTrigger remove = super.remove(name);
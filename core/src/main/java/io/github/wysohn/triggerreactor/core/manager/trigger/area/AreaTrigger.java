@@ -48,7 +48,8 @@ public class AreaTrigger extends Trigger {
 
     //intercept and pass interpretation to appropriate trigger
     @Override
-    protected void startInterpretation(Object e, Map<String, Object> scriptVars, Interpreter interpreter, boolean sync) {
+    protected void startInterpretation(Object e, Map<String, Object> scriptVars, Interpreter interpreter, boolean sync,
+                                       UUID playerId) {
         switch (type) {
             case ENTER:
                 if (getEnterTrigger() != null)
@@ -133,22 +133,26 @@ public abstract class AbstractCommandTriggerManager extends AbstractTriggerManag
     }
 
     @Override
-    public void reload() {
-        getAllTriggers().stream()
-                .map(Trigger::getInfo)
-                .map(TriggerInfo::getTriggerName)
-                .forEach(this::unregisterCommand);
-
-        super.reload();
-
-        for (CommandTrigger trigger : getAllTriggers()) {
-            if(!registerCommand(trigger.getInfo().getTriggerName(), trigger)){
-                plugin.getLogger().warning("Attempted to register command trigger "+trigger.getInfo()+" but failed.");
-                plugin.getLogger().warning("Probably, the command is already in use by another command trigger.");
+    public Runnable prepareReload() {
+        Runnable publish = super.prepareReload();
+
+        return () -> {
+            getAllTriggers().stream()
+                    .map(Trigger::getInfo)
+                    .map(TriggerInfo::getTriggerName)
+                    .forEach(this::unregisterCommand);
+
+            publish.run();
+
+            for (CommandTrigger trigger : getAllTriggers()) {
+                if(!registerCommand(trigger.getInfo().getTriggerName(), trigger)){
+                    plugin.getLogger().warning("Attempted to register command trigger "+trigger.getInfo()+" but failed.");
+                    plugin.getLogger().warning("Probably, the command is already in use by another command trigger.");
+                }
             }
-        }
 
-        synchronizeCommandMap();
+            synchronizeCommandMap();
+        };
     }
 
     @Override
@@ -157,6 +161,20 @@ public abstract class AbstractCommandTriggerManager extends AbstractTriggerManag
         reregisterCommand(triggerName);
     }
 
+    @Override
+    protected void replaceTrigger(String name, CommandTrigger previous, CommandTrigger current) {
+        if (previous != null)
+            unregisterCommand(name);
+
+        super.replaceTrigger(name, previous, current);
+
+        if (current != null && !registerCommand(name, current)) {
+            plugin.getLogger().warning("Attempted to register command trigger " + current.getInfo() + " but failed.");
+        }
+
+        synchronizeCommandMap();
+    }
+
     @Override
     public CommandTrigger remove(String name) {
         CommandTrigger remove = super.remove(name);
@@ -28,14 +28,21 @@ import io.github.wysohn.triggerreactor.tools.FileUtil;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Collection;
+import java.util.*;
 
 public abstract class AbstractCustomTriggerManager extends AbstractTriggerManager<CustomTrigger> {
     private static final String EVENT = "Event";
     private static final String SYNC = "Sync";
+    private static final String PRIORITY = "Priority";
 
     protected final EventRegistry registry;
 
+    /**
+     * One hook list per event class. Only the hook list is registered to the platform, and triggers are
+     * added to or removed from the list instead of registering a listener for each of them.
+     */
+    private final Map<Class<?>, EventHookList> hookLists = new HashMap<>();
+
     public AbstractCustomTriggerManager(TriggerReactorCore plugin, File folder, EventRegistry registry) {
         super(plugin, folder, new ITriggerLoader<CustomTrigger>() {
             @Override
@@ -44,11 +51,13 @@ public abstract class AbstractCustomTriggerManager extends AbstractTriggerManage
                         .filter(registry::eventExist)
                         .orElseThrow(() -> new InvalidTrgConfigurationException("Couldn't find target Event or is not a valid Event", info.getConfig()));
                 boolean isSync = info.getConfig().get(SYNC, Boolean.class).orElse(false);
+                int priority = info.getConfig().get(PRIORITY, Integer.class).orElse(0);
 
                 try {
                     String script = FileUtil.readFromFile(info.getSourceCodeFile());
                     CustomTrigger trigger = new CustomTrigger(info, script, registry.getEvent(eventName), eventName);
                     trigger.setSync(isSync);
+                    trigger.setPriority(priority);
                     return trigger;
                 } catch (Exception ex) {
                     ex.printStackTrace();
@@ -63,6 +72,7 @@ public abstract class AbstractCustomTriggerManager extends AbstractTriggerManage
 
                     trigger.getInfo().getConfig().put(EVENT, trigger.getEventName());
                     trigger.getInfo().getConfig().put(SYNC, trigger.isSync());
+                    trigger.getInfo().getConfig().put(PRIORITY, trigger.getPriority());
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
@@ -73,16 +83,94 @@ public abstract class AbstractCustomTriggerManager extends AbstractTriggerManage
     }
 
     @Override
-    public void reload() {
-        super.reload();
+    public Runnable prepareReload() {
+        Runnable publish = super.prepareReload();
+
+        return () -> {
+            publish.run();
+
+            Map<Class<?>, List<CustomTrigger>> byEvent = new HashMap<>();
+            for (CustomTrigger trigger : getAllTriggers()) {
+                byEvent.computeIfAbsent(trigger.event, (clazz) -> new ArrayList<>()).add(trigger);
+            }
+
+            synchronized (hookLists) {
+                // events no longer used by any trigger
+                for (Iterator<Map.Entry<Class<?>, EventHookList>> iter = hookLists.entrySet().iterator(); iter.hasNext(); ) {
+                    Map.Entry<Class<?>, EventHookList> entry = iter.next();
+                    if (byEvent.containsKey(entry.getKey()))
+                        continue;
+
+                    unregisterEvent(plugin, entry.getValue());
+                    iter.remove();
+                }
+
+                // swap the triggers of each event at once. Listener stays registered if it was already.
+                for (Map.Entry<Class<?>, List<CustomTrigger>> entry : byEvent.entrySet()) {
+                    getOrRegisterHookList(entry.getKey())
+                            .replaceAll(entry.getValue(), (hook) -> ((CustomTrigger) hook).getPriority());
+                }
+            }
+        };
+    }
+
+    @Override
+    public void reload(String triggerName) {
+        CustomTrigger previous = get(triggerName);
+        super.reload(triggerName);
+        CustomTrigger trigger = get(triggerName);
+
+        // if the event is the same, add() replaces the previous trigger in place
+        if (previous != null && trigger != null && previous.event != trigger.event)
+            removeHook(previous);
+        if (trigger != null)
+            addHook(trigger);
+    }
 
-        for (CustomTrigger trigger : getAllTriggers()) {
-            registerEvent(plugin, trigger.event, trigger);
+    @Override
+    protected void replaceTrigger(String name, CustomTrigger previous, CustomTrigger current) {
+        super.replaceTrigger(name, previous, current);
+
+        // if the event is the same, add() replaces the previous trigger in place
+        if (previous != null && (current == null || previous.event != current.event))
+            removeHook(previous);
+        if (current != null)
+            addHook(current);
+    }
+
+    private EventHookList getOrRegisterHookList(Class<?> event) {
+        EventHookList hookList = hookLists.get(event);
+        if (hookList == null) {
+            hookList = new EventHookList(event);
+            hookLists.put(event, hookList);
+            registerEvent(plugin, event, hookList);
+        }
+        return hookList;
+    }
+
+    private void addHook(CustomTrigger trigger) {
+        synchronized (hookLists) {
+            getOrRegisterHookList(trigger.event).add(trigger, trigger.getPriority());
+        }
+    }
+
+    private void removeHook(CustomTrigger trigger) {
+        synchronized (hookLists) {
+            EventHookList hookList = hookLists.get(trigger.event);
+            if (hookList == null)
+                return;
+
+            hookList.remove(trigger);
+            if (hookList.isEmpty()) {
+                unregisterEvent(plugin, hookList);
+                hookLists.remove(trigger.event);
+            }
         }
     }
 
     /**
-     * Hook event to handle it manually.
+     * Hook event to handle it manually. This is called only once for each event class, and the
+     * eventHook will dispatch the event to all the triggers handling the same event.
      *
      * @param plugin
      * @param clazz
@@ -90,6 +178,12 @@ public abstract class AbstractCustomTriggerManager extends AbstractTriggerManage
      */
     protected abstract void registerEvent(TriggerReactorCore plugin, Class<?> clazz, EventHook eventHook);
 
+    /**
+     * Unhook the event. This is called when there is no trigger left for the event class.
+     *
+     * @param plugin
+     * @param eventHook the hook that was used in {@link #registerEvent(TriggerReactorCore, Class, EventHook)}
+     */
     protected abstract void unregisterEvent(TriggerReactorCore plugin, EventHook eventHook);
 
     public abstract Collection<String> getAbbreviations();
@@ -122,7 +216,7 @@ public abstract class AbstractCustomTriggerManager extends AbstractTriggerManage
 
         put(name, trigger);
 
-        this.registerEvent(plugin, event, trigger);
+        addHook(trigger);
 
         return true;
     }
@@ -143,7 +237,8 @@ public abstract class AbstractCustomTriggerManager extends AbstractTriggerManage
     @Override
     public CustomTrigger remove(String name) {
         CustomTrigger remove = super.remove(name);
-        unregisterEvent(plugin, remove);
+        if (remove != null)
+            removeHook(remove);
         return remove;
     }
 
@@ -1,5 +1,6 @@
 package io.github.wysohn.triggerreactor.core.manager.trigger.custom;
 
+import io.github.wysohn.triggerreactor.core.manager.LoadSheddingManager;
 import io.github.wysohn.triggerreactor.core.manager.trigger.AbstractTriggerManager;
 import io.github.wysohn.triggerreactor.core.manager.trigger.Trigger;
 import io.github.wysohn.triggerreactor.core.manager.trigger.TriggerInfo;
@@ -11,6 +12,8 @@ public class CustomTrigger extends Trigger implements AbstractCustomTriggerManag
     final Class<?> event;
     final String eventName;
 
+    private int priority = 0;
+
     public CustomTrigger(TriggerInfo info, String script, Class<?> event, String eventName) throws AbstractTriggerManager.TriggerInitFailedException {
         super(info, script);
         this.event = event;
@@ -22,7 +25,9 @@ public class CustomTrigger extends Trigger implements AbstractCustomTriggerManag
     @Override
     public CustomTrigger clone() {
         try {
-            return new CustomTrigger(info, script, event, eventName);
+            CustomTrigger trigger = new CustomTrigger(info, script, event, eventName);
+            trigger.setPriority(priority);
+            return trigger;
         } catch (AbstractTriggerManager.TriggerInitFailedException e) {
             e.printStackTrace();
         }
@@ -58,10 +63,30 @@ public class CustomTrigger extends Trigger implements AbstractCustomTriggerManag
         } else return getInfo().equals(other.getInfo());
     }
 
+    /**
+     * Async custom Triggers are {@link LoadSheddingManager.Priority#LOW} unless set in the config, as they can't
+     * affect the event.
+     */
+    @Override
+    protected LoadSheddingManager.Priority getDefaultLoadPriority() {
+        return isSync() ? LoadSheddingManager.Priority.NORMAL : LoadSheddingManager.Priority.LOW;
+    }
+
     public String getEventName() {
         return eventName;
     }
 
+    /**
+     * @return the order of this trigger among the triggers handling the same event. Lower value runs first.
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
     @Override
     public void onEvent(Object e) {
         if (e.getClass() != event
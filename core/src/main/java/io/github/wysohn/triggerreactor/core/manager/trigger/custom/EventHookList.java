@@ -0,0 +1,137 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.core.manager.trigger.custom;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.ToIntFunction;
+
+/**
+ * Multiplexes a single platform event listener to every hook registered for the same event class.
+ * <p>
+ * The hooks are kept in a copy-on-write array, so {@link #onEvent(Object)} never locks and never sees a
+ * partially updated list. Writers build a new array and publish it with a single volatile write.
+ * <p>
+ * Hooks are called in ascending order of their priority. Hooks with the same priority are called in
+ * the order they were added.
+ */
+public class EventHookList implements AbstractCustomTriggerManager.EventHook {
+    private static final Entry[] EMPTY = new Entry[0];
+    private static final Comparator<Entry> ORDER = Comparator.comparingInt(entry -> entry.priority);
+
+    private final Class<?> event;
+    private volatile Entry[] entries = EMPTY;
+
+    public EventHookList(Class<?> event) {
+        this.event = event;
+    }
+
+    public Class<?> getEvent() {
+        return event;
+    }
+
+    /**
+     * Add the hook, or move it to the new priority if it is already in the list.
+     *
+     * @param hook     the hook to be called
+     * @param priority lower value is called first
+     */
+    public synchronized void add(AbstractCustomTriggerManager.EventHook hook, int priority) {
+        Entry[] current = entries;
+        Entry[] next = new Entry[current.length + 1];
+        int size = 0;
+        for (Entry entry : current) {
+            if (entry.hook.equals(hook))
+                continue;
+            next[size++] = entry;
+        }
+        next[size++] = new Entry(hook, priority);
+
+        next = Arrays.copyOf(next, size);
+        // stable sort, so insertion order is kept for the same priority
+        Arrays.sort(next, ORDER);
+        entries = next;
+    }
+
+    /**
+     * @param hook the hook to remove
+     * @return true if the hook was in the list
+     */
+    public synchronized boolean remove(AbstractCustomTriggerManager.EventHook hook) {
+        Entry[] current = entries;
+        for (int i = 0; i < current.length; i++) {
+            if (!current[i].hook.equals(hook))
+                continue;
+
+            Entry[] next = new Entry[current.length - 1];
+            System.arraycopy(current, 0, next, 0, i);
+            System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+            entries = next;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Replace all the hooks at once. Events being dispatched at the moment will finish with the old hooks.
+     *
+     * @param hooks    the new hooks
+     * @param priority function to get the priority of each hook
+     */
+    public synchronized void replaceAll(Iterable<? extends AbstractCustomTriggerManager.EventHook> hooks,
+                                        ToIntFunction<AbstractCustomTriggerManager.EventHook> priority) {
+        Entry[] next = EMPTY;
+        int size = 0;
+        for (AbstractCustomTriggerManager.EventHook hook : hooks) {
+            if (size == next.length)
+                next = Arrays.copyOf(next, Math.max(4, size * 2));
+            next[size++] = new Entry(hook, priority.applyAsInt(hook));
+        }
+
+        next = Arrays.copyOf(next, size);
+        Arrays.sort(next, ORDER);
+        entries = next;
+    }
+
+    public boolean isEmpty() {
+        return entries.length == 0;
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    @Override
+    public void onEvent(Object e) {
+        // read the volatile only once; the array itself is never modified after publish
+        Entry[] current = entries;
+        for (Entry entry : current) {
+            entry.hook.onEvent(e);
+        }
+    }
+
+    private static class Entry {
+        private final AbstractCustomTriggerManager.EventHook hook;
+        private final int priority;
+
+        private Entry(AbstractCustomTriggerManager.EventHook hook, int priority) {
+            this.hook = hook;
+            this.priority = priority;
+        }
+    }
+}
@@ -40,15 +40,16 @@ public class InventoryTrigger extends Trigger {
     }
 
     @Override
-    protected void start(Timings.Timing timing, Object e, Map<String, Object> scriptVars, Interpreter interpreter,
-                         boolean sync) {
+    protected boolean start(Timings.Timing timing, Object e, Map<String, Object> scriptVars, Interpreter interpreter,
+                            boolean sync) {
         try {
             interpreter.startWithContextAndInterrupter(e,
                     TriggerReactorCore.getInstance().createInterrupterForInv(e, interpreter, cooldowns, AbstractInventoryTriggerManager.inventoryMap),
                     timing);
+            return true;
         } catch (Exception ex) {
-            TriggerReactorCore.getInstance().handleException(e,
-                    new Exception("Error occurred while processing Trigger [" + getInfo() + "]!", ex));
+            handleFailure(e, new Exception("Error occurred while processing Trigger [" + getInfo() + "]!", ex));
+            return false;
         }
     }
 
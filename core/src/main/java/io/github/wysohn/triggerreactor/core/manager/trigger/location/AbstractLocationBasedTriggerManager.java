@@ -19,6 +19,7 @@ package io.github.wysohn.triggerreactor.core.manager.trigger.location;
 import io.github.wysohn.triggerreactor.core.bridge.ICommandSender;
 import io.github.wysohn.triggerreactor.core.bridge.entity.IPlayer;
 import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import io.github.wysohn.triggerreactor.core.manager.LoadSheddingManager;
 import io.github.wysohn.triggerreactor.core.manager.location.SimpleChunkLocation;
 import io.github.wysohn.triggerreactor.core.manager.location.SimpleLocation;
 import io.github.wysohn.triggerreactor.core.manager.trigger.AbstractTaggedTriggerManager;
@@ -33,7 +34,7 @@ import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class AbstractLocationBasedTriggerManager<T extends Trigger> extends AbstractTaggedTriggerManager<T> {
-    protected final Map<SimpleChunkLocation, Map<SimpleLocation, T>> chunkMap = new ConcurrentHashMap<>();
+    protected volatile Map<SimpleChunkLocation, Map<SimpleLocation, T>> chunkMap = new ConcurrentHashMap<>();
     private final Map<UUID, String> settingLocation = new HashMap<>();
 
     private final Map<UUID, ClipBoard> clipboard = new HashMap<>();
@@ -43,12 +44,10 @@ public abstract class AbstractLocationBasedTriggerManager<T extends Trigger> ext
     }
 
     @Override
-    public void reload() {
-        super.reload();
+    protected Runnable prepareIndexes(Map<String, T> loaded) {
+        Map<SimpleChunkLocation, Map<SimpleLocation, T>> chunkMap = new ConcurrentHashMap<>();
 
-        chunkMap.clear();
-
-        for (T trigger : getAllTriggers()) {
+        for (T trigger : loaded.values()) {
             SimpleLocation sloc = null;
             try {
                 sloc = SimpleLocation.valueOf(trigger.getInfo().getTriggerName());
@@ -74,6 +73,30 @@ public abstract class AbstractLocationBasedTriggerManager<T extends Trigger> ext
                 locationMap.put(sloc, trigger);
             }
         }
+
+        return () -> this.chunkMap = chunkMap;
+    }
+
+    @Override
+    protected void replaceTrigger(String name, T previous, T current) {
+        SimpleLocation sloc;
+        try {
+            sloc = SimpleLocation.valueOf(name);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return;
+        }
+
+        super.replaceTrigger(name, previous, current);
+
+        SimpleChunkLocation scloc = new SimpleChunkLocation(sloc);
+        if (current == null) {
+            Optional.ofNullable(chunkMap.get(scloc))
+                    .ifPresent(locationMap -> locationMap.remove(sloc));
+        } else {
+            chunkMap.computeIfAbsent(scloc, (key) -> new ConcurrentHashMap<>())
+                    .put(sloc, current);
+        }
     }
 
     protected abstract String getTriggerTypeName();
@@ -264,6 +287,15 @@ public abstract class AbstractLocationBasedTriggerManager<T extends Trigger> ext
 
         }
 
+        /**
+         * Walk Triggers are activated very often, so they are {@link LoadSheddingManager.Priority#LOW}
+         * unless set in the config.
+         */
+        @Override
+        protected LoadSheddingManager.Priority getDefaultLoadPriority() {
+            return LoadSheddingManager.Priority.LOW;
+        }
+
         @Override
         public Trigger clone() {
             try {
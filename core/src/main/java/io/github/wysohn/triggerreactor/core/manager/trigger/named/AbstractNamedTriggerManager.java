@@ -30,6 +30,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Predicate;
 
 public abstract class AbstractNamedTriggerManager extends AbstractTriggerManager<NamedTrigger> {
 
@@ -51,10 +52,11 @@ public abstract class AbstractNamedTriggerManager extends AbstractTriggerManager
             }
 
             @Override
-            public TriggerInfo[] listTriggers(File folder, ConfigSourceFactory fn) {
+            public TriggerInfo[] listTriggers(File folder, ConfigSourceFactory fn, Predicate<File> filter) {
                 File[] files = getAllFiles(new ArrayList<>(), folder);
                 return Arrays.stream(files)
                         .filter(file -> file.getName().endsWith(".trg"))
+                        .filter(filter)
                         .map(file -> {
                             String name = TriggerInfo.extractName(file);
                             IConfigSource config = fn.create(folder, name);
@@ -78,23 +78,27 @@ public abstract class AbstractRepeatingTriggerManager extends AbstractTriggerMan
     }
 
     @Override
-    public void reload() {
-        super.reload();
+    public Runnable prepareReload() {
+        Runnable publish = super.prepareReload();
 
-        for (Entry<String, Thread> entry : runningThreads.entrySet()) {
-            entry.getValue().interrupt();
-        }
-        runningThreads.clear();
-
-        for (RepeatingTrigger trigger : getAllTriggers()) {
-            final RepeatingTrigger triggerCopy = trigger;
-            //start 1 tick later so other managers can be initialized.
-            plugin.runTask(() -> {
-                if (triggerCopy.isAutoStart()) {
-                    startTrigger(trigger.getInfo().getTriggerName());
-                }
-            });
-        }
+        return () -> {
+            publish.run();
+
+            for (Entry<String, Thread> entry : runningThreads.entrySet()) {
+                entry.getValue().interrupt();
+            }
+            runningThreads.clear();
+
+            for (RepeatingTrigger trigger : getAllTriggers()) {
+                final RepeatingTrigger triggerCopy = trigger;
+                //start 1 tick later so other managers can be initialized.
+                plugin.runTask(() -> {
+                    if (triggerCopy.isAutoStart()) {
+                        startTrigger(trigger.getInfo().getTriggerName());
+                    }
+                });
+            }
+        };
     }
 
     /**
@@ -139,6 +143,18 @@ public abstract class AbstractRepeatingTriggerManager extends AbstractTriggerMan
         return createTrigger(triggerName, triggerFile, script, 1000L);
     }
 
+    @Override
+    protected void replaceTrigger(String name, RepeatingTrigger previous, RepeatingTrigger current) {
+        boolean wasRunning = isRunning(name);
+        if (wasRunning)
+            stopTrigger(name);
+
+        super.replaceTrigger(name, previous, current);
+
+        if (current != null && (wasRunning || current.isAutoStart()))
+            startTrigger(name);
+    }
+
     @Override
     public RepeatingTrigger remove(String name) {
         RepeatingTrigger remove = super.remove(name);
@@ -6,6 +6,7 @@ import io.github.wysohn.triggerreactor.core.manager.trigger.Trigger;
 import io.github.wysohn.triggerreactor.core.manager.trigger.TriggerInfo;
 
 import java.util.Map;
+import java.util.UUID;
 
 public class RepeatingTrigger extends Trigger implements Runnable {
     private long interval = 1000L;
@@ -40,7 +41,7 @@ public class RepeatingTrigger extends Trigger implements Runnable {
      * We don't use cooldown for this trigger. Just return false always
      */
     @Override
-    protected boolean checkCooldown(Object e) {
+    protected boolean checkCooldown(Object e, UUID playerId) {
         return false;
     }
 
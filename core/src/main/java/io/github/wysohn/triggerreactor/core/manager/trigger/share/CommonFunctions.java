@@ -2,10 +2,10 @@ package io.github.wysohn.triggerreactor.core.manager.trigger.share;
 
 import io.github.wysohn.triggerreactor.core.manager.location.SimpleLocation;
 import io.github.wysohn.triggerreactor.core.script.wrapper.SelfReference;
+import io.github.wysohn.triggerreactor.tools.ReflectionCache;
 import io.github.wysohn.triggerreactor.tools.ReflectionUtil;
 import org.apache.commons.lang3.ClassUtils;
 
-import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
@@ -15,6 +15,8 @@ import java.util.*;
 
 public class CommonFunctions implements SelfReference {
     private static final Random rand = new Random();
+    // resolved separately from ReflectionUtil#constructNew as the constructor is picked differently
+    private static final String NEW_INSTANCE = "<newInstance>";
 
     /**
      * get a random integer value between 0 to end
@@ -93,7 +95,7 @@ public class CommonFunctions implements SelfReference {
      * @throws NoSuchFieldException   error if the specified 'fieldName' field does not exist in the class.
      */
     public Object staticGetFieldValue(String className, String fieldName) throws ClassNotFoundException, NoSuchFieldException {
-        Class<?> clazz = Class.forName(className);
+        Class<?> clazz = ReflectionCache.forName(className, CommonFunctions.class.getClassLoader());
 
         Field field = clazz.getField(fieldName);
 
@@ -120,7 +122,7 @@ public class CommonFunctions implements SelfReference {
      * @throws IllegalArgumentException if the 'value' is incompatible with the field type.
      */
     public void staticSetFieldValue(String className, String fieldName, Object value) throws ClassNotFoundException, NoSuchFieldException, IllegalArgumentException {
-        Class<?> clazz = Class.forName(className);
+        Class<?> clazz = ReflectionCache.forName(className, CommonFunctions.class.getClassLoader());
 
         Field field = clazz.getField(fieldName);
 
@@ -146,7 +148,7 @@ public class CommonFunctions implements SelfReference {
      * @throws IllegalAccessException
      */
     public Object staticMethod(String className, String methodName, Object... args) throws ClassNotFoundException, NoSuchMethodException, IllegalArgumentException, IllegalAccessException {
-        Class<?> clazz = Class.forName(className);
+        Class<?> clazz = ReflectionCache.forName(className, CommonFunctions.class.getClassLoader());
 
         try {
             return ReflectionUtil.invokeMethod(clazz, null, methodName, args);
@@ -181,7 +183,7 @@ public class CommonFunctions implements SelfReference {
      */
     @SuppressWarnings("unchecked")
     public Object parseEnum(String enumClassName, String valueName) throws ClassNotFoundException {
-        Class<?> clazz = Class.forName(enumClassName);
+        Class<?> clazz = ReflectionCache.forName(enumClassName, CommonFunctions.class.getClassLoader());
         if (!clazz.isEnum())
             throw new ClassNotFoundException("Found the class [" + clazz.getName() + "], but it wasn't Enum");
 
@@ -197,157 +199,147 @@ public class CommonFunctions implements SelfReference {
 
     public Object newInstance(String className, Object... args) throws ClassNotFoundException, NoSuchMethodException, InstantiationException, IllegalArgumentException, InvocationTargetException {
         try {
-            Class<?> clazz = Class.forName(className);
+            Class<?> clazz = ReflectionCache.forName(className, CommonFunctions.class.getClassLoader());
+
+            Class<?>[] argClasses = ReflectionCache.classesOf(args);
+            ReflectionCache.Resolved<Constructor<?>> resolved = ReflectionCache.get(clazz, NEW_INSTANCE, argClasses);
+            if (resolved == null) {
+                resolved = findConstructor(clazz, args);
+                if (resolved != null)
+                    ReflectionCache.put(clazz, NEW_INSTANCE, argClasses, resolved);
+            }
 
-            List<Constructor<?>> validConstructors = new ArrayList<>();
+            if (resolved != null) {
+                return resolved.getExecutable().newInstance(resolved.adapt(args));
+            }
 
-            for (Constructor<?> constructor : clazz.getConstructors()) {
-                Class<?>[] parameterTypes = null;
+            if (args.length > 0) {
+                StringBuilder builder = new StringBuilder(args[0].getClass().getSimpleName());
 
-                parameterTypes = constructor.getParameterTypes();
-                if (constructor.isVarArgs()) {
-                    if (constructor.isVarArgs() && (parameterTypes.length - args.length >= 2)) {
-                        parameterTypes = null;
-                        continue;
-                    }
-                } else {
-                    if (parameterTypes.length != args.length) {
-                        parameterTypes = null;
-                        continue;
-                    }
+                for (int i = 1; i < args.length; i++) {
+                    builder.append(", " + args[i].getClass().getSimpleName());
                 }
 
-                if (constructor.isVarArgs()) {
-                    boolean matches = false;
-
-                    // check non vararg part
-                    for (int i = 0; i < parameterTypes.length - 1; i++) {
-                        matches = ReflectionUtil.checkMatch(parameterTypes[i], args[i]);
-                        if (!matches)
-                            break;
-                    }
+                throw new IllegalArgumentException(className + "(" + builder.toString() + "). " +
+                        "Make sure the arguments match.");
+            } else {
+                throw new IllegalArgumentException(className + "(). Make sure the arguments match.");
+            }
+        } catch (NullPointerException e) {
+            StringBuilder builder = new StringBuilder(String.valueOf(args[0]));
+            for (int i = 1; i < args.length; i++)
+                builder.append("," + args[i]);
+            throw new NullPointerException("Attempted to instantiate " + className + "(" + builder.toString() + ")");
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Unexpected exception. Please contact the plugin author!", e);
+        }
+    }
 
-                    // check rest
-                    for (int i = parameterTypes.length - 1; i < args.length; i++) {
-                        Class<?> arrayType = parameterTypes[parameterTypes.length - 1].getComponentType();
+    private static ReflectionCache.Resolved<Constructor<?>> findConstructor(Class<?> clazz, Object[] args) {
+        List<Constructor<?>> validConstructors = new ArrayList<>();
 
-                        matches = ReflectionUtil.checkMatch(arrayType, args[i]);
-                        if (!matches)
-                            break;
-                    }
+        for (Constructor<?> constructor : clazz.getConstructors()) {
+            Class<?>[] parameterTypes = null;
 
-                    if (matches) {
-                        validConstructors.add(constructor);
-                    }
-                } else {
-                    boolean matches = true;
+            parameterTypes = constructor.getParameterTypes();
+            if (constructor.isVarArgs()) {
+                if (constructor.isVarArgs() && (parameterTypes.length - args.length >= 2)) {
+                    parameterTypes = null;
+                    continue;
+                }
+            } else {
+                if (parameterTypes.length != args.length) {
+                    parameterTypes = null;
+                    continue;
+                }
+            }
 
-                    for (int i = 0; i < parameterTypes.length; i++) {
-                        matches = ReflectionUtil.checkMatch(parameterTypes[i], args[i]);
-                        if (!matches)
-                            break;
-                    }
+            if (constructor.isVarArgs()) {
+                boolean matches = false;
 
-                    if (matches) {
-                        validConstructors.add(constructor);
-                    }
+                // check non vararg part
+                for (int i = 0; i < parameterTypes.length - 1; i++) {
+                    matches = ReflectionUtil.checkMatch(parameterTypes[i], args[i]);
+                    if (!matches)
+                        break;
                 }
-            }
 
-            if (!validConstructors.isEmpty()) {
-                Constructor<?> constructor = validConstructors.get(0);
-                for (int i = 1; i < validConstructors.size(); i++) {
-                    Constructor<?> targetConstructor = validConstructors.get(i);
+                // check rest
+                for (int i = parameterTypes.length - 1; i < args.length; i++) {
+                    Class<?> arrayType = parameterTypes[parameterTypes.length - 1].getComponentType();
 
-                    Class<?>[] params = constructor.getParameterTypes();
-                    Class<?>[] otherParams = targetConstructor.getParameterTypes();
+                    matches = ReflectionUtil.checkMatch(arrayType, args[i]);
+                    if (!matches)
+                        break;
+                }
 
-                    if (constructor.isVarArgs() && targetConstructor.isVarArgs()) {
-                        for (int j = 0; j < params.length; j++) {
-                            if (params[j].isAssignableFrom(otherParams[j])) {
-                                constructor = targetConstructor;
-                                break;
-                            }
-                        }
-                    } else if (constructor.isVarArgs()) {
-                        //usually, non-vararg is more specific method. So we use that
-                        constructor = targetConstructor;
-                    } else if (targetConstructor.isVarArgs()) {
-                        //do nothing
-                    } else {
-                        for (int j = 0; j < params.length; j++) {
-                            if (otherParams[j].isEnum()) { // enum will be handled later
-                                constructor = targetConstructor;
-                                break;
-                            } else if (ClassUtils.isAssignable(otherParams[j], params[j], true)) { //narrow down to find the most specific method
-                                constructor = targetConstructor;
-                                break;
-                            }
-                        }
-                    }
+                if (matches) {
+                    validConstructors.add(constructor);
                 }
+            } else {
+                boolean matches = true;
 
-                constructor.setAccessible(true);
-
-                for (int i = 0; i < args.length; i++) {
-                    Class<?>[] parameterTypes = constructor.getParameterTypes();
-
-                    if (args[i] instanceof String && i < parameterTypes.length && parameterTypes[i].isEnum()) {
-                        try {
-                            args[i] = Enum.valueOf((Class<? extends Enum>) parameterTypes[i], (String) args[i]);
-                        } catch (IllegalArgumentException ex1) {
-                            throw new RuntimeException("Tried to convert value [" + args[i]
-                                    + "] to Enum [" + parameterTypes[i]
-                                    + "] or find appropriate method but found nothing. Make sure"
-                                    + " that the value [" + args[i]
-                                    + "] matches exactly with one of the Enums in [" + parameterTypes[i]
-                                    + "] or the method you are looking exists.");
-                        }
-                    }
+                for (int i = 0; i < parameterTypes.length; i++) {
+                    matches = ReflectionUtil.checkMatch(parameterTypes[i], args[i]);
+                    if (!matches)
+                        break;
                 }
 
-                if (constructor.isVarArgs()) {
-                    Class<?>[] parameterTypes = constructor.getParameterTypes();
+                if (matches) {
+                    validConstructors.add(constructor);
+                }
+            }
+        }
 
-                    Object varargs = Array.newInstance(
-                            parameterTypes[parameterTypes.length - 1].getComponentType(),
-                            args.length - parameterTypes.length + 1);
-                    for (int k = 0; k < Array.getLength(varargs); k++) {
-                        Array.set(varargs, k, args[parameterTypes.length - 1 + k]);
-                    }
+        if (!validConstructors.isEmpty()) {
+            Constructor<?> constructor = validConstructors.get(0);
+            for (int i = 1; i < validConstructors.size(); i++) {
+                Constructor<?> targetConstructor = validConstructors.get(i);
 
-                    Object[] newArgs = new Object[parameterTypes.length];
-                    for (int k = 0; k < newArgs.length - 1; k++) {
-                        newArgs[k] = args[k];
-                    }
-                    newArgs[newArgs.length - 1] = varargs;
+                Class<?>[] params = constructor.getParameterTypes();
+                Class<?>[] otherParams = targetConstructor.getParameterTypes();
 
-                    args = newArgs;
+                if (constructor.isVarArgs() && targetConstructor.isVarArgs()) {
+                    for (int j = 0; j < params.length; j++) {
+                        if (params[j].isAssignableFrom(otherParams[j])) {
+                            constructor = targetConstructor;
+                            break;
+                        }
+                    }
+                } else if (constructor.isVarArgs()) {
+                    //usually, non-vararg is more specific method. So we use that
+                    constructor = targetConstructor;
+                } else if (targetConstructor.isVarArgs()) {
+                    //do nothing
+                } else {
+                    for (int j = 0; j < params.length; j++) {
+                        if (otherParams[j].isEnum()) { // enum will be handled later
+                            constructor = targetConstructor;
+                            break;
+                        } else if (ClassUtils.isAssignable(otherParams[j], params[j], true)) { //narrow down to find the most specific method
+                            constructor = targetConstructor;
+                            break;
+                        }
+                    }
                 }
-
-                return constructor.newInstance(args);
             }
 
-            if (args.length > 0) {
-                StringBuilder builder = new StringBuilder(args[0].getClass().getSimpleName());
-
-                for (int i = 1; i < args.length; i++) {
-                    builder.append(", " + args[i].getClass().getSimpleName());
-                }
+            constructor.setAccessible(true);
 
-                throw new IllegalArgumentException(className + "(" + builder.toString() + "). " +
-                        "Make sure the arguments match.");
-            } else {
-                throw new IllegalArgumentException(className + "(). Make sure the arguments match.");
+            // the values are converted for each call
+            List<Integer> enumIndices = new ArrayList<>();
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            for (int i = 0; i < args.length; i++) {
+                if (args[i] instanceof String && i < parameterTypes.length && parameterTypes[i].isEnum())
+                    enumIndices.add(i);
             }
-        } catch (NullPointerException e) {
-            StringBuilder builder = new StringBuilder(String.valueOf(args[0]));
-            for (int i = 1; i < args.length; i++)
-                builder.append("," + args[i]);
-            throw new NullPointerException("Attempted to instantiate " + className + "(" + builder.toString() + ")");
-        } catch (IllegalAccessException e) {
-            throw new RuntimeException("Unexpected exception. Please contact the plugin author!", e);
+
+            return new ReflectionCache.Resolved<>(constructor,
+                    enumIndices.stream().mapToInt(Integer::intValue).toArray(),
+                    enumIndices.stream().map(i -> parameterTypes[i]).toArray(Class<?>[]::new));
         }
+
+        return null;
     }
 
     /**
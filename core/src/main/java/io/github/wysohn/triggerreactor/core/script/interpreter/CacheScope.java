@@ -0,0 +1,56 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.core.script.interpreter;
+
+/**
+ * How the cached result of a {@link Placeholder} is shared. Only matters if the Placeholder declares a cache
+ * TTL.
+ * <p>
+ * For the .js Placeholders, declare it at the top level of the script along with the TTL in milliseconds.
+ * Ex) cacheTtl = 1000; cacheScope = "PLAYER"
+ * <br>
+ * For the Java Placeholders, use {@link NativeInfo#cacheTtl()} and {@link NativeInfo#cacheScope()}.
+ */
+public enum CacheScope {
+    /**
+     * One result shared by everyone. The arguments are ignored. Ex) $tps
+     */
+    GLOBAL,
+    /**
+     * One result for each player. The arguments are ignored. Ex) $money
+     */
+    PLAYER,
+    /**
+     * One result for each player and each combination of the arguments.
+     */
+    ARGS;
+
+    /**
+     * @param value the value declared in the script
+     * @return the scope, or null if the value is not one of the names of the scopes.
+     */
+    public static CacheScope parse(Object value) {
+        if (value == null)
+            return null;
+
+        try {
+            return valueOf(String.valueOf(value).toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package io.github.wysohn.triggerreactor.core.script.interpreter;
 
 import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import io.github.wysohn.triggerreactor.core.manager.StallWatchdogManager;
 import io.github.wysohn.triggerreactor.core.script.Token;
 import io.github.wysohn.triggerreactor.core.script.Token.Type;
 import io.github.wysohn.triggerreactor.core.script.lexer.Lexer;
@@ -26,8 +27,12 @@ import io.github.wysohn.triggerreactor.core.script.wrapper.Accessor;
 import io.github.wysohn.triggerreactor.core.script.wrapper.IScriptObject;
 import io.github.wysohn.triggerreactor.core.script.wrapper.SelfReference;
 import io.github.wysohn.triggerreactor.tools.CaseInsensitiveStringMap;
+import io.github.wysohn.triggerreactor.tools.ReflectionCache;
 import io.github.wysohn.triggerreactor.tools.ReflectionUtil;
+import io.github.wysohn.triggerreactor.tools.StringUtils;
 import io.github.wysohn.triggerreactor.tools.VarMap;
+import io.github.wysohn.triggerreactor.tools.jfr.JfrEvents;
+import io.github.wysohn.triggerreactor.tools.metrics.Metrics;
 import io.github.wysohn.triggerreactor.tools.timings.Timings;
 
 import java.lang.reflect.Array;
@@ -59,6 +64,12 @@ public class Interpreter {
 
     private Object context = null;
     private ProcessInterrupter interrupter = null;
+    private ScriptProfiler profiler = null;
+    private String triggerType = null;
+    private String triggerName = null;
+    private String watchdogName = null;
+    // read by the other threads only to report where the interpretation is
+    private Node currentNode = null;
     private Timings.Timing timing = null;
     private boolean sync = false;
 
@@ -131,6 +142,28 @@ public class Interpreter {
         this.vars = vars;
     }
 
+    /**
+     * Profile the interpretation with the given profiler. See {@link ScriptProfiler}
+     *
+     * @param profiler the profiler; null to not profile
+     */
+    public void setProfiler(ScriptProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Tell which Trigger is running this interpretation, so the events of the Executors and the Placeholders
+     * can be attributed to it. See {@link JfrEvents}
+     *
+     * @param triggerType type of the Trigger. Ex) CommandTrigger
+     * @param triggerName name of the Trigger
+     */
+    public void setTrigger(String triggerType, String triggerName) {
+        this.triggerType = triggerType;
+        this.triggerName = triggerName;
+        this.watchdogName = null;
+    }
+
     private void initDefaultExecutors() {
         executorMap.put("STOP", EXECUTOR_STOP);
         executorMap.put("WAIT", EXECUTOR_WAIT);
@@ -142,6 +175,13 @@ public class Interpreter {
 
     }
 
+    /**
+     * @return the node being processed, or the last one processed. May be stale if read from another thread.
+     */
+    public Node getCurrentNode() {
+        return currentNode;
+    }
+
     public boolean isStopFlag() {
         return stopFlag;
     }
@@ -194,9 +234,18 @@ public class Interpreter {
         this.interrupter = interrupter;
         this.timing = timing;
 
-        try (Timings.Timing t = this.timing.getTiming("Code Interpretation").begin(sync)) {
+        ScriptProfiler.Session session = null;
+        if (profiler != null) {
+            session = profiler.newSession(interrupter);
+            this.interrupter = session;
+        }
+
+        try (Timings.Handle t = this.timing.getChild("Code Interpretation").begin(sync)) {
             for (int i = 0; i < root.getChildren().size(); i++)
                 start(root.getChildren().get(i));
+        } finally {
+            if (session != null)
+                session.finish();
         }
     }
 
@@ -390,16 +439,24 @@ public class Interpreter {
                 throw new InterpreterException("Number of <ITERATOR> must be 1 or 2!");
             }
 
+        } else if (SyncRegionInference.isImplicitSync(node)) {
+            startImplicitSync(node);
+            return;
         } else if (node.getToken().getType() == Type.SYNC) {
             try {
                 task.submitSync(new Callable<Void>() {
 
                     @Override
                     public Void call() throws Exception {
-                        for (Node node : node.getChildren()) {
-                            //ignore whatever returns as it's impossible
-                            //to handle it from the caller
-                            start(node);
+                        StallWatchdogManager.Frame frame = enterWatchdog();
+                        try {
+                            for (Node node : node.getChildren()) {
+                                //ignore whatever returns as it's impossible
+                                //to handle it from the caller
+                                start(node);
+                            }
+                        } finally {
+                            StallWatchdogManager.exit(frame);
                         }
                         return null;
                     }
@@ -428,9 +485,14 @@ public class Interpreter {
                 copy.setSelfReference(selfReference);
                 copy.setTaskSupervisor(task);
                 copy.setSync(false);
+                copy.setProfiler(profiler);
+                copy.setTrigger(triggerType, triggerName);
 
+                // the copy runs alongside, so it records to its own session
+                ProcessInterrupter original = interrupter instanceof ScriptProfiler.Session
+                        ? ((ScriptProfiler.Session) interrupter).getDelegate() : interrupter;
                 try {
-                    copy.startWithContextAndInterrupter(context, interrupter, timing);
+                    copy.startWithContextAndInterrupter(context, original, timing);
                 } catch (InterpreterException e) {
                     TriggerReactorCore.getInstance().handleException(context, e);
                 }
@@ -514,12 +576,77 @@ public class Interpreter {
         }
     }
 
+    /**
+     * Run the statements grouped by {@link SyncRegionInference} in the server thread at once.
+     * Unlike the SYNC block, the errors are thrown as they are, so the script behaves the same as if the
+     * statements were not grouped.
+     */
+    private void startImplicitSync(Node region) throws InterpreterException {
+        if (sync || task == null) {
+            startStatements(region);
+            return;
+        }
+
+        try {
+            task.submitSync(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    StallWatchdogManager.Frame frame = enterWatchdog();
+                    try {
+                        startStatements(region);
+                    } finally {
+                        StallWatchdogManager.exit(frame);
+                    }
+                    return null;
+                }
+            }).get();
+        } catch (InterruptedException ex) {
+            throw new InterpreterException("Synchronous task error.", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof InterpreterException)
+                throw (InterpreterException) ex.getCause();
+            if (ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            throw new InterpreterException("Synchronous task error.", ex);
+        }
+    }
+
+    /**
+     * The SYNC blocks of the async Triggers hold the server thread as well, so they are watched like the
+     * sync Triggers. Must be called in the server thread.
+     *
+     * @return the frame to be passed to {@link StallWatchdogManager#exit(StallWatchdogManager.Frame)};
+     * null if the watchdog is not running.
+     */
+    private StallWatchdogManager.Frame enterWatchdog() {
+        if (!StallWatchdogManager.isRunning())
+            return null;
+
+        String name = watchdogName;
+        if (name == null) {
+            name = triggerName == null ? "SYNC" : StringUtils.dottedPath(triggerType, triggerName) + " (SYNC)";
+            watchdogName = name;
+        }
+        return StallWatchdogManager.enter(name, this);
+    }
+
+    private void startStatements(Node body) throws InterpreterException {
+        for (Node child : body.getChildren()) {
+            // the rest is handled by the body containing the region
+            if (continueFlag || breakFlag)
+                break;
+
+            start(child);
+        }
+    }
+
     /**
      * @param node
      * @return return codes in Executor. null if execution continues.
      * @throws InterpreterException
      */
     private Integer interpret(Node node) throws InterpreterException {
+        currentNode = node;
         try {
             if (interrupter != null && interrupter.onNodeProcess(node)) {
                 return Executor.STOP;
@@ -567,7 +694,19 @@ public class Interpreter {
                     if (!executorMap.containsKey(command))
                         throw new InterpreterException("No executor named #" + command + " found!");
 
-                    return executorMap.get(command).execute(timing, sync, vars, context, args);
+                    Executor executor = executorMap.get(command);
+                    Object event = JfrEvents.beginExecutor();
+                    if (!Metrics.on && event == null)
+                        return executor.execute(timing, sync, vars, context, args);
+
+                    long begin = System.nanoTime();
+                    try {
+                        return executor.execute(timing, sync, vars, context, args);
+                    } finally {
+                        if (Metrics.on)
+                            Metrics.EXECUTOR_DURATION.labels(command).record(System.nanoTime() - begin);
+                        JfrEvents.commitExecutor(event, command, triggerType, triggerName);
+                    }
                 }
             } else if (node.getToken().type == Type.PLACEHOLDER) {
                 String placeholderName = (String) node.getToken().value;
@@ -592,7 +731,20 @@ public class Interpreter {
                     throw new InterpreterException("No placeholder named $" + placeholderName + " found!");
 
                 if (replaced == null) {
-                    replaced = placeholderMap.get(placeholderName).parse(timing, context, vars, args);
+                    Placeholder placeholder = placeholderMap.get(placeholderName);
+                    Object event = JfrEvents.beginPlaceholder();
+                    if (!Metrics.on && event == null) {
+                        replaced = placeholder.parse(timing, context, vars, args);
+                    } else {
+                        long begin = System.nanoTime();
+                        try {
+                            replaced = placeholder.parse(timing, context, vars, args);
+                        } finally {
+                            if (Metrics.on)
+                                Metrics.PLACEHOLDER_DURATION.labels(placeholderName).record(System.nanoTime() - begin);
+                            JfrEvents.commitPlaceholder(event, placeholderName, triggerType, triggerName);
+                        }
+                    }
                 }
 
                 if (replaced instanceof Number) {
@@ -921,7 +1073,7 @@ public class Interpreter {
             } else if (node.getToken().type == Type.NULLVALUE) {
                 stack.push(new Token(node.getToken().type, null, node.getToken()));
             } else if (node.getToken().type == Type.IMPORT) {
-                Class<?> clazz = Class.forName((String) node.getToken().getValue());
+                Class<?> clazz = ReflectionCache.forName((String) node.getToken().getValue(), Interpreter.class.getClassLoader());
                 importMap.put(clazz.getSimpleName(), clazz);
             } else {
                 throw new InterpreterException("Cannot interpret the unknown node " + node.getToken().type.name());
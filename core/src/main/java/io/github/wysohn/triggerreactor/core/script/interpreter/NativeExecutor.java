@@ -0,0 +1,78 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.core.script.interpreter;
+
+import io.github.wysohn.triggerreactor.core.script.validation.ValidationException;
+import io.github.wysohn.triggerreactor.tools.timings.Timings;
+
+import java.util.Map;
+
+/**
+ * Wraps an {@link Executor} annotated with {@link NativeInfo}, and takes care of the argument count, the
+ * timings, and the thread that the Executor runs on.
+ */
+public class NativeExecutor extends Executor {
+    private final NativeInfo info;
+    private final Executor executor;
+    private final String displayName;
+
+    public NativeExecutor(Executor executor) {
+        this.info = getInfo(executor);
+        this.executor = executor;
+        this.displayName = "#" + info.name();
+    }
+
+    public NativeInfo getInfo() {
+        return info;
+    }
+
+    @Override
+    public ThreadAffinity getThreadAffinity() {
+        return info.affinity();
+    }
+
+    @Override
+    protected Integer execute(Timings.Timing timing, boolean sync, Map<String, Object> vars, Object context,
+                              Object... args) throws Exception {
+        checkArgs(info, "executor", args);
+
+        Timings.Timing time = timing.getChild("Executors").getChild(info.name(), displayName);
+
+        // MAIN_ONLY always ends up in the server thread
+        boolean mainThread = sync || info.affinity() == ThreadAffinity.MAIN_ONLY;
+        return callWithAffinity("#" + info.name(), info.affinity(), () -> {
+            Timings.Handle handle = time.begin(mainThread);
+            try {
+                return executor.execute(timing, mainThread, vars, context, args);
+            } finally {
+                handle.close();
+            }
+        });
+    }
+
+    static NativeInfo getInfo(Object task) {
+        NativeInfo info = task.getClass().getAnnotation(NativeInfo.class);
+        if (info == null)
+            throw new IllegalArgumentException(task.getClass() + " is not annotated with @NativeInfo.");
+        return info;
+    }
+
+    static void checkArgs(NativeInfo info, String type, Object[] args) {
+        if (args.length < info.minArgs() || (info.maxArgs() >= 0 && args.length > info.maxArgs()))
+            throw new ValidationException("Incorrect number of arguments for " + type + " " + info.name());
+    }
+}
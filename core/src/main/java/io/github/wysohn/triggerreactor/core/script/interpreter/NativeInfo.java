@@ -0,0 +1,63 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.core.script.interpreter;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an {@link Executor} or a {@link Placeholder} implemented in Java, so it can be registered to the
+ * managers along with the ones written in JavaScript.
+ * <p>
+ * If a .js file with the same name is provided by the user, the .js file will be used instead.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface NativeInfo {
+    /**
+     * @return name used in the script, without # or $. Ex) MESSAGE for #MESSAGE
+     */
+    String name();
+
+    /**
+     * @return minimum number of arguments
+     */
+    int minArgs() default 0;
+
+    /**
+     * @return maximum number of arguments. Negative value means no limit.
+     */
+    int maxArgs() default -1;
+
+    /**
+     * @return the thread it has to run on
+     */
+    ThreadAffinity affinity() default ThreadAffinity.MAIN_ONLY;
+
+    /**
+     * @return how long the result of the Placeholder can be reused in milliseconds. 0 or less disables the
+     * cache. Not used by Executors.
+     */
+    long cacheTtl() default 0L;
+
+    /**
+     * @return how the cached result of the Placeholder is shared. Not used by Executors.
+     */
+    CacheScope cacheScope() default CacheScope.ARGS;
+}
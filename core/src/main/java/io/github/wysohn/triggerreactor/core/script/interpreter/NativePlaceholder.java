@@ -0,0 +1,74 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.core.script.interpreter;
+
+import io.github.wysohn.triggerreactor.tools.timings.Timings;
+
+import java.util.Map;
+
+/**
+ * Wraps a {@link Placeholder} annotated with {@link NativeInfo}, and takes care of the argument count, the
+ * timings, and the thread that the Placeholder runs on.
+ */
+public class NativePlaceholder extends Placeholder {
+    private final NativeInfo info;
+    private final Placeholder placeholder;
+    private final String displayName;
+
+    public NativePlaceholder(Placeholder placeholder) {
+        this.info = NativeExecutor.getInfo(placeholder);
+        this.placeholder = placeholder;
+        this.displayName = "$" + info.name();
+    }
+
+    public NativeInfo getInfo() {
+        return info;
+    }
+
+    @Override
+    public ThreadAffinity getThreadAffinity() {
+        return info.affinity();
+    }
+
+    @Override
+    public long getCacheTtl() {
+        return info.cacheTtl();
+    }
+
+    @Override
+    public CacheScope getCacheScope() {
+        return info.cacheScope();
+    }
+
+    @Override
+    public Object parse(Timings.Timing timing, Object context, Map<String, Object> vars,
+                        Object... args) throws Exception {
+        NativeExecutor.checkArgs(info, "placeholder", args);
+
+        Timings.Timing time = timing.getChild("Executors").getChild(info.name(), displayName);
+
+        boolean mainThread = info.affinity() == ThreadAffinity.MAIN_ONLY;
+        return callWithAffinity("$" + info.name(), info.affinity(), () -> {
+            Timings.Handle handle = time.begin(mainThread);
+            try {
+                return placeholder.parse(timing, context, vars, args);
+            } finally {
+                handle.close();
+            }
+        });
+    }
+}
@@ -32,4 +32,19 @@ public abstract class Placeholder extends SynchronizableTask {
      */
     public abstract Object parse(Timings.Timing timing, Object context, Map<String, Object> vars,
                                  Object... args) throws Exception;
+
+    /**
+     * @return how long the result can be reused in milliseconds. 0 or less means the Placeholder is evaluated
+     * every time, which is the default.
+     */
+    public long getCacheTtl() {
+        return 0L;
+    }
+
+    /**
+     * @return how the cached result is shared. Only matters if {@link #getCacheTtl()} is positive.
+     */
+    public CacheScope getCacheScope() {
+        return CacheScope.ARGS;
+    }
 }
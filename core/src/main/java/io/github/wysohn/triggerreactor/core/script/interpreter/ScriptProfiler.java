@@ -0,0 +1,298 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.core.script.interpreter;
+
+import io.github.wysohn.triggerreactor.core.script.Token;
+import io.github.wysohn.triggerreactor.core.script.Token.Type;
+import io.github.wysohn.triggerreactor.core.script.interpreter.Interpreter.ProcessInterrupter;
+import io.github.wysohn.triggerreactor.core.script.parser.Node;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Attributes the time spent by a script to the lines and columns of the script.
+ * <p>
+ * The interpreter processes the nodes one by one, and {@link ProcessInterrupter#onNodeProcess(Node)} is called
+ * right before each of them. The time between two calls is what the previous node took, so the time spent inside
+ * the Executors and the Placeholders is counted for the node which called them. It's wall time; the time spent by
+ * #WAIT or waiting for the server thread is counted as well.
+ * <p>
+ * The profiler only exists while it's attached to a Trigger. Set it with
+ * {@link Interpreter#setProfiler(ScriptProfiler)}, and the interpreter wraps its {@link ProcessInterrupter}
+ * with a {@link Session}. Interpreters without the profiler are not affected at all.
+ */
+public class ScriptProfiler {
+    private static final int MAX_LABEL = 24;
+
+    private final String name;
+    private final String script;
+    private final Node root;
+    private final long started = System.currentTimeMillis();
+
+    private final Map<Node, Frame> frames = new IdentityHashMap<>();
+    private final Frame unknown;
+    private final LongAdder executions = new LongAdder();
+
+    /**
+     * @param name   name of the script, which becomes the bottom of the stacks
+     * @param script the source code
+     * @param root   the root of the script parsed from the source code
+     */
+    public ScriptProfiler(String name, String script, Node root) {
+        this.name = name;
+        this.script = script;
+        this.root = root;
+
+        Frame rootFrame = new Frame(null, root, sanitize(name));
+        this.unknown = new Frame(rootFrame, null, "<unknown>");
+        index(rootFrame, root);
+    }
+
+    private void index(Frame parent, Node node) {
+        for (Node child : node.getChildren()) {
+            Frame frame = new Frame(parent, child, label(child.getToken()));
+            frames.put(child, frame);
+            index(isFrame(child.getToken()) ? frame : parent, child);
+        }
+    }
+
+    // the blocks only group the statements, so they don't appear in the stacks
+    private static boolean isFrame(Token token) {
+        return token.type != Type.BODY && token.type != Type.ROOT;
+    }
+
+    private static String label(Token token) {
+        String value;
+        if (token.type == Type.EXECUTOR) {
+            value = "#" + token.value;
+        } else if (token.type == Type.PLACEHOLDER) {
+            value = "$" + token.value;
+        } else if (token.type == Type.STRING) {
+            value = "\"" + token.value + "\"";
+        } else {
+            value = String.valueOf(token.value);
+        }
+
+        if (value.length() > MAX_LABEL)
+            value = value.substring(0, MAX_LABEL) + "...";
+        // the nodes made by the interpreter have no position
+        if (token.row < 1)
+            return sanitize(value);
+        return sanitize(value) + " (" + token.row + ":" + token.col + ")";
+    }
+
+    // ';' separates the frames and new line separates the stacks in the collapsed format
+    private static String sanitize(String value) {
+        return value.replace(';', ',').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the root this profiler was made for. Nodes of other roots are counted as unknown.
+     */
+    public Node getRoot() {
+        return root;
+    }
+
+    /**
+     * @return number of interpretations profiled so far
+     */
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    /**
+     * Start profiling one interpretation.
+     *
+     * @param delegate the interrupter the interpreter would use without the profiler. May be null.
+     * @return the interrupter which should be used instead
+     */
+    public Session newSession(ProcessInterrupter delegate) {
+        executions.increment();
+        return new Session(delegate);
+    }
+
+    private Frame frameOf(Node node) {
+        Frame frame = frames.get(node);
+        return frame == null ? unknown : frame;
+    }
+
+    /**
+     * Write the source code annotated with the time and the number of times each line was processed,
+     * followed by the positions which took the longest.
+     *
+     * @param writer the writer
+     * @param limit  number of positions to list after the source code
+     * @throws IOException
+     */
+    public void writeListing(Writer writer, int limit) throws IOException {
+        String[] lines = script.split("\r?\n", -1);
+        long[] lineNanos = new long[lines.length + 1];
+        long[] lineCounts = new long[lines.length + 1];
+
+        List<Frame> hot = new ArrayList<>();
+        long total = 0L;
+        for (Frame frame : frames.values()) {
+            long nanos = frame.nanos.sum();
+            long count = frame.count.sum();
+            total += nanos;
+            if (nanos == 0L && count == 0L)
+                continue;
+
+            hot.add(frame);
+            int row = frame.node.getToken().row;
+            if (row >= 1 && row <= lines.length) {
+                lineNanos[row] += nanos;
+                // a line has many nodes, so the most processed one tells how many times the line was run
+                lineCounts[row] = Math.max(lineCounts[row], count);
+            }
+        }
+        total += unknown.nanos.sum();
+
+        writer.write("Profile of " + name + " -- (executions: " + getExecutions()
+                + ", duration: " + (System.currentTimeMillis() - started) + "ms"
+                + ", total: " + String.format("%.3f", total / 1_000_000.0) + "ms)\n");
+        writer.write(String.format("%10s %6s %10s | %s\n", "ms", "%", "count", "line"));
+        for (int row = 1; row <= lines.length; row++) {
+            if (lineCounts[row] == 0L) {
+                writer.write(String.format("%10s %6s %10s | %s\n", "", "", "", lines[row - 1]));
+            } else {
+                writer.write(String.format("%10.3f %6.2f %10d | %s\n",
+                        lineNanos[row] / 1_000_000.0,
+                        total == 0L ? 0.0 : lineNanos[row] * 100.0 / total,
+                        lineCounts[row],
+                        lines[row - 1]));
+            }
+        }
+
+        hot.sort((a, b) -> Long.compare(b.nanos.sum(), a.nanos.sum()));
+        writer.write("\nHot spots:\n");
+        for (int i = 0; i < Math.min(limit, hot.size()); i++) {
+            Frame frame = hot.get(i);
+            writer.write(String.format(" > %s -- (%.3fms, count: %d)\n",
+                    frame.label, frame.nanos.sum() / 1_000_000.0, frame.count.sum()));
+        }
+        if (unknown.nanos.sum() > 0L) {
+            writer.write(String.format(" > %s -- (%.3fms)\n", unknown.label, unknown.nanos.sum() / 1_000_000.0));
+        }
+    }
+
+    /**
+     * Write the stacks in the collapsed format ('frame;frame;frame value' per line), which can be used as is by
+     * the flame graph tools like flamegraph.pl or speedscope. The value is the self time in microseconds.
+     *
+     * @param writer the writer
+     * @throws IOException
+     */
+    public void writeCollapsed(Writer writer) throws IOException {
+        List<Frame> all = new ArrayList<>(frames.values());
+        all.add(unknown);
+        for (Frame frame : all) {
+            long micros = frame.nanos.sum() / 1_000L;
+            if (micros == 0L)
+                continue;
+
+            writer.write(frame.stack());
+            writer.write(' ');
+            writer.write(Long.toString(micros));
+            writer.write('\n');
+        }
+    }
+
+    private static class Frame {
+        private final Frame parent;
+        private final Node node;
+        private final String label;
+
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder count = new LongAdder();
+
+        private Frame(Frame parent, Node node, String label) {
+            this.parent = parent;
+            this.node = node;
+            this.label = label;
+        }
+
+        private String stack() {
+            StringBuilder builder = new StringBuilder(label);
+            for (Frame current = parent; current != null; current = current.parent)
+                builder.insert(0, ';').insert(0, current.label);
+            return builder.toString();
+        }
+    }
+
+    /**
+     * Records one interpretation. The interpretation moves between the threads only by handing over the
+     * control (SYNC blocks), so one session is never used by two threads at the same time. ASYNC blocks
+     * get their own session.
+     */
+    public class Session implements ProcessInterrupter {
+        private final ProcessInterrupter delegate;
+
+        private Frame last;
+        private long lastTime;
+
+        private Session(ProcessInterrupter delegate) {
+            this.delegate = delegate;
+        }
+
+        public ProcessInterrupter getDelegate() {
+            return delegate;
+        }
+
+        @Override
+        public boolean onNodeProcess(Node node) {
+            long now = System.nanoTime();
+            if (last != null)
+                last.nanos.add(now - lastTime);
+
+            last = frameOf(node);
+            last.count.increment();
+            lastTime = now;
+
+            return delegate != null && delegate.onNodeProcess(node);
+        }
+
+        @Override
+        public boolean onCommand(Object context, String command, Object[] args) {
+            return delegate != null && delegate.onCommand(context, command, args);
+        }
+
+        @Override
+        public Object onPlaceholder(Object context, String placeholder, Object[] args) {
+            return delegate == null ? null : delegate.onPlaceholder(context, placeholder, args);
+        }
+
+        /**
+         * Count the time of the last node. Called when the interpretation is over.
+         */
+        public void finish() {
+            if (last != null)
+                last.nanos.add(System.nanoTime() - lastTime);
+            last = null;
+        }
+    }
+}
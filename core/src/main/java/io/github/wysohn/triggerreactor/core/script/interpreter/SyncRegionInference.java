@@ -0,0 +1,221 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.core.script.interpreter;
+
+import io.github.wysohn.triggerreactor.core.script.Token;
+import io.github.wysohn.triggerreactor.core.script.Token.Type;
+import io.github.wysohn.triggerreactor.core.script.parser.Node;
+import io.github.wysohn.triggerreactor.tools.CaseInsensitiveStringMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the consecutive statements which call {@link ThreadAffinity#MAIN_ONLY} Executors, and groups them
+ * in an implicit SYNC region, so the async Triggers move to the server thread only once for the whole group
+ * instead of once for each Executor.
+ * <p>
+ * It only changes which thread runs the statements. Every MAIN_ONLY Executor moves to the server thread
+ * by itself anyway, so the result is the same even if the affinity of the Executors changes later. The statements
+ * are grouped only if their arguments are safe to evaluate in the server thread, so the arguments which call
+ * methods or the Placeholders that may block are still evaluated in the thread of the Trigger.
+ * <p>
+ * Ex)
+ * <pre>
+ * #MESSAGE "hi"
+ * #SOUND player.getLocation() "LEVEL_UP" 1.0 1.0
+ * #POTION "SPEED" 100
+ * </pre>
+ * becomes one hop to the server thread instead of three.
+ */
+public class SyncRegionInference {
+    public static final String IMPLICIT_SYNC = "<IMPLICIT SYNC>";
+
+    private final Map<String, Executor> executorMap = new CaseInsensitiveStringMap<>();
+    private final Map<String, Placeholder> placeholderMap = new CaseInsensitiveStringMap<>();
+
+    public SyncRegionInference(Map<String, Executor> executorMap, Map<String, Placeholder> placeholderMap) {
+        if (executorMap != null)
+            this.executorMap.putAll(executorMap);
+        if (placeholderMap != null)
+            this.placeholderMap.putAll(placeholderMap);
+    }
+
+    /**
+     * @param node the node to check
+     * @return true if the node is a region made by {@link #apply(Node)}
+     */
+    public static boolean isImplicitSync(Node node) {
+        return node.getToken().getType() == Type.SYNC && IMPLICIT_SYNC.equals(node.getToken().getValue());
+    }
+
+    /**
+     * Group the statements. The given tree is not modified.
+     *
+     * @param root the root node from the Parser
+     * @return the root of the new tree with the implicit SYNC regions. It's the given root itself if nothing
+     * was grouped.
+     */
+    public Node apply(Node root) {
+        return transform(root);
+    }
+
+    private Node transform(Node node) {
+        Type type = node.getToken().getType();
+        // already in the server thread
+        if (type == Type.SYNC)
+            return node;
+
+        boolean statements = type == Type.ROOT || type == Type.BODY || type == Type.ASYNC;
+
+        List<Node> children = new ArrayList<>();
+        boolean changed = false;
+        List<Node> run = new ArrayList<>();
+        for (Node child : node.getChildren()) {
+            if (statements && isMainOnlyStatement(child)) {
+                run.add(child);
+                continue;
+            }
+
+            changed |= flush(run, children);
+
+            Node transformed = transform(child);
+            changed |= transformed != child;
+            children.add(transformed);
+        }
+        changed |= flush(run, children);
+
+        if (!changed)
+            return node;
+
+        Node copy = new Node(node.getToken());
+        copy.getChildren().addAll(children);
+        return copy;
+    }
+
+    /**
+     * @return true if the run was grouped into a region
+     */
+    private boolean flush(List<Node> run, List<Node> children) {
+        if (run.isEmpty())
+            return false;
+
+        boolean grouped = false;
+        if (run.size() > 1) {
+            // grouping one statement doesn't save anything
+            Node region = new Node(new Token(Type.SYNC, IMPLICIT_SYNC, run.get(0).getToken()));
+            region.getChildren().addAll(run);
+            children.add(region);
+            grouped = true;
+        } else {
+            children.addAll(run);
+        }
+
+        run.clear();
+        return grouped;
+    }
+
+    private boolean isMainOnlyStatement(Node node) {
+        if (node.getToken().getType() != Type.EXECUTOR)
+            return false;
+
+        Executor executor = executorMap.get(String.valueOf(node.getToken().getValue()));
+        if (executor == null || executor.getThreadAffinity() != ThreadAffinity.MAIN_ONLY)
+            return false;
+
+        for (Node argument : node.getChildren()) {
+            if (!isSafeInServerThread(argument))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * The arguments are evaluated in the server thread too, so they should not block. Method calls are left
+     * in the thread they were in, since there is no telling what they do. Ex) #MESSAGE db.lookup(player)
+     */
+    private boolean isSafeInServerThread(Node node) {
+        Type type = node.getToken().getType();
+        if (type == Type.EXECUTOR || type == Type.SYNC || type == Type.ASYNC || type == Type.CALL)
+            return false;
+
+        if (type == Type.PLACEHOLDER) {
+            Placeholder placeholder = placeholderMap.get(String.valueOf(node.getToken().getValue()));
+            if (placeholder == null || placeholder.getThreadAffinity() == ThreadAffinity.ASYNC_PREFERRED)
+                return false;
+        }
+
+        for (Node child : node.getChildren()) {
+            if (!isSafeInServerThread(child))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param root the root node
+     * @return true if there is at least one implicit SYNC region in the tree
+     */
+    public static boolean hasImplicitSync(Node root) {
+        if (isImplicitSync(root))
+            return true;
+
+        for (Node child : root.getChildren()) {
+            if (hasImplicitSync(child))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Show the statements and the implicit SYNC regions for debugging. Expressions are omitted.
+     *
+     * @param root the root node
+     * @return the dump, one statement per line
+     */
+    public static String dump(Node root) {
+        StringBuilder builder = new StringBuilder();
+        dump(builder, root, 0);
+        return builder.toString();
+    }
+
+    private static void dump(StringBuilder builder, Node node, int depth) {
+        for (int i = 0; i < depth; i++)
+            builder.append("  ");
+
+        Token token = node.getToken();
+        if (isImplicitSync(node)) {
+            builder.append(IMPLICIT_SYNC).append(" (").append(node.getChildren().size()).append(" statements)");
+        } else if (token.getType() == Type.EXECUTOR) {
+            builder.append('#').append(token.getValue());
+        } else {
+            builder.append(token.getValue());
+        }
+        if (token.row >= 0)
+            builder.append(' ').append(token.toStringRowColOnly());
+        builder.append('\n');
+
+        Type type = token.getType();
+        boolean statements = type == Type.ROOT || type == Type.BODY || type == Type.SYNC || type == Type.ASYNC;
+        for (Node child : node.getChildren()) {
+            // statements, and the bodies of IF, WHILE, FOR
+            if (statements || child.getToken().getType() == Type.BODY || "ELSEIF".equals(child.getToken().getValue()))
+                dump(builder, child, depth + 1);
+        }
+    }
+}
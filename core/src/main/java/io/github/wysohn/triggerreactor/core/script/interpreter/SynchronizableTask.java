@@ -17,11 +17,22 @@
 package io.github.wysohn.triggerreactor.core.script.interpreter;
 
 import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import io.github.wysohn.triggerreactor.tools.metrics.Metrics;
 
-import java.util.concurrent.Callable;
-import java.util.concurrent.Future;
+import java.util.concurrent.*;
 
 public abstract class SynchronizableTask {
+    private volatile boolean serverThreadWarned = false;
+
+    /**
+     * The thread this task has to run on. Tasks that don't override this are simply called in the
+     * thread of the caller, and they are responsible for moving to the server thread by themselves.
+     *
+     * @return the affinity
+     */
+    public ThreadAffinity getThreadAffinity() {
+        return ThreadAffinity.ANY_THREAD;
+    }
 
     /**
      * This will run in separate thread.
@@ -57,6 +68,78 @@ public abstract class SynchronizableTask {
     }
 
     public static <T> Future<T> runSyncTaskForFuture(Callable<T> call) {
-        return TriggerReactorCore.getInstance().callSyncMethod(call);
+        return TriggerReactorCore.getInstance().callSyncMethod(Metrics.syncHop(call));
+    }
+
+    /**
+     * Call the task in the thread that the affinity requires. {@link ThreadAffinity#MAIN_ONLY} tasks are called
+     * using {@link #callInServerThread(String, Callable)}, and the others are called right away.
+     *
+     * @param name     name of the task to be shown in the messages. Ex) #MESSAGE
+     * @param affinity the affinity of the task
+     * @param call     the task
+     * @return the result of the task
+     * @throws Exception if the task failed
+     */
+    protected <T> T callWithAffinity(String name, ThreadAffinity affinity, Callable<T> call) throws Exception {
+        if (affinity == ThreadAffinity.MAIN_ONLY)
+            return callInServerThread(name, call);
+
+        if (affinity == ThreadAffinity.ASYNC_PREFERRED && !serverThreadWarned
+                && TriggerReactorCore.getInstance().isServerThread()) {
+            serverThreadWarned = true;
+            TriggerReactorCore.getInstance().getLogger().warning(name + " may block the server thread."
+                    + " Consider using it in an async trigger or inside ASYNC.");
+        }
+
+        try {
+            return call.call();
+        } catch (Exception e1) {
+            e1.printStackTrace();
+            throw new Exception(name + " encountered error.", e1);
+        }
+    }
+
+    /**
+     * Call the task in the server thread and wait for the result. If this is already the server thread,
+     * the task is called right away.
+     *
+     * @param name name of the task to be shown in the error messages. Ex) #MESSAGE
+     * @param call the task
+     * @return the result of the task
+     * @throws Exception if the task failed, or the server thread didn't finish the task in 5 seconds.
+     */
+    protected static <T> T callInServerThread(String name, Callable<T> call) throws Exception {
+        if (TriggerReactorCore.getInstance().isServerThread()) {
+            T result = null;
+
+            try {
+                result = call.call();
+            } catch (Exception e1) {
+                e1.printStackTrace();
+                throw new Exception(name + " encountered error.", e1);
+            }
+            return result;
+        } else {
+            Future<T> future = runSyncTaskForFuture(call);
+            if (future == null) {
+                //probably server is shutting down
+                if (!TriggerReactorCore.getInstance().isEnabled()) {
+                    return call.call();
+                } else {
+                    throw new Exception(name + " couldn't be finished. The server returned null Future.");
+                }
+            } else {
+                T result = null;
+                try {
+                    result = future.get(5, TimeUnit.SECONDS);
+                } catch (InterruptedException | ExecutionException e1) {
+                    throw new Exception(name + " encountered error.", e1);
+                } catch (TimeoutException e1) {
+                    throw new Exception(name + " was stopped. It took longer than 5 seconds to process. Is the server lagging?", e1);
+                }
+                return result;
+            }
+        }
     }
 }
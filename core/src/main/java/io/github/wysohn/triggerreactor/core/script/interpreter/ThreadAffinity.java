@@ -0,0 +1,57 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.core.script.interpreter;
+
+/**
+ * Which thread an {@link Executor} or a {@link Placeholder} has to run on.
+ * <p>
+ * For the .js Executors/Placeholders, declare it at the top level of the script. Ex) threadAffinity = "ANY_THREAD"
+ * <br>
+ * For the Java Executors/Placeholders, use {@link NativeInfo#affinity()}.
+ */
+public enum ThreadAffinity {
+    /**
+     * Uses the server API, so it always runs in the server thread. If called from an async trigger, the
+     * trigger waits until the server thread finishes it.
+     */
+    MAIN_ONLY,
+    /**
+     * Safe to run in any thread. It runs right away in the thread that called it.
+     */
+    ANY_THREAD,
+    /**
+     * Safe to run in any thread, but it may block (database, network, etc.), so it's better not to use it
+     * in the server thread. It runs right away in the thread that called it, and a warning is printed once
+     * if that thread is the server thread.
+     */
+    ASYNC_PREFERRED;
+
+    /**
+     * @param value the value declared in the script
+     * @return the affinity, or null if the value is not one of the names of the affinities.
+     */
+    public static ThreadAffinity parse(Object value) {
+        if (value == null)
+            return null;
+
+        try {
+            return valueOf(String.valueOf(value).toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+}
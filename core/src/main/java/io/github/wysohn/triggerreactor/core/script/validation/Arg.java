@@ -52,23 +52,47 @@ public class Arg {
         return name;
     }
 
+    /**
+     * @return the checks of this Arg without the error messages
+     */
+    ArgMatcher compile() {
+        return new ArgMatcher(options);
+    }
+
     /**
      * null if the Object matches the validation criteria of this arg
      * A string representing the error otherwise
      */
     String validate(Object o) {
+        // type first, so the other options can assume the type is correct
+        ValidationOption typeOption = validationOptions.forName("type");
+        if (hasOption(typeOption)) {
+            String error = typeOption.validate(getOption(typeOption), o);
+            if (error != null) {
+                return formatError(error);
+            }
+        }
+
         for (Map.Entry<ValidationOption, Object> entry : options.entrySet()) {
+            if (entry.getKey() == typeOption) {
+                continue;
+            }
+
             String error = entry.getKey().validate(entry.getValue(), o);
             if (error == null) {
                 continue;
             }
 
-            String name = name();
-            if (name != null) {
-                error = error.replace("%name%", name);
-            }
-            return error;
+            return formatError(error);
         }
         return null;
     }
+
+    private String formatError(String error) {
+        String name = name();
+        if (name != null) {
+            error = error.replace("%name%", name);
+        }
+        return error;
+    }
 }
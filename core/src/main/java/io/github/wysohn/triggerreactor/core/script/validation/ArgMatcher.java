@@ -0,0 +1,157 @@
+package io.github.wysohn.triggerreactor.core.script.validation;
+
+import io.github.wysohn.triggerreactor.core.script.validation.option.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The checks of an {@link Arg} without the error messages. It only tells if the value matches, so it can be
+ * used for every call; the error messages are made by {@link Arg#validate(Object)} only if nothing matched.
+ */
+class ArgMatcher {
+    private static final int ANY = 0;
+    private static final int CLASS = 1;
+    private static final int INT = 2;
+    private static final int NUMBER = 3;
+    private static final int STRING = 4;
+    private static final int BOOLEAN = 5;
+
+    private final int type;
+    private final Class<?> typeClass;
+    private final boolean hasMin;
+    private final double min;
+    private final boolean hasMax;
+    private final double max;
+    private final ValidationOption[] others;
+    private final Object[] otherValues;
+
+    ArgMatcher(Map<ValidationOption, Object> options) {
+        int type = ANY;
+        Class<?> typeClass = null;
+        boolean hasMin = false;
+        double min = 0;
+        boolean hasMax = false;
+        double max = 0;
+        List<ValidationOption> others = new ArrayList<>();
+        List<Object> otherValues = new ArrayList<>();
+
+        for (Map.Entry<ValidationOption, Object> entry : options.entrySet()) {
+            ValidationOption option = entry.getKey();
+            Object value = entry.getValue();
+
+            if (option instanceof NameOption) {
+                continue;
+            } else if (option instanceof TypeOption) {
+                if (value instanceof Class<?>) {
+                    type = CLASS;
+                    typeClass = (Class<?>) value;
+                } else if ("int".equals(value)) {
+                    type = INT;
+                } else if ("number".equals(value)) {
+                    type = NUMBER;
+                } else if ("string".equals(value)) {
+                    type = STRING;
+                } else if ("boolean".equals(value)) {
+                    type = BOOLEAN;
+                } else {
+                    others.add(option);
+                    otherValues.add(value);
+                }
+            } else if (option instanceof MinimumOption) {
+                hasMin = true;
+                min = ((Number) value).doubleValue();
+            } else if (option instanceof MaximumOption) {
+                hasMax = true;
+                max = ((Number) value).doubleValue();
+            } else {
+                others.add(option);
+                otherValues.add(value);
+            }
+        }
+
+        this.type = type;
+        this.typeClass = typeClass;
+        this.hasMin = hasMin;
+        this.min = min;
+        this.hasMax = hasMax;
+        this.max = max;
+        this.others = others.toArray(new ValidationOption[0]);
+        this.otherValues = otherValues.toArray();
+    }
+
+    /**
+     * @param clazz class of the value. null for the null value.
+     * @return true if no value of the class can match, regardless of the value itself.
+     */
+    boolean rejects(Class<?> clazz) {
+        switch (type) {
+            case CLASS:
+                if (clazz == null || !typeClass.isAssignableFrom(clazz))
+                    return true;
+                break;
+            case INT:
+            case NUMBER:
+                if (clazz == null || !Number.class.isAssignableFrom(clazz))
+                    return true;
+                break;
+            case STRING:
+                if (clazz != String.class)
+                    return true;
+                break;
+            case BOOLEAN:
+                if (clazz != Boolean.class)
+                    return true;
+                break;
+        }
+
+        return (hasMin || hasMax) && (clazz == null || !Number.class.isAssignableFrom(clazz));
+    }
+
+    boolean matches(Object value) {
+        switch (type) {
+            case CLASS:
+                if (!typeClass.isInstance(value))
+                    return false;
+                break;
+            case INT:
+                if (!(value instanceof Number))
+                    return false;
+                double d = ((Number) value).doubleValue();
+                if (Math.round(d) != d)
+                    return false;
+                break;
+            case NUMBER:
+                if (!(value instanceof Number))
+                    return false;
+                break;
+            case STRING:
+                if (!(value instanceof String))
+                    return false;
+                break;
+            case BOOLEAN:
+                if (!(value instanceof Boolean))
+                    return false;
+                break;
+        }
+
+        if (hasMin || hasMax) {
+            if (!(value instanceof Number))
+                return false;
+
+            double d = ((Number) value).doubleValue();
+            if (hasMin && !(d >= min))
+                return false;
+            if (hasMax && !(d <= max))
+                return false;
+        }
+
+        for (int i = 0; i < others.length; i++) {
+            if (others[i].validate(otherValues[i], value) != null)
+                return false;
+        }
+
+        return true;
+    }
+}
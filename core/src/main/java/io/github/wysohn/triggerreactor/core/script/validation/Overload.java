@@ -2,9 +2,14 @@ package io.github.wysohn.triggerreactor.core.script.validation;
 
 public class Overload {
     private final Arg[] args;
+    private final ArgMatcher[] matchers;
 
     Overload(Arg[] args) {
         this.args = args;
+        this.matchers = new ArgMatcher[args.length];
+        for (int i = 0; i < args.length; i++) {
+            matchers[i] = args[i].compile();
+        }
     }
 
     /**
@@ -40,6 +45,35 @@ public class Overload {
         return builder.toString();
     }
 
+    /**
+     * Same as {@link #matches(Object...)} but without making the error message.
+     *
+     * @param args the Object this Overload should attempt to match
+     *             args.length and length() are expected to match
+     * @return true if the args match
+     */
+    boolean test(Object[] args) {
+        for (int i = 0; i < matchers.length; i++) {
+            if (!matchers[i].matches(args[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param classes classes of the args. null for the null value.
+     * @return true if the args of these classes can never match this Overload
+     */
+    boolean rejects(Class<?>[] classes) {
+        for (int i = 0; i < matchers.length; i++) {
+            if (matchers[i].rejects(classes[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * @param args the Object this Overload should attempt to match
      *             args.length and length() are expected to match
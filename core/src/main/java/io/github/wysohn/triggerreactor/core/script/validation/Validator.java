@@ -8,20 +8,55 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class Validator {
+    private static final int[] NO_OVERLOADS = new int[0];
+
     private final Overload[] overloads;
+    /**
+     * Index of the overloads for each number of arguments, in the order they were declared.
+     */
+    private final int[][] byArity;
+    private final ValidationResult[] results;
+    /**
+     * The overload that matched last time for each number of arguments. Executors are usually called with the
+     * same kind of arguments at the same place of the script, so it's checked before the others if the classes
+     * of the arguments are the same as last time.
+     */
+    private final LastMatch[] lastMatches;
 
     private Validator() {
         overloads = null;
+        byArity = null;
+        results = null;
+        lastMatches = null;
     }
 
     private Validator(Overload[] overloads) {
         this.overloads = overloads;
-		/*
-		for (Overload overload : overloads) {
-			lengths.add(overload.length());
-		}
-		this.lengths = lengths.toArray(new Integer[0]);
-		*/
+
+        int maxArity = 0;
+        for (Overload overload : overloads) {
+            maxArity = Math.max(maxArity, overload.length());
+        }
+
+        List<List<Integer>> indices = new ArrayList<>();
+        for (int i = 0; i <= maxArity; i++) {
+            indices.add(new ArrayList<>());
+        }
+        for (int i = 0; i < overloads.length; i++) {
+            indices.get(overloads[i].length()).add(i);
+        }
+
+        this.byArity = new int[maxArity + 1][];
+        for (int arity = 0; arity <= maxArity; arity++) {
+            byArity[arity] = indices.get(arity).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        this.results = new ValidationResult[overloads.length];
+        for (int i = 0; i < overloads.length; i++) {
+            results[i] = new ValidationResult(i);
+        }
+
+        this.lastMatches = new LastMatch[maxArity + 1];
     }
 
     /**
@@ -30,24 +65,40 @@ public class Validator {
      * @return the overload it matched, if any, else -1
      */
     public ValidationResult validate(Object... args) {
-        String[] errorList = new String[overloads.length];
-        boolean lengthMatchFound = false;
-        for (int i = 0; i < overloads.length; i++) {
-            String error = null;
-            if (overloads[i].length() == args.length) {
-                error = overloads[i].matches(args);
-                lengthMatchFound = true;
-            } else {
-                continue;
+        int[] candidates = args.length < byArity.length ? byArity[args.length] : NO_OVERLOADS;
+        if (candidates.length == 0) {
+            return new ValidationResult("Incorrect number of arguments: " + args.length);
+        }
+
+        LastMatch last = lastMatches[args.length];
+        if (last != null && last.sameClasses(args) && overloads[last.overload].test(args)) {
+            return results[last.overload];
+        }
+
+        for (int i = 0; i < candidates.length; i++) {
+            int index = candidates[i];
+            if (overloads[index].test(args)) {
+                lastMatches[args.length] = LastMatch.of(overloads, candidates, i, args);
+                return results[index];
             }
+        }
+
+        return describeFailure(args);
+    }
+
+    /**
+     * Run the validation again and collect the error messages of all the overloads. Only used when nothing
+     * matched, so the messages are not made for the successful calls.
+     */
+    private ValidationResult describeFailure(Object... args) {
+        String[] errorList = new String[overloads.length];
+        for (int i : byArity[args.length]) {
+            String error = overloads[i].matches(args);
             if (error == null) {
-                return new ValidationResult(i);
+                return results[i];
             }
             errorList[i] = error;
         }
-        if (!lengthMatchFound) {
-            return new ValidationResult("Incorrect number of arguments: " + args.length);
-        }
 
         StringBuilder builder = new StringBuilder();
         for (int i = 0; i < overloads.length; i++) {
@@ -110,4 +161,44 @@ public class Validator {
             .addOption(new NameOption(), "name")
             .addOption(new TypeOption(), "type")
             .build();
+
+    private static class LastMatch {
+        private final int overload;
+        private final Class<?>[] classes;
+
+        private LastMatch(int overload, Class<?>[] classes) {
+            this.overload = overload;
+            this.classes = classes;
+        }
+
+        /**
+         * The match can be reused only if the overloads declared before it can never match the arguments of the
+         * same classes; otherwise, one of them might match next time depending on the values.
+         *
+         * @return the match, or null if it can't be reused.
+         */
+        private static LastMatch of(Overload[] overloads, int[] candidates, int matched, Object[] args) {
+            Class<?>[] classes = new Class<?>[args.length];
+            for (int i = 0; i < args.length; i++) {
+                classes[i] = args[i] == null ? null : args[i].getClass();
+            }
+
+            for (int i = 0; i < matched; i++) {
+                if (!overloads[candidates[i]].rejects(classes)) {
+                    return null;
+                }
+            }
+            return new LastMatch(candidates[matched], classes);
+        }
+
+        private boolean sameClasses(Object[] args) {
+            for (int i = 0; i < classes.length; i++) {
+                Class<?> clazz = args[i] == null ? null : args[i].getClass();
+                if (clazz != classes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
@@ -8,6 +8,9 @@ public class MaximumOption extends ValidationOption {
 
     @Override
     public String validate(Object arg, Object value) {
+        if (!(value instanceof Number)) {
+            return "%name% must be a number";
+        }
         if (((Number) value).doubleValue() <= ((Number) arg).doubleValue()) {
             return null;
         }
@@ -0,0 +1,368 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.tools;
+
+import org.apache.commons.lang3.ClassUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.*;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional mode which replaces {@link Method#invoke(Object, Object...)} of the most frequently called methods
+ * with a small class generated by {@link LambdaMetafactory}. The generated class calls the method directly,
+ * so the argument checks and the wrapping done by the reflection are skipped.
+ * <p>
+ * A method resolved by {@link ReflectionUtil#invokeMethod(Class, Object, String, Object...)} gets its invoker
+ * once it's called {@link #getThreshold()} times with the same receiver type and argument classes. At most
+ * {@link #getMaxClasses()} invokers are kept at once, and the invokers of the methods dropped from the
+ * {@link ReflectionCache} don't count.
+ * <p>
+ * Only public methods of public classes which are visible from the class loader of TriggerReactor, and with
+ * up to {@link #MAX_ARITY} arguments (including the receiver), can be generated. Others keep using the reflection.
+ * Note that the call site in the interpreter is still shared by all the methods; what's saved is the cost of
+ * {@link Method#invoke(Object, Object...)} itself.
+ */
+public final class GeneratedInvokers {
+    public static final int MAX_ARITY = 4;
+
+    private static volatile boolean enabled = false;
+    private static volatile long threshold = 10_000L;
+    private static volatile int maxClasses = 256;
+
+    private static final AtomicInteger generated = new AtomicInteger();
+    private static final AtomicInteger failed = new AtomicInteger();
+
+    private GeneratedInvokers() {
+
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        GeneratedInvokers.enabled = enabled;
+    }
+
+    /**
+     * @return number of calls before the invoker is generated
+     */
+    public static long getThreshold() {
+        return threshold;
+    }
+
+    public static void setThreshold(long threshold) {
+        GeneratedInvokers.threshold = Math.max(1L, threshold);
+    }
+
+    public static int getMaxClasses() {
+        return maxClasses;
+    }
+
+    public static void setMaxClasses(int maxClasses) {
+        GeneratedInvokers.maxClasses = Math.max(0, maxClasses);
+    }
+
+    /**
+     * @return number of invokers of the methods currently in the {@link ReflectionCache}
+     */
+    public static int getGenerated() {
+        return generated.get();
+    }
+
+    /**
+     * @return number of methods that were hot but could not be generated
+     */
+    public static int getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * Called when the method of a generated invoker is dropped from the {@link ReflectionCache}.
+     */
+    static void discard() {
+        generated.decrementAndGet();
+    }
+
+    static void reset() {
+        generated.set(0);
+        failed.set(0);
+    }
+
+    /**
+     * Generate the invoker for the method.
+     *
+     * @param method the method to call
+     * @param args   the arguments to be passed to the method, which are already adapted by
+     *               {@link ReflectionCache.Resolved#adapt(Object[])}. The classes of the primitive
+     *               arguments are used to unbox them.
+     * @return the invoker; null if the limit is reached or the method can't be called by a generated class.
+     */
+    static Invoker generate(Method method, Object[] args) {
+        if (generated.get() >= maxClasses)
+            return null;
+
+        try {
+            Invoker invoker = spin(method, args);
+            if (invoker == null) {
+                failed.incrementAndGet();
+                return null;
+            }
+
+            generated.incrementAndGet();
+            return invoker;
+        } catch (Throwable ex) {
+            failed.incrementAndGet();
+            return null;
+        }
+    }
+
+    private static Invoker spin(Method method, Object[] args) throws Throwable {
+        Class<?> declaringClass = method.getDeclaringClass();
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        if (!Modifier.isPublic(method.getModifiers()))
+            return null;
+        // the invokestatic of interface methods is not reliable in the classes spun by Java 8
+        if (isStatic && declaringClass.isInterface())
+            return null;
+
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        List<Class<?>> types = new ArrayList<>();
+        if (!isStatic)
+            types.add(declaringClass);
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (!parameterTypes[i].isPrimitive()) {
+                types.add(parameterTypes[i]);
+            } else if (args[i] != null) {
+                // the wrapper of the argument, so it can be unboxed and widened like the reflection does
+                types.add(args[i].getClass());
+            } else {
+                return null;
+            }
+        }
+
+        int arity = types.size();
+        if (arity > MAX_ARITY)
+            return null;
+
+        // the generated class is defined in the class loader of this class
+        if (!isAccessible(declaringClass) || !isAccessible(method.getReturnType()))
+            return null;
+        for (Class<?> type : types) {
+            if (!isAccessible(type))
+                return null;
+        }
+
+        boolean isVoid = method.getReturnType() == void.class;
+        Class<?> functionalInterface = isVoid ? RUNS[arity] : CALLS[arity];
+        MethodType samType = MethodType.genericMethodType(arity);
+        MethodType instantiatedType = MethodType.methodType(ClassUtils.primitiveToWrapper(method.getReturnType()), types);
+        if (isVoid) {
+            samType = samType.changeReturnType(void.class);
+            instantiatedType = instantiatedType.changeReturnType(void.class);
+        }
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        CallSite site = LambdaMetafactory.metafactory(lookup,
+                "call",
+                MethodType.methodType(functionalInterface),
+                samType,
+                lookup.unreflect(method),
+                instantiatedType);
+
+        return adapt(site.getTarget().invoke(), isStatic);
+    }
+
+    private static boolean isAccessible(Class<?> clazz) {
+        while (clazz.isArray())
+            clazz = clazz.getComponentType();
+        if (clazz.isPrimitive())
+            return true;
+        if (!Modifier.isPublic(clazz.getModifiers()))
+            return false;
+
+        try {
+            return Class.forName(clazz.getName(), false, GeneratedInvokers.class.getClassLoader()) == clazz;
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+    }
+
+    private static Invoker adapt(Object fn, boolean isStatic) {
+        if (fn instanceof Call0) {
+            Call0 c = (Call0) fn;
+            return (target, args) -> c.call();
+        } else if (fn instanceof Call1) {
+            Call1 c = (Call1) fn;
+            return isStatic ? (target, args) -> c.call(args[0])
+                    : (target, args) -> c.call(target);
+        } else if (fn instanceof Call2) {
+            Call2 c = (Call2) fn;
+            return isStatic ? (target, args) -> c.call(args[0], args[1])
+                    : (target, args) -> c.call(target, args[0]);
+        } else if (fn instanceof Call3) {
+            Call3 c = (Call3) fn;
+            return isStatic ? (target, args) -> c.call(args[0], args[1], args[2])
+                    : (target, args) -> c.call(target, args[0], args[1]);
+        } else if (fn instanceof Call4) {
+            Call4 c = (Call4) fn;
+            return isStatic ? (target, args) -> c.call(args[0], args[1], args[2], args[3])
+                    : (target, args) -> c.call(target, args[0], args[1], args[2]);
+        } else if (fn instanceof Run0) {
+            Run0 r = (Run0) fn;
+            return (target, args) -> {
+                r.call();
+                return null;
+            };
+        } else if (fn instanceof Run1) {
+            Run1 r = (Run1) fn;
+            return isStatic ? (target, args) -> {
+                r.call(args[0]);
+                return null;
+            } : (target, args) -> {
+                r.call(target);
+                return null;
+            };
+        } else if (fn instanceof Run2) {
+            Run2 r = (Run2) fn;
+            return isStatic ? (target, args) -> {
+                r.call(args[0], args[1]);
+                return null;
+            } : (target, args) -> {
+                r.call(target, args[0]);
+                return null;
+            };
+        } else if (fn instanceof Run3) {
+            Run3 r = (Run3) fn;
+            return isStatic ? (target, args) -> {
+                r.call(args[0], args[1], args[2]);
+                return null;
+            } : (target, args) -> {
+                r.call(target, args[0], args[1]);
+                return null;
+            };
+        } else if (fn instanceof Run4) {
+            Run4 r = (Run4) fn;
+            return isStatic ? (target, args) -> {
+                r.call(args[0], args[1], args[2], args[3]);
+                return null;
+            } : (target, args) -> {
+                r.call(target, args[0], args[1], args[2]);
+                return null;
+            };
+        } else {
+            throw new IllegalArgumentException(String.valueOf(fn));
+        }
+    }
+
+    /**
+     * Print the status, and the most frequently called methods in the same format as
+     * {@link io.github.wysohn.triggerreactor.tools.timings.Timings#printAll(OutputStream)}.
+     *
+     * @param stream the stream to print to
+     * @param limit  number of methods to print
+     * @throws IOException
+     */
+    public static void printStats(OutputStream stream, int limit) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        builder.append(" > Generated Invokers[").append(generated.get()).append('/').append(maxClasses).append(']')
+                .append(" -- (").append(enabled ? "enabled" : "disabled")
+                .append(", threshold: ").append(threshold)
+                .append(", failed: ").append(failed.get())
+                .append(", cached methods: ").append(ReflectionCache.size()).append(')');
+
+        List<ReflectionCache.Resolved<?>> resolved = ReflectionCache.getResolved();
+        resolved.removeIf(r -> r.getCalls() == 0L);
+        resolved.sort(Comparator.comparingLong(ReflectionCache.Resolved<?>::getCalls).reversed());
+        for (int i = 0; i < Math.min(limit, resolved.size()); i++) {
+            ReflectionCache.Resolved<?> r = resolved.get(i);
+            builder.append('\n').append("   > ").append(r.getExecutable().getDeclaringClass().getSimpleName())
+                    .append('.').append(r.getExecutable().getName())
+                    .append('(').append(r.getExecutable().getParameterCount()).append(')')
+                    .append(" -- (calls: ").append(r.getCalls())
+                    .append(r.hasInvoker() ? ", generated" : "").append(')');
+        }
+
+        stream.write(builder.toString().getBytes());
+    }
+
+    /**
+     * Calls the method with the arguments adapted by {@link ReflectionCache.Resolved#adapt(Object[])}.
+     */
+    @FunctionalInterface
+    public interface Invoker {
+        /**
+         * @param target the receiver; ignored if static method
+         * @param args   the arguments
+         * @return the return value. null if void.
+         * @throws Throwable the exception thrown by the method as is. Not wrapped with
+         *                   {@link java.lang.reflect.InvocationTargetException}.
+         */
+        Object invoke(Object target, Object[] args) throws Throwable;
+    }
+
+    // LambdaMetafactory can't spread the array, so there is one interface per number of arguments
+    private static final Class<?>[] CALLS = {Call0.class, Call1.class, Call2.class, Call3.class, Call4.class};
+    private static final Class<?>[] RUNS = {Run0.class, Run1.class, Run2.class, Run3.class, Run4.class};
+
+    interface Call0 {
+        Object call();
+    }
+
+    interface Call1 {
+        Object call(Object a0);
+    }
+
+    interface Call2 {
+        Object call(Object a0, Object a1);
+    }
+
+    interface Call3 {
+        Object call(Object a0, Object a1, Object a2);
+    }
+
+    interface Call4 {
+        Object call(Object a0, Object a1, Object a2, Object a3);
+    }
+
+    interface Run0 {
+        void call();
+    }
+
+    interface Run1 {
+        void call(Object a0);
+    }
+
+    interface Run2 {
+        void call(Object a0, Object a1);
+    }
+
+    interface Run3 {
+        void call(Object a0, Object a1, Object a2);
+    }
+
+    interface Run4 {
+        void call(Object a0, Object a1, Object a2, Object a3);
+    }
+}
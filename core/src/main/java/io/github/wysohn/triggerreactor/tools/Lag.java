@@ -10,7 +10,7 @@ public class Lag implements Runnable {
     }
 
     public double getTPS(int ticks) {
-        if (TICK_COUNT < ticks) {
+        if (TICK_COUNT <= ticks) {
             return 20.0D;
         }
         int target = (TICK_COUNT - 1 - ticks) % TICKS.length;
@@ -0,0 +1,433 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.tools;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+
+/**
+ * Process-wide cache of the reflection lookups done for the scripts.
+ * <p>
+ * Which method or constructor is picked only depends on the class, the name, and the classes of the
+ * arguments, so the result of the candidate filtering and the best-fit selection is kept with the
+ * steps needed to adapt the arguments (String to Enum conversion, varargs merge). The class names
+ * resolved by {@link #forName(String, ClassLoader)} are kept as well.
+ * <p>
+ * Both caches are bounded and evict the least recently used entries, and the lookups don't take any lock.
+ * Since the entries hold the classes, {@link #invalidate(ClassLoader)} must be called when the plugin which
+ * owns the class loader is unloaded, or the class loader can't be garbage collected.
+ */
+public final class ReflectionCache {
+    private static volatile int maxSize = 4096;
+
+    private static final BoundedMap<ExecutableKey, Resolved<?>> executables = new BoundedMap<>(Resolved::release);
+    private static final BoundedMap<ClassKey, Class<?>> classes = new BoundedMap<>(null);
+
+    private ReflectionCache() {
+
+    }
+
+    /**
+     * @param maxSize maximum number of entries in each cache. 0 or less disables the cache.
+     */
+    public static void setMaxSize(int maxSize) {
+        ReflectionCache.maxSize = Math.max(0, maxSize);
+        if (maxSize <= 0)
+            clear();
+    }
+
+    public static int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Same as {@link Class#forName(String, boolean, ClassLoader)} with initialization, but the found
+     * class is cached. Classes not found are not cached.
+     *
+     * @param name   the full name of the class
+     * @param loader the class loader to search the class from
+     * @return the class
+     * @throws ClassNotFoundException if not found
+     */
+    public static Class<?> forName(String name, ClassLoader loader) throws ClassNotFoundException {
+        ClassKey key = new ClassKey(loader, name);
+        Class<?> clazz = classes.get(key);
+        if (clazz != null)
+            return clazz;
+
+        clazz = Class.forName(name, true, loader);
+        classes.put(key, clazz);
+        return clazz;
+    }
+
+    /**
+     * @param args the arguments
+     * @return the classes of the arguments. null for the null arguments.
+     */
+    public static Class<?>[] classesOf(Object[] args) {
+        Class<?>[] argClasses = new Class<?>[args.length];
+        for (int i = 0; i < args.length; i++)
+            argClasses[i] = args[i] == null ? null : args[i].getClass();
+        return argClasses;
+    }
+
+    /**
+     * @param clazz      the class where the executable is searched
+     * @param name       name of the method. Use a name which can't be a method name, like '&lt;init&gt;',
+     *                   for the constructors.
+     * @param argClasses classes of the arguments. See {@link #classesOf(Object[])}
+     * @return the resolved executable; null if not resolved yet.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Executable> Resolved<T> get(Class<?> clazz, String name, Class<?>[] argClasses) {
+        return (Resolved<T>) executables.get(new ExecutableKey(clazz, name, argClasses));
+    }
+
+    public static <T extends Executable> void put(Class<?> clazz, String name, Class<?>[] argClasses,
+                                                  Resolved<T> resolved) {
+        executables.put(new ExecutableKey(clazz, name, argClasses.clone()), resolved);
+    }
+
+    /**
+     * Drop everything related to the given class loader, or the class loaders whose parent is the given
+     * class loader. Call it when a plugin is unloaded.
+     *
+     * @param loader the class loader
+     */
+    public static void invalidate(ClassLoader loader) {
+        if (loader == null)
+            return;
+
+        executables.removeIf((key, resolved) -> key.isLoadedBy(loader)
+                || isLoadedBy(resolved.executable.getDeclaringClass(), loader));
+        classes.removeIf((key, clazz) -> isChildOf(key.loader, loader) || isLoadedBy(clazz, loader));
+    }
+
+    public static void clear() {
+        executables.clear();
+        GeneratedInvokers.reset();
+        classes.clear();
+    }
+
+    /**
+     * @return copy of the cached executables
+     */
+    public static List<Resolved<?>> getResolved() {
+        return executables.values();
+    }
+
+    /**
+     * @return number of the cached executables
+     */
+    public static int size() {
+        return executables.size();
+    }
+
+    private static boolean isLoadedBy(Class<?> clazz, ClassLoader loader) {
+        return clazz != null && isChildOf(clazz.getClassLoader(), loader);
+    }
+
+    private static boolean isChildOf(ClassLoader child, ClassLoader loader) {
+        for (ClassLoader current = child; current != null; current = current.getParent()) {
+            if (current == loader)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Map bounded by {@link #maxSize}. The lookups don't take any lock; each entry only remembers when it was
+     * used last, and when the map grows over the limit, one thread drops the least recently used entries.
+     */
+    private static final class BoundedMap<K, V> {
+        private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+        private final AtomicLong uses = new AtomicLong();
+        private final Object trimLock = new Object();
+        private final Consumer<V> onRemoved;
+
+        /**
+         * @param onRemoved called with the value removed from the map. Can be null.
+         */
+        private BoundedMap(Consumer<V> onRemoved) {
+            this.onRemoved = onRemoved;
+        }
+
+        private V get(K key) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null)
+                return null;
+
+            entry.lastUsed = uses.incrementAndGet();
+            return entry.value;
+        }
+
+        private void put(K key, V value) {
+            int maxSize = ReflectionCache.maxSize;
+            if (maxSize <= 0)
+                return;
+
+            Entry<V> previous = entries.put(key, new Entry<>(value, uses.incrementAndGet()));
+            if (previous != null && previous.value != value)
+                removed(previous.value);
+
+            if (entries.size() > maxSize)
+                trim(maxSize - maxSize / 10); // a bit more than needed, so it doesn't trim on every miss
+        }
+
+        private void trim(int target) {
+            synchronized (trimLock) {
+                if (entries.size() <= target)
+                    return;
+
+                List<Map.Entry<K, Entry<V>>> oldest = new ArrayList<>(entries.entrySet());
+                oldest.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsed));
+                for (Map.Entry<K, Entry<V>> entry : oldest) {
+                    if (entries.size() <= target)
+                        break;
+
+                    if (entries.remove(entry.getKey(), entry.getValue()))
+                        removed(entry.getValue().value);
+                }
+            }
+        }
+
+        private void removeIf(BiPredicate<K, V> filter) {
+            for (Map.Entry<K, Entry<V>> entry : entries.entrySet()) {
+                if (filter.test(entry.getKey(), entry.getValue().value)
+                        && entries.remove(entry.getKey(), entry.getValue()))
+                    removed(entry.getValue().value);
+            }
+        }
+
+        private void removed(V value) {
+            if (onRemoved != null)
+                onRemoved.accept(value);
+        }
+
+        private void clear() {
+            removeIf((key, value) -> true);
+        }
+
+        private List<V> values() {
+            List<V> values = new ArrayList<>();
+            for (Entry<V> entry : entries.values())
+                values.add(entry.value);
+            return values;
+        }
+
+        private int size() {
+            return entries.size();
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private volatile long lastUsed;
+
+        private Entry(V value, long lastUsed) {
+            this.value = value;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    /**
+     * The executable picked for the arguments, and how the arguments should be adapted before the call.
+     *
+     * @param <T> Method or Constructor
+     */
+    public static class Resolved<T extends Executable> {
+        private final T executable;
+        private final int[] enumIndices;
+        private final Class<?>[] enumTypes;
+
+        private final AtomicLong calls = new AtomicLong();
+        private volatile boolean generationTried = false;
+        private volatile GeneratedInvokers.Invoker invoker;
+        private boolean released = false;
+
+        public Resolved(T executable, int[] enumIndices, Class<?>[] enumTypes) {
+            this.executable = executable;
+            this.enumIndices = enumIndices;
+            this.enumTypes = enumTypes;
+        }
+
+        public T getExecutable() {
+            return executable;
+        }
+
+        /**
+         * @return number of calls counted while {@link GeneratedInvokers} is enabled
+         */
+        public long getCalls() {
+            return calls.get();
+        }
+
+        public boolean hasInvoker() {
+            return invoker != null;
+        }
+
+        /**
+         * Count the call, and generate the invoker if the method is called enough times.
+         *
+         * @param args the arguments adapted by {@link #adapt(Object[])}
+         * @return the generated invoker; null if not generated (yet).
+         */
+        GeneratedInvokers.Invoker countCall(Object[] args) {
+            calls.incrementAndGet();
+
+            GeneratedInvokers.Invoker invoker = this.invoker;
+            if (invoker != null || generationTried || calls.get() < GeneratedInvokers.getThreshold())
+                return invoker;
+
+            synchronized (this) {
+                if (!generationTried) {
+                    this.invoker = GeneratedInvokers.generate((Method) executable, args);
+                    generationTried = true;
+                }
+                return this.invoker;
+            }
+        }
+
+        /**
+         * Called when this is dropped from the cache, so its invoker no longer counts toward
+         * {@link GeneratedInvokers#getMaxClasses()}. No invoker is generated for it after this.
+         */
+        synchronized void release() {
+            if (released)
+                return;
+
+            released = true;
+            generationTried = true;
+            if (invoker != null)
+                GeneratedInvokers.discard();
+        }
+
+        /**
+         * Convert the String arguments to Enum, and merge the vararg part into an Array if the
+         * executable is vararg. The String arguments are replaced in the given array.
+         *
+         * @param args the arguments
+         * @return the arguments to be passed to the executable
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public Object[] adapt(Object[] args) {
+            for (int i = 0; i < enumIndices.length; i++) {
+                int index = enumIndices[i];
+                try {
+                    args[index] = Enum.valueOf((Class<? extends Enum>) enumTypes[i], (String) args[index]);
+                } catch (IllegalArgumentException ex1) {
+                    throw new RuntimeException("Tried to convert value [" + args[index]
+                            + "] to Enum [" + enumTypes[i]
+                            + "] or find appropriate method but found nothing. Make sure"
+                            + " that the value [" + args[index]
+                            + "] matches exactly with one of the Enums in [" + enumTypes[i]
+                            + "] or the method you are looking exists.");
+                }
+            }
+
+            if (executable.isVarArgs())
+                return mergeVarargs(args, executable.getParameterTypes());
+            return args;
+        }
+
+        private static Object[] mergeVarargs(Object[] args, Class<?>[] parameterTypes) {
+            // build the Array to be used
+            Object varargs = Array.newInstance(parameterTypes[parameterTypes.length - 1].getComponentType(),
+                    args.length - parameterTypes.length + 1);
+            for (int k = 0; k < Array.getLength(varargs); k++)
+                Array.set(varargs, k, args[parameterTypes.length - 1 + k]);
+
+            // copy the non-vararg part
+            Object[] newArgs = new Object[parameterTypes.length];
+            System.arraycopy(args, 0, newArgs, 0, newArgs.length - 1);
+            // and the last argument is the Array we just created
+            newArgs[newArgs.length - 1] = varargs;
+
+            return newArgs;
+        }
+    }
+
+    private static class ExecutableKey {
+        private final Class<?> clazz;
+        private final String name;
+        private final Class<?>[] argClasses;
+        private final int hash;
+
+        private ExecutableKey(Class<?> clazz, String name, Class<?>[] argClasses) {
+            this.clazz = clazz;
+            this.name = name;
+            this.argClasses = argClasses;
+            this.hash = 31 * (31 * clazz.hashCode() + Objects.hashCode(name)) + Arrays.hashCode(argClasses);
+        }
+
+        private boolean isLoadedBy(ClassLoader loader) {
+            if (ReflectionCache.isLoadedBy(clazz, loader))
+                return true;
+            for (Class<?> argClass : argClasses) {
+                if (ReflectionCache.isLoadedBy(argClass, loader))
+                    return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ExecutableKey that = (ExecutableKey) o;
+            return hash == that.hash &&
+                    clazz == that.clazz &&
+                    Objects.equals(name, that.name) &&
+                    Arrays.equals(argClasses, that.argClasses);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static class ClassKey {
+        private final ClassLoader loader;
+        private final String name;
+
+        private ClassKey(ClassLoader loader, String name) {
+            this.loader = loader;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ClassKey classKey = (ClassKey) o;
+            return loader == classKey.loader &&
+                    name.equals(classKey.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(loader) + name.hashCode();
+        }
+    }
+}
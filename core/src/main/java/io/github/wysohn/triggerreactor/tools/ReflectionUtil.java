@@ -192,9 +192,10 @@ public class ReflectionUtil {
         T apply(Class<?> clazz, String name, Class<?>[] parameters) throws NoSuchMethodException;
     }
 
-    private static <T extends Executable> T findBestFit(Class<?> clazz, String name, List<T> validMethods,
-                                                        Object[] args,
-                                                        ExtractExecutable<T> extractFn) {
+    private static <T extends Executable> ReflectionCache.Resolved<T> findBestFit(Class<?> clazz, String name,
+                                                                               List<T> validMethods,
+                                                                               Class<?>[] argClasses,
+                                                                               ExtractExecutable<T> extractFn) {
         // we found all methods that may can be used with the input arguments
         // yet we still have to find the best fit.
         // For example, method(1, 1) would be more suitable with method(int, int) than method(double, double)
@@ -235,84 +236,90 @@ public class ReflectionUtil {
 
             executable.setAccessible(true);
 
-            for (int i = 0; i < args.length; i++) {
+            // only plan the conversions here; the values are converted for each call
+            Class<?>[] types = argClasses.clone();
+            List<Integer> enumIndices = new ArrayList<>();
+            List<Class<?>> enumTypes = new ArrayList<>();
+            for (int i = 0; i < argClasses.length; i++) {
                 Class<?>[] parameterTypes = executable.getParameterTypes();
 
-                if (args[i] instanceof String && i < parameterTypes.length && parameterTypes[i].isEnum()) {
+                if (argClasses[i] == String.class && i < parameterTypes.length && parameterTypes[i].isEnum()) {
                     // Some methods already provide overloaded method to handle String instead of Enum
                     // So check it first before converting String to Enum manually
-                    Class<?>[] types = new Class<?>[args.length];
-                    for (int k = 0; k < args.length; k++)
-                        types[k] = args[k].getClass();
+                    for (Class<?> type : types)
+                        Objects.requireNonNull(type);
 
                     try {
                         executable = extractFn.apply(clazz, name, types);
+                        executable.setAccessible(true);
                     } catch (NoSuchMethodException ex2) {
-                        try {
-                            args[i] = Enum.valueOf((Class<? extends Enum>) parameterTypes[i], (String) args[i]);
-                        } catch (IllegalArgumentException ex1) {
-                            throw new RuntimeException("Tried to convert value [" + args[i]
-                                    + "] to Enum [" + parameterTypes[i]
-                                    + "] or find appropriate method but found nothing. Make sure"
-                                    + " that the value [" + args[i]
-                                    + "] matches exactly with one of the Enums in [" + parameterTypes[i]
-                                    + "] or the method you are looking exists.");
-                        }
+                        enumIndices.add(i);
+                        enumTypes.add(parameterTypes[i]);
+                        types[i] = parameterTypes[i];
                     }
                 }
             }
 
-            return executable;
+            return new ReflectionCache.Resolved<>(executable,
+                    enumIndices.stream().mapToInt(Integer::intValue).toArray(),
+                    enumTypes.toArray(new Class<?>[0]));
         } else {
             return null;
         }
     }
 
+    private static ReflectionCache.Resolved<Method> resolveMethod(Class<?> clazz, String methodName, Object[] args,
+                                                                  Class<?>[] argClasses) {
+        ReflectionCache.Resolved<Method> resolved = ReflectionCache.get(clazz, methodName, argClasses);
+        if (resolved != null)
+            return resolved;
+
+        List<Method> validMethods = getValidExecutables(clazz, methodName, args, Class::getMethods);
+        if (validMethods.isEmpty())
+            return null;
+
+        // we found all methods that may can be used with the input arguments
+        // yet we still have to find the best fit.
+        // For example, method(1, 1) would be more suitable with method(int, int) than method(double, double)
+        // while both of them can accept the arguments without problem.
+        // pick one method
+        resolved = findBestFit(clazz, methodName, validMethods, argClasses, Class::getMethod);
+        if (resolved != null)
+            ReflectionCache.put(clazz, methodName, argClasses, resolved);
+        return resolved;
+    }
+
     @SuppressWarnings({"unchecked"})
     public static Object invokeMethod(Class<?> clazz, Object obj, String methodName, Object... args)
             throws NoSuchMethodException, IllegalArgumentException, InvocationTargetException, IllegalAccessException {
         try {
-            List<Method> validMethods = getValidExecutables(clazz, methodName, args, Class::getMethods);
-            if (validMethods.isEmpty())
+            ReflectionCache.Resolved<Method> resolved = resolveMethod(clazz, methodName, args,
+                    ReflectionCache.classesOf(args));
+            if (resolved == null)
                 throw new NoSuchMethodException(buildFailMessage(clazz, methodName, args));
 
-            // we found all methods that may can be used with the input arguments
-            // yet we still have to find the best fit.
-            // For example, method(1, 1) would be more suitable with method(int, int) than method(double, double)
-            // while both of them can accept the arguments without problem.
-            // pick one method
-            Method method = findBestFit(clazz, methodName, validMethods, args, Class::getMethod);
-            if (method == null)
-                throw new NoSuchMethodException(buildFailMessage(clazz, methodName, args));
+            // convert the Enums, and the last part of input arguments as Array if vararg
+            Method method = resolved.getExecutable();
+            Object[] adapted = resolved.adapt(args);
 
-            // we need to convert the last part of input arguments as Array
-            if (method.isVarArgs()) {
-                args = mergeVarargs(args, method.getParameterTypes());
+            if (GeneratedInvokers.isEnabled()) {
+                GeneratedInvokers.Invoker invoker = resolved.countCall(adapted);
+                // let the reflection report the wrong receiver
+                if (invoker != null && (obj != null || Modifier.isStatic(method.getModifiers()))) {
+                    try {
+                        return invoker.invoke(obj, adapted);
+                    } catch (Throwable ex) {
+                        throw new InvocationTargetException(ex);
+                    }
+                }
             }
 
-            return method.invoke(obj, args);
+            return method.invoke(obj, adapted);
         } catch (NullPointerException e) {
             throw new NullPointerException(buildFailMessage(clazz, methodName, args));
         }
     }
 
-    private static Object[] mergeVarargs(Object[] args, Class<?>[] parameterTypes) {
-        // build the Array to be used
-        Object varargs = Array.newInstance(parameterTypes[parameterTypes.length - 1].getComponentType(),
-                args.length - parameterTypes.length + 1);
-        for (int k = 0; k < Array.getLength(varargs); k++)
-            Array.set(varargs, k, args[parameterTypes.length - 1 + k]);
-
-        // copy the non-vararg part
-        Object[] newArgs = new Object[parameterTypes.length];
-        System.arraycopy(args, 0, newArgs, 0, newArgs.length - 1);
-        // and the last argument is the Array we just created
-        newArgs[newArgs.length - 1] = varargs;
-
-        // replace the argument with the vararg merged version
-        return newArgs;
-    }
-
     private static String buildFailMessage(Class<?> clazz, String methodName, Object[] args) {
         StringBuilder builder = new StringBuilder(args.length > 0 ? String.valueOf(args[0]) : "");
         for (int i = 1; i < args.length; i++)
@@ -483,22 +490,24 @@ public class ReflectionUtil {
         if (args.length < 1) {
             return clazz.newInstance();
         } else {
-            List<Constructor<?>> validConstructors = getValidExecutables(clazz, null, args, Class::getConstructors);
+            Class<?>[] argClasses = ReflectionCache.classesOf(args);
+            ReflectionCache.Resolved<Constructor<?>> target = ReflectionCache.get(clazz, "<init>", argClasses);
+            if (target == null) {
+                List<Constructor<?>> validConstructors = getValidExecutables(clazz, null, args, Class::getConstructors);
 
-            if (validConstructors.isEmpty())
-                throw new NoSuchMethodException(buildFailMessage(clazz, "<init>", args));
+                if (validConstructors.isEmpty())
+                    throw new NoSuchMethodException(buildFailMessage(clazz, "<init>", args));
 
-            Constructor<?> target = findBestFit(clazz, null, validConstructors, args, (c, name, params) ->
-                    c.getConstructor(params));
-            if (target == null)
-                throw new NoSuchMethodException(buildFailMessage(clazz, "<init>", args));
+                target = findBestFit(clazz, null, validConstructors, argClasses, (c, name, params) ->
+                        c.getConstructor(params));
+                if (target == null)
+                    throw new NoSuchMethodException(buildFailMessage(clazz, "<init>", args));
 
-            if (target.isVarArgs()) {
-                args = mergeVarargs(args, target.getParameterTypes());
+                ReflectionCache.put(clazz, "<init>", argClasses, target);
             }
 
             try {
-                return target.newInstance(args);
+                return target.getExecutable().newInstance(target.adapt(args));
             } catch (InvocationTargetException e) {
                 e.printStackTrace();
             }
@@ -0,0 +1,68 @@
+package io.github.wysohn.triggerreactor.tools;
+
+import java.util.*;
+
+/**
+ * A map whose whole content can be replaced at once with {@link #swap(Map)}. The readers always see either
+ * the old content or the new content, never something in between, and they can keep the reference to this
+ * map across the swaps.
+ * <p>
+ * The content is never modified in place, so iterating it is safe while it's being replaced. Modifications
+ * copy the content, so they are meant to be rare.
+ */
+public class SwappableMap<K, V> extends AbstractMap<K, V> {
+    private volatile Map<K, V> map = Collections.emptyMap();
+
+    /**
+     * Replace the whole content.
+     *
+     * @param map the new content. It must not be modified after this call.
+     */
+    public synchronized void swap(Map<K, V> map) {
+        this.map = Collections.unmodifiableMap(map);
+    }
+
+    @Override
+    public V get(Object key) {
+        return map.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return map.entrySet();
+    }
+
+    @Override
+    public synchronized V put(K key, V value) {
+        Map<K, V> copy = new HashMap<>(map);
+        V previous = copy.put(key, value);
+        swap(copy);
+        return previous;
+    }
+
+    @Override
+    public synchronized V remove(Object key) {
+        if (!map.containsKey(key))
+            return null;
+
+        Map<K, V> copy = new HashMap<>(map);
+        V previous = copy.remove(key);
+        swap(copy);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        swap(new HashMap<>());
+    }
+}
@@ -0,0 +1,214 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.tools.jfr;
+
+/**
+ * Emits the events of TriggerReactor to JDK Flight Recorder, so they show up in the recordings along with the GC
+ * and the other events of the JVM. The events are under the 'TriggerReactor' category:
+ * <ul>
+ * <li>triggerreactor.TriggerActivation -- a Trigger ran, with its type, name, and the outcome</li>
+ * <li>triggerreactor.Executor -- an Executor was called, with the Trigger calling it</li>
+ * <li>triggerreactor.Placeholder -- a Placeholder was called, with the Trigger calling it</li>
+ * <li>triggerreactor.SyncHop -- a task waited for the server thread. The duration is the time it waited.</li>
+ * <li>triggerreactor.ConfigFlush -- a config file, such as the global variables, was written</li>
+ * </ul>
+ * The events are enabled and disabled by the recording settings as the built-in events are. The JVMs without
+ * JFR (Java 8 before 8u262 and the JVMs of other vendors) are detected once at startup, and every method does
+ * nothing there. Otherwise, a disabled event costs one check of a flag and nothing is allocated.
+ * <p>
+ * Each begin method returns the event to be passed to the matching commit method, or null if the event is
+ * disabled. Passing null to the commit methods is allowed.
+ */
+public final class JfrEvents {
+    private static final Events NOOP = new Events() {
+        @Override
+        public Object beginTrigger() {
+            return null;
+        }
+
+        @Override
+        public void commitTrigger(Object event, String type, String name, boolean sync, boolean failed) {
+
+        }
+
+        @Override
+        public Object beginExecutor() {
+            return null;
+        }
+
+        @Override
+        public void commitExecutor(Object event, String executor, String triggerType, String triggerName) {
+
+        }
+
+        @Override
+        public Object beginPlaceholder() {
+            return null;
+        }
+
+        @Override
+        public void commitPlaceholder(Object event, String placeholder, String triggerType, String triggerName) {
+
+        }
+
+        @Override
+        public Object beginSyncHop() {
+            return null;
+        }
+
+        @Override
+        public void commitSyncHop(Object event, String origin) {
+
+        }
+
+        @Override
+        public Object beginConfigFlush() {
+            return null;
+        }
+
+        @Override
+        public void commitConfigFlush(Object event, String file) {
+
+        }
+    };
+
+    // after NOOP, which load() falls back to
+    private static final Events EVENTS = load();
+
+    private JfrEvents() {
+
+    }
+
+    private static Events load() {
+        try {
+            // the implementation refers to jdk.jfr, so it can't even be loaded without it
+            Class.forName("jdk.jfr.Event");
+            return (Events) Class.forName(JfrEvents.class.getName() + "Impl").getDeclaredConstructor().newInstance();
+        } catch (Throwable ex) {
+            // no JFR, or JFR is turned off for this JVM
+            return NOOP;
+        }
+    }
+
+    /**
+     * @return true if the events can be recorded by this JVM
+     */
+    public static boolean isSupported() {
+        return EVENTS != NOOP;
+    }
+
+    public static Object beginTrigger() {
+        return EVENTS.beginTrigger();
+    }
+
+    /**
+     * @param event  the event returned by {@link #beginTrigger()}
+     * @param type   type of the Trigger. Ex) CommandTrigger
+     * @param name   name of the Trigger
+     * @param sync   true if it ran in the server thread
+     * @param failed true if it ended with an error
+     */
+    public static void commitTrigger(Object event, String type, String name, boolean sync, boolean failed) {
+        if (event != null)
+            EVENTS.commitTrigger(event, type, name, sync, failed);
+    }
+
+    public static Object beginExecutor() {
+        return EVENTS.beginExecutor();
+    }
+
+    /**
+     * @param event       the event returned by {@link #beginExecutor()}
+     * @param executor    name of the Executor
+     * @param triggerType type of the Trigger calling it; null if not called by a Trigger
+     * @param triggerName name of the Trigger calling it; null if not called by a Trigger
+     */
+    public static void commitExecutor(Object event, String executor, String triggerType, String triggerName) {
+        if (event != null)
+            EVENTS.commitExecutor(event, executor, triggerType, triggerName);
+    }
+
+    public static Object beginPlaceholder() {
+        return EVENTS.beginPlaceholder();
+    }
+
+    /**
+     * @param event       the event returned by {@link #beginPlaceholder()}
+     * @param placeholder name of the Placeholder
+     * @param triggerType type of the Trigger calling it; null if not called by a Trigger
+     * @param triggerName name of the Trigger calling it; null if not called by a Trigger
+     */
+    public static void commitPlaceholder(Object event, String placeholder, String triggerType, String triggerName) {
+        if (event != null)
+            EVENTS.commitPlaceholder(event, placeholder, triggerType, triggerName);
+    }
+
+    /**
+     * Begin when the task is handed over to the server thread.
+     *
+     * @return the event
+     */
+    public static Object beginSyncHop() {
+        return EVENTS.beginSyncHop();
+    }
+
+    /**
+     * Commit when the server thread starts the task. The event is committed by the server thread.
+     *
+     * @param event  the event returned by {@link #beginSyncHop()}
+     * @param origin name of the thread which handed over the task
+     */
+    public static void commitSyncHop(Object event, String origin) {
+        if (event != null)
+            EVENTS.commitSyncHop(event, origin);
+    }
+
+    public static Object beginConfigFlush() {
+        return EVENTS.beginConfigFlush();
+    }
+
+    /**
+     * @param event the event returned by {@link #beginConfigFlush()}
+     * @param file  path of the file written
+     */
+    public static void commitConfigFlush(Object event, String file) {
+        if (event != null)
+            EVENTS.commitConfigFlush(event, file);
+    }
+
+    interface Events {
+        Object beginTrigger();
+
+        void commitTrigger(Object event, String type, String name, boolean sync, boolean failed);
+
+        Object beginExecutor();
+
+        void commitExecutor(Object event, String executor, String triggerType, String triggerName);
+
+        Object beginPlaceholder();
+
+        void commitPlaceholder(Object event, String placeholder, String triggerType, String triggerName);
+
+        Object beginSyncHop();
+
+        void commitSyncHop(Object event, String origin);
+
+        Object beginConfigFlush();
+
+        void commitConfigFlush(Object event, String file);
+    }
+}
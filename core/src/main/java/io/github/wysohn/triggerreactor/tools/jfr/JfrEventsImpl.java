@@ -0,0 +1,195 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.tools.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The events backed by JFR. Only loaded by {@link JfrEvents} after checking that JFR is available.
+ */
+class JfrEventsImpl implements JfrEvents.Events {
+    private static final String CATEGORY = "TriggerReactor";
+
+    // registers the events, which fails if JFR is turned off for this JVM
+    private final EventType triggerType = EventType.getEventType(TriggerEvent.class);
+    private final EventType executorType = EventType.getEventType(ExecutorEvent.class);
+    private final EventType placeholderType = EventType.getEventType(PlaceholderEvent.class);
+    private final EventType syncHopType = EventType.getEventType(SyncHopEvent.class);
+    private final EventType configFlushType = EventType.getEventType(ConfigFlushEvent.class);
+
+    private static <E extends Event> E begin(E event) {
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public Object beginTrigger() {
+        return triggerType.isEnabled() ? begin(new TriggerEvent()) : null;
+    }
+
+    @Override
+    public void commitTrigger(Object e, String type, String name, boolean sync, boolean failed) {
+        TriggerEvent event = (TriggerEvent) e;
+        event.end();
+        if (!event.shouldCommit())
+            return;
+
+        event.triggerType = type;
+        event.triggerName = name;
+        event.sync = sync;
+        event.failed = failed;
+        event.commit();
+    }
+
+    @Override
+    public Object beginExecutor() {
+        return executorType.isEnabled() ? begin(new ExecutorEvent()) : null;
+    }
+
+    @Override
+    public void commitExecutor(Object e, String executor, String triggerType, String triggerName) {
+        ExecutorEvent event = (ExecutorEvent) e;
+        event.end();
+        if (!event.shouldCommit())
+            return;
+
+        event.executor = executor;
+        event.triggerType = triggerType;
+        event.triggerName = triggerName;
+        event.commit();
+    }
+
+    @Override
+    public Object beginPlaceholder() {
+        return placeholderType.isEnabled() ? begin(new PlaceholderEvent()) : null;
+    }
+
+    @Override
+    public void commitPlaceholder(Object e, String placeholder, String triggerType, String triggerName) {
+        PlaceholderEvent event = (PlaceholderEvent) e;
+        event.end();
+        if (!event.shouldCommit())
+            return;
+
+        event.placeholder = placeholder;
+        event.triggerType = triggerType;
+        event.triggerName = triggerName;
+        event.commit();
+    }
+
+    @Override
+    public Object beginSyncHop() {
+        return syncHopType.isEnabled() ? begin(new SyncHopEvent()) : null;
+    }
+
+    @Override
+    public void commitSyncHop(Object e, String origin) {
+        SyncHopEvent event = (SyncHopEvent) e;
+        event.end();
+        if (!event.shouldCommit())
+            return;
+
+        event.origin = origin;
+        event.commit();
+    }
+
+    @Override
+    public Object beginConfigFlush() {
+        return configFlushType.isEnabled() ? begin(new ConfigFlushEvent()) : null;
+    }
+
+    @Override
+    public void commitConfigFlush(Object e, String file) {
+        ConfigFlushEvent event = (ConfigFlushEvent) e;
+        event.end();
+        if (!event.shouldCommit())
+            return;
+
+        event.file = file;
+        event.commit();
+    }
+
+    @Name("triggerreactor.TriggerActivation")
+    @Label("Trigger Activation")
+    @Category(CATEGORY)
+    static class TriggerEvent extends Event {
+        @Label("Trigger Type")
+        String triggerType;
+
+        @Label("Trigger Name")
+        String triggerName;
+
+        @Label("Sync")
+        @Description("Ran in the server thread")
+        boolean sync;
+
+        @Label("Failed")
+        boolean failed;
+    }
+
+    @Name("triggerreactor.Executor")
+    @Label("Executor")
+    @Category(CATEGORY)
+    static class ExecutorEvent extends Event {
+        @Label("Executor")
+        String executor;
+
+        @Label("Trigger Type")
+        String triggerType;
+
+        @Label("Trigger Name")
+        String triggerName;
+    }
+
+    @Name("triggerreactor.Placeholder")
+    @Label("Placeholder")
+    @Category(CATEGORY)
+    static class PlaceholderEvent extends Event {
+        @Label("Placeholder")
+        String placeholder;
+
+        @Label("Trigger Type")
+        String triggerType;
+
+        @Label("Trigger Name")
+        String triggerName;
+    }
+
+    @Name("triggerreactor.SyncHop")
+    @Label("Sync Hop")
+    @Description("Time a task waited for the server thread")
+    @Category(CATEGORY)
+    static class SyncHopEvent extends Event {
+        @Label("Origin")
+        @Description("Thread which handed over the task")
+        String origin;
+    }
+
+    @Name("triggerreactor.ConfigFlush")
+    @Label("Config Flush")
+    @Description("A config file, such as the global variables, was written")
+    @Category(CATEGORY)
+    static class ConfigFlushEvent extends Event {
+        @Label("File")
+        String file;
+    }
+}
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.tools.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.function.LongSupplier;
+
+/**
+ * A value read from somewhere else at the time of the scrape, like the number of active threads.
+ */
+public class Gauge extends Metric<Void> {
+    private final String type;
+    private final LongSupplier supplier;
+
+    /**
+     * @param name     name of the metric
+     * @param help     description of the metric
+     * @param supplier reads the value. Called by the thread serving the metrics, so it should be thread-safe.
+     */
+    public Gauge(String name, String help, LongSupplier supplier) {
+        this(name, help, "gauge", supplier);
+    }
+
+    private Gauge(String name, String help, String type, LongSupplier supplier) {
+        super(name, help);
+        this.type = type;
+        this.supplier = supplier;
+    }
+
+    /**
+     * Same as the Gauge, but the value is a counter kept by someone else.
+     */
+    public static Gauge counter(String name, String help, LongSupplier supplier) {
+        return new Gauge(name, help, "counter", supplier);
+    }
+
+    @Override
+    protected Void newChild() {
+        return null;
+    }
+
+    @Override
+    protected String getType() {
+        return type;
+    }
+
+    @Override
+    protected void writeChild(Writer writer, String labels, Void child) {
+
+    }
+
+    @Override
+    void write(Writer writer) throws IOException {
+        super.write(writer);
+        writer.write(getName() + " " + supplier.getAsLong() + "\n");
+    }
+}
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.tools.metrics;
+
+import io.github.wysohn.triggerreactor.tools.timings.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records durations in nanoseconds, and shows them in seconds with the fixed buckets of {@link #BUCKETS}.
+ * <p>
+ * The values are kept in a {@link LatencyHistogram}, so a value is counted for a bucket only if the
+ * {@link LatencyHistogram} bucket it falls into ends at or below the bucket. The buckets may be
+ * slightly lower than the exact count, but the sum and the count are exact.
+ */
+public class Histogram extends Metric<Histogram.Child> {
+    /**
+     * Upper bounds of the buckets in seconds.
+     */
+    public static final double[] BUCKETS = {0.0001, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05,
+            0.1, 0.25, 0.5, 1.0, 2.5, 5.0, 10.0};
+
+    private static final String[] BUCKET_LABELS = new String[BUCKETS.length];
+    private static final long[] BUCKET_NANOS = new long[BUCKETS.length];
+
+    static {
+        for (int i = 0; i < BUCKETS.length; i++) {
+            BUCKET_LABELS[i] = BigDecimal.valueOf(BUCKETS[i]).stripTrailingZeros().toPlainString();
+            BUCKET_NANOS[i] = (long) (BUCKETS[i] * TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+
+    public Histogram(String name, String help, String... labelNames) {
+        super(name, help, labelNames);
+    }
+
+    /**
+     * Record the duration without the labels. Only for the histograms which have no label.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        labels().record(nanos);
+    }
+
+    @Override
+    protected Child newChild() {
+        return new Child();
+    }
+
+    @Override
+    protected String getType() {
+        return "histogram";
+    }
+
+    @Override
+    protected void writeChild(Writer writer, String labels, Child child) throws IOException {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        long count = child.count.sum();
+        for (int i = 0; i < BUCKETS.length; i++) {
+            writer.write(getName() + "_bucket{" + prefix + "le=\"" + BUCKET_LABELS[i] + "\"} "
+                    + Math.min(count, child.histogram.countAtMost(BUCKET_NANOS[i])) + "\n");
+        }
+        writer.write(getName() + "_bucket{" + prefix + "le=\"+Inf\"} " + count + "\n");
+        writer.write(sample(getName() + "_sum", labels) + " " + child.sum.sum() / 1_000_000_000.0 + "\n");
+        writer.write(sample(getName() + "_count", labels) + " " + count + "\n");
+    }
+
+    public static class Child {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder sum = new LongAdder();
+        private final LongAdder count = new LongAdder();
+
+        /**
+         * @param nanos the duration in nanoseconds
+         */
+        public void record(long nanos) {
+            histogram.record(nanos);
+            sum.add(nanos);
+            count.increment();
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.tools.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A metric with a fixed set of label names. Each combination of the label values has its own child.
+ *
+ * @param <T> type of the child
+ */
+public abstract class Metric<T> {
+    private final String name;
+    private final String help;
+    private final String[] labelNames;
+
+    private final Map<List<String>, T> children = new ConcurrentHashMap<>();
+
+    protected Metric(String name, String help, String... labelNames) {
+        this.name = name;
+        this.help = help;
+        this.labelNames = labelNames;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @param values the label values, in the same order as the label names
+     * @return the child for the values. It's created if not exists yet.
+     */
+    public T labels(String... values) {
+        if (values.length != labelNames.length)
+            throw new IllegalArgumentException(name + " requires " + labelNames.length + " label(s) but "
+                    + values.length + " given.");
+
+        List<String> key = Arrays.asList(values);
+        T child = children.get(key);
+        if (child == null)
+            child = children.computeIfAbsent(key, k -> newChild());
+        return child;
+    }
+
+    /**
+     * Remove all the children.
+     */
+    public void clear() {
+        children.clear();
+    }
+
+    protected abstract T newChild();
+
+    /**
+     * @return the type shown in the '# TYPE' line
+     */
+    protected abstract String getType();
+
+    /**
+     * Write the samples of one child.
+     *
+     * @param writer the writer
+     * @param labels the labels of the child, already formatted. Ex) type="CommandTrigger",trigger="test"
+     * @param child  the child
+     */
+    protected abstract void writeChild(Writer writer, String labels, T child) throws IOException;
+
+    void write(Writer writer) throws IOException {
+        writer.write("# HELP " + name + " " + help + "\n");
+        writer.write("# TYPE " + name + " " + getType() + "\n");
+        for (Map.Entry<List<String>, T> entry : children.entrySet())
+            writeChild(writer, formatLabels(entry.getKey()), entry.getValue());
+    }
+
+    private String formatLabels(List<String> values) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < labelNames.length; i++) {
+            if (i > 0)
+                builder.append(',');
+            builder.append(labelNames[i]).append("=\"").append(escape(values.get(i))).append('"');
+        }
+        return builder.toString();
+    }
+
+    static String escape(String value) {
+        if (value == null)
+            return "";
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * @param name   name of the sample
+     * @param labels the labels; can be empty
+     * @return the sample name with the labels. Ex) name{a="b"}
+     */
+    static String sample(String name, String labels) {
+        return labels.isEmpty() ? name : name + "{" + labels + "}";
+    }
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ *     Copyright (C) 2018 wysohn
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package io.github.wysohn.triggerreactor.tools.metrics;
+
+import io.github.wysohn.triggerreactor.tools.jfr.JfrEvents;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The metrics of TriggerReactor, which can be written in the text format of Prometheus.
+ * <p>
+ * Like {@link io.github.wysohn.triggerreactor.tools.timings.Timings}, nothing is recorded unless {@link #on}
+ * is true, so check it before measuring anything. Recording is lock-free except the first time a label value
+ * is seen, so it doesn't block the thread which records.
+ */
+public final class Metrics {
+    public static volatile boolean on = false;
+
+    // declared first as the metrics below register themselves
+    private static final Map<String, Metric<?>> metrics = new LinkedHashMap<>();
+
+    public static final Counter TRIGGER_ACTIVATIONS = register(new Counter("triggerreactor_trigger_activations_total",
+            "Number of times the Trigger started its script.", "type", "trigger"));
+    public static final Counter TRIGGER_ERRORS = register(new Counter("triggerreactor_trigger_errors_total",
+            "Number of errors produced by the Trigger, including the ones suppressed by the circuit breaker.",
+            "type", "trigger"));
+    public static final Histogram TRIGGER_DURATION = register(new Histogram("triggerreactor_trigger_duration_seconds",
+            "Time taken to run the script of the Trigger.", "type", "trigger"));
+
+    public static final Histogram EXECUTOR_DURATION = register(new Histogram("triggerreactor_executor_duration_seconds",
+            "Time taken by each call of the Executor.", "executor"));
+    public static final Histogram PLACEHOLDER_DURATION = register(new Histogram("triggerreactor_placeholder_duration_seconds",
+            "Time taken by each call of the Placeholder.", "placeholder"));
+
+    public static final Histogram SYNC_HOP_WAIT = register(new Histogram("triggerreactor_sync_hop_wait_seconds",
+            "Time the tasks waited until the server thread started them."));
+    private static final AtomicLong pendingSyncHops = new AtomicLong();
+    public static final Gauge SYNC_HOPS_PENDING = register(new Gauge("triggerreactor_sync_hops_pending",
+            "Number of tasks waiting for the server thread.", pendingSyncHops::get));
+
+    public static final Counter GLOBAL_VARIABLE_WRITES = register(new Counter("triggerreactor_global_variable_writes_total",
+            "Number of global variables set or removed."));
+
+    private Metrics() {
+
+    }
+
+    /**
+     * Register the metric to be written by {@link #write(Writer)}. A metric with the same name is replaced.
+     *
+     * @param metric the metric
+     * @return the metric
+     */
+    public static <M extends Metric<?>> M register(M metric) {
+        synchronized (metrics) {
+            metrics.put(metric.getName(), metric);
+        }
+        return metric;
+    }
+
+    /**
+     * Wrap the task, which is about to be sent to the server thread, so the time it waits is recorded in
+     * {@link #SYNC_HOP_WAIT} and as the {@link JfrEvents#beginSyncHop() SyncHop} event.
+     *
+     * @param call the task
+     * @return the wrapped task; the task as is if the metrics and the event are off.
+     */
+    public static <T> Callable<T> syncHop(Callable<T> call) {
+        Object event = JfrEvents.beginSyncHop();
+        boolean metrics = on;
+        if (!metrics && event == null)
+            return call;
+
+        String origin = event == null ? null : Thread.currentThread().getName();
+        long submitted = System.nanoTime();
+        if (metrics)
+            pendingSyncHops.incrementAndGet();
+        return () -> {
+            if (metrics) {
+                pendingSyncHops.decrementAndGet();
+                SYNC_HOP_WAIT.record(System.nanoTime() - submitted);
+            }
+            JfrEvents.commitSyncHop(event, origin);
+            return call.call();
+        };
+    }
+
+    /**
+     * Clear the recorded values. The gauges are not affected.
+     */
+    public static void reset() {
+        List<Metric<?>> copy;
+        synchronized (metrics) {
+            copy = new ArrayList<>(metrics.values());
+        }
+        copy.forEach(Metric::clear);
+    }
+
+    /**
+     * Write all the metrics in the text format of Prometheus.
+     *
+     * @param writer the writer
+     * @throws IOException
+     */
+    public static void write(Writer writer) throws IOException {
+        List<Metric<?>> copy;
+        synchronized (metrics) {
+            copy = new ArrayList<>(metrics.values());
+        }
+
+        for (Metric<?> metric : copy)
+            metric.write(writer);
+    }
+}
@@ -0,0 +1,277 @@
+package io.github.wysohn.triggerreactor.tools.timings;
+
+import io.github.wysohn.gsoncopy.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the last executions of the Triggers in a fixed size ring buffer, so what was running before a lag spike
+ * can be inspected after the fact with {@link #writeTrace(Writer)}.
+ * <p>
+ * Recording takes a sequence number with one atomic increment, claims the slot of the number by swapping its
+ * sequence number with a marker, and fills it with ordered writes; it neither locks nor allocates. The reader skips
+ * the slots which are marked or whose sequence number changed while being read, so it never sees a torn record.
+ * If the buffer wraps around so fast that two writers meet at the same slot, the latter one drops its record.
+ */
+public class FlightRecorder {
+    /**
+     * The recorder of the Trigger executions.
+     */
+    public static final FlightRecorder TRIGGERS = new FlightRecorder(8192);
+
+    private static final int LONGS = 4; // seq, start, duration, flags
+    private static final int REFS = 4; // type, name, thread, player
+
+    private static final long EMPTY = -2L;
+    private static final long WRITING = -1L;
+    private static final long FLAG_SYNC = 1L;
+
+    private final int mask;
+    private final AtomicLong next = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLongArray longs;
+    private final AtomicReferenceArray<Object> refs;
+
+    /**
+     * @param capacity number of records to keep. Rounded up to a power of two.
+     */
+    public FlightRecorder(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = size - 1;
+        this.longs = new AtomicLongArray(size * LONGS);
+        this.refs = new AtomicReferenceArray<>(size * REFS);
+
+        for (int i = 0; i < size; i++)
+            longs.set(i * LONGS, EMPTY);
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return number of records recorded so far, including the ones overwritten
+     */
+    public long getRecorded() {
+        return next.get();
+    }
+
+    /**
+     * @return number of records dropped because another writer was using the slot
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Record one execution.
+     *
+     * @param type          type of the Trigger. Ex) CommandTrigger
+     * @param name          name of the Trigger
+     * @param thread        the thread which ran it
+     * @param startNanos    {@link System#nanoTime()} when it started
+     * @param durationNanos how long it took
+     * @param sync          true if it ran in the server thread
+     * @param outcome       how it ended
+     * @param player        the player involved; null if none
+     */
+    public void record(String type, String name, Thread thread, long startNanos, long durationNanos,
+                       boolean sync, Outcome outcome, UUID player) {
+        long seq = next.getAndIncrement();
+        int slot = (int) (seq & mask);
+        int l = slot * LONGS;
+        int r = slot * REFS;
+
+        long previous = longs.get(l);
+        if (previous == WRITING || !longs.compareAndSet(l, previous, WRITING)) {
+            dropped.incrementAndGet();
+            return;
+        }
+
+        // the ordered writes keep the fields after the marker, and the final sequence number after the fields
+        longs.lazySet(l + 1, startNanos);
+        longs.lazySet(l + 2, durationNanos);
+        longs.lazySet(l + 3, (sync ? FLAG_SYNC : 0L) | (long) outcome.ordinal() << 1);
+        refs.lazySet(r, type);
+        refs.lazySet(r + 1, name);
+        refs.lazySet(r + 2, thread);
+        refs.lazySet(r + 3, player);
+        longs.lazySet(l, seq);
+    }
+
+    /**
+     * @return the records in the buffer, the oldest first. The slots being written at the moment are skipped.
+     */
+    public List<Record> snapshot() {
+        List<Record> records = new ArrayList<>(getCapacity());
+        for (int slot = 0; slot <= mask; slot++) {
+            int l = slot * LONGS;
+            int r = slot * REFS;
+
+            long seq = longs.get(l);
+            if (seq < 0L)
+                continue;
+
+            long start = longs.get(l + 1);
+            long duration = longs.get(l + 2);
+            long flags = longs.get(l + 3);
+            String type = (String) refs.get(r);
+            String name = (String) refs.get(r + 1);
+            Thread thread = (Thread) refs.get(r + 2);
+            UUID player = (UUID) refs.get(r + 3);
+
+            // overwritten while reading
+            if (longs.get(l) != seq)
+                continue;
+
+            records.add(new Record(seq, type, name, thread, start, duration, (flags & FLAG_SYNC) != 0L,
+                    Outcome.values()[(int) (flags >>> 1)], player));
+        }
+
+        records.sort(Comparator.comparingLong(Record::getSeq));
+        return records;
+    }
+
+    /**
+     * Write the records in the buffer in the Trace Event Format of Chrome, which can be opened with
+     * chrome://tracing, Perfetto, or speedscope. Each thread becomes a track, and the timestamps are relative to
+     * the oldest record.
+     *
+     * @param writer the writer
+     * @throws IOException
+     */
+    public void writeTrace(Writer writer) throws IOException {
+        List<Record> records = snapshot();
+        long nowNanos = System.nanoTime();
+        long nowMillis = System.currentTimeMillis();
+        long base = records.isEmpty() ? nowNanos : records.get(0).getStartNanos();
+        for (Record record : records)
+            base = Math.min(base, record.getStartNanos());
+
+        JsonWriter json = new JsonWriter(writer);
+        json.beginObject();
+        json.name("traceEvents").beginArray();
+
+        Map<Long, String> threads = new LinkedHashMap<>();
+        for (Record record : records) {
+            long tid = record.getThread() == null ? 0L : record.getThread().getId();
+            if (record.getThread() != null)
+                threads.putIfAbsent(tid, record.getThread().getName());
+
+            json.beginObject();
+            json.name("name").value(record.getType() + "." + record.getName());
+            json.name("cat").value(record.isSync() ? "sync" : "async");
+            json.name("ph").value("X");
+            json.name("ts").value((record.getStartNanos() - base) / 1_000.0);
+            json.name("dur").value(record.getDurationNanos() / 1_000.0);
+            json.name("pid").value(1L);
+            json.name("tid").value(tid);
+            json.name("args").beginObject();
+            json.name("outcome").value(record.getOutcome().name());
+            if (record.getPlayer() != null)
+                json.name("player").value(record.getPlayer().toString());
+            json.name("startedAt").value(nowMillis - (nowNanos - record.getStartNanos()) / 1_000_000L);
+            json.endObject();
+            json.endObject();
+        }
+
+        for (Map.Entry<Long, String> entry : threads.entrySet()) {
+            json.beginObject();
+            json.name("name").value("thread_name");
+            json.name("ph").value("M");
+            json.name("pid").value(1L);
+            json.name("tid").value(entry.getKey());
+            json.name("args").beginObject().name("name").value(entry.getValue()).endObject();
+            json.endObject();
+        }
+
+        json.endArray();
+        json.name("displayTimeUnit").value("ms");
+        json.name("otherData").beginObject();
+        json.name("capacity").value(getCapacity());
+        json.name("recorded").value(getRecorded());
+        json.name("dropped").value(getDropped());
+        json.name("dumpedAt").value(nowMillis);
+        json.endObject();
+        json.endObject();
+        json.flush();
+    }
+
+    public enum Outcome {
+        OK, ERROR
+    }
+
+    /**
+     * A copy of a record taken by {@link #snapshot()}.
+     */
+    public static class Record {
+        private final long seq;
+        private final String type;
+        private final String name;
+        private final Thread thread;
+        private final long startNanos;
+        private final long durationNanos;
+        private final boolean sync;
+        private final Outcome outcome;
+        private final UUID player;
+
+        private Record(long seq, String type, String name, Thread thread, long startNanos, long durationNanos,
+                       boolean sync, Outcome outcome, UUID player) {
+            this.seq = seq;
+            this.type = type;
+            this.name = name;
+            this.thread = thread;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+            this.sync = sync;
+            this.outcome = outcome;
+            this.player = player;
+        }
+
+        public long getSeq() {
+            return seq;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Thread getThread() {
+            return thread;
+        }
+
+        public long getStartNanos() {
+            return startNanos;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        public boolean isSync() {
+            return sync;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        public UUID getPlayer() {
+            return player;
+        }
+    }
+}
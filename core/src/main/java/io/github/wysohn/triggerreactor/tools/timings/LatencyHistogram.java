@@ -0,0 +1,83 @@
+package io.github.wysohn.triggerreactor.tools.timings;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram with fixed buckets. Each power of two is split into {@link #SUB_BUCKETS} buckets,
+ * so the value reported by {@link #percentile(double)} is at most 25% higher than the actual value.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    // enough for the largest exponent of a positive long, which is 62
+    private static final int BUCKETS = (63 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * @param value the value to record. Negative values are recorded as 0.
+     */
+    public void record(long value) {
+        counts.incrementAndGet(indexOf(Math.max(0L, value)));
+    }
+
+    /**
+     * @param percentile 0.0 ~ 100.0
+     * @return the upper bound of the bucket where the percentile falls into; 0 if nothing is recorded.
+     */
+    public long percentile(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0L)
+            return 0L;
+
+        long rank = Math.max(1L, (long) Math.ceil(total * Math.min(100.0, Math.max(0.0, percentile)) / 100.0));
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank)
+                return upperBoundOf(i);
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * @param value the upper bound, inclusive
+     * @return number of recorded values in the buckets whose upper bound is the given value or lower. The bucket
+     * where the given value falls into is not counted unless the value is its upper bound.
+     */
+    public long countAtMost(long value) {
+        long count = 0L;
+        for (int i = 0; i < BUCKETS && upperBoundOf(i) <= value; i++)
+            count += counts.get(i);
+        return count;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++)
+            counts.set(i, 0L);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS)
+            return index;
+
+        int exponent = index / SUB_BUCKETS + SUB_BITS - 1;
+        int sub = index % SUB_BUCKETS;
+        long lowerBound = (long) (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+        return lowerBound + (1L << (exponent - SUB_BITS)) - 1;
+    }
+}
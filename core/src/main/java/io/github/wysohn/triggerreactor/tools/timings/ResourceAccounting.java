@@ -0,0 +1,238 @@
+package io.github.wysohn.triggerreactor.tools.timings;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accounts the CPU time and the heap allocated by each Trigger, measured with
+ * {@link com.sun.management.ThreadMXBean} before and after the activation.
+ * <p>
+ * Reading the counters of the thread costs far more than {@link System#nanoTime()}, so only one in
+ * {@link #getSampleRate()} activations, chosen at random, is measured, and the totals are estimated by scaling the
+ * samples up. Everything the activation does in its own thread is counted, including the Executors, the Placeholders,
+ * and the Triggers it calls synchronously, but not the work handed over to other threads.
+ * <p>
+ * It's disabled if the sample rate is 0 or the JVM doesn't support the counters.
+ */
+public class ResourceAccounting {
+    private static final com.sun.management.ThreadMXBean THREADS = threadMXBean();
+
+    private static volatile int sampleRate = 0;
+
+    private static final Map<String, Account> accounts = new ConcurrentHashMap<>();
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (!(bean instanceof com.sun.management.ThreadMXBean))
+                return null;
+
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            if (!threads.isCurrentThreadCpuTimeSupported() || !threads.isThreadAllocatedMemorySupported())
+                return null;
+            return threads;
+        } catch (Throwable ex) {
+            // not HotSpot, or the management classes are not there
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the JVM can measure the CPU time and the allocation of a thread
+     */
+    public static boolean isSupported() {
+        return THREADS != null;
+    }
+
+    public static int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * @param sampleRate measure one in this many activations. 0 to disable.
+     */
+    public static void setSampleRate(int sampleRate) {
+        sampleRate = Math.max(0, sampleRate);
+        if (sampleRate > 0 && THREADS != null) {
+            try {
+                THREADS.setThreadCpuTimeEnabled(true);
+                THREADS.setThreadAllocatedMemoryEnabled(true);
+            } catch (UnsupportedOperationException | SecurityException ex) {
+                ex.printStackTrace();
+                sampleRate = 0;
+            }
+        }
+        ResourceAccounting.sampleRate = sampleRate;
+    }
+
+    /**
+     * Start measuring the activation if it's chosen as a sample.
+     *
+     * @return the sample, which must be finished by the same thread; null if not sampled.
+     */
+    public static Sample begin() {
+        int rate = sampleRate;
+        if (rate == 0 || THREADS == null)
+            return null;
+        if (rate > 1 && ThreadLocalRandom.current().nextInt(rate) != 0)
+            return null;
+
+        return new Sample(rate);
+    }
+
+    public static void reset() {
+        accounts.clear();
+    }
+
+    /**
+     * @return the accounts of the Triggers measured so far
+     */
+    public static List<Account> getAccounts() {
+        return new ArrayList<>(accounts.values());
+    }
+
+    /**
+     * Print the Triggers which allocated the most and which used the most CPU time, in the same format as
+     * {@link Timings#printAll(OutputStream)}. The totals are estimated from the samples.
+     *
+     * @param stream the stream to print to
+     * @param limit  number of Triggers to print for each
+     * @throws IOException
+     */
+    public static void printTop(OutputStream stream, int limit) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        builder.append(" > Resource Accounting -- (");
+        if (THREADS == null) {
+            builder.append("not supported by this JVM)");
+        } else if (sampleRate == 0) {
+            builder.append("disabled)");
+        } else {
+            builder.append("sample rate: 1/").append(sampleRate).append(')');
+        }
+
+        List<Account> list = getAccounts();
+        if (!list.isEmpty()) {
+            list.sort(Comparator.comparingLong(Account::getAllocatedBytes).reversed());
+            builder.append('\n').append("   > By allocation");
+            append(builder, list, limit);
+
+            list.sort(Comparator.comparingLong(Account::getCpuNanos).reversed());
+            builder.append('\n').append("   > By CPU time");
+            append(builder, list, limit);
+        }
+
+        stream.write(builder.toString().getBytes());
+    }
+
+    private static void append(StringBuilder builder, List<Account> list, int limit) {
+        for (int i = 0; i < Math.min(limit, list.size()); i++) {
+            Account account = list.get(i);
+            long activations = Math.max(1L, account.getActivations());
+            builder.append('\n').append("     > ").append(account.getName())
+                    .append(" -- (allocated: ").append(bytes(account.getAllocatedBytes()))
+                    .append(", ").append(bytes(account.getAllocatedBytes() / activations)).append("/activation")
+                    .append(", cpu: ").append(String.format("%.3f", account.getCpuNanos() / 1_000_000.0)).append("ms")
+                    .append(", ").append(String.format("%.3f", account.getCpuNanos() / 1_000_000.0 / activations))
+                    .append("ms/activation")
+                    .append(", samples: ").append(account.getSamples()).append(')');
+        }
+    }
+
+    static String bytes(long bytes) {
+        if (bytes < 1024L)
+            return bytes + "B";
+        if (bytes < 1024L * 1024L)
+            return String.format("%.1fKB", bytes / 1024.0);
+        if (bytes < 1024L * 1024L * 1024L)
+            return String.format("%.1fMB", bytes / (1024.0 * 1024.0));
+        return String.format("%.1fGB", bytes / (1024.0 * 1024.0 * 1024.0));
+    }
+
+    /**
+     * The counters of the thread at the beginning of a sampled activation.
+     */
+    public static class Sample {
+        private final int rate;
+        private final long threadId = Thread.currentThread().getId();
+        private final long cpu = THREADS.getCurrentThreadCpuTime();
+        private final long allocated = THREADS.getThreadAllocatedBytes(threadId);
+
+        private Sample(int rate) {
+            this.rate = rate;
+        }
+
+        /**
+         * Finish measuring and add the result to the account of the Trigger.
+         *
+         * @param name name of the Trigger
+         */
+        public void end(String name) {
+            long allocated = THREADS.getThreadAllocatedBytes(threadId) - this.allocated;
+            long cpu = THREADS.getCurrentThreadCpuTime() - this.cpu;
+            // -1 if the counters were disabled in the meantime
+            if (allocated < 0L || cpu < 0L)
+                return;
+
+            Account account = accounts.computeIfAbsent(name, Account::new);
+            account.samples.increment();
+            account.activations.add(rate);
+            account.cpuNanos.add(cpu * rate);
+            account.allocatedBytes.add(allocated * rate);
+        }
+    }
+
+    /**
+     * The estimated totals of a Trigger.
+     */
+    public static class Account {
+        private final String name;
+        private final LongAdder samples = new LongAdder();
+        private final LongAdder activations = new LongAdder();
+        private final LongAdder cpuNanos = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+
+        private Account(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return number of activations measured
+         */
+        public long getSamples() {
+            return samples.sum();
+        }
+
+        /**
+         * @return estimated number of activations
+         */
+        public long getActivations() {
+            return activations.sum();
+        }
+
+        /**
+         * @return estimated CPU time used by the activations
+         */
+        public long getCpuNanos() {
+            return cpuNanos.sum();
+        }
+
+        /**
+         * @return estimated bytes allocated by the activations
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes.sum();
+        }
+    }
+}
@@ -8,6 +8,8 @@ import java.text.DecimalFormat;
 import java.util.Map;
 import java.util.Stack;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 
 /**
@@ -17,6 +19,10 @@ import java.util.function.Supplier;
  * Logger or get the existing Logger, and the '.'(dot) in the name indicating the hierarchy of the Loggers.
  * For example, Timings.getTiming("my.timing.name") would yield three level of hierarchy: 'my', 'timing', and 'name',
  * and 'timing' would be the child of 'my' and 'name' would be child of 'timing.'
+ * <p>
+ * The execution time is measured with {@link System#nanoTime()}, and each Timing keeps the total, the count,
+ * the maximum, and a {@link LatencyHistogram} for the percentiles. All of them are safe to be updated by
+ * multiple threads at once.
  */
 public class Timings {
     public static final Timing LIMBO = new LimboTiming();
@@ -27,15 +33,18 @@ public class Timings {
         root.displayName = "Root";
     }
 
-    public static boolean on = false;
+    public static volatile boolean on = false;
+
+    // increased by reset() so the CachedTimings can notice that their Timings are detached from the root
+    private static volatile int generation = 0;
 
     /**
      * Reset the root Timing to initial state.
      */
     public static void reset() {
         root.children.clear();
-        root.executionTime = -1;
-        root.count = 0;
+        root.resetStats();
+        generation++;
     }
 
     /**
@@ -83,32 +92,24 @@ public class Timings {
         print(root, stream);
     }
 
-    public static class Timing implements AutoCloseable {
+    public static class Timing {
         private final Timing parent;
         private String fullName;
         private final int level;
         private final Map<String, Timing> children = new ConcurrentHashMap<>();
-        private final Supplier<Long> currentTimeFn;
 
         private String displayName;
 
-        private long executionTime;
-        private long count;
+        private final LongAdder executionTime = new LongAdder();
+        private final LongAdder count = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private volatile boolean mainThread;
 
         private Timing(Timing parent, String fullName) {
-            this(parent, fullName, System::currentTimeMillis);
-        }
-
-        /**
-         * Maybe if we need some other measurement unit?
-         *
-         * @param currentTimeFn the function to get current timestamp
-         */
-        private Timing(Timing parent, String fullName, Supplier<Long> currentTimeFn) {
             this.parent = parent;
             this.fullName = fullName;
             this.level = parent == null ? 0 : parent.level + 1;
-            this.currentTimeFn = currentTimeFn;
         }
 
         public String getDisplayName() {
@@ -136,19 +137,45 @@ public class Timings {
             if (name.contains("."))
                 throw new RuntimeException("Cannot use .(dot) for the direct child's name!");
 
-            if (children.containsKey(name)) {
-                return children.get(name);
-            } else {
+            return children.computeIfAbsent(name, (n) -> {
                 Timing t;
                 if (parent == null) {
-                    t = new Timing(this, StringUtils.dottedPath(root.fullName, name));
+                    t = new Timing(this, StringUtils.dottedPath(root.fullName, n));
                 } else {
-                    t = new Timing(this, StringUtils.dottedPath(parent.fullName, name));
+                    t = new Timing(this, StringUtils.dottedPath(parent.fullName, n));
                 }
-                t.displayName = name;
-                children.put(name, t);
+                t.displayName = n;
                 return t;
-            }
+            });
+        }
+
+        /**
+         * Get the direct child of this Timing, or create it if not exist. Unlike {@link #getTiming(String)},
+         * the name is not parsed, so it's cheap enough to be called for every execution.
+         *
+         * @param name        the name of the direct child. Can't contain .(dot)
+         * @param displayName the name to show if the child is created by this call
+         * @return the child timing
+         */
+        public Timing getChild(String name, String displayName) {
+            Timing child = children.get(name);
+            if (child != null)
+                return child;
+
+            child = getOrCreate(name);
+            child.setDisplayName(displayName);
+            return child;
+        }
+
+        /**
+         * Same as {@link #getChild(String, String)} with the name as the display name.
+         *
+         * @param name the name of the direct child. Can't contain .(dot)
+         * @return the child timing
+         */
+        public Timing getChild(String name) {
+            Timing child = children.get(name);
+            return child != null ? child : getOrCreate(name);
         }
 
         /**
@@ -164,73 +191,86 @@ public class Timings {
             return Timings.getTiming(this, name);
         }
 
-        private long begin;
-        private boolean mainThread;
-
         /**
-         * Record current system timestamp and return this Timing instance.
-         * As Timing is AutoCloseable, you can use the try resources which is newly introduced in Java 8.
+         * Record current timestamp and return the handle of this measurement.
+         * As the Handle is AutoCloseable, you can use the try resources which is newly introduced in Java 8.
          * The execution time will be logged automatically by the close() method.
          * <p>
-         * try(Timing t = Timings.getTiming("my.timing")){<br>
+         * try(Timings.Handle h = Timings.getTiming("my.timing").begin(false)){<br>
          * Thread.sleep(10L);<br>
          * }
          * </p>
+         * Each call returns a separate handle, so the same Timing can be measured by multiple threads at once.
          *
          * @param mainThread mark it to indicate that the task ran by the main thread.
-         * @return this instance
+         * @return the handle to close when the task is done.
          */
-        public Timing begin(boolean mainThread) {
-            begin = currentTimeFn.get();
-            this.mainThread = mainThread;
-            return this;
+        public Handle begin(boolean mainThread) {
+            if (!on)
+                return Handle.NOOP;
+
+            if (mainThread && !this.mainThread)
+                this.mainThread = true;
+            return new Handle(this, System.nanoTime());
         }
 
         /**
-         * Record current system timestamp and return this Timing instance.
-         * As Timing is AutoCloseable, you can use the try resources which is newly introduced in Java 8.
-         * The execution time will be logged automatically by the close() method.
-         * <p>
-         * try(Timing t = Timings.getTiming("my.timing")){<br>
-         * Thread.sleep(10L);<br>
-         * }
-         * </p>
+         * Same as {@link #begin(boolean)} with false.
          *
-         * @return this instance
+         * @return the handle to close when the task is done.
          */
-        public Timing begin() {
+        public Handle begin() {
             if (parent == null)
                 throw new RuntimeException("Can't begin() with root Timing.");
 
             return begin(false);
         }
 
+        /**
+         * @return average execution time in milliseconds; -1 if never measured.
+         */
         public double avg() {
+            long count = this.count.sum();
             if (count == 0)
                 return -1;
 
-            return Math.min(999999.99, (double) executionTime / count);
+            return Math.min(999999.99, toMillis(executionTime.sum()) / count);
         }
 
-        private void add(long executionTime) {
-            if (!on)
-                return;
+        /**
+         * @param percentile 0.0 ~ 100.0
+         * @return the execution time in milliseconds that the given percentage of the measurements didn't exceed.
+         */
+        public double percentile(double percentile) {
+            return toMillis(Math.min(histogram.percentile(percentile), max.get()));
+        }
 
-            this.executionTime += executionTime;
-            this.count++;
+        /**
+         * @return the longest execution time in milliseconds
+         */
+        public double max() {
+            return toMillis(max.get());
+        }
 
-            if (parent != null) {
-                parent.add(executionTime);
-            }
+        public long count() {
+            return count.sum();
         }
 
-        @Override
-        public void close() {
-            if (!on)
-                return;
+        private void add(long nanos) {
+            for (Timing timing = this; timing != null; timing = timing.parent) {
+                timing.executionTime.add(nanos);
+                timing.count.increment();
+                timing.max.accumulate(nanos);
+                timing.histogram.record(nanos);
+            }
+        }
 
-            add(currentTimeFn.get() - begin);
-            begin = -1;
+        private void resetStats() {
+            executionTime.reset();
+            count.reset();
+            max.reset();
+            histogram.reset();
+            mainThread = false;
         }
 
         @Override
@@ -238,13 +278,80 @@ public class Timings {
             String str = StringUtils.spaces(level * SPACES) + " > " + displayName;
             if (!isLeafNode())
                 str += "[" + children.size() + "]";
-            str += " -- (total: " + executionTime + "ms, count: " + count + ", avg: " + df.format(avg()) + "ms)";
+            str += " -- (total: " + df.format(toMillis(executionTime.sum())) + "ms, count: " + count.sum()
+                    + ", avg: " + df.format(avg()) + "ms"
+                    + ", p50: " + df.format(percentile(50)) + "ms"
+                    + ", p95: " + df.format(percentile(95)) + "ms"
+                    + ", p99: " + df.format(percentile(99)) + "ms"
+                    + ", max: " + df.format(max()) + "ms)";
             if (mainThread)
                 str += "  !!MainThread";
             return str;
         }
+    }
+
+    /**
+     * Keeps the Timing resolved from the name, so the name is built and parsed only once instead of every
+     * activation. The Timing is resolved again only after {@link #reset()}.
+     * <p>
+     * While the timings are off, {@link #get()} returns {@link #LIMBO} right after reading {@link #on}.
+     */
+    public static class CachedTiming {
+        private final Supplier<String> nameFn;
+
+        private volatile Timing timing;
+        private volatile int generation = -1;
+
+        /**
+         * @param nameFn provides the fully qualified name of the timing. Only called when the Timing has to
+         *               be resolved.
+         */
+        public CachedTiming(Supplier<String> nameFn) {
+            this.nameFn = nameFn;
+        }
+
+        /**
+         * @return the Timing; {@link #LIMBO} if the timings are off.
+         */
+        public Timing get() {
+            if (!on)
+                return LIMBO;
+
+            Timing timing = this.timing;
+            int generation = Timings.generation;
+            if (timing == null || this.generation != generation) {
+                timing = getTiming(nameFn.get());
+                this.timing = timing;
+                this.generation = generation;
+            }
+            return timing;
+        }
+    }
+
+    /**
+     * A measurement in progress. Close it to record the execution time to the Timing.
+     */
+    public static class Handle implements AutoCloseable {
+        /**
+         * Returned when the timings are off. Closing it does nothing.
+         */
+        public static final Handle NOOP = new Handle(null, 0L);
+
+        private final Timing timing;
+        private final long begin;
+
+        private Handle(Timing timing, long begin) {
+            this.timing = timing;
+            this.begin = begin;
+        }
 
+        @Override
+        public void close() {
+            if (timing == null || !on)
+                return;
 
+            timing.add(System.nanoTime() - begin);
+        }
     }
 
     public static class LimboTiming extends Timing {
@@ -268,26 +375,35 @@ public class Timings {
         }
 
         @Override
-        public Timing begin(boolean mainThread) {
+        public Timing getChild(String name, String displayName) {
             return this;
         }
 
         @Override
-        public Timing begin() {
+        public Timing getChild(String name) {
             return this;
         }
 
         @Override
-        public double avg() {
-            return -1;
+        public Handle begin(boolean mainThread) {
+            return Handle.NOOP;
         }
 
         @Override
-        public void close() {
+        public Handle begin() {
+            return Handle.NOOP;
+        }
 
+        @Override
+        public double avg() {
+            return -1;
         }
     }
 
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
     private static final int SPACES = 2;
-    private static final DecimalFormat df = new DecimalFormat("#.##");
+    private static final DecimalFormat df = new DecimalFormat("#.###");
 }
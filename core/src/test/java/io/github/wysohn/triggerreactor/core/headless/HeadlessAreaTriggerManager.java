@@ -0,0 +1,104 @@
+package io.github.wysohn.triggerreactor.core.headless;
+
+import io.github.wysohn.triggerreactor.core.bridge.entity.IEntity;
+import io.github.wysohn.triggerreactor.core.bridge.event.IEvent;
+import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import io.github.wysohn.triggerreactor.core.manager.location.Area;
+import io.github.wysohn.triggerreactor.core.manager.location.SimpleLocation;
+import io.github.wysohn.triggerreactor.core.manager.trigger.area.AbstractAreaTriggerManager;
+import io.github.wysohn.triggerreactor.core.manager.trigger.area.AreaTrigger;
+
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks only the players; the fake worlds have no other entities.
+ */
+public class HeadlessAreaTriggerManager extends AbstractAreaTriggerManager implements HeadlessListener {
+    public HeadlessAreaTriggerManager(TriggerReactorCore plugin) {
+        super(plugin, new File(plugin.getDataFolder(), "AreaTrigger"));
+    }
+
+    /**
+     * Create an Area Trigger, as if it was set with the command.
+     *
+     * @param name     name of the Area Trigger
+     * @param smallest smallest point
+     * @param largest  largest point
+     * @param enter    the Enter script; null if none
+     * @param exit     the Exit script; null if none
+     * @param sync     true to run them in the main thread
+     * @return the Trigger; null if the exact same area already exists
+     * @throws TriggerInitFailedException if the scripts can't be parsed
+     */
+    public AreaTrigger add(String name, SimpleLocation smallest, SimpleLocation largest, String enter, String exit,
+                           boolean sync) throws TriggerInitFailedException {
+        if (!createArea(name, smallest, largest))
+            return null;
+
+        AreaTrigger trigger = get(name);
+        trigger.setSync(sync);
+        if (enter != null)
+            trigger.setEnterTrigger(enter);
+        if (exit != null)
+            trigger.setExitTrigger(exit);
+
+        plugin.saveAsynchronously(this);
+        return trigger;
+    }
+
+    void onJoin(HeadlessPlayer player) {
+        SimpleLocation sloc = player.getBlockLocation();
+        entityLocationMap.put(player.getUniqueId(), sloc);
+        entityTrackMap.put(player.getUniqueId(), new WeakReference<IEntity>(player));
+        getAreaForLocation(sloc).stream()
+                .map(Map.Entry::getValue)
+                .forEach((trigger) -> trigger.addEntity(player));
+    }
+
+    void onQuit(HeadlessPlayer player) {
+        SimpleLocation sloc = entityLocationMap.remove(player.getUniqueId());
+        entityTrackMap.remove(player.getUniqueId());
+        getAreaForLocation(sloc).stream()
+                .map(Map.Entry::getValue)
+                .forEach((trigger) -> trigger.removeEntity(player.getUniqueId()));
+    }
+
+    @Override
+    public void onEvent(IEvent event) {
+        if (!(event instanceof PlayerMoveEvent))
+            return;
+
+        PlayerMoveEvent e = (PlayerMoveEvent) event;
+        List<Map.Entry<Area, AreaTrigger>> from = getAreaForLocation(e.getFrom());
+        List<Map.Entry<Area, AreaTrigger>> to = getAreaForLocation(e.getTo());
+        if (from.isEmpty() && to.isEmpty())
+            return;
+
+        entityLocationMap.put(e.getPlayer().getUniqueId(), e.getTo());
+
+        Map<String, Object> varMap = new HashMap<>();
+        varMap.put("player", e.getPlayer());
+        varMap.put("from", e.getFrom());
+        varMap.put("to", e.getTo());
+
+        from.stream()
+                .filter((entry) -> !entry.getKey().isInThisArea(e.getTo()))//only for area leaving
+                .map(Map.Entry::getValue)
+                .forEach((trigger) -> {
+                    trigger.removeEntity(e.getPlayer().getUniqueId());
+                    trigger.activate(e, varMap, EventType.EXIT);
+                });
+
+        to.stream()
+                .filter((entry) -> !entry.getKey().isInThisArea(e.getFrom()))//only for entering area
+                .map(Map.Entry::getValue)
+                .forEach((trigger) -> {
+                    trigger.addEntity(e.getPlayer());
+                    trigger.activate(e, varMap, EventType.ENTER);
+                });
+    }
+}
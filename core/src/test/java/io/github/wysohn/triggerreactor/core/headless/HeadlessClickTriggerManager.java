@@ -0,0 +1,70 @@
+package io.github.wysohn.triggerreactor.core.headless;
+
+import io.github.wysohn.triggerreactor.core.bridge.event.IEvent;
+import io.github.wysohn.triggerreactor.core.config.InvalidTrgConfigurationException;
+import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import io.github.wysohn.triggerreactor.core.manager.trigger.ITriggerLoader;
+import io.github.wysohn.triggerreactor.core.manager.trigger.TriggerInfo;
+import io.github.wysohn.triggerreactor.core.manager.trigger.location.AbstractLocationBasedTriggerManager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class HeadlessClickTriggerManager
+        extends HeadlessLocationBasedTriggerManager<AbstractLocationBasedTriggerManager.ClickTrigger> {
+    public HeadlessClickTriggerManager(TriggerReactorCore plugin) {
+        super(plugin, "ClickTrigger", new ITriggerLoader<ClickTrigger>() {
+            @Override
+            public ClickTrigger load(TriggerInfo info) throws InvalidTrgConfigurationException {
+                String script = readScript(info);
+                if (script == null)
+                    return null;
+
+                try {
+                    return newClickTrigger(info, script);
+                } catch (TriggerInitFailedException e) {
+                    e.printStackTrace();
+                    return null;
+                }
+            }
+
+            @Override
+            public void save(ClickTrigger trigger) {
+                writeScript(trigger);
+            }
+        });
+    }
+
+    private static ClickTrigger newClickTrigger(TriggerInfo info, String script) throws TriggerInitFailedException {
+        return new ClickTrigger(info, script, context -> !(context instanceof HeadlessPlayerEvent)
+                || !((HeadlessPlayerEvent) context).isCancelled());
+    }
+
+    @Override
+    public void onEvent(IEvent event) {
+        if (!(event instanceof PlayerClickEvent))
+            return;
+
+        PlayerClickEvent e = (PlayerClickEvent) event;
+        ClickTrigger trigger = getTriggerForLocation(e.getClicked());
+        if (trigger == null)
+            return;
+
+        Map<String, Object> varMap = new HashMap<>();
+        varMap.put("player", e.getPlayer());
+        varMap.put("block", e.getClicked());
+        varMap.put("click", e.isRightClick() ? "right" : "left");
+
+        trigger.activate(e, varMap);
+    }
+
+    @Override
+    protected ClickTrigger newTrigger(TriggerInfo info, String script) throws TriggerInitFailedException {
+        return newClickTrigger(info, script);
+    }
+
+    @Override
+    protected String getTriggerTypeName() {
+        return "Click";
+    }
+}
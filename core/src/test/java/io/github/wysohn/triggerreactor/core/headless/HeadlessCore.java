@@ -0,0 +1,563 @@
+package io.github.wysohn.triggerreactor.core.headless;
+
+import io.github.wysohn.triggerreactor.core.bridge.ICommandSender;
+import io.github.wysohn.triggerreactor.core.bridge.IInventory;
+import io.github.wysohn.triggerreactor.core.bridge.IItemStack;
+import io.github.wysohn.triggerreactor.core.bridge.entity.IPlayer;
+import io.github.wysohn.triggerreactor.core.bridge.event.IEvent;
+import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import io.github.wysohn.triggerreactor.core.manager.AbstractAreaSelectionManager;
+import io.github.wysohn.triggerreactor.core.manager.AbstractInventoryEditManager;
+import io.github.wysohn.triggerreactor.core.manager.AbstractPermissionManager;
+import io.github.wysohn.triggerreactor.core.manager.AbstractScriptEditManager;
+import io.github.wysohn.triggerreactor.core.manager.Manager;
+import io.github.wysohn.triggerreactor.core.manager.location.SimpleLocation;
+import io.github.wysohn.triggerreactor.core.manager.trigger.Trigger;
+import io.github.wysohn.triggerreactor.core.manager.trigger.command.AbstractCommandTriggerManager;
+import io.github.wysohn.triggerreactor.core.manager.trigger.inventory.AbstractInventoryTriggerManager;
+import io.github.wysohn.triggerreactor.core.manager.trigger.inventory.InventoryTrigger;
+import io.github.wysohn.triggerreactor.core.manager.trigger.named.AbstractNamedTriggerManager;
+import io.github.wysohn.triggerreactor.core.manager.trigger.repeating.AbstractRepeatingTriggerManager;
+import io.github.wysohn.triggerreactor.core.script.interpreter.Interpreter;
+import io.github.wysohn.triggerreactor.core.script.interpreter.Interpreter.ProcessInterrupter;
+import io.github.wysohn.triggerreactor.core.script.parser.Node;
+import io.github.wysohn.triggerreactor.core.script.wrapper.SelfReference;
+import io.github.wysohn.triggerreactor.tools.Lag;
+
+import javax.script.ScriptException;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * A platform without a server, to run TriggerReactor in the tests. The main thread is faked by the
+ * {@link HeadlessScheduler}, the worlds are only the names in the locations, and the players are
+ * {@link HeadlessPlayer}s which fire {@link PlayerMoveEvent}, {@link PlayerClickEvent}, and {@link PlayerChatEvent}.
+ * <p>
+ * The Walk, Click, Area, and Custom Triggers work as on a server. The Command, Inventory, Repeating, and Named
+ * Triggers and the in-game editing tools are not simulated, so their managers are null. The config is kept in the
+ * memory.
+ * <p>
+ * {@link TriggerReactorCore#getInstance()} returns the last core created, so only one core should be running at a time.
+ */
+public class HeadlessCore extends TriggerReactorCore {
+    private final File dataFolder;
+    private final Logger logger = Logger.getLogger(HeadlessCore.class.getName());
+    private final HeadlessScheduler scheduler = new HeadlessScheduler("Server thread");
+    private final ExecutorService saver = Executors.newSingleThreadExecutor();
+    private final Set<Manager> pendingSaves = ConcurrentHashMap.newKeySet();
+    private final Map<String, Object> config = new ConcurrentHashMap<>();
+    private final List<HeadlessListener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<String, HeadlessPlayer> players = new ConcurrentHashMap<>();
+    private final SelfReference selfReference = new SelfReference() {
+    };
+    private final ICommandSender console = new ICommandSender() {
+        @Override
+        public void sendMessage(String message) {
+            logger.info(message);
+        }
+
+        @Override
+        public boolean hasPermission(String permission) {
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T> T get() {
+            return (T) this;
+        }
+    };
+
+    private List<Manager> managers = new ArrayList<>();
+    private volatile boolean enabled = false;
+
+    private HeadlessExecutorManager executorManager;
+    private HeadlessPlaceholderManager placeholderManager;
+    private HeadlessPlayerLocationManager locationManager;
+    private HeadlessClickTriggerManager clickManager;
+    private HeadlessWalkTriggerManager walkManager;
+    private HeadlessAreaTriggerManager areaManager;
+    private HeadlessCustomTriggerManager customManager;
+
+    /**
+     * @param dataFolder the folder where the Triggers are saved. Use a temporary folder.
+     */
+    public HeadlessCore(File dataFolder) {
+        this.dataFolder = dataFolder;
+    }
+
+    /**
+     * Start the main thread, create the managers, and reload them in the main thread as the plugin does when
+     * it's enabled.
+     *
+     * @throws ExecutionException if reloading failed
+     */
+    public void start() throws ExecutionException, InterruptedException {
+        if (enabled)
+            return;
+
+        dataFolder.mkdirs();
+        enabled = true;
+        scheduler.start();
+
+        List<Manager> before = new ArrayList<>(Manager.getManagers());
+        onCoreEnable();
+        managers = new ArrayList<>(Manager.getManagers());
+        managers.removeAll(before);
+
+        callSyncMethod(() -> {
+            managers.forEach(Manager::reload);
+            return null;
+        }).get();
+    }
+
+    /**
+     * Disable the managers, wait for the pending saves, and stop the main thread. The managers of this core are
+     * removed from {@link Manager#getManagers()}, so another core can be started afterwards.
+     */
+    public void stop() {
+        if (!enabled)
+            return;
+        enabled = false;
+
+        managers.forEach(Manager::disable);
+        Manager.getManagers().removeAll(managers);
+
+        saver.shutdown();
+        try {
+            saver.awaitTermination(10L, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        scheduler.stop();
+        players.clear();
+    }
+
+    @Override
+    public void onCoreEnable() {
+        super.onCoreEnable();
+
+        try {
+            executorManager = new HeadlessExecutorManager(this);
+            placeholderManager = new HeadlessPlaceholderManager(this);
+        } catch (ScriptException e) {
+            throw new IllegalStateException("Could not initialize the script engine.", e);
+        }
+
+        locationManager = new HeadlessPlayerLocationManager(this);
+        clickManager = new HeadlessClickTriggerManager(this);
+        walkManager = new HeadlessWalkTriggerManager(this);
+        areaManager = new HeadlessAreaTriggerManager(this);
+        customManager = new HeadlessCustomTriggerManager(this);
+    }
+
+    public HeadlessScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Add a player to the world. Must be called in the main thread.
+     *
+     * @param name     name of the player
+     * @param location the block where the player spawns
+     * @return the player
+     */
+    public HeadlessPlayer join(String name, SimpleLocation location) {
+        HeadlessPlayer player = new HeadlessPlayer(name, location);
+        players.put(name, player);
+        locationManager.onJoin(player);
+        areaManager.onJoin(player);
+        return player;
+    }
+
+    /**
+     * Remove the player from the world. Must be called in the main thread.
+     *
+     * @param player the player
+     */
+    public void quit(HeadlessPlayer player) {
+        if (players.remove(player.getName()) == null)
+            return;
+
+        areaManager.onQuit(player);
+        locationManager.onQuit(player);
+    }
+
+    public Collection<HeadlessPlayer> getPlayers() {
+        return Collections.unmodifiableCollection(players.values());
+    }
+
+    /**
+     * Move the player to the block. Must be called in the main thread.
+     *
+     * @see HeadlessPlayerLocationManager#move(HeadlessPlayer, SimpleLocation)
+     */
+    public boolean move(HeadlessPlayer player, SimpleLocation to) {
+        return locationManager.move(player, to);
+    }
+
+    /**
+     * Let the player click the block. Must be called in the main thread.
+     *
+     * @return the event fired
+     */
+    public PlayerClickEvent click(HeadlessPlayer player, SimpleLocation clicked, boolean rightClick) {
+        PlayerClickEvent event = new PlayerClickEvent(player, clicked, rightClick);
+        callEvent(event);
+        return event;
+    }
+
+    /**
+     * Let the player chat. Like the chat of a real server, it may be called from any thread.
+     *
+     * @return the event fired
+     */
+    public PlayerChatEvent chat(HeadlessPlayer player, String message) {
+        PlayerChatEvent event = new PlayerChatEvent(player, message);
+        callEvent(event);
+        return event;
+    }
+
+    @Override
+    public SelfReference getSelfReference() {
+        return selfReference;
+    }
+
+    @Override
+    public HeadlessExecutorManager getExecutorManager() {
+        return executorManager;
+    }
+
+    @Override
+    public HeadlessPlaceholderManager getPlaceholderManager() {
+        return placeholderManager;
+    }
+
+    @Override
+    public AbstractScriptEditManager getScriptEditManager() {
+        return null;
+    }
+
+    @Override
+    public HeadlessPlayerLocationManager getLocationManager() {
+        return locationManager;
+    }
+
+    @Override
+    public AbstractPermissionManager getPermissionManager() {
+        return null;
+    }
+
+    @Override
+    public AbstractAreaSelectionManager getSelectionManager() {
+        return null;
+    }
+
+    @Override
+    public HeadlessClickTriggerManager getClickManager() {
+        return clickManager;
+    }
+
+    @Override
+    public HeadlessWalkTriggerManager getWalkManager() {
+        return walkManager;
+    }
+
+    @Override
+    public AbstractCommandTriggerManager getCmdManager() {
+        return null;
+    }
+
+    @Override
+    public AbstractInventoryTriggerManager<? extends IInventory> getInvManager() {
+        return null;
+    }
+
+    @Override
+    public AbstractInventoryEditManager getInvEditManager() {
+        return null;
+    }
+
+    @Override
+    public HeadlessAreaTriggerManager getAreaManager() {
+        return areaManager;
+    }
+
+    @Override
+    public HeadlessCustomTriggerManager getCustomManager() {
+        return customManager;
+    }
+
+    @Override
+    public AbstractRepeatingTriggerManager getRepeatManager() {
+        return null;
+    }
+
+    @Override
+    public AbstractNamedTriggerManager getNamedTriggerManager() {
+        return null;
+    }
+
+    @Override
+    protected boolean removeLore(IItemStack iS, int index) {
+        return false;
+    }
+
+    @Override
+    protected boolean setLore(IItemStack iS, int index, String lore) {
+        return false;
+    }
+
+    @Override
+    protected void addItemLore(IItemStack iS, String lore) {
+
+    }
+
+    @Override
+    protected void setItemTitle(IItemStack iS, String title) {
+
+    }
+
+    @Override
+    public IPlayer getPlayer(String string) {
+        return players.get(string);
+    }
+
+    @Override
+    public Object createEmptyPlayerEvent(ICommandSender sender) {
+        return sender instanceof HeadlessPlayer ? new HeadlessPlayerEvent((HeadlessPlayer) sender) : null;
+    }
+
+    @Override
+    public Object createPlayerCommandEvent(ICommandSender sender, String label, String[] args) {
+        if (!(sender instanceof HeadlessPlayer))
+            return null;
+
+        return new PlayerChatEvent((HeadlessPlayer) sender, "/" + label + " " + String.join(" ", args));
+    }
+
+    @Override
+    protected void sendCommandDesc(ICommandSender sender, String command, String desc) {
+        sender.sendMessage(command + " - " + desc);
+    }
+
+    @Override
+    protected void sendDetails(ICommandSender sender, String detail) {
+        sender.sendMessage("  " + detail);
+    }
+
+    @Override
+    public String getPluginDescription() {
+        return "TriggerReactor (headless)";
+    }
+
+    @Override
+    public String getVersion() {
+        return "headless";
+    }
+
+    @Override
+    public String getAuthor() {
+        return "wysohn";
+    }
+
+    @Override
+    protected void showGlowStones(ICommandSender sender, Set<Entry<SimpleLocation, Trigger>> set) {
+        for (Entry<SimpleLocation, Trigger> entry : set)
+            sender.sendMessage(entry.getKey() + " " + entry.getValue());
+    }
+
+    @Override
+    public void registerEvents(Manager manager) {
+        if (manager instanceof HeadlessListener)
+            listeners.add((HeadlessListener) manager);
+    }
+
+    @Override
+    public File getDataFolder() {
+        return dataFolder;
+    }
+
+    @Override
+    public Logger getLogger() {
+        return logger;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void disablePlugin() {
+        stop();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T getMain() {
+        return (T) this;
+    }
+
+    @Override
+    public boolean isConfigSet(String key) {
+        return config.containsKey(key);
+    }
+
+    @Override
+    public void setConfig(String key, Object value) {
+        if (value == null) {
+            config.remove(key);
+        } else {
+            config.put(key, value);
+        }
+    }
+
+    @Override
+    public Object getConfig(String key) {
+        return config.get(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T getConfig(String key, T def) {
+        Object value = config.get(key);
+        return value == null ? def : (T) value;
+    }
+
+    @Override
+    public void saveConfig() {
+
+    }
+
+    @Override
+    public void reloadConfig() {
+
+    }
+
+    @Override
+    public void runTask(Runnable runnable) {
+        scheduler.execute(runnable);
+    }
+
+    @Override
+    public void saveAsynchronously(Manager manager) {
+        // adding many Triggers in a row would otherwise queue as many saves of the whole manager
+        if (saver.isShutdown() || !pendingSaves.add(manager))
+            return;
+
+        saver.execute(() -> {
+            pendingSaves.remove(manager);
+            try {
+                manager.saveAll();
+            } catch (Exception e) {
+                e.printStackTrace();
+                logger.warning("Failed to save " + manager.getClass().getSimpleName());
+            }
+        });
+    }
+
+    @Override
+    public ICommandSender getConsoleSender() {
+        return console;
+    }
+
+    @Override
+    public ProcessInterrupter createInterrupter(Object e, Interpreter interpreter, Map<UUID, Long> cooldowns) {
+        return new ProcessInterrupter() {
+            @Override
+            public boolean onNodeProcess(Node node) {
+                return false;
+            }
+
+            @Override
+            public boolean onCommand(Object context, String command, Object[] args) {
+                if ("CANCELEVENT".equalsIgnoreCase(command)) {
+                    if (!interpreter.isSync())
+                        throw new RuntimeException("CANCELEVENT is illegal in async mode!");
+
+                    if (context instanceof HeadlessPlayerEvent) {
+                        ((HeadlessPlayerEvent) context).setCancelled(true);
+                        return true;
+                    } else {
+                        throw new RuntimeException(context + " is not a Cancellable event!");
+                    }
+                } else if ("COOLDOWN".equalsIgnoreCase(command)) {
+                    if (!(args[0] instanceof Number))
+                        throw new RuntimeException(args[0] + " is not a number!");
+
+                    if (e instanceof HeadlessPlayerEvent) {
+                        long mills = (long) (((Number) args[0]).doubleValue() * 1000L);
+                        UUID uuid = ((HeadlessPlayerEvent) e).getPlayer().getUniqueId();
+                        cooldowns.put(uuid, System.currentTimeMillis() + mills);
+                    }
+                    return true;
+                }
+
+                return false;
+            }
+
+            @Override
+            public Object onPlaceholder(Object context, String placeholder, Object[] args) {
+                return null;
+            }
+        };
+    }
+
+    @Override
+    public ProcessInterrupter createInterrupterForInv(Object e, Interpreter interpreter, Map<UUID, Long> cooldowns,
+                                                      Map<IInventory, InventoryTrigger> inventoryMap) {
+        return createInterrupter(e, interpreter, cooldowns);
+    }
+
+    @Override
+    public IPlayer extractPlayerFromContext(Object e) {
+        return e instanceof HeadlessPlayerEvent ? ((HeadlessPlayerEvent) e).getPlayer() : null;
+    }
+
+    @Override
+    public <T> Future<T> callSyncMethod(Callable<T> call) {
+        return scheduler.submit(call);
+    }
+
+    @Override
+    public void callEvent(IEvent event) {
+        for (HeadlessListener listener : listeners)
+            listener.onEvent(event);
+    }
+
+    @Override
+    public boolean isServerThread() {
+        return scheduler.isMainThread();
+    }
+
+    @Override
+    public Lag getTpsHelper() {
+        return scheduler.getLag();
+    }
+
+    @Override
+    public Map<String, Object> getCustomVarsForTrigger(Object context) {
+        if (!(context instanceof HeadlessPlayerEvent))
+            return null;
+
+        return Collections.singletonMap("player", ((HeadlessPlayerEvent) context).getPlayer());
+    }
+}
@@ -0,0 +1,160 @@
+package io.github.wysohn.triggerreactor.core.headless;
+
+import io.github.wysohn.triggerreactor.core.manager.location.SimpleLocation;
+import io.github.wysohn.triggerreactor.tools.FileUtil;
+import io.github.wysohn.triggerreactor.tools.timings.FlightRecorder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.*;
+
+public class HeadlessCoreTest {
+    private File dataFolder;
+    private HeadlessCore core;
+
+    @Before
+    public void init() throws Exception {
+        dataFolder = Files.createTempDirectory("triggerreactor").toFile();
+        core = new HeadlessCore(dataFolder);
+        core.start();
+    }
+
+    @After
+    public void cleanup() {
+        core.stop();
+        FileUtil.delete(dataFolder);
+    }
+
+    private <T> T sync(Callable<T> call) throws Exception {
+        return core.callSyncMethod(call).get();
+    }
+
+    private static void await(Callable<Boolean> condition) throws Exception {
+        long until = System.currentTimeMillis() + 5_000L;
+        while (!condition.call()) {
+            assertTrue("timed out", System.currentTimeMillis() < until);
+            Thread.sleep(10L);
+        }
+    }
+
+    @Test
+    public void testMainThread() throws Exception {
+        assertFalse(core.isServerThread());
+        assertTrue(sync(core::isServerThread));
+
+        long ticks = core.getScheduler().getTicks();
+        await(() -> core.getScheduler().getTicks() >= ticks + 3);
+        assertTrue(core.getScheduler().getTickNanos().percentile(50.0) >= 0L);
+    }
+
+    @Test
+    public void testClickCancelled() throws Exception {
+        SimpleLocation block = new SimpleLocation("world", 1, 64, 1);
+        core.getClickManager().add(block, "#CANCELEVENT", true);
+
+        boolean cancelled = sync(() -> {
+            HeadlessPlayer player = core.join("clicker", new SimpleLocation("world", 0, 64, 0));
+            return core.click(player, block, true).isCancelled();
+        });
+        assertTrue(cancelled);
+
+        boolean missed = sync(() -> core.click((HeadlessPlayer) core.getPlayer("clicker"),
+                new SimpleLocation("world", 2, 64, 2), true).isCancelled());
+        assertFalse(missed);
+    }
+
+    @Test
+    public void testWalkAsyncWithSyncBlock() throws Exception {
+        core.getWalkManager().add(new SimpleLocation("world", 1, 63, 0),
+                "SYNC\n    #MESSAGE \"hi \" + $playername\nENDSYNC", false);
+
+        HeadlessPlayer player = sync(() -> {
+            HeadlessPlayer walker = core.join("walker", new SimpleLocation("world", 0, 64, 0));
+            assertTrue(core.move(walker, new SimpleLocation("world", 1, 64, 0)));
+            return walker;
+        });
+
+        await(() -> player.getMessages() == 1L);
+        assertEquals(new SimpleLocation("world", 1, 64, 0),
+                core.getLocationManager().getCurrentBlockLocation(player.getUniqueId()));
+    }
+
+    @Test
+    public void testAreaEnterExit() throws Exception {
+        core.getAreaManager().add("spawn", new SimpleLocation("world", 0, 0, 0),
+                new SimpleLocation("world", 3, 255, 3), "#MESSAGE \"enter\"", "#MESSAGE \"exit\"", true);
+
+        HeadlessPlayer player = sync(() -> {
+            HeadlessPlayer walker = core.join("walker", new SimpleLocation("world", 5, 64, 5));
+            core.move(walker, new SimpleLocation("world", 3, 64, 3));
+            core.move(walker, new SimpleLocation("world", 2, 64, 2));
+            core.move(walker, new SimpleLocation("world", 4, 64, 4));
+            return walker;
+        });
+
+        assertEquals(2L, player.getMessages());
+        assertTrue(core.getAreaManager().get("spawn").getEntities().isEmpty());
+    }
+
+    @Test
+    public void testChatOffMainThread() throws Exception {
+        core.getCustomManager().createCustomTrigger("onChat", "echo",
+                "IF event.getMessage() == \"ping\"\n    #MESSAGE \"pong\"\nENDIF");
+        core.getCustomManager().get("echo").setSync(true);
+
+        HeadlessPlayer player = sync(() -> core.join("chatter", new SimpleLocation("world", 0, 64, 0)));
+        core.chat(player, "ping");
+        core.chat(player, "hello");
+
+        await(() -> player.getMessages() == 1L);
+    }
+
+    @Test
+    public void testReloadKeepsTriggerFailedToLoad() throws Exception {
+        File folder = core.getCustomManager().getFolder();
+        FileUtil.writeToFile(new File(folder, "echo.trg"), "#MESSAGE \"pong\"");
+        FileUtil.writeToFile(new File(folder, "echo.json"), "{\"Event\":\"onChat\"}");
+        sync(() -> {
+            core.getCustomManager().reload();
+            return null;
+        });
+        Object trigger = core.getCustomManager().get("echo");
+        assertNotNull(trigger);
+
+        FileUtil.writeToFile(new File(folder, "echo.json"), "{\"Event\":\"onNothing\"}");
+        sync(() -> {
+            core.getCustomManager().reload();
+            return null;
+        });
+        assertSame(trigger, core.getCustomManager().get("echo"));
+    }
+
+    private static FlightRecorder.Record lastRecord(String name) {
+        List<FlightRecorder.Record> records = FlightRecorder.TRIGGERS.snapshot();
+        for (int i = records.size() - 1; i >= 0; i--) {
+            if (name.equals(records.get(i).getName()))
+                return records.get(i);
+        }
+        return null;
+    }
+
+    @Test
+    public void testScriptErrorRecorded() throws Exception {
+        core.getCustomManager().createCustomTrigger("onChat", "broken", "event.noSuchMethod()");
+        core.getCustomManager().get("broken").setSync(true);
+
+        HeadlessPlayer player = sync(() -> core.join("chatter", new SimpleLocation("world", 0, 64, 0)));
+        core.chat(player, "hello");
+
+        await(() -> lastRecord("broken") != null);
+        FlightRecorder.Record record = lastRecord("broken");
+        assertEquals(FlightRecorder.Outcome.ERROR, record.getOutcome());
+        assertEquals(player.getUniqueId(), record.getPlayer());
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.wysohn.triggerreactor.core.headless;
+
+import io.github.wysohn.triggerreactor.core.bridge.event.IEvent;
+import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import io.github.wysohn.triggerreactor.core.manager.trigger.custom.AbstractCustomTriggerManager;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class HeadlessCustomTriggerManager extends AbstractCustomTriggerManager implements HeadlessListener {
+    private static final Map<String, Class<?>> ABBREVIATIONS = new HashMap<String, Class<?>>() {{
+        put("onMove", PlayerMoveEvent.class);
+        put("onClick", PlayerClickEvent.class);
+        put("onChat", PlayerChatEvent.class);
+    }};
+
+    private final Map<EventHook, Class<?>> hooks = new ConcurrentHashMap<>();
+
+    public HeadlessCustomTriggerManager(TriggerReactorCore plugin) {
+        super(plugin, new File(plugin.getDataFolder(), "CustomTrigger"), new EventRegistry() {
+            @Override
+            public boolean eventExist(String eventStr) {
+                try {
+                    return getEvent(eventStr) != null;
+                } catch (ClassNotFoundException e) {
+                    return false;
+                }
+            }
+
+            @Override
+            public Class<?> getEvent(String eventStr) throws ClassNotFoundException {
+                Class<?> event = ABBREVIATIONS.get(eventStr);
+                if (event == null)
+                    event = Class.forName(eventStr);
+
+                if (!IEvent.class.isAssignableFrom(event))
+                    throw new ClassNotFoundException(eventStr + " is not an event.");
+                return event;
+            }
+        });
+    }
+
+    @Override
+    public void onEvent(IEvent event) {
+        for (Map.Entry<EventHook, Class<?>> entry : hooks.entrySet()) {
+            if (entry.getValue().isInstance(event))
+                entry.getKey().onEvent(event);
+        }
+    }
+
+    @Override
+    protected void registerEvent(TriggerReactorCore plugin, Class<?> clazz, EventHook eventHook) {
+        hooks.put(eventHook, clazz);
+    }
+
+    @Override
+    protected void unregisterEvent(TriggerReactorCore plugin, EventHook eventHook) {
+        hooks.remove(eventHook);
+    }
+
+    @Override
+    public Collection<String> getAbbreviations() {
+        return Collections.unmodifiableSet(ABBREVIATIONS.keySet());
+    }
+}
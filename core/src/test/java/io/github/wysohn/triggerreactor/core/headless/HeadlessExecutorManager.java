@@ -0,0 +1,60 @@
+package io.github.wysohn.triggerreactor.core.headless;
+
+import io.github.wysohn.triggerreactor.core.bridge.ICommandSender;
+import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import io.github.wysohn.triggerreactor.core.manager.AbstractExecutorManager;
+import io.github.wysohn.triggerreactor.core.script.interpreter.Executor;
+import io.github.wysohn.triggerreactor.core.script.interpreter.NativeInfo;
+import io.github.wysohn.triggerreactor.core.script.interpreter.ThreadAffinity;
+import io.github.wysohn.triggerreactor.tools.timings.Timings;
+
+import javax.script.ScriptException;
+import java.io.File;
+import java.util.Map;
+
+/**
+ * Loads the .js Executors in the Executor folder of the data folder, if any. Only #MESSAGE is built in.
+ */
+public class HeadlessExecutorManager extends AbstractExecutorManager {
+    private final File executorFolder;
+
+    public HeadlessExecutorManager(TriggerReactorCore plugin) throws ScriptException {
+        super(plugin);
+        this.executorFolder = new File(plugin.getDataFolder(), "Executor");
+
+        registerNativeExecutor(new Message());
+
+        reload();
+    }
+
+    @Override
+    public void reload() {
+        publishExecutors(loadExecutors(executorFolder,
+                pathname -> pathname.isDirectory() || pathname.getName().endsWith(".js")));
+    }
+
+    @Override
+    public void saveAll() {
+
+    }
+
+    /**
+     * #MESSAGE "text"... sends the text to the player.
+     */
+    @NativeInfo(name = "MESSAGE", minArgs = 1, affinity = ThreadAffinity.ANY_THREAD)
+    static class Message extends Executor {
+        @Override
+        protected Integer execute(Timings.Timing timing, boolean sync, Map<String, Object> vars, Object context,
+                                  Object... args) throws Exception {
+            Object player = vars.get("player");
+            if (!(player instanceof ICommandSender))
+                return null;
+
+            StringBuilder builder = new StringBuilder();
+            for (Object arg : args)
+                builder.append(arg);
+            ((ICommandSender) player).sendMessage(builder.toString());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package io.github.wysohn.triggerreactor.core.headless;
+
+import io.github.wysohn.triggerreactor.core.bridge.event.IEvent;
+
+/**
+ * Implemented by the managers of the {@link HeadlessCore} which listen to the events. The core finds them when
+ * they are registered with {@link HeadlessCore#registerEvents(io.github.wysohn.triggerreactor.core.manager.Manager)}.
+ */
+public interface HeadlessListener {
+    /**
+     * @param event the event fired with {@link HeadlessCore#callEvent(IEvent)}, in the thread which fired it
+     */
+    void onEvent(IEvent event);
+}
@@ -0,0 +1,72 @@
+package io.github.wysohn.triggerreactor.core.headless;
+
+import io.github.wysohn.triggerreactor.core.bridge.ICommandSender;
+import io.github.wysohn.triggerreactor.core.config.source.IConfigSource;
+import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import io.github.wysohn.triggerreactor.core.manager.location.SimpleLocation;
+import io.github.wysohn.triggerreactor.core.manager.trigger.ITriggerLoader;
+import io.github.wysohn.triggerreactor.core.manager.trigger.Trigger;
+import io.github.wysohn.triggerreactor.core.manager.trigger.TriggerInfo;
+import io.github.wysohn.triggerreactor.core.manager.trigger.location.AbstractLocationBasedTriggerManager;
+import io.github.wysohn.triggerreactor.tools.FileUtil;
+
+import java.io.File;
+import java.io.IOException;
+
+public abstract class HeadlessLocationBasedTriggerManager<T extends Trigger> extends AbstractLocationBasedTriggerManager<T>
+        implements HeadlessListener {
+    public HeadlessLocationBasedTriggerManager(TriggerReactorCore plugin, String folderName, ITriggerLoader<T> loader) {
+        super(plugin, new File(plugin.getDataFolder(), folderName), loader);
+    }
+
+    /**
+     * Create a Trigger at the location, as if it was set with the command.
+     *
+     * @param sloc   the location
+     * @param script the script
+     * @param sync   true to run it in the main thread
+     * @return the Trigger
+     * @throws TriggerInitFailedException if the script can't be parsed
+     */
+    public T add(SimpleLocation sloc, String script, boolean sync) throws TriggerInitFailedException {
+        String name = sloc.toString();
+        File file = getTriggerFile(folder, name, true);
+        IConfigSource config = configSourceFactory.create(folder, name);
+        T trigger = newTrigger(TriggerInfo.defaultInfo(file, config), script);
+        trigger.setSync(sync);
+
+        setLocationCache(sloc, trigger);
+        return trigger;
+    }
+
+    public T getTrigger(SimpleLocation sloc) {
+        return getTriggerForLocation(sloc);
+    }
+
+    @Override
+    protected void showTriggerInfo(ICommandSender sender, SimpleLocation sloc) {
+        T trigger = getTriggerForLocation(sloc);
+        if (trigger == null)
+            return;
+
+        sender.sendMessage("- " + getTriggerTypeName() + " Trigger at " + sloc + " sync: " + trigger.isSync());
+        sender.sendMessage(trigger.getScript());
+    }
+
+    static String readScript(TriggerInfo info) {
+        try {
+            return FileUtil.readFromFile(info.getSourceCodeFile());
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    static void writeScript(Trigger trigger) {
+        try {
+            FileUtil.writeToFile(trigger.getInfo().getSourceCodeFile(), trigger.getScript());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.wysohn.triggerreactor.core.headless;
+
+import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import io.github.wysohn.triggerreactor.core.manager.AbstractPlaceholderManager;
+import io.github.wysohn.triggerreactor.core.script.interpreter.NativeInfo;
+import io.github.wysohn.triggerreactor.core.script.interpreter.Placeholder;
+import io.github.wysohn.triggerreactor.core.script.interpreter.ThreadAffinity;
+import io.github.wysohn.triggerreactor.tools.timings.Timings;
+
+import javax.script.ScriptException;
+import java.io.File;
+import java.util.Map;
+
+/**
+ * Loads the .js Placeholders in the Placeholder folder of the data folder, if any. Only $playername is built in.
+ */
+public class HeadlessPlaceholderManager extends AbstractPlaceholderManager {
+    private final File placeholderFolder;
+
+    public HeadlessPlaceholderManager(TriggerReactorCore plugin) throws ScriptException {
+        super(plugin);
+        this.placeholderFolder = new File(plugin.getDataFolder(), "Placeholder");
+
+        registerNativePlaceholder(new PlayerName());
+
+        reload();
+    }
+
+    @Override
+    public void reload() {
+        publishPlaceholders(loadPlaceholders(placeholderFolder, pathname -> pathname.getName().endsWith(".js")));
+    }
+
+    @Override
+    public void saveAll() {
+
+    }
+
+    /**
+     * $playername is the name of the player; null if there is no player.
+     */
+    @NativeInfo(name = "playername", maxArgs = 0, affinity = ThreadAffinity.ANY_THREAD)
+    static class PlayerName extends Placeholder {
+        @Override
+        public Object parse(Timings.Timing timing, Object context, Map<String, Object> vars, Object... args)
+                throws Exception {
+            Object player = vars.get("player");
+            return player instanceof HeadlessPlayer ? ((HeadlessPlayer) player).getName() : null;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package io.github.wysohn.triggerreactor.core.headless;
+
+import io.github.wysohn.triggerreactor.core.bridge.IInventory;
+import io.github.wysohn.triggerreactor.core.bridge.IItemStack;
+import io.github.wysohn.triggerreactor.core.bridge.ILocation;
+import io.github.wysohn.triggerreactor.core.bridge.entity.IPlayer;
+import io.github.wysohn.triggerreactor.core.manager.location.SimpleChunkLocation;
+import io.github.wysohn.triggerreactor.core.manager.location.SimpleLocation;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A player of the {@link HeadlessCore}. It has no inventory; the messages sent to it are only counted.
+ */
+public class HeadlessPlayer implements IPlayer {
+    private final UUID uuid;
+    private final String name;
+    private final AtomicLong messages = new AtomicLong();
+
+    private volatile SimpleLocation location;
+
+    public HeadlessPlayer(String name, SimpleLocation location) {
+        this.uuid = UUID.nameUUIDFromBytes(("HeadlessPlayer:" + name).getBytes());
+        this.name = name;
+        this.location = location;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the block the player is standing at
+     */
+    public SimpleLocation getBlockLocation() {
+        return location;
+    }
+
+    void setBlockLocation(SimpleLocation location) {
+        this.location = location;
+    }
+
+    /**
+     * @return number of messages sent to this player so far
+     */
+    public long getMessages() {
+        return messages.get();
+    }
+
+    @Override
+    public UUID getUniqueId() {
+        return uuid;
+    }
+
+    @Override
+    public IInventory getInventory() {
+        return null;
+    }
+
+    @Override
+    public void openInventory(IInventory inventory) {
+
+    }
+
+    @Override
+    public SimpleChunkLocation getChunk() {
+        return new SimpleChunkLocation(location);
+    }
+
+    @Override
+    public IItemStack getItemInMainHand() {
+        return null;
+    }
+
+    @Override
+    public ILocation getLocation() {
+        SimpleLocation location = this.location;
+        return new ILocation() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public <T> T get() {
+                return (T) location;
+            }
+        };
+    }
+
+    @Override
+    public void setItemInMainHand(IItemStack iS) {
+
+    }
+
+    @Override
+    public void sendMessage(String message) {
+        messages.incrementAndGet();
+    }
+
+    @Override
+    public boolean hasPermission(String permission) {
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T get() {
+        return (T) this;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
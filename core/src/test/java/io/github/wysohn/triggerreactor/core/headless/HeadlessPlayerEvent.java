@@ -0,0 +1,39 @@
+package io.github.wysohn.triggerreactor.core.headless;
+
+import io.github.wysohn.triggerreactor.core.bridge.entity.IPlayer;
+import io.github.wysohn.triggerreactor.core.bridge.event.IPlayerEvent;
+
+/**
+ * Base of the events fired by the players of the {@link HeadlessCore}. Every event can be cancelled.
+ */
+public class HeadlessPlayerEvent implements IPlayerEvent {
+    private final HeadlessPlayer player;
+    private boolean cancelled = false;
+
+    public HeadlessPlayerEvent(HeadlessPlayer player) {
+        this.player = player;
+    }
+
+    public HeadlessPlayer getPlayer() {
+        return player;
+    }
+
+    @Override
+    public IPlayer getIPlayer() {
+        return player;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T get() {
+        return (T) this;
+    }
+}
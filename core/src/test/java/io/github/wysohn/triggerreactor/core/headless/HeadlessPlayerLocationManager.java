@@ -0,0 +1,50 @@
+package io.github.wysohn.triggerreactor.core.headless;
+
+import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import io.github.wysohn.triggerreactor.core.manager.AbstractPlayerLocationManager;
+import io.github.wysohn.triggerreactor.core.manager.location.SimpleLocation;
+
+public class HeadlessPlayerLocationManager extends AbstractPlayerLocationManager {
+    public HeadlessPlayerLocationManager(TriggerReactorCore plugin) {
+        super(plugin);
+    }
+
+    void onJoin(HeadlessPlayer player) {
+        setCurrentBlockLocation(player.getUniqueId(), player.getBlockLocation());
+    }
+
+    void onQuit(HeadlessPlayer player) {
+        removeCurrentBlockLocation(player.getUniqueId());
+    }
+
+    /**
+     * Move the player to the block, firing a {@link PlayerMoveEvent}. Must be called in the main thread.
+     *
+     * @param player the player
+     * @param to     the block to move to
+     * @return true if moved; false if the event was cancelled or the player is already there
+     */
+    public boolean move(HeadlessPlayer player, SimpleLocation to) {
+        SimpleLocation from = getCurrentBlockLocation(player.getUniqueId());
+        if (from == null || from.equals(to))
+            return false;
+
+        PlayerMoveEvent event = new PlayerMoveEvent(player, from, to);
+        onMove(event);
+        if (event.isCancelled())
+            return false;
+
+        player.setBlockLocation(to);
+        return true;
+    }
+
+    @Override
+    public void reload() {
+
+    }
+
+    @Override
+    public void saveAll() {
+
+    }
+}
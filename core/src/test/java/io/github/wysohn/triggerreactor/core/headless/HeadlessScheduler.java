@@ -0,0 +1,196 @@
+package io.github.wysohn.triggerreactor.core.headless;
+
+import io.github.wysohn.triggerreactor.tools.Lag;
+import io.github.wysohn.triggerreactor.tools.timings.LatencyHistogram;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The fake main thread of the {@link HeadlessCore}. It ticks 20 times a second like a server: each tick runs the
+ * tasks submitted before the tick began, and then the tick listeners, which play the part of the players and the
+ * worlds. If a tick takes longer than 50ms, the next one starts right away, so the TPS drops as it would on a
+ * lagging server.
+ */
+public class HeadlessScheduler {
+    public static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50L);
+
+    private final String threadName;
+    private final Queue<FutureTask<?>> tasks = new ConcurrentLinkedQueue<>();
+    private final List<Runnable> tickListeners = new CopyOnWriteArrayList<>();
+    private final Lag lag = new Lag();
+
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+    private final LatencyHistogram tickNanos = new LatencyHistogram();
+
+    private volatile Thread thread;
+    private volatile boolean running;
+
+    public HeadlessScheduler(String threadName) {
+        this.threadName = threadName;
+    }
+
+    public synchronized void start() {
+        if (thread != null)
+            return;
+
+        running = true;
+        thread = new Thread(this::loop);
+        thread.setName(threadName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop ticking and cancel the tasks which are not run yet. Waits for the tick in progress to finish unless
+     * called from the main thread itself.
+     */
+    public synchronized void stop() {
+        Thread thread = this.thread;
+        if (thread == null)
+            return;
+
+        running = false;
+        if (thread != Thread.currentThread()) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5L));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        this.thread = null;
+
+        FutureTask<?> task;
+        while ((task = tasks.poll()) != null)
+            task.cancel(false);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean isMainThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * @return the main thread; null if not started
+     */
+    public Thread getThread() {
+        return thread;
+    }
+
+    /**
+     * Run the task in the main thread at the beginning of the next tick.
+     *
+     * @param call the task
+     * @return the future of the result
+     */
+    public <T> Future<T> submit(Callable<T> call) {
+        FutureTask<T> task = new FutureTask<>(call);
+        if (running) {
+            tasks.add(task);
+        } else {
+            task.cancel(false);
+        }
+        return task;
+    }
+
+    public void execute(Runnable runnable) {
+        submit(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * @param listener called in the main thread once every tick, after the tasks
+     */
+    public void addTickListener(Runnable listener) {
+        tickListeners.add(listener);
+    }
+
+    public void removeTickListener(Runnable listener) {
+        tickListeners.remove(listener);
+    }
+
+    public Lag getLag() {
+        return lag;
+    }
+
+    /**
+     * @return number of ticks finished so far
+     */
+    public long getTicks() {
+        return ticks.get();
+    }
+
+    /**
+     * @return total time the main thread spent on the ticks, excluding the sleep between them
+     */
+    public long getBusyNanos() {
+        return busyNanos.get();
+    }
+
+    /**
+     * @return the time each tick took, in nanoseconds
+     */
+    public LatencyHistogram getTickNanos() {
+        return tickNanos;
+    }
+
+    public void resetStats() {
+        busyNanos.set(0L);
+        tickNanos.reset();
+    }
+
+    private void loop() {
+        long next = System.nanoTime();
+        while (running) {
+            long begin = System.nanoTime();
+            lag.run();
+
+            // tasks submitted during this tick wait for the next one
+            for (int i = tasks.size(); i > 0; i--) {
+                FutureTask<?> task = tasks.poll();
+                if (task == null)
+                    break;
+                task.run();
+            }
+
+            for (Runnable listener : tickListeners) {
+                try {
+                    listener.run();
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                }
+            }
+
+            long took = System.nanoTime() - begin;
+            busyNanos.addAndGet(took);
+            tickNanos.record(took);
+            ticks.incrementAndGet();
+
+            next += TICK_NANOS;
+            long sleep = next - System.nanoTime();
+            if (sleep > 0L) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleep);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            } else {
+                // behind schedule; don't try to catch up with a burst of ticks
+                next = System.nanoTime();
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.wysohn.triggerreactor.core.headless;
+
+import io.github.wysohn.triggerreactor.core.bridge.event.IEvent;
+import io.github.wysohn.triggerreactor.core.config.InvalidTrgConfigurationException;
+import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import io.github.wysohn.triggerreactor.core.manager.location.SimpleLocation;
+import io.github.wysohn.triggerreactor.core.manager.trigger.ITriggerLoader;
+import io.github.wysohn.triggerreactor.core.manager.trigger.TriggerInfo;
+import io.github.wysohn.triggerreactor.core.manager.trigger.location.AbstractLocationBasedTriggerManager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class HeadlessWalkTriggerManager
+        extends HeadlessLocationBasedTriggerManager<AbstractLocationBasedTriggerManager.WalkTrigger> {
+    public HeadlessWalkTriggerManager(TriggerReactorCore plugin) {
+        super(plugin, "WalkTrigger", new ITriggerLoader<WalkTrigger>() {
+            @Override
+            public WalkTrigger load(TriggerInfo info) throws InvalidTrgConfigurationException {
+                String script = readScript(info);
+                if (script == null)
+                    return null;
+
+                try {
+                    return new WalkTrigger(info, script);
+                } catch (TriggerInitFailedException e) {
+                    e.printStackTrace();
+                    return null;
+                }
+            }
+
+            @Override
+            public void save(WalkTrigger trigger) {
+                writeScript(trigger);
+            }
+        });
+    }
+
+    @Override
+    public void onEvent(IEvent event) {
+        if (!(event instanceof PlayerMoveEvent))
+            return;
+
+        PlayerMoveEvent e = (PlayerMoveEvent) event;
+        SimpleLocation bottomLoc = e.getTo().clone();
+        bottomLoc.add(0, -1, 0);
+
+        WalkTrigger trigger = getTriggerForLocation(bottomLoc);
+        if (trigger == null)
+            return;
+
+        Map<String, Object> varMap = new HashMap<>();
+        varMap.put("player", e.getPlayer());
+        varMap.put("from", e.getFrom());
+        varMap.put("to", e.getTo());
+
+        trigger.activate(e, varMap);
+    }
+
+    @Override
+    protected WalkTrigger newTrigger(TriggerInfo info, String script) throws TriggerInitFailedException {
+        return new WalkTrigger(info, script);
+    }
+
+    @Override
+    protected String getTriggerTypeName() {
+        return "Walk";
+    }
+}
@@ -0,0 +1,542 @@
+package io.github.wysohn.triggerreactor.core.headless;
+
+import io.github.wysohn.triggerreactor.core.manager.location.SimpleLocation;
+import io.github.wysohn.triggerreactor.core.manager.trigger.AbstractTriggerManager.TriggerInitFailedException;
+import io.github.wysohn.triggerreactor.tools.timings.FlightRecorder;
+import io.github.wysohn.triggerreactor.tools.timings.LatencyHistogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulates players walking, clicking, and chatting on a {@link HeadlessCore}, and measures how TriggerReactor
+ * copes with it.
+ * <p>
+ * Each world is a square of {@link Layout#size(int)} blocks where the Walk, Click, and Area Triggers are placed at
+ * random, and the Custom Triggers listen to the chat. Every tick, each player may step to a neighbouring block,
+ * click a block, or say something, with the chances given in the {@link Layout}. The moves and the clicks happen
+ * in the main thread, and the chat in a separate thread like on a real server.
+ * <p>
+ * The activations and their latencies are read from {@link FlightRecorder#TRIGGERS}, so the latencies are
+ * taken from the last {@link FlightRecorder#getCapacity()} activations only. The latency is the time the script
+ * took, not counting the time waiting for a thread.
+ */
+public class LoadGenerator {
+    private final Layout layout;
+
+    public LoadGenerator(Layout layout) {
+        this.layout = layout;
+    }
+
+    /**
+     * Start a {@link HeadlessCore}, set up the Triggers and the players, let them play for
+     * {@link Layout#warmupTicks(int)} and then for {@link Layout#ticks(int)} while measuring, and stop the core.
+     *
+     * @param dataFolder the data folder of the core. Use a temporary folder.
+     * @return the measurements
+     * @throws Exception if the core could not be started or the scripts could not be parsed
+     */
+    public Report run(File dataFolder) throws Exception {
+        HeadlessCore core = new HeadlessCore(dataFolder);
+        ExecutorService chat = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "Chat thread");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            core.start();
+
+            Random random = new Random(layout.seed);
+            List<SimpleLocation> clickLocations = new ArrayList<>();
+            List<HeadlessPlayer> players = core.callSyncMethod(() -> setup(core, random, clickLocations)).get();
+
+            Runnable tick = () -> {
+                for (HeadlessPlayer player : players) {
+                    if (random.nextDouble() < layout.walkChance)
+                        core.move(player, step(random, player.getBlockLocation()));
+
+                    if (random.nextDouble() < layout.clickChance) {
+                        SimpleLocation clicked = !clickLocations.isEmpty() && random.nextDouble() < layout.clickHitChance
+                                ? clickLocations.get(random.nextInt(clickLocations.size()))
+                                : randomBlock(random, player.getBlockLocation().getWorld(), 64);
+                        core.click(player, clicked, random.nextBoolean());
+                    }
+
+                    if (random.nextDouble() < layout.chatChance) {
+                        String message = "hello " + random.nextInt(1000);
+                        chat.execute(() -> core.chat(player, message));
+                    }
+                }
+            };
+
+            HeadlessScheduler scheduler = core.getScheduler();
+            scheduler.addTickListener(tick);
+            waitTicks(scheduler, layout.warmupTicks);
+
+            scheduler.resetStats();
+            long startTick = scheduler.getTicks();
+            long recorded = FlightRecorder.TRIGGERS.getRecorded();
+            long allocated = allocatedBytes();
+            long mainAllocated = allocatedBytes(scheduler.getThread());
+            long start = System.nanoTime();
+
+            waitTicks(scheduler, layout.ticks);
+            // all read before the clean up below, which would count as a part of the run otherwise
+            long elapsed = System.nanoTime() - start;
+            long ticks = scheduler.getTicks() - startTick;
+            Report report = new Report(players.size(), ticks, elapsed);
+            report.activations = FlightRecorder.TRIGGERS.getRecorded() - recorded;
+            report.busyNanos = scheduler.getBusyNanos();
+            report.tickNanos = scheduler.getTickNanos();
+            if (allocated >= 0L) {
+                report.allocatedBytes = allocatedBytes() - allocated;
+                report.mainThreadAllocatedBytes = allocatedBytes(scheduler.getThread()) - mainAllocated;
+            }
+
+            scheduler.removeTickListener(tick);
+            chat.shutdown();
+            chat.awaitTermination(5L, TimeUnit.SECONDS);
+
+            for (FlightRecorder.Record record : FlightRecorder.TRIGGERS.snapshot()) {
+                if (record.getStartNanos() - start < 0L || record.getStartNanos() - start > elapsed)
+                    continue;
+
+                report.latency.record(record.getDurationNanos());
+                report.latencyByType.computeIfAbsent(record.getType(), (type) -> new LatencyHistogram())
+                        .record(record.getDurationNanos());
+                report.sampled++;
+                if (record.getOutcome() == FlightRecorder.Outcome.ERROR)
+                    report.errors++;
+            }
+
+            return report;
+        } finally {
+            chat.shutdownNow();
+            core.stop();
+        }
+    }
+
+    private List<HeadlessPlayer> setup(HeadlessCore core, Random random, List<SimpleLocation> clickLocations)
+            throws TriggerInitFailedException, ClassNotFoundException {
+        for (int w = 0; w < layout.worlds; w++) {
+            String world = worldName(w);
+
+            for (int i = 0; i < layout.walkTriggers; i++) {
+                core.getWalkManager().add(randomBlock(random, world, 63), layout.walkScript, layout.walkSync);
+            }
+
+            for (int i = 0; i < layout.clickTriggers; i++) {
+                SimpleLocation sloc = randomBlock(random, world, 64);
+                core.getClickManager().add(sloc, layout.clickScript, layout.clickSync);
+                clickLocations.add(sloc);
+            }
+
+            for (int i = 0; i < layout.areaTriggers; i++) {
+                SimpleLocation smallest = randomBlock(random, world, 0);
+                SimpleLocation largest = new SimpleLocation(world, smallest.getX() + layout.areaSize - 1, 255,
+                        smallest.getZ() + layout.areaSize - 1);
+                core.getAreaManager().add(world + "_area_" + i, smallest, largest, layout.areaEnterScript,
+                        layout.areaExitScript, layout.areaSync);
+            }
+        }
+
+        for (int i = 0; i < layout.customTriggers; i++) {
+            String name = "chat_" + i;
+            core.getCustomManager().createCustomTrigger("onChat", name, layout.customScript);
+            core.getCustomManager().get(name).setSync(layout.customSync);
+        }
+
+        List<HeadlessPlayer> players = new ArrayList<>();
+        for (int i = 0; i < layout.players; i++) {
+            players.add(core.join("player_" + i, randomBlock(random, worldName(i % layout.worlds), 64)));
+        }
+        return players;
+    }
+
+    private static String worldName(int index) {
+        return index == 0 ? "world" : "world_" + index;
+    }
+
+    private SimpleLocation randomBlock(Random random, String world, int y) {
+        return new SimpleLocation(world, random.nextInt(layout.size), y, random.nextInt(layout.size));
+    }
+
+    private SimpleLocation step(Random random, SimpleLocation from) {
+        int x;
+        int z;
+        do {
+            x = Math.max(0, Math.min(layout.size - 1, from.getX() + random.nextInt(3) - 1));
+            z = Math.max(0, Math.min(layout.size - 1, from.getZ() + random.nextInt(3) - 1));
+        } while (x == from.getX() && z == from.getZ() && layout.size > 1);
+        return new SimpleLocation(from.getWorld(), x, from.getY(), z);
+    }
+
+    private static void waitTicks(HeadlessScheduler scheduler, long ticks) throws InterruptedException {
+        long until = scheduler.getTicks() + ticks;
+        while (scheduler.getTicks() < until) {
+            if (!scheduler.isRunning())
+                throw new IllegalStateException("The main thread has stopped.");
+            Thread.sleep(10L);
+        }
+    }
+
+    /**
+     * @return bytes allocated so far by all the live threads; -1 if the JVM can't tell
+     */
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = threadMXBean();
+        if (threads == null)
+            return -1L;
+
+        long sum = 0L;
+        for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (allocated > 0L)
+                sum += allocated;
+        }
+        return sum;
+    }
+
+    private static long allocatedBytes(Thread thread) {
+        com.sun.management.ThreadMXBean threads = threadMXBean();
+        if (threads == null || thread == null)
+            return -1L;
+
+        return threads.getThreadAllocatedBytes(thread.getId());
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (!(bean instanceof com.sun.management.ThreadMXBean))
+                return null;
+
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled())
+                return null;
+            return threads;
+        } catch (Throwable ex) {
+            return null;
+        }
+    }
+
+    /**
+     * What to simulate. The defaults are a small server with a few Triggers of each kind.
+     */
+    public static class Layout {
+        private int players = 50;
+        private int worlds = 1;
+        private int size = 64;
+        private int ticks = 200;
+        private int warmupTicks = 40;
+        private long seed = 0L;
+
+        private double walkChance = 0.5;
+        private double clickChance = 0.05;
+        private double clickHitChance = 0.5;
+        private double chatChance = 0.01;
+
+        private int walkTriggers = 200;
+        private String walkScript = "count = 0\n"
+                + "FOR i = 0:10\n"
+                + "    count = count + i\n"
+                + "ENDFOR\n"
+                + "#MESSAGE \"walked \" + count";
+        private boolean walkSync = false;
+
+        private int clickTriggers = 50;
+        private String clickScript = "IF click == \"right\"\n"
+                + "    #MESSAGE \"Hello \" + $playername\n"
+                + "ENDIF";
+        private boolean clickSync = true;
+
+        private int areaTriggers = 4;
+        private int areaSize = 16;
+        private String areaEnterScript = "#MESSAGE \"Welcome \" + $playername";
+        private String areaExitScript = "#MESSAGE \"Bye \" + $playername";
+        private boolean areaSync = false;
+
+        private int customTriggers = 5;
+        private String customScript = "message = event.getMessage()\n"
+                + "IF message.startsWith(\"hello\")\n"
+                + "    #MESSAGE $playername + \": \" + message\n"
+                + "ENDIF";
+        private boolean customSync = false;
+
+        /**
+         * @param players number of players, spread evenly over the worlds
+         */
+        public Layout players(int players) {
+            this.players = players;
+            return this;
+        }
+
+        /**
+         * @param worlds number of worlds. Each world gets its own set of Walk, Click, and Area Triggers.
+         */
+        public Layout worlds(int worlds) {
+            this.worlds = Math.max(1, worlds);
+            return this;
+        }
+
+        /**
+         * @param size width of the square the players walk around in each world, in blocks
+         */
+        public Layout size(int size) {
+            this.size = Math.max(1, size);
+            return this;
+        }
+
+        /**
+         * @param ticks number of ticks to measure
+         */
+        public Layout ticks(int ticks) {
+            this.ticks = ticks;
+            return this;
+        }
+
+        /**
+         * @param warmupTicks number of ticks to play before measuring, so the JIT compiler catches up
+         */
+        public Layout warmupTicks(int warmupTicks) {
+            this.warmupTicks = warmupTicks;
+            return this;
+        }
+
+        public Layout seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * @param walkChance  chance of each player to step to a neighbouring block every tick
+         * @param clickChance chance of each player to click a block every tick
+         * @param chatChance  chance of each player to chat every tick
+         */
+        public Layout chances(double walkChance, double clickChance, double chatChance) {
+            this.walkChance = walkChance;
+            this.clickChance = clickChance;
+            this.chatChance = chatChance;
+            return this;
+        }
+
+        /**
+         * @param clickHitChance chance of a click to be on a block with a Click Trigger
+         */
+        public Layout clickHitChance(double clickHitChance) {
+            this.clickHitChance = clickHitChance;
+            return this;
+        }
+
+        /**
+         * @param count  number of Walk Triggers in each world
+         * @param script the script of them
+         * @param sync   true to run them in the main thread
+         */
+        public Layout walkTriggers(int count, String script, boolean sync) {
+            this.walkTriggers = count;
+            this.walkScript = script;
+            this.walkSync = sync;
+            return this;
+        }
+
+        /**
+         * @param count  number of Click Triggers in each world
+         * @param script the script of them
+         * @param sync   true to run them in the main thread
+         */
+        public Layout clickTriggers(int count, String script, boolean sync) {
+            this.clickTriggers = count;
+            this.clickScript = script;
+            this.clickSync = sync;
+            return this;
+        }
+
+        /**
+         * @param count  number of Area Triggers in each world
+         * @param size   width of each area, in blocks. The areas span the whole height of the world.
+         * @param enter  the Enter script of them
+         * @param exit   the Exit script of them
+         * @param sync   true to run them in the main thread
+         */
+        public Layout areaTriggers(int count, int size, String enter, String exit, boolean sync) {
+            this.areaTriggers = count;
+            this.areaSize = Math.max(1, size);
+            this.areaEnterScript = enter;
+            this.areaExitScript = exit;
+            this.areaSync = sync;
+            return this;
+        }
+
+        /**
+         * @param count  number of Custom Triggers listening to the chat
+         * @param script the script of them
+         * @param sync   true to run them in the main thread
+         */
+        public Layout customTriggers(int count, String script, boolean sync) {
+            this.customTriggers = count;
+            this.customScript = script;
+            this.customSync = sync;
+            return this;
+        }
+    }
+
+    /**
+     * The measurements of a run.
+     */
+    public static class Report {
+        private final int players;
+        private final long ticks;
+        private final long elapsedNanos;
+
+        private long activations;
+        private long sampled;
+        private long errors;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final Map<String, LatencyHistogram> latencyByType = new TreeMap<>();
+
+        private long busyNanos;
+        private LatencyHistogram tickNanos = new LatencyHistogram();
+
+        private long allocatedBytes = -1L;
+        private long mainThreadAllocatedBytes = -1L;
+
+        private Report(int players, long ticks, long elapsedNanos) {
+            this.players = players;
+            this.ticks = ticks;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getTicks() {
+            return ticks;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getTps() {
+            return ticks / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        /**
+         * @return number of the activations while measuring, including the ones started by other Triggers
+         */
+        public long getActivations() {
+            return activations;
+        }
+
+        public double getActivationsPerSecond() {
+            return activations / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        /**
+         * @return number of activations the latencies were taken from
+         */
+        public long getSampled() {
+            return sampled;
+        }
+
+        /**
+         * @return number of the sampled activations which ended with an error
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return the latencies of all the sampled activations, in nanoseconds
+         */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        /**
+         * @return the latencies by the type of the Trigger. Ex) WalkTrigger
+         */
+        public Map<String, LatencyHistogram> getLatencyByType() {
+            return latencyByType;
+        }
+
+        /**
+         * @return average time of the main thread spent in a tick
+         */
+        public double getMillisPerTick() {
+            return ticks == 0L ? 0.0 : busyNanos / 1_000_000.0 / ticks;
+        }
+
+        /**
+         * @return the time the main thread spent in each tick, in nanoseconds
+         */
+        public LatencyHistogram getTickNanos() {
+            return tickNanos;
+        }
+
+        /**
+         * @return bytes allocated by all the threads while measuring; -1 if the JVM can't tell
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        public double getAllocatedBytesPerSecond() {
+            return allocatedBytes < 0L ? -1.0 : allocatedBytes / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        /**
+         * @return bytes allocated by the main thread while measuring; -1 if the JVM can't tell
+         */
+        public long getMainThreadAllocatedBytes() {
+            return mainThreadAllocatedBytes;
+        }
+
+        public void print(Writer writer) throws IOException {
+            writer.write(String.format("Load of %d players for %d ticks (%.1fs, %.2f TPS)%n",
+                    players, ticks, elapsedNanos / 1_000_000_000.0, getTps()));
+            writer.write(String.format(" > Activations -- (total: %d, %.1f/s, errors: %d of %d sampled)%n",
+                    activations, getActivationsPerSecond(), errors, sampled));
+            writeLatency(writer, "all", latency);
+            for (Map.Entry<String, LatencyHistogram> entry : latencyByType.entrySet())
+                writeLatency(writer, entry.getKey(), entry.getValue());
+            writer.write(String.format(" > Main thread -- (%.3fms/tick, p50: %.3fms, p99: %.3fms, max: %.3fms)%n",
+                    getMillisPerTick(), tickNanos.percentile(50.0) / 1_000_000.0,
+                    tickNanos.percentile(99.0) / 1_000_000.0, tickNanos.percentile(100.0) / 1_000_000.0));
+            if (allocatedBytes < 0L) {
+                writer.write(" > Allocation -- (not supported by this JVM)\n");
+            } else {
+                writer.write(String.format(" > Allocation -- (%.1fMB/s, main thread: %.1fKB/tick)%n",
+                        getAllocatedBytesPerSecond() / (1024.0 * 1024.0),
+                        ticks == 0L ? 0.0 : mainThreadAllocatedBytes / 1024.0 / ticks));
+            }
+            writer.flush();
+        }
+
+        private static void writeLatency(Writer writer, String name, LatencyHistogram histogram) throws IOException {
+            writer.write(String.format("   > %s -- (p50: %.1fus, p90: %.1fus, p99: %.1fus, max: %.1fus)%n", name,
+                    histogram.percentile(50.0) / 1_000.0, histogram.percentile(90.0) / 1_000.0,
+                    histogram.percentile(99.0) / 1_000.0, histogram.percentile(100.0) / 1_000.0));
+        }
+
+        @Override
+        public String toString() {
+            StringWriter writer = new StringWriter();
+            try {
+                print(writer);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            return writer.toString();
+        }
+    }
+}
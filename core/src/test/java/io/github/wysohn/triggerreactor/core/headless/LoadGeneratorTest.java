@@ -0,0 +1,65 @@
+package io.github.wysohn.triggerreactor.core.headless;
+
+import io.github.wysohn.triggerreactor.tools.FileUtil;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class LoadGeneratorTest {
+    @Test
+    public void testRun() throws Exception {
+        File dataFolder = Files.createTempDirectory("triggerreactor").toFile();
+        try {
+            LoadGenerator.Report report = new LoadGenerator(new LoadGenerator.Layout()
+                    .players(20)
+                    .worlds(2)
+                    .size(16)
+                    .ticks(40)
+                    .warmupTicks(10)
+                    .chances(1.0, 0.2, 0.1)
+                    .clickHitChance(1.0)
+                    .walkTriggers(64, "x = 1", false)
+                    .areaTriggers(2, 8, "x = 2", "x = 3", true)
+                    .customTriggers(2, "x = event.getMessage()", false))
+                    .run(dataFolder);
+
+            // the main thread keeps ticking while the generator notices the end of the run
+            assertTrue(report.toString(), report.getTicks() >= 40L);
+            assertTrue(report.getActivations() > 0L);
+            assertTrue(report.getActivationsPerSecond() > 0.0);
+            assertEquals(0L, report.getErrors());
+            for (String type : new String[]{"WalkTrigger", "ClickTrigger", "EnterTrigger", "ExitTrigger", "CustomTrigger"})
+                assertTrue(type + " in " + report.getLatencyByType().keySet(), report.getLatencyByType().containsKey(type));
+            assertTrue(report.getLatency().percentile(99.0) > 0L);
+            assertTrue(report.getMillisPerTick() > 0.0);
+            assertTrue(report.toString(), report.toString().contains(" > Main thread -- ("));
+        } finally {
+            FileUtil.delete(dataFolder);
+        }
+    }
+
+    @Test
+    public void testScriptErrors() throws Exception {
+        File dataFolder = Files.createTempDirectory("triggerreactor").toFile();
+        try {
+            LoadGenerator.Report report = new LoadGenerator(new LoadGenerator.Layout()
+                    .players(20)
+                    .size(16)
+                    .ticks(40)
+                    .warmupTicks(10)
+                    .chances(1.0, 0.0, 0.0)
+                    .walkTriggers(64, "event.noSuchMethod()", true)
+                    .clickTriggers(0, "", true)
+                    .areaTriggers(0, 8, "", "", true)
+                    .customTriggers(0, "", false))
+                    .run(dataFolder);
+
+            assertTrue(report.toString(), report.getErrors() > 0L);
+        } finally {
+            FileUtil.delete(dataFolder);
+        }
+    }
+}
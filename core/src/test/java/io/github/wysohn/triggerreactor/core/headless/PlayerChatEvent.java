@@ -0,0 +1,17 @@
+package io.github.wysohn.triggerreactor.core.headless;
+
+/**
+ * A player sent a chat message. Like the chat of a real server, it's fired off the main thread.
+ */
+public class PlayerChatEvent extends HeadlessPlayerEvent {
+    private final String message;
+
+    public PlayerChatEvent(HeadlessPlayer player, String message) {
+        super(player);
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,25 @@
+package io.github.wysohn.triggerreactor.core.headless;
+
+import io.github.wysohn.triggerreactor.core.manager.location.SimpleLocation;
+
+/**
+ * A player clicked a block.
+ */
+public class PlayerClickEvent extends HeadlessPlayerEvent {
+    private final SimpleLocation clicked;
+    private final boolean rightClick;
+
+    public PlayerClickEvent(HeadlessPlayer player, SimpleLocation clicked, boolean rightClick) {
+        super(player);
+        this.clicked = clicked;
+        this.rightClick = rightClick;
+    }
+
+    public SimpleLocation getClicked() {
+        return clicked;
+    }
+
+    public boolean isRightClick() {
+        return rightClick;
+    }
+}
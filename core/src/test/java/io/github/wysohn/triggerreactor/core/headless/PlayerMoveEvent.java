@@ -0,0 +1,28 @@
+package io.github.wysohn.triggerreactor.core.headless;
+
+import io.github.wysohn.triggerreactor.core.bridge.event.IPlayerBlockLocationEvent;
+import io.github.wysohn.triggerreactor.core.manager.location.SimpleLocation;
+
+/**
+ * A player moved from one block to another.
+ */
+public class PlayerMoveEvent extends HeadlessPlayerEvent implements IPlayerBlockLocationEvent {
+    private final SimpleLocation from;
+    private final SimpleLocation to;
+
+    public PlayerMoveEvent(HeadlessPlayer player, SimpleLocation from, SimpleLocation to) {
+        super(player);
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public SimpleLocation getFrom() {
+        return from;
+    }
+
+    @Override
+    public SimpleLocation getTo() {
+        return to;
+    }
+}
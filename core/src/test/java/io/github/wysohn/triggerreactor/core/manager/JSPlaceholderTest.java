@@ -0,0 +1,56 @@
+package io.github.wysohn.triggerreactor.core.manager;
+
+import io.github.wysohn.triggerreactor.core.manager.AbstractPlaceholderManager.JSPlaceholder;
+import io.github.wysohn.triggerreactor.core.script.interpreter.CacheScope;
+import io.github.wysohn.triggerreactor.core.script.interpreter.ThreadAffinity;
+import io.github.wysohn.triggerreactor.tools.timings.Timings;
+import org.junit.Test;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class JSPlaceholderTest {
+    private static final ScriptEngine engine = new ScriptEngineManager().getEngineByName("nashorn");
+
+    public static final AtomicInteger evaluated = new AtomicInteger();
+
+    @Test
+    public void testDeclaredBeforeFirstParse() throws Exception {
+        JSPlaceholder placeholder = new JSPlaceholder("test", engine, ""
+                + "var threadAffinity = 'ASYNC_PREFERRED';\n"
+                + "var cacheTtl = 1000;\n"
+                + "var cacheScope = 'GLOBAL';\n"
+                + "function test(args) { return 1; }");
+
+        assertEquals(ThreadAffinity.ASYNC_PREFERRED, placeholder.getThreadAffinity());
+        assertEquals(1000L, placeholder.getCacheTtl());
+        assertEquals(CacheScope.GLOBAL, placeholder.getCacheScope());
+    }
+
+    @Test
+    public void testNothingDeclared() throws Exception {
+        JSPlaceholder placeholder = new JSPlaceholder("test", engine, "function test(args) { return 1; }");
+
+        assertEquals(ThreadAffinity.MAIN_ONLY, placeholder.getThreadAffinity());
+        assertEquals(0L, placeholder.getCacheTtl());
+        assertEquals(CacheScope.ARGS, placeholder.getCacheScope());
+    }
+
+    @Test
+    public void testEvaluatedOnce() throws Exception {
+        evaluated.set(0);
+        JSPlaceholder placeholder = new JSPlaceholder("test", engine, ""
+                + "Java.type('" + JSPlaceholderTest.class.getName() + "').evaluated.incrementAndGet();\n"
+                + "var threadAffinity = 'ANY_THREAD';\n"
+                + "function test(args) { return 'ok'; }");
+
+        assertEquals(ThreadAffinity.ANY_THREAD, placeholder.getThreadAffinity());
+        assertEquals("ok", placeholder.parse(Timings.LIMBO, null, new HashMap<>()));
+        assertEquals("ok", placeholder.parse(Timings.LIMBO, null, new HashMap<>()));
+        assertEquals(1, evaluated.get());
+    }
+}
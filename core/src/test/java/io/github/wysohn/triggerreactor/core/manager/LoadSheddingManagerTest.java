@@ -0,0 +1,228 @@
+package io.github.wysohn.triggerreactor.core.manager;
+
+import io.github.wysohn.triggerreactor.core.config.source.IConfigSource;
+import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import io.github.wysohn.triggerreactor.core.manager.LoadSheddingManager.Level;
+import io.github.wysohn.triggerreactor.core.manager.LoadSheddingManager.Priority;
+import io.github.wysohn.triggerreactor.core.manager.trigger.CircuitBreaker;
+import io.github.wysohn.triggerreactor.core.manager.trigger.Trigger;
+import io.github.wysohn.triggerreactor.core.manager.trigger.TriggerInfo;
+import io.github.wysohn.triggerreactor.tools.Lag;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.powermock.reflect.Whitebox;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+
+public class LoadSheddingManagerTest {
+    private final List<String> logs = new ArrayList<>();
+    private TriggerReactorCore core;
+    private Lag lag;
+    private LoadSheddingManager manager;
+    private long clock;
+
+    @Before
+    public void init() {
+        Logger logger = Logger.getLogger("LoadSheddingManagerTest");
+        logger.setUseParentHandlers(false);
+        logger.addHandler(new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                logs.add(record.getMessage());
+            }
+
+            @Override
+            public void flush() {
+
+            }
+
+            @Override
+            public void close() {
+
+            }
+        });
+
+        lag = Mockito.mock(Lag.class);
+        Mockito.when(lag.getTPS(Mockito.anyInt())).thenReturn(20.0);
+
+        core = Mockito.mock(TriggerReactorCore.class);
+        Mockito.when(core.isConfigSet(Mockito.anyString())).thenReturn(true);
+        Mockito.when(core.getConfig(Mockito.eq("LoadShedding.Enable"), Mockito.any())).thenReturn(true);
+        Mockito.when(core.getConfig(Mockito.eq("LoadShedding.MinTps"), Mockito.any())).thenReturn(18.0);
+        Mockito.when(core.getConfig(Mockito.eq("LoadShedding.CriticalTps"), Mockito.any())).thenReturn(10.0);
+        Mockito.when(core.getConfig(Mockito.eq("LoadShedding.MaxTriggerMillisPerTick"), Mockito.any())).thenReturn(10.0);
+        // never lets the sampled ones through in practice
+        Mockito.when(core.getConfig(Mockito.eq("LoadShedding.SampleRate"), Mockito.any())).thenReturn(Integer.MAX_VALUE);
+        Mockito.when(core.getConfig(Mockito.eq("LoadShedding.ReportIntervalMillis"), Mockito.any())).thenReturn(0);
+        Mockito.when(core.getTpsHelper()).thenReturn(lag);
+        Mockito.when(core.getLogger()).thenReturn(logger);
+
+        manager = new LoadSheddingManager(core);
+        manager.reload();
+        clock = System.currentTimeMillis();
+    }
+
+    @After
+    public void cleanup() {
+        manager.disable();
+    }
+
+    private static Trigger trigger(Priority priority) {
+        Trigger trigger = Mockito.mock(Trigger.class);
+        Mockito.when(trigger.getLoadPriority()).thenReturn(priority);
+        return trigger;
+    }
+
+    private void evaluate(double tps) {
+        Mockito.when(lag.getTPS(Mockito.anyInt())).thenReturn(tps);
+        clock += 1000L;
+        manager.evaluate(clock);
+    }
+
+    @Test
+    public void testHealthy() {
+        evaluate(19.5);
+
+        assertEquals(Level.NONE, manager.getLevel());
+        assertTrue(LoadSheddingManager.admit(trigger(Priority.LOW)));
+        assertTrue(LoadSheddingManager.admit(trigger(Priority.NORMAL)));
+    }
+
+    @Test
+    public void testShed() {
+        evaluate(15.0);
+
+        assertEquals(Level.SHED, manager.getLevel());
+        assertFalse(LoadSheddingManager.admit(trigger(Priority.LOW)));
+        assertTrue(LoadSheddingManager.admit(trigger(Priority.NORMAL)));
+        assertTrue(LoadSheddingManager.admit(trigger(Priority.HIGH)));
+
+        // recovers
+        evaluate(20.0);
+        assertEquals(Level.NONE, manager.getLevel());
+        assertTrue(LoadSheddingManager.admit(trigger(Priority.LOW)));
+    }
+
+    @Test
+    public void testCritical() {
+        evaluate(5.0);
+
+        assertEquals(Level.CRITICAL, manager.getLevel());
+        assertFalse(LoadSheddingManager.admit(trigger(Priority.LOW)));
+        assertFalse(LoadSheddingManager.admit(trigger(Priority.NORMAL)));
+        assertTrue(LoadSheddingManager.admit(trigger(Priority.HIGH)));
+    }
+
+    @Test
+    public void testTriggerBudget() {
+        // 20 ticks worth of sync Triggers in a second, which is far more than 10ms per tick
+        LoadSheddingManager.onSyncExecution(1_000_000_000L);
+        evaluate(20.0);
+
+        assertEquals(Level.SHED, manager.getLevel());
+        assertFalse(LoadSheddingManager.admit(trigger(Priority.LOW)));
+    }
+
+    @Test
+    public void testReport() {
+        evaluate(15.0);
+        for (int i = 0; i < 3; i++)
+            LoadSheddingManager.admit(trigger(Priority.LOW));
+        evaluate(15.0);
+
+        assertTrue(logs.toString(), logs.stream().anyMatch(log -> log.startsWith("Load shedding: NONE -> SHED")));
+        assertTrue(logs.toString(), logs.stream().anyMatch(log -> log.startsWith("Load shedding skipped 3 trigger")));
+    }
+
+    @Test
+    public void testDisabled() {
+        evaluate(5.0);
+        manager.disable();
+
+        assertTrue(LoadSheddingManager.admit(trigger(Priority.LOW)));
+    }
+
+    @Test
+    public void testLoadPriority() {
+        IConfigSource config = Mockito.mock(IConfigSource.class);
+        Mockito.when(config.get(Trigger.LOAD_PRIORITY, String.class)).thenReturn(Optional.of("high"));
+        TriggerInfo info = TriggerInfo.defaultInfo(new File("test.trg"), config);
+
+        Trigger trigger = new Trigger(info, "") {
+            @Override
+            public Trigger clone() {
+                return null;
+            }
+        };
+        assertEquals(Priority.HIGH, trigger.getLoadPriority());
+    }
+
+    @Test
+    public void testDefaultLoadPriorityFollowsSync() {
+        IConfigSource config = Mockito.mock(IConfigSource.class);
+        Mockito.when(config.get(Trigger.LOAD_PRIORITY, String.class)).thenReturn(Optional.empty());
+        TriggerInfo info = TriggerInfo.defaultInfo(new File("test.trg"), config);
+
+        Trigger trigger = new Trigger(info, "") {
+            @Override
+            protected Priority getDefaultLoadPriority() {
+                return isSync() ? Priority.NORMAL : Priority.LOW;
+            }
+
+            @Override
+            public Trigger clone() {
+                return null;
+            }
+        };
+        assertEquals(Priority.LOW, trigger.getLoadPriority());
+
+        trigger.setSync(true);
+        assertEquals(Priority.NORMAL, trigger.getLoadPriority());
+    }
+
+    @Test
+    public void testShedHalfOpenTrial() {
+        IConfigSource config = Mockito.mock(IConfigSource.class);
+        Mockito.when(config.get(Trigger.LOAD_PRIORITY, String.class)).thenReturn(Optional.of("low"));
+        TriggerInfo info = TriggerInfo.defaultInfo(new File("test.trg"), config);
+
+        Trigger trigger = new Trigger(info, "") {
+            @Override
+            public Trigger clone() {
+                return null;
+            }
+        };
+
+        TriggerReactorCore instance = TriggerReactorCore.getInstance();
+        Whitebox.setInternalState(TriggerReactorCore.class, "instance", core);
+        CircuitBreaker.setThreshold(1);
+        CircuitBreaker.setCooldownMillis(0L);
+        try {
+            CircuitBreaker breaker = trigger.getCircuitBreaker();
+            assertEquals(CircuitBreaker.Result.TRIPPED, breaker.onFailure());
+
+            evaluate(15.0);
+            assertFalse(trigger.activate(new Object(), new HashMap<>()));
+
+            // the shed activation must not have taken the trial
+            assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+            assertTrue(breaker.allowActivation());
+            assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        } finally {
+            CircuitBreaker.setThreshold(5);
+            CircuitBreaker.setCooldownMillis(30_000L);
+            Whitebox.setInternalState(TriggerReactorCore.class, "instance", instance);
+        }
+    }
+}
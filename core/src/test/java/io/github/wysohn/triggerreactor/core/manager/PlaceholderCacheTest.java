@@ -0,0 +1,134 @@
+package io.github.wysohn.triggerreactor.core.manager;
+
+import io.github.wysohn.triggerreactor.core.script.interpreter.CacheScope;
+import io.github.wysohn.triggerreactor.core.script.interpreter.Placeholder;
+import io.github.wysohn.triggerreactor.tools.timings.Timings;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class PlaceholderCacheTest {
+
+    private static Placeholder counting(AtomicInteger calls, long ttl, CacheScope scope) {
+        return new Placeholder() {
+            @Override
+            public Object parse(Timings.Timing timing, Object context, Map<String, Object> vars,
+                                Object... args) throws Exception {
+                return calls.incrementAndGet();
+            }
+
+            @Override
+            public long getCacheTtl() {
+                return ttl;
+            }
+
+            @Override
+            public CacheScope getCacheScope() {
+                return scope;
+            }
+        };
+    }
+
+    private static Map<String, Object> player(Object player) {
+        Map<String, Object> vars = new HashMap<>();
+        vars.put("player", player);
+        return vars;
+    }
+
+    @Test
+    public void testTtl() throws Exception {
+        AtomicLong clock = new AtomicLong(0L);
+        PlaceholderCache cache = new PlaceholderCache(clock::get);
+        AtomicInteger calls = new AtomicInteger();
+        Placeholder placeholder = cache.wrap("tps", counting(calls, 1000L, CacheScope.GLOBAL));
+
+        assertEquals(1, placeholder.parse(Timings.LIMBO, null, player("a")));
+        clock.set(999L);
+        assertEquals(1, placeholder.parse(Timings.LIMBO, null, player("b"), 5));
+        clock.set(1000L);
+        assertEquals(2, placeholder.parse(Timings.LIMBO, null, player("a")));
+
+        assertEquals(1L, cache.getHits("tps"));
+        assertEquals(2L, cache.getMisses("tps"));
+    }
+
+    @Test
+    public void testScopes() throws Exception {
+        PlaceholderCache cache = new PlaceholderCache(() -> 0L);
+        AtomicInteger playerCalls = new AtomicInteger();
+        AtomicInteger argsCalls = new AtomicInteger();
+        Placeholder perPlayer = cache.wrap("money", counting(playerCalls, 1000L, CacheScope.PLAYER));
+        Placeholder perArgs = cache.wrap("mysql", counting(argsCalls, 1000L, CacheScope.ARGS));
+
+        perPlayer.parse(Timings.LIMBO, null, player("a"), "x");
+        perPlayer.parse(Timings.LIMBO, null, player("a"), "y");
+        perPlayer.parse(Timings.LIMBO, null, player("b"), "x");
+        assertEquals(2, playerCalls.get());
+
+        perArgs.parse(Timings.LIMBO, null, player("a"), "x");
+        perArgs.parse(Timings.LIMBO, null, player("a"), "x");
+        perArgs.parse(Timings.LIMBO, null, player("a"), "y");
+        perArgs.parse(Timings.LIMBO, null, player("b"), "x");
+        assertEquals(3, argsCalls.get());
+    }
+
+    @Test
+    public void testNotCached() throws Exception {
+        PlaceholderCache cache = new PlaceholderCache(() -> 0L);
+        AtomicInteger calls = new AtomicInteger();
+        Placeholder original = counting(calls, 0L, CacheScope.GLOBAL);
+        Placeholder placeholder = cache.wrap("random", original);
+        assertSame(original, placeholder);
+
+        placeholder.parse(Timings.LIMBO, null, player("a"));
+        placeholder.parse(Timings.LIMBO, null, player("a"));
+
+        assertEquals(2, calls.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testLru() throws Exception {
+        PlaceholderCache cache = new PlaceholderCache(() -> 0L);
+        cache.setMaxSize(2);
+        AtomicInteger calls = new AtomicInteger();
+        Placeholder placeholder = cache.wrap("money", counting(calls, 1000L, CacheScope.PLAYER));
+
+        placeholder.parse(Timings.LIMBO, null, player("a"));
+        placeholder.parse(Timings.LIMBO, null, player("b"));
+        placeholder.parse(Timings.LIMBO, null, player("a")); // b is the least recently used now
+        placeholder.parse(Timings.LIMBO, null, player("c"));
+        assertEquals(3, calls.get());
+        assertEquals(2, cache.size());
+        assertEquals(1L, cache.getEvictions());
+
+        placeholder.parse(Timings.LIMBO, null, player("a"));
+        assertEquals(3, calls.get());
+        placeholder.parse(Timings.LIMBO, null, player("b"));
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        PlaceholderCache cache = new PlaceholderCache(() -> 0L);
+        AtomicInteger calls = new AtomicInteger();
+        Placeholder placeholder = cache.wrap("money", counting(calls, 1000L, CacheScope.PLAYER));
+
+        placeholder.parse(Timings.LIMBO, null, player("a"));
+        placeholder.parse(Timings.LIMBO, null, player("b"));
+        cache.invalidate("money", "a");
+        assertEquals(1, cache.size());
+
+        placeholder.parse(Timings.LIMBO, null, player("a"));
+        placeholder.parse(Timings.LIMBO, null, player("b"));
+        assertEquals(3, calls.get());
+
+        cache.invalidate("money");
+        assertEquals(0, cache.size());
+    }
+}
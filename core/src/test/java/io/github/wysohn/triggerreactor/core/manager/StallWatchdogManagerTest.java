@@ -0,0 +1,183 @@
+package io.github.wysohn.triggerreactor.core.manager;
+
+import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import io.github.wysohn.triggerreactor.core.script.interpreter.Executor;
+import io.github.wysohn.triggerreactor.core.script.interpreter.Interpreter;
+import io.github.wysohn.triggerreactor.core.script.interpreter.TaskSupervisor;
+import io.github.wysohn.triggerreactor.core.script.lexer.Lexer;
+import io.github.wysohn.triggerreactor.core.script.parser.Node;
+import io.github.wysohn.triggerreactor.core.script.parser.Parser;
+import io.github.wysohn.triggerreactor.tools.timings.Timings;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+
+public class StallWatchdogManagerTest {
+    private final List<String> logs = new ArrayList<>();
+    private StallWatchdogManager manager;
+
+    @Before
+    public void init() {
+        Logger logger = Logger.getLogger("StallWatchdogManagerTest");
+        logger.setUseParentHandlers(false);
+        logger.addHandler(new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                synchronized (logs) {
+                    logs.add(record.getMessage());
+                }
+            }
+
+            @Override
+            public void flush() {
+
+            }
+
+            @Override
+            public void close() {
+
+            }
+        });
+
+        TriggerReactorCore core = Mockito.mock(TriggerReactorCore.class);
+        Mockito.when(core.isConfigSet(Mockito.anyString())).thenReturn(true);
+        Mockito.when(core.getConfig(Mockito.eq("Watchdog.Enable"), Mockito.any())).thenReturn(true);
+        Mockito.when(core.getConfig(Mockito.eq("Watchdog.ThresholdMillis"), Mockito.any())).thenReturn(20);
+        Mockito.when(core.getConfig(Mockito.eq("Watchdog.ReportIntervalMillis"), Mockito.any())).thenReturn(0);
+        Mockito.when(core.getLogger()).thenReturn(logger);
+
+        manager = new StallWatchdogManager(core);
+    }
+
+    @After
+    public void cleanup() {
+        manager.disable();
+    }
+
+    private static Interpreter interpreter(String script) throws Exception {
+        Map<String, Executor> executorMap = new HashMap<>();
+        executorMap.put("SLOW", new Executor() {
+            @Override
+            protected Integer execute(Timings.Timing timing, boolean sync, Map<String, Object> vars, Object context,
+                                      Object... args) throws Exception {
+                Thread.sleep(150L);
+                return null;
+            }
+        });
+
+        Interpreter interpreter = new Interpreter(new Parser(new Lexer(script, StandardCharsets.UTF_8)).parse());
+        interpreter.setExecutorMap(executorMap);
+        return interpreter;
+    }
+
+    private static void run(Interpreter outer, Interpreter inner) throws Exception {
+        StallWatchdogManager.Frame frame = StallWatchdogManager.enter("CommandTrigger.outer", outer);
+        try {
+            outer.startWithContextAndInterrupter(null, new Interpreter.ProcessInterrupter() {
+                @Override
+                public boolean onNodeProcess(Node node) {
+                    return false;
+                }
+
+                @Override
+                public boolean onCommand(Object context, String command, Object[] args) {
+                    if (!"CALL".equals(command))
+                        return false;
+
+                    StallWatchdogManager.Frame called = StallWatchdogManager.enter("NamedTrigger.inner", inner);
+                    try {
+                        inner.startWithContext(null);
+                    } catch (Exception ex) {
+                        throw new RuntimeException(ex);
+                    } finally {
+                        StallWatchdogManager.exit(called);
+                    }
+                    return true;
+                }
+
+                @Override
+                public Object onPlaceholder(Object context, String placeholder, Object[] args) {
+                    return null;
+                }
+            }, Timings.LIMBO);
+        } finally {
+            StallWatchdogManager.exit(frame);
+        }
+    }
+
+    @Test
+    public void testReport() throws Exception {
+        Interpreter outer = interpreter("x = 1\n#CALL \"inner\"");
+        Interpreter inner = interpreter("y = 2\n#SLOW");
+
+        // not watched until enabled
+        assertNull(StallWatchdogManager.enter("CommandTrigger.outer", outer));
+        run(outer, inner);
+        assertTrue(logs.isEmpty());
+
+        manager.reload();
+        long stalls = StallWatchdogManager.getStalls();
+        run(outer, inner);
+        manager.disable();
+
+        assertEquals(stalls + 1, StallWatchdogManager.getStalls());
+        synchronized (logs) {
+            assertEquals(1, logs.size());
+            String report = logs.get(0);
+            assertTrue(report, report.contains("CommandTrigger.outer (2:"));
+            assertTrue(report, report.contains("#CALL) > NamedTrigger.inner (2:"));
+            assertTrue(report, report.contains("#SLOW)"));
+        }
+    }
+
+    @Test
+    public void testSyncBlock() throws Exception {
+        Interpreter interpreter = interpreter("x = 1\nSYNC\n    #SLOW\nENDSYNC");
+        interpreter.setTrigger("WalkTrigger", "walk");
+        // the current thread plays the server thread
+        interpreter.setTaskSupervisor(new TaskSupervisor() {
+            @Override
+            public <T> Future<T> submitSync(Callable<T> call) {
+                try {
+                    return CompletableFuture.completedFuture(call.call());
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+
+            @Override
+            public void submitAsync(Runnable run) {
+                run.run();
+            }
+        });
+
+        manager.reload();
+        long stalls = StallWatchdogManager.getStalls();
+        // async Trigger, so only the SYNC block is watched
+        interpreter.startWithContext(null);
+        manager.disable();
+
+        assertEquals(stalls + 1, StallWatchdogManager.getStalls());
+        synchronized (logs) {
+            assertEquals(1, logs.size());
+            String report = logs.get(0);
+            assertTrue(report, report.contains("WalkTrigger.walk (SYNC) (3:"));
+            assertTrue(report, report.contains("#SLOW)"));
+        }
+    }
+}
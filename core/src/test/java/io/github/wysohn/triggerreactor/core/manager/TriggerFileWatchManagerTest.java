@@ -0,0 +1,103 @@
+package io.github.wysohn.triggerreactor.core.manager;
+
+import io.github.wysohn.triggerreactor.core.headless.HeadlessCore;
+import io.github.wysohn.triggerreactor.core.manager.location.SimpleLocation;
+import io.github.wysohn.triggerreactor.core.manager.trigger.Trigger;
+import io.github.wysohn.triggerreactor.tools.FileUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+public class TriggerFileWatchManagerTest {
+    private static final SimpleLocation LOCATION = new SimpleLocation("world", 1, 2, 3);
+    private static final SimpleLocation OTHER = new SimpleLocation("world", 4, 5, 6);
+
+    private File dataFolder;
+    private HeadlessCore core;
+    private File walkFolder;
+
+    @Before
+    public void init() throws Exception {
+        dataFolder = Files.createTempDirectory("triggerreactor").toFile();
+        core = new HeadlessCore(dataFolder);
+        core.setConfig("FileWatcher.Enable", true);
+        core.setConfig("FileWatcher.DebounceMillis", 50L);
+        core.start();
+
+        walkFolder = core.getWalkManager().getFolder();
+        waitUntil(() -> core.getTriggerFileWatchManager().isWatching());
+    }
+
+    @After
+    public void cleanup() {
+        core.stop();
+        FileUtil.delete(dataFolder);
+    }
+
+    private Trigger walkTrigger(SimpleLocation location) {
+        return core.getWalkManager().getTrigger(location);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long until = System.currentTimeMillis() + 10_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > until)
+                fail("Timed out");
+            Thread.sleep(10L);
+        }
+    }
+
+    @Test
+    public void testCreateModifyDelete() throws Exception {
+        File file = new File(walkFolder, LOCATION + ".trg");
+
+        FileUtil.writeToFile(file, "x = 1");
+        waitUntil(() -> walkTrigger(LOCATION) != null);
+        assertEquals("x = 1", walkTrigger(LOCATION).getScript());
+
+        FileUtil.writeToFile(file, "x = 2");
+        waitUntil(() -> "x = 2".equals(walkTrigger(LOCATION).getScript()));
+
+        assertTrue(file.delete());
+        waitUntil(() -> walkTrigger(LOCATION) == null);
+    }
+
+    @Test
+    public void testReloadOnlyChanged() throws Exception {
+        FileUtil.writeToFile(new File(walkFolder, LOCATION + ".trg"), "x = 1");
+        waitUntil(() -> walkTrigger(LOCATION) != null);
+        Trigger trigger = walkTrigger(LOCATION);
+
+        // the files of the editors
+        FileUtil.writeToFile(new File(walkFolder, LOCATION.toString()), "x = 3");
+        FileUtil.writeToFile(new File(walkFolder, "." + LOCATION + ".trg.swp"), "x = 4");
+        FileUtil.writeToFile(new File(walkFolder, LOCATION + ".trg~"), "x = 5");
+
+        FileUtil.writeToFile(new File(walkFolder, OTHER + ".trg"), "x = 6");
+        waitUntil(() -> walkTrigger(OTHER) != null);
+
+        assertSame(trigger, walkTrigger(LOCATION));
+        assertEquals("x = 1", walkTrigger(LOCATION).getScript());
+    }
+
+    @Test
+    public void testWaitForReload() throws Exception {
+        assertTrue(core.beginReload());
+        assertFalse(core.beginReload());
+        try {
+            FileUtil.writeToFile(new File(walkFolder, LOCATION + ".trg"), "x = 1");
+            Thread.sleep(500L);
+            assertNull(walkTrigger(LOCATION));
+        } finally {
+            core.endReload();
+        }
+
+        waitUntil(() -> walkTrigger(LOCATION) != null);
+    }
+}
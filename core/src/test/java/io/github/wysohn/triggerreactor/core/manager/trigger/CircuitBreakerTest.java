@@ -0,0 +1,123 @@
+package io.github.wysohn.triggerreactor.core.manager.trigger;
+
+import io.github.wysohn.triggerreactor.core.main.TriggerReactorCore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static org.junit.Assert.*;
+
+public class CircuitBreakerTest {
+    private long now;
+    private CircuitBreaker breaker;
+
+    @Before
+    public void init() {
+        CircuitBreaker.setThreshold(3);
+        CircuitBreaker.setWindowMillis(1000L);
+        CircuitBreaker.setCooldownMillis(5000L);
+
+        now = 0L;
+        breaker = new CircuitBreaker(() -> now);
+    }
+
+    @After
+    public void tearDown() {
+        CircuitBreaker.setThreshold(5);
+        CircuitBreaker.setWindowMillis(10_000L);
+        CircuitBreaker.setCooldownMillis(30_000L);
+    }
+
+    @Test
+    public void testTrip() {
+        assertEquals(CircuitBreaker.Result.REPORT, breaker.onFailure());
+        now += 100L;
+        assertEquals(CircuitBreaker.Result.REPORT, breaker.onFailure());
+        now += 100L;
+        assertEquals(CircuitBreaker.Result.TRIPPED, breaker.onFailure());
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowActivation());
+        assertFalse(breaker.allowActivation());
+        assertEquals(2, breaker.getSkippedActivations());
+
+        // in-flight activation failed while open
+        assertEquals(CircuitBreaker.Result.SUPPRESS, breaker.onFailure());
+        assertEquals(1, breaker.getSuppressedFailures());
+    }
+
+    @Test
+    public void testFailuresOutsideWindow() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(CircuitBreaker.Result.REPORT, breaker.onFailure());
+            now += 600L;
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowActivation());
+    }
+
+    @Test
+    public void testHalfOpen() {
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        now += 5000L;
+        assertTrue(breaker.allowActivation());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        // only one trial at a time
+        assertFalse(breaker.allowActivation());
+
+        // trial failed
+        assertEquals(CircuitBreaker.Result.REOPENED, breaker.onFailure());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowActivation());
+
+        now += 5000L;
+        assertTrue(breaker.allowActivation());
+        assertTrue(breaker.onSuccess());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertFalse(breaker.onSuccess());
+
+        // needs the full threshold again to trip
+        assertEquals(CircuitBreaker.Result.REPORT, breaker.onFailure());
+        assertEquals(CircuitBreaker.Result.REPORT, breaker.onFailure());
+        assertEquals(CircuitBreaker.Result.TRIPPED, breaker.onFailure());
+    }
+
+    @Test
+    public void testDisabled() {
+        CircuitBreaker.setThreshold(0);
+
+        for (int i = 0; i < 10; i++)
+            assertEquals(CircuitBreaker.Result.REPORT, breaker.onFailure());
+        assertTrue(breaker.allowActivation());
+    }
+
+    @Test
+    public void testLoadSettingsWithoutDefaults() {
+        TriggerReactorCore plugin = Mockito.mock(TriggerReactorCore.class);
+        Mockito.when(plugin.isConfigSet(Mockito.anyString())).thenReturn(true);
+
+        CircuitBreaker.loadSettings(plugin);
+
+        Mockito.verify(plugin, Mockito.never()).setConfig(Mockito.anyString(), Mockito.any());
+        Mockito.verify(plugin, Mockito.never()).saveConfig();
+    }
+
+    @Test
+    public void testLoadSettingsWritesMissingDefault() {
+        TriggerReactorCore plugin = Mockito.mock(TriggerReactorCore.class);
+        Mockito.when(plugin.isConfigSet(Mockito.anyString())).thenReturn(true);
+        Mockito.when(plugin.isConfigSet(CircuitBreaker.COOLDOWN)).thenReturn(false);
+
+        CircuitBreaker.loadSettings(plugin);
+
+        Mockito.verify(plugin).setConfig(CircuitBreaker.COOLDOWN, 5000L);
+        Mockito.verify(plugin, Mockito.never()).setConfig(Mockito.eq(CircuitBreaker.THRESHOLD), Mockito.any());
+        Mockito.verify(plugin).saveConfig();
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.wysohn.triggerreactor.core.manager.trigger.custom;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class EventHookListTest {
+
+    @Test
+    public void testPriorityOrder() {
+        List<String> called = new ArrayList<>();
+        EventHookList list = new EventHookList(Object.class);
+
+        list.add(e -> called.add("b"), 5);
+        list.add(e -> called.add("a"), -1);
+        list.add(e -> called.add("c"), 5);
+
+        list.onEvent(new Object());
+
+        assertEquals(Arrays.asList("a", "b", "c"), called);
+    }
+
+    @Test
+    public void testAddRemove() {
+        List<String> called = new ArrayList<>();
+        EventHookList list = new EventHookList(Object.class);
+
+        AbstractCustomTriggerManager.EventHook hookA = e -> called.add("a");
+        AbstractCustomTriggerManager.EventHook hookB = e -> called.add("b");
+        list.add(hookA, 0);
+        list.add(hookB, 0);
+        list.add(hookA, 1); // moves to the new priority instead of duplicating
+
+        assertEquals(2, list.size());
+        list.onEvent(new Object());
+        assertEquals(Arrays.asList("b", "a"), called);
+
+        assertTrue(list.remove(hookA));
+        assertFalse(list.remove(hookA));
+        assertTrue(list.remove(hookB));
+        assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void testReplaceWhileDispatching() {
+        List<String> called = new ArrayList<>();
+        EventHookList list = new EventHookList(Object.class);
+
+        list.add(e -> {
+            called.add("old");
+            list.replaceAll(Arrays.<AbstractCustomTriggerManager.EventHook>asList(e2 -> called.add("new")), hook -> 0);
+        }, 0);
+        list.add(e -> called.add("old2"), 0);
+
+        // the dispatch in progress keeps using the array it started with
+        list.onEvent(new Object());
+        assertEquals(Arrays.asList("old", "old2"), called);
+
+        called.clear();
+        list.onEvent(new Object());
+        assertEquals(Arrays.asList("new"), called);
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.wysohn.triggerreactor.core.script.interpreter;
+
+import io.github.wysohn.triggerreactor.core.script.validation.ValidationException;
+import io.github.wysohn.triggerreactor.tools.timings.Timings;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class NativeExecutorTest {
+
+    @NativeInfo(name = "SUM", minArgs = 1, maxArgs = 2, affinity = ThreadAffinity.ANY_THREAD)
+    private static class SumExecutor extends Executor {
+        @Override
+        protected Integer execute(Timings.Timing timing, boolean sync, Map<String, Object> vars, Object context,
+                                  Object... args) throws Exception {
+            int sum = 0;
+            for (Object arg : args)
+                sum += (Integer) arg;
+            vars.put("sum", sum);
+            return null;
+        }
+    }
+
+    @Test
+    public void testExecute() throws Exception {
+        NativeExecutor executor = new NativeExecutor(new SumExecutor());
+        Map<String, Object> vars = new HashMap<>();
+
+        executor.execute(Timings.LIMBO, false, vars, null, 1, 2);
+
+        assertEquals("SUM", executor.getInfo().name());
+        assertEquals(3, vars.get("sum"));
+    }
+
+    @Test
+    public void testArgumentCount() throws Exception {
+        NativeExecutor executor = new NativeExecutor(new SumExecutor());
+
+        try {
+            executor.execute(Timings.LIMBO, false, new HashMap<>(), null);
+            fail();
+        } catch (ValidationException ex) {
+            assertEquals("Incorrect number of arguments for executor SUM", ex.getMessage());
+        }
+
+        try {
+            executor.execute(Timings.LIMBO, false, new HashMap<>(), null, 1, 2, 3);
+            fail();
+        } catch (ValidationException ex) {
+            assertEquals("Incorrect number of arguments for executor SUM", ex.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotAnnotated() {
+        new NativeExecutor(new Executor() {
+            @Override
+            protected Integer execute(Timings.Timing timing, boolean sync, Map<String, Object> vars, Object context,
+                                      Object... args) {
+                return null;
+            }
+        });
+    }
+}
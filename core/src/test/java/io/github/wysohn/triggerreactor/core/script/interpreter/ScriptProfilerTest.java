@@ -0,0 +1,102 @@
+package io.github.wysohn.triggerreactor.core.script.interpreter;
+
+import io.github.wysohn.triggerreactor.core.script.lexer.Lexer;
+import io.github.wysohn.triggerreactor.core.script.parser.Node;
+import io.github.wysohn.triggerreactor.core.script.parser.Parser;
+import io.github.wysohn.triggerreactor.tools.timings.Timings;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ScriptProfilerTest {
+    private static final String SCRIPT = "x = 0\n"
+            + "WHILE x < 3\n"
+            + "    #SLOW\n"
+            + "    x = x + 1\n"
+            + "ENDWHILE\n";
+
+    private Interpreter interpreter(Node root) {
+        Map<String, Executor> executorMap = new HashMap<>();
+        executorMap.put("SLOW", new Executor() {
+            @Override
+            protected Integer execute(Timings.Timing timing, boolean sync, Map<String, Object> vars, Object context,
+                                      Object... args) throws Exception {
+                Thread.sleep(5L);
+                return null;
+            }
+        });
+
+        Interpreter interpreter = new Interpreter(root);
+        interpreter.setExecutorMap(executorMap);
+        return interpreter;
+    }
+
+    @Test
+    public void testListing() throws Exception {
+        Node root = new Parser(new Lexer(SCRIPT, StandardCharsets.UTF_8)).parse();
+        ScriptProfiler profiler = new ScriptProfiler("CustomTrigger.test", SCRIPT, root);
+
+        Interpreter interpreter = interpreter(root);
+        interpreter.setProfiler(profiler);
+        interpreter.startWithContext(null);
+
+        assertEquals(1L, profiler.getExecutions());
+        assertEquals(3, interpreter.getVars().get("x"));
+
+        StringWriter writer = new StringWriter();
+        profiler.writeListing(writer, 3);
+        String[] lines = writer.toString().split("\n");
+
+        assertTrue(lines[0], lines[0].startsWith("Profile of CustomTrigger.test -- (executions: 1"));
+        // the time of the executor is counted for its line
+        String slowLine = lines[4];
+        assertTrue(slowLine, slowLine.endsWith("|     #SLOW"));
+        assertEquals(3, Integer.parseInt(slowLine.substring(18, 28).trim()));
+        assertTrue(slowLine, Double.parseDouble(slowLine.substring(0, 10).trim()) >= 15.0);
+        assertTrue(writer.toString(), writer.toString().contains("Hot spots:\n > #SLOW (3:"));
+    }
+
+    @Test
+    public void testCollapsed() throws Exception {
+        Node root = new Parser(new Lexer(SCRIPT, StandardCharsets.UTF_8)).parse();
+        ScriptProfiler profiler = new ScriptProfiler("CustomTrigger.test", SCRIPT, root);
+
+        Interpreter interpreter = interpreter(root);
+        interpreter.setProfiler(profiler);
+        interpreter.startWithContext(null);
+
+        StringWriter writer = new StringWriter();
+        profiler.writeCollapsed(writer);
+
+        boolean found = false;
+        for (String line : writer.toString().split("\n")) {
+            String stack = line.substring(0, line.lastIndexOf(' '));
+            long micros = Long.parseLong(line.substring(line.lastIndexOf(' ') + 1));
+            assertTrue(line, stack.startsWith("CustomTrigger.test;"));
+
+            if (stack.matches("CustomTrigger\\.test;WHILE \\(2:\\d+\\);#SLOW \\(3:\\d+\\)")) {
+                found = true;
+                assertTrue(line, micros >= 15_000L);
+            }
+        }
+        assertTrue(writer.toString(), found);
+    }
+
+    @Test
+    public void testNotAttached() throws Exception {
+        Node root = new Parser(new Lexer(SCRIPT, StandardCharsets.UTF_8)).parse();
+        ScriptProfiler profiler = new ScriptProfiler("CustomTrigger.test", SCRIPT, root);
+
+        interpreter(root).startWithContext(null);
+
+        assertEquals(0L, profiler.getExecutions());
+        StringWriter writer = new StringWriter();
+        profiler.writeCollapsed(writer);
+        assertEquals("", writer.toString());
+    }
+}
@@ -0,0 +1,115 @@
+package io.github.wysohn.triggerreactor.core.script.interpreter;
+
+import io.github.wysohn.triggerreactor.core.script.lexer.Lexer;
+import io.github.wysohn.triggerreactor.core.script.parser.Node;
+import io.github.wysohn.triggerreactor.core.script.parser.Parser;
+import io.github.wysohn.triggerreactor.tools.timings.Timings;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class SyncRegionInferenceTest {
+    private final List<String> called = new ArrayList<>();
+
+    private Executor executor(String name, ThreadAffinity affinity) {
+        return new Executor() {
+            @Override
+            public ThreadAffinity getThreadAffinity() {
+                return affinity;
+            }
+
+            @Override
+            protected Integer execute(Timings.Timing timing, boolean sync, Map<String, Object> vars, Object context,
+                                      Object... args) {
+                called.add(name + Arrays.toString(args));
+                return null;
+            }
+        };
+    }
+
+    private Map<String, Executor> executors() {
+        Map<String, Executor> executorMap = new HashMap<>();
+        executorMap.put("MAIN", executor("MAIN", ThreadAffinity.MAIN_ONLY));
+        executorMap.put("ANY", executor("ANY", ThreadAffinity.ANY_THREAD));
+        return executorMap;
+    }
+
+    private Node parse(String text) throws Exception {
+        return new Parser(new Lexer(text, StandardCharsets.UTF_8)).parse();
+    }
+
+    @Test
+    public void testGrouping() throws Exception {
+        Node root = parse("#MAIN 1\n#MAIN 2\n#ANY 3\n#MAIN 4\nIF true\n#MAIN 5\n#MAIN 6\nENDIF\n");
+
+        Node inferred = new SyncRegionInference(executors(), new HashMap<>()).apply(root);
+
+        assertNotSame(root, inferred);
+        assertTrue(SyncRegionInference.isImplicitSync(inferred.getChildren().get(0)));
+        assertEquals(2, inferred.getChildren().get(0).getChildren().size());
+        // single statement is left as is
+        assertFalse(SyncRegionInference.isImplicitSync(inferred.getChildren().get(2)));
+        Node ifBody = inferred.getChildren().get(3).getChildren().get(1);
+        assertTrue(SyncRegionInference.isImplicitSync(ifBody.getChildren().get(0)));
+
+        // original tree is not modified
+        assertEquals(5, root.getChildren().size());
+        assertTrue(SyncRegionInference.dump(inferred).contains(SyncRegionInference.IMPLICIT_SYNC + " (2 statements)"));
+    }
+
+    @Test
+    public void testNothingToGroup() throws Exception {
+        Node root = parse("#MAIN 1\n#ANY 2\n#MAIN 3\n");
+
+        assertSame(root, new SyncRegionInference(executors(), new HashMap<>()).apply(root));
+    }
+
+    @Test
+    public void testMethodCallArgument() throws Exception {
+        Node root = parse("#MAIN db.lookup(player)\n#MAIN 2\n#MAIN 3\n");
+
+        Node inferred = new SyncRegionInference(executors(), new HashMap<>()).apply(root);
+
+        // the call stays in the thread of the Trigger
+        assertFalse(SyncRegionInference.isImplicitSync(inferred.getChildren().get(0)));
+        assertTrue(SyncRegionInference.isImplicitSync(inferred.getChildren().get(1)));
+        assertEquals(2, inferred.getChildren().get(1).getChildren().size());
+    }
+
+    @Test
+    public void testSingleHop() throws Exception {
+        Node root = parse("#MAIN 1\n#MAIN 2\n#MAIN 3\n#STOP\n#MAIN 4\n");
+        Map<String, Executor> executorMap = executors();
+
+        Interpreter interpreter = new Interpreter(new SyncRegionInference(executorMap, new HashMap<>()).apply(root));
+        interpreter.setExecutorMap(executorMap);
+        int[] hops = new int[1];
+        interpreter.setTaskSupervisor(new TaskSupervisor() {
+            @Override
+            public <T> Future<T> submitSync(Callable<T> call) {
+                hops[0]++;
+                try {
+                    return CompletableFuture.completedFuture(call.call());
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+
+            @Override
+            public void submitAsync(Runnable run) {
+                run.run();
+            }
+        });
+
+        interpreter.startWithContext(null);
+
+        assertEquals(1, hops[0]);
+        assertEquals(Arrays.asList("MAIN[1]", "MAIN[2]", "MAIN[3]"), called);
+    }
+}
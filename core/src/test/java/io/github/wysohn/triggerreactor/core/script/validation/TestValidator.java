@@ -0,0 +1,81 @@
+package io.github.wysohn.triggerreactor.core.script.validation;
+
+import jdk.nashorn.api.scripting.JSObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+
+import static org.junit.Assert.*;
+
+public class TestValidator {
+    private ScriptEngine engine;
+
+    @Before
+    public void init() {
+        engine = new ScriptEngineManager().getEngineByName("nashorn");
+    }
+
+    private Validator validator(String overloads) throws Exception {
+        return Validator.from((JSObject) engine.eval("({overloads: " + overloads + "})"));
+    }
+
+    @Test
+    public void testOverloadByArity() throws Exception {
+        Validator validator = validator("[[], [{type: 'string', name: 'message'}], "
+                + "[{type: 'number', name: 'x'}, {type: 'number', name: 'y'}]]");
+
+        assertEquals(0, validator.validate().getOverload());
+        assertEquals(1, validator.validate("hi").getOverload());
+        assertEquals(2, validator.validate(1, 2.5).getOverload());
+
+        ValidationResult result = validator.validate(1, 2, 3);
+        assertEquals(-1, result.getOverload());
+        assertEquals("Incorrect number of arguments: 3", result.getError());
+    }
+
+    @Test
+    public void testErrorMessage() throws Exception {
+        Validator validator = validator("[[{type: 'int', name: 'amount', minimum: 1}]]");
+
+        assertEquals(0, validator.validate(5).getOverload());
+        assertNull(validator.validate(5).getError());
+
+        ValidationResult result = validator.validate(0);
+        assertEquals(-1, result.getOverload());
+        assertEquals("Could not match <amount (int)> because amount must be greater than or equal to 1\n",
+                result.getError());
+
+        result = validator.validate("five");
+        assertEquals(-1, result.getOverload());
+        assertEquals("Could not match <amount (int)> because amount must be a whole number\n", result.getError());
+    }
+
+    @Test
+    public void testDeclaredOrderAfterLastMatch() throws Exception {
+        Validator validator = validator("[[{type: 'int', name: 'x'}], [{type: 'number', name: 'x'}], "
+                + "[{type: 'string', name: 'x'}]]");
+
+        assertEquals(1, validator.validate(2.5).getOverload());
+        // same class as last time, but the first overload still comes first
+        assertEquals(0, validator.validate(3.0).getOverload());
+        assertEquals(1, validator.validate(2.5).getOverload());
+
+        assertEquals(2, validator.validate("a").getOverload());
+        assertEquals(2, validator.validate("b").getOverload());
+        assertEquals(0, validator.validate(1).getOverload());
+        assertEquals(-1, validator.validate(true).getOverload());
+    }
+
+    @Test
+    public void testClassType() throws Exception {
+        engine.put("clazz", CharSequence.class);
+        Validator validator = validator("[[{type: clazz, name: 'text'}]]");
+
+        assertEquals(0, validator.validate("a").getOverload());
+        assertEquals(0, validator.validate(new StringBuilder("a")).getOverload());
+        assertEquals("Could not match <text (CharSequence)> because text must not be null\n",
+                validator.validate((Object) null).getError());
+    }
+}
@@ -0,0 +1,167 @@
+package io.github.wysohn.triggerreactor.tools;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class GeneratedInvokersTest {
+    private long threshold;
+    private int maxClasses;
+
+    @Before
+    public void init() {
+        threshold = GeneratedInvokers.getThreshold();
+        maxClasses = GeneratedInvokers.getMaxClasses();
+        ReflectionCache.clear();
+
+        GeneratedInvokers.setEnabled(true);
+        GeneratedInvokers.setThreshold(2);
+    }
+
+    @After
+    public void cleanup() {
+        GeneratedInvokers.setEnabled(false);
+        GeneratedInvokers.setThreshold(threshold);
+        GeneratedInvokers.setMaxClasses(maxClasses);
+        ReflectionCache.clear();
+    }
+
+    private static Object callStatic(String name, Object... args) throws Exception {
+        return ReflectionUtil.invokeMethod(GeneratedInvokersTest.class, (Object) null, name, args);
+    }
+
+    @Test
+    public void testStatic() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            // Integer is unboxed and widened to double as the reflection does
+            assertEquals(3.0 + i, (double) callStatic("add", 3, (double) i), 0.0);
+        }
+
+        assertEquals(1, GeneratedInvokers.getGenerated());
+        assertTrue(ReflectionCache.getResolved().get(0).hasInvoker());
+        assertEquals(5L, ReflectionCache.getResolved().get(0).getCalls());
+    }
+
+    @Test
+    public void testInstanceAndVoid() throws Exception {
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ReflectionUtil.invokeMethod(list, "add", i);
+            ReflectionUtil.invokeMethod(list, "clear");
+            ReflectionUtil.invokeMethod(list, "add", i);
+        }
+
+        assertEquals(4, list.get(0));
+        assertEquals(1, list.size());
+        assertEquals(2, GeneratedInvokers.getGenerated());
+    }
+
+    @Test
+    public void testVarargsAndEnum() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(3, callStatic("count", "a", "b", "c"));
+            assertEquals(TimeUnit.SECONDS, callStatic("unit", "SECONDS"));
+        }
+
+        assertEquals(2, GeneratedInvokers.getGenerated());
+    }
+
+    @Test
+    public void testException() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            try {
+                callStatic("fail");
+                fail();
+            } catch (InvocationTargetException ex) {
+                assertTrue(ex.getCause() instanceof IllegalStateException);
+            }
+        }
+
+        assertEquals(1, GeneratedInvokers.getGenerated());
+    }
+
+    @Test
+    public void testMaxClasses() throws Exception {
+        GeneratedInvokers.setMaxClasses(1);
+
+        for (int i = 0; i < 5; i++) {
+            callStatic("add", 1, 1.0);
+            callStatic("count", "a");
+        }
+
+        assertEquals(1, GeneratedInvokers.getGenerated());
+        assertEquals(2.0, (double) callStatic("add", 1, 1.0), 0.0);
+        assertEquals(1, callStatic("count", "a"));
+    }
+
+    @Test
+    public void testEvicted() throws Exception {
+        int cacheSize = ReflectionCache.getMaxSize();
+        GeneratedInvokers.setMaxClasses(1);
+        ReflectionCache.setMaxSize(1);
+        try {
+            for (int i = 0; i < 5; i++)
+                callStatic("add", 1, 1.0);
+            assertEquals(1, GeneratedInvokers.getGenerated());
+
+            // add is evicted, so count can have the invoker
+            for (int i = 0; i < 5; i++)
+                callStatic("count", "a");
+            assertEquals(1, GeneratedInvokers.getGenerated());
+            assertTrue(ReflectionCache.getResolved().get(0).hasInvoker());
+
+            ReflectionCache.invalidate(GeneratedInvokersTest.class.getClassLoader());
+            assertEquals(0, GeneratedInvokers.getGenerated());
+        } finally {
+            ReflectionCache.setMaxSize(cacheSize);
+        }
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        GeneratedInvokers.setEnabled(false);
+
+        for (int i = 0; i < 5; i++)
+            callStatic("add", 1, 1.0);
+
+        assertEquals(0, GeneratedInvokers.getGenerated());
+        assertEquals(0L, ReflectionCache.getResolved().get(0).getCalls());
+    }
+
+    @Test
+    public void testPrintStats() throws Exception {
+        for (int i = 0; i < 5; i++)
+            callStatic("add", 1, 1.0);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GeneratedInvokers.printStats(out, 10);
+
+        String result = out.toString();
+        assertTrue(result, result.contains("Generated Invokers[1/"));
+        assertTrue(result, result.contains("GeneratedInvokersTest.add(2) -- (calls: 5, generated)"));
+    }
+
+    public static double add(double a, double b) {
+        return a + b;
+    }
+
+    public static int count(String... values) {
+        return values.length;
+    }
+
+    public static TimeUnit unit(TimeUnit unit) {
+        return unit;
+    }
+
+    public static void fail() {
+        throw new IllegalStateException();
+    }
+}
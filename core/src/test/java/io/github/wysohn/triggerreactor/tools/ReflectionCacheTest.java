@@ -0,0 +1,122 @@
+package io.github.wysohn.triggerreactor.tools;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ReflectionCacheTest {
+    private int maxSize;
+
+    @Before
+    public void init() {
+        maxSize = ReflectionCache.getMaxSize();
+        ReflectionCache.clear();
+    }
+
+    @After
+    public void cleanup() {
+        ReflectionCache.setMaxSize(maxSize);
+        ReflectionCache.clear();
+    }
+
+    @Test
+    public void testResolveOnce() throws Exception {
+        assertEquals("int", ReflectionUtil.invokeMethod(ReflectionCacheTest.class, (Object) null, "overload", 1));
+        assertEquals(1, ReflectionCache.size());
+
+        // same argument classes use the same entry
+        assertEquals("int", ReflectionUtil.invokeMethod(ReflectionCacheTest.class, (Object) null, "overload", 2));
+        assertEquals(1, ReflectionCache.size());
+
+        assertEquals("double", ReflectionUtil.invokeMethod(ReflectionCacheTest.class, (Object) null, "overload", 2.0));
+        assertEquals("varargs2", ReflectionUtil.invokeMethod(ReflectionCacheTest.class, (Object) null, "overload", "a", "b"));
+        assertEquals("varargs3", ReflectionUtil.invokeMethod(ReflectionCacheTest.class, (Object) null, "overload", "a", "b", "c"));
+        assertEquals(4, ReflectionCache.size());
+    }
+
+    @Test
+    public void testEnumConversion() throws Exception {
+        // the conversion is planned once, but applied to each value
+        assertEquals(TimeUnit.SECONDS, ReflectionUtil.invokeMethod(ReflectionCacheTest.class, (Object) null, "unit", "SECONDS"));
+        assertEquals(TimeUnit.DAYS, ReflectionUtil.invokeMethod(ReflectionCacheTest.class, (Object) null, "unit", "DAYS"));
+        assertEquals(1, ReflectionCache.size());
+
+        try {
+            ReflectionUtil.invokeMethod(ReflectionCacheTest.class, (Object) null, "unit", "NOT_A_UNIT");
+            fail();
+        } catch (RuntimeException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testConstructNew() throws Exception {
+        assertEquals("a", ((StringBuilder) ReflectionUtil.constructNew(StringBuilder.class, "a")).toString());
+        assertEquals("b", ((StringBuilder) ReflectionUtil.constructNew(StringBuilder.class, "b")).toString());
+        assertEquals(1, ReflectionCache.size());
+    }
+
+    @Test
+    public void testBounded() throws Exception {
+        ReflectionCache.setMaxSize(2);
+
+        ReflectionUtil.invokeMethod(ReflectionCacheTest.class, (Object) null, "overload", 1);
+        ReflectionUtil.invokeMethod(ReflectionCacheTest.class, (Object) null, "overload", 1.0);
+        ReflectionUtil.invokeMethod(ReflectionCacheTest.class, (Object) null, "overload", "a");
+        assertEquals(2, ReflectionCache.size());
+
+        ReflectionCache.setMaxSize(0);
+        assertEquals("int", ReflectionUtil.invokeMethod(ReflectionCacheTest.class, (Object) null, "overload", 1));
+        assertEquals(0, ReflectionCache.size());
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        ReflectionUtil.invokeMethod(ReflectionCacheTest.class, (Object) null, "overload", 1);
+        ReflectionUtil.constructNew(StringBuilder.class, "a");
+        assertEquals(2, ReflectionCache.size());
+
+        // unrelated class loader
+        ReflectionCache.invalidate(new ClassLoader(null) {
+        });
+        assertEquals(2, ReflectionCache.size());
+
+        // the test classes are loaded by this; StringBuilder is loaded by the bootstrap loader
+        ReflectionCache.invalidate(ReflectionCacheTest.class.getClassLoader());
+        assertEquals(1, ReflectionCache.size());
+    }
+
+    @Test
+    public void testForName() throws Exception {
+        ClassLoader loader = ReflectionCacheTest.class.getClassLoader();
+        assertSame(ReflectionCacheTest.class, ReflectionCache.forName(ReflectionCacheTest.class.getName(), loader));
+        assertSame(ReflectionCacheTest.class, ReflectionCache.forName(ReflectionCacheTest.class.getName(), loader));
+
+        try {
+            ReflectionCache.forName("not.existing.Clazz", loader);
+            fail();
+        } catch (ClassNotFoundException ex) {
+            // expected
+        }
+    }
+
+    public static String overload(int value) {
+        return "int";
+    }
+
+    public static String overload(double value) {
+        return "double";
+    }
+
+    public static String overload(String... values) {
+        return "varargs" + values.length;
+    }
+
+    public static TimeUnit unit(TimeUnit unit) {
+        return unit;
+    }
+}
@@ -0,0 +1,123 @@
+package io.github.wysohn.triggerreactor.tools.jfr;
+
+import io.github.wysohn.triggerreactor.core.headless.HeadlessCore;
+import io.github.wysohn.triggerreactor.core.headless.HeadlessPlayer;
+import io.github.wysohn.triggerreactor.core.manager.location.SimpleLocation;
+import io.github.wysohn.triggerreactor.tools.FileUtil;
+import io.github.wysohn.triggerreactor.tools.timings.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class JfrEventsTest {
+    private static void emit() throws Exception {
+        Object trigger = JfrEvents.beginTrigger();
+        Object executor = JfrEvents.beginExecutor();
+        Thread.sleep(5L);
+        JfrEvents.commitExecutor(executor, "SLOW", "CommandTrigger", "test");
+        Object placeholder = JfrEvents.beginPlaceholder();
+        JfrEvents.commitPlaceholder(placeholder, "name", null, null);
+        JfrEvents.commitTrigger(trigger, "CommandTrigger", "test", true, false);
+
+        Object hop = JfrEvents.beginSyncHop();
+        JfrEvents.commitSyncHop(hop, "worker");
+        Object flush = JfrEvents.beginConfigFlush();
+        JfrEvents.commitConfigFlush(flush, "var.json");
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        // no recording, so nothing is created
+        assertNull(JfrEvents.beginTrigger());
+        assertNull(JfrEvents.beginExecutor());
+        assertNull(JfrEvents.beginSyncHop());
+
+        // null is ignored
+        JfrEvents.commitTrigger(null, "CommandTrigger", "test", true, false);
+    }
+
+    @Test
+    public void testRecording() throws Exception {
+        assertTrue(JfrEvents.isSupported());
+
+        Path path = File.createTempFile("triggerreactor", ".jfr").toPath();
+        try (Recording recording = new Recording()) {
+            for (String name : new String[]{"TriggerActivation", "Executor", "Placeholder", "SyncHop", "ConfigFlush"})
+                recording.enable("triggerreactor." + name).withoutThreshold();
+            recording.start();
+            emit();
+            recording.stop();
+            recording.dump(path);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(path);
+        path.toFile().delete();
+        assertEquals(5, events.size());
+
+        RecordedEvent trigger = find(events, "triggerreactor.TriggerActivation");
+        assertEquals("CommandTrigger", trigger.getString("triggerType"));
+        assertEquals("test", trigger.getString("triggerName"));
+        assertTrue(trigger.getBoolean("sync"));
+        assertFalse(trigger.getBoolean("failed"));
+
+        RecordedEvent executor = find(events, "triggerreactor.Executor");
+        assertEquals("SLOW", executor.getString("executor"));
+        assertEquals("test", executor.getString("triggerName"));
+        assertTrue(executor.getDuration().toMillis() >= 5L);
+        // the executor is within the activation
+        assertTrue(trigger.getDuration().compareTo(executor.getDuration()) >= 0);
+
+        assertNull(find(events, "triggerreactor.Placeholder").getString("triggerName"));
+        assertEquals("worker", find(events, "triggerreactor.SyncHop").getString("origin"));
+        assertEquals("var.json", find(events, "triggerreactor.ConfigFlush").getString("file"));
+    }
+
+    @Test
+    public void testScriptError() throws Exception {
+        File dataFolder = Files.createTempDirectory("triggerreactor").toFile();
+        HeadlessCore core = new HeadlessCore(dataFolder);
+        Path path = File.createTempFile("triggerreactor", ".jfr").toPath();
+        try {
+            core.start();
+            core.getCustomManager().createCustomTrigger("onChat", "broken", "event.noSuchMethod()");
+            core.getCustomManager().get("broken").setSync(true);
+            HeadlessPlayer player = core.callSyncMethod(() -> core.join("chatter",
+                    new SimpleLocation("world", 0, 64, 0))).get();
+
+            long recorded = FlightRecorder.TRIGGERS.getRecorded();
+            try (Recording recording = new Recording()) {
+                recording.enable("triggerreactor.TriggerActivation").withoutThreshold();
+                recording.start();
+                core.chat(player, "hello");
+                // sync Trigger from another thread, so it's done after the chat returns
+                assertEquals(recorded + 1, FlightRecorder.TRIGGERS.getRecorded());
+                recording.stop();
+                recording.dump(path);
+            }
+
+            RecordedEvent trigger = find(RecordingFile.readAllEvents(path), "triggerreactor.TriggerActivation");
+            assertEquals("broken", trigger.getString("triggerName"));
+            assertTrue(trigger.getBoolean("failed"));
+        } finally {
+            core.stop();
+            path.toFile().delete();
+            FileUtil.delete(dataFolder);
+        }
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String name) {
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(name))
+                return event;
+        }
+        throw new AssertionError(name + " not found in " + events);
+    }
+}
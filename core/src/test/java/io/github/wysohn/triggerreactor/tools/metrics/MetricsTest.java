@@ -0,0 +1,88 @@
+package io.github.wysohn.triggerreactor.tools.metrics;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class MetricsTest {
+    @Before
+    public void init() {
+        Metrics.reset();
+        Metrics.on = true;
+    }
+
+    @After
+    public void cleanup() {
+        Metrics.on = false;
+        Metrics.reset();
+    }
+
+    private static String write() throws Exception {
+        StringWriter writer = new StringWriter();
+        Metrics.write(writer);
+        return writer.toString();
+    }
+
+    @Test
+    public void testCounter() throws Exception {
+        Metrics.TRIGGER_ACTIVATIONS.labels("CommandTrigger", "test").inc();
+        Metrics.TRIGGER_ACTIVATIONS.labels("CommandTrigger", "test").inc();
+        Metrics.TRIGGER_ACTIVATIONS.labels("CustomTrigger", "say \"hi\"").inc(3);
+
+        String result = write();
+        assertTrue(result, result.contains("# TYPE triggerreactor_trigger_activations_total counter\n"));
+        assertTrue(result, result.contains(
+                "triggerreactor_trigger_activations_total{type=\"CommandTrigger\",trigger=\"test\"} 2\n"));
+        assertTrue(result, result.contains(
+                "triggerreactor_trigger_activations_total{type=\"CustomTrigger\",trigger=\"say \\\"hi\\\"\"} 3\n"));
+    }
+
+    @Test
+    public void testHistogram() throws Exception {
+        Metrics.EXECUTOR_DURATION.labels("MESSAGE").record(TimeUnit.MICROSECONDS.toNanos(50));
+        Metrics.EXECUTOR_DURATION.labels("MESSAGE").record(TimeUnit.MILLISECONDS.toNanos(3));
+        Metrics.EXECUTOR_DURATION.labels("MESSAGE").record(TimeUnit.SECONDS.toNanos(20));
+
+        String result = write();
+        assertTrue(result, result.contains("# TYPE triggerreactor_executor_duration_seconds histogram\n"));
+        assertTrue(result, result.contains(
+                "triggerreactor_executor_duration_seconds_bucket{executor=\"MESSAGE\",le=\"0.0001\"} 1\n"));
+        assertTrue(result, result.contains(
+                "triggerreactor_executor_duration_seconds_bucket{executor=\"MESSAGE\",le=\"0.005\"} 2\n"));
+        assertTrue(result, result.contains(
+                "triggerreactor_executor_duration_seconds_bucket{executor=\"MESSAGE\",le=\"10\"} 2\n"));
+        assertTrue(result, result.contains(
+                "triggerreactor_executor_duration_seconds_bucket{executor=\"MESSAGE\",le=\"+Inf\"} 3\n"));
+        assertTrue(result, result.contains(
+                "triggerreactor_executor_duration_seconds_sum{executor=\"MESSAGE\"} 20.00305\n"));
+        assertTrue(result, result.contains(
+                "triggerreactor_executor_duration_seconds_count{executor=\"MESSAGE\"} 3\n"));
+    }
+
+    @Test
+    public void testSyncHop() throws Exception {
+        Callable<String> call = () -> "done";
+        Callable<String> wrapped = Metrics.syncHop(call);
+        assertNotSame(call, wrapped);
+        assertTrue(write(), write().contains("triggerreactor_sync_hops_pending 1\n"));
+
+        assertEquals("done", wrapped.call());
+        String result = write();
+        assertTrue(result, result.contains("triggerreactor_sync_hops_pending 0\n"));
+        assertTrue(result, result.contains("triggerreactor_sync_hop_wait_seconds_count 1\n"));
+
+        Metrics.on = false;
+        assertSame(call, Metrics.syncHop(call));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongLabels() {
+        Metrics.TRIGGER_ERRORS.labels("CommandTrigger");
+    }
+}
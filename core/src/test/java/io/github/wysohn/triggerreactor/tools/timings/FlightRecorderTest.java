@@ -0,0 +1,117 @@
+package io.github.wysohn.triggerreactor.tools.timings;
+
+import io.github.wysohn.gsoncopy.JsonArray;
+import io.github.wysohn.gsoncopy.JsonObject;
+import io.github.wysohn.gsoncopy.JsonParser;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class FlightRecorderTest {
+    @Test
+    public void testCapacity() {
+        assertEquals(8, new FlightRecorder(8).getCapacity());
+        assertEquals(16, new FlightRecorder(9).getCapacity());
+        assertEquals(2, new FlightRecorder(0).getCapacity());
+    }
+
+    @Test
+    public void testSnapshot() {
+        FlightRecorder recorder = new FlightRecorder(4);
+        assertTrue(recorder.snapshot().isEmpty());
+
+        UUID uuid = UUID.randomUUID();
+        for (int i = 0; i < 6; i++) {
+            recorder.record("CommandTrigger", "test" + i, Thread.currentThread(), i * 100L, 10L,
+                    i % 2 == 0, i == 5 ? FlightRecorder.Outcome.ERROR : FlightRecorder.Outcome.OK, i == 4 ? uuid : null);
+        }
+
+        // only the last 4 are kept, the oldest first
+        List<FlightRecorder.Record> records = recorder.snapshot();
+        assertEquals(6L, recorder.getRecorded());
+        assertEquals(4, records.size());
+        for (int i = 0; i < 4; i++) {
+            FlightRecorder.Record record = records.get(i);
+            assertEquals(i + 2L, record.getSeq());
+            assertEquals("test" + (i + 2), record.getName());
+            assertEquals((i + 2) * 100L, record.getStartNanos());
+            assertEquals(i % 2 == 0, record.isSync());
+            assertSame(Thread.currentThread(), record.getThread());
+        }
+        assertEquals(uuid, records.get(2).getPlayer());
+        assertNull(records.get(3).getPlayer());
+        assertEquals(FlightRecorder.Outcome.ERROR, records.get(3).getOutcome());
+    }
+
+    @Test
+    public void testConcurrentRecords() throws Exception {
+        FlightRecorder recorder = new FlightRecorder(64);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            String name = "thread" + t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    // every field tells the same number, so a torn record can be found
+                    recorder.record(name, name, Thread.currentThread(), i, i, false,
+                            FlightRecorder.Outcome.OK, null);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+
+        for (int i = 0; i < 100; i++) {
+            for (FlightRecorder.Record record : recorder.snapshot()) {
+                assertEquals(record.getStartNanos(), record.getDurationNanos());
+                assertEquals(record.getType(), record.getName());
+            }
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        assertEquals(40_000L, recorder.getRecorded());
+        assertEquals(64, recorder.snapshot().size());
+    }
+
+    @Test
+    public void testWriteTrace() throws Exception {
+        FlightRecorder recorder = new FlightRecorder(8);
+        UUID uuid = UUID.randomUUID();
+        recorder.record("CommandTrigger", "a", Thread.currentThread(), 1_000_000L, 2_000L, true,
+                FlightRecorder.Outcome.OK, uuid);
+        recorder.record("NamedTrigger", "b", Thread.currentThread(), 1_500_000L, 500_000L, false,
+                FlightRecorder.Outcome.ERROR, null);
+
+        StringWriter writer = new StringWriter();
+        recorder.writeTrace(writer);
+
+        JsonObject trace = new JsonParser().parse(writer.toString()).getAsJsonObject();
+        JsonArray events = trace.getAsJsonArray("traceEvents");
+        assertEquals(3, events.size());
+
+        JsonObject first = events.get(0).getAsJsonObject();
+        assertEquals("CommandTrigger.a", first.get("name").getAsString());
+        assertEquals("sync", first.get("cat").getAsString());
+        assertEquals("X", first.get("ph").getAsString());
+        assertEquals(0.0, first.get("ts").getAsDouble(), 0.0);
+        assertEquals(2.0, first.get("dur").getAsDouble(), 0.0);
+        assertEquals(Thread.currentThread().getId(), first.get("tid").getAsLong());
+        assertEquals(uuid.toString(), first.getAsJsonObject("args").get("player").getAsString());
+
+        JsonObject second = events.get(1).getAsJsonObject();
+        assertEquals("async", second.get("cat").getAsString());
+        assertEquals(500.0, second.get("ts").getAsDouble(), 0.0);
+        assertEquals("ERROR", second.getAsJsonObject("args").get("outcome").getAsString());
+        assertFalse(second.getAsJsonObject("args").has("player"));
+
+        JsonObject thread = events.get(2).getAsJsonObject();
+        assertEquals("thread_name", thread.get("name").getAsString());
+        assertEquals(Thread.currentThread().getName(), thread.getAsJsonObject("args").get("name").getAsString());
+        assertEquals(2L, trace.getAsJsonObject("otherData").get("recorded").getAsLong());
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.wysohn.triggerreactor.tools.timings;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBuckets() {
+        long previous = -1L;
+        for (int i = 0; i < 100; i++) {
+            long upperBound = LatencyHistogram.upperBoundOf(i);
+            assertTrue(upperBound > previous);
+            assertEquals(i, LatencyHistogram.indexOf(upperBound));
+            assertEquals(i, LatencyHistogram.indexOf(previous + 1));
+            previous = upperBound;
+        }
+
+        assertEquals(LatencyHistogram.indexOf(Long.MAX_VALUE),
+                LatencyHistogram.indexOf(LatencyHistogram.upperBoundOf(LatencyHistogram.indexOf(Long.MAX_VALUE))));
+    }
+
+    @Test
+    public void testPercentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0L, histogram.percentile(50));
+
+        for (int i = 1; i <= 1000; i++)
+            histogram.record(i * 1000L);
+
+        assertWithin(500_000L, histogram.percentile(50));
+        assertWithin(950_000L, histogram.percentile(95));
+        assertWithin(990_000L, histogram.percentile(99));
+        assertWithin(1_000_000L, histogram.percentile(100));
+
+        histogram.reset();
+        assertEquals(0L, histogram.percentile(99));
+    }
+
+    @Test
+    public void testCountAtMost() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++)
+            histogram.record(i * 1000L);
+
+        assertEquals(0L, histogram.countAtMost(0L));
+        assertEquals(1000L, histogram.countAtMost(Long.MAX_VALUE));
+        // the bucket containing the bound is not counted
+        long count = histogram.countAtMost(500_000L);
+        assertTrue(String.valueOf(count), count <= 500L && count >= 400L);
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(expected + " <= " + actual, actual >= expected);
+        assertTrue(actual + " <= " + expected * 1.25, actual <= expected * 1.25);
+    }
+}
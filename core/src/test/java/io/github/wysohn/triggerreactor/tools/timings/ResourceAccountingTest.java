@@ -0,0 +1,104 @@
+package io.github.wysohn.triggerreactor.tools.timings;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ResourceAccountingTest {
+    private static volatile Object sink;
+
+    @Before
+    public void init() {
+        ResourceAccounting.reset();
+    }
+
+    @After
+    public void cleanup() {
+        ResourceAccounting.setSampleRate(0);
+        ResourceAccounting.reset();
+    }
+
+    private static void allocate(String name, int bytes) {
+        ResourceAccounting.Sample sample = ResourceAccounting.begin();
+        sink = new byte[bytes];
+        if (sample != null)
+            sample.end(name);
+    }
+
+    @Test
+    public void testDisabled() {
+        ResourceAccounting.setSampleRate(0);
+
+        assertNull(ResourceAccounting.begin());
+    }
+
+    @Test
+    public void testAccount() {
+        ResourceAccounting.setSampleRate(1);
+
+        for (int i = 0; i < 10; i++) {
+            allocate("CommandTrigger.big", 1024 * 1024);
+            allocate("CommandTrigger.small", 16);
+        }
+
+        List<ResourceAccounting.Account> accounts = ResourceAccounting.getAccounts();
+        assertEquals(2, accounts.size());
+        for (ResourceAccounting.Account account : accounts) {
+            assertEquals(10L, account.getSamples());
+            assertEquals(10L, account.getActivations());
+            if (account.getName().equals("CommandTrigger.big")) {
+                assertTrue(account.getAllocatedBytes() >= 10L * 1024 * 1024);
+            } else {
+                assertTrue(account.getAllocatedBytes() < 1024 * 1024);
+            }
+        }
+    }
+
+    @Test
+    public void testSampling() {
+        ResourceAccounting.setSampleRate(10);
+
+        int sampled = 0;
+        for (int i = 0; i < 10_000; i++) {
+            ResourceAccounting.Sample sample = ResourceAccounting.begin();
+            if (sample != null) {
+                sampled++;
+                sample.end("CommandTrigger.test");
+            }
+        }
+
+        // 1000 expected; far enough from it to never fail by chance
+        assertTrue(String.valueOf(sampled), sampled > 700 && sampled < 1300);
+        // scaled up by the sample rate
+        assertEquals(sampled * 10L, ResourceAccounting.getAccounts().get(0).getActivations());
+    }
+
+    @Test
+    public void testPrintTop() throws Exception {
+        ResourceAccounting.setSampleRate(1);
+        allocate("CommandTrigger.small", 16);
+        allocate("CommandTrigger.big", 1024 * 1024);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ResourceAccounting.printTop(out, 1);
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(" > Resource Accounting -- (sample rate: 1/1)", lines[0]);
+        assertEquals("   > By allocation", lines[1]);
+        assertTrue(lines[2], lines[2].startsWith("     > CommandTrigger.big -- (allocated: 1.0MB"));
+        assertEquals("   > By CPU time", lines[3]);
+        assertEquals(5, lines.length);
+    }
+
+    @Test
+    public void testBytes() {
+        assertEquals("512B", ResourceAccounting.bytes(512L));
+        assertEquals("1.5KB", ResourceAccounting.bytes(1536L));
+        assertEquals("2.0MB", ResourceAccounting.bytes(2L * 1024 * 1024));
+    }
+}
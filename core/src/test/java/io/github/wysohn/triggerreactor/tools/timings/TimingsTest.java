@@ -35,31 +35,114 @@ public class TimingsTest {
 
         Timings.Timing timingInterpret = Timings.getTiming("CommandTrigger.myCmd.Interpret");
 
-        try (Timings.Timing t = timingExMessage.begin(true)) {
+        try (Timings.Handle t = timingExMessage.begin(true)) {
             Thread.sleep(2L);
         }
-        try (Timings.Timing t = timingExTP.begin()) {
+        try (Timings.Handle t = timingExTP.begin()) {
             Thread.sleep(5L);
         }
 
-        try (Timings.Timing t = timingPhPlayerName.begin()) {
+        try (Timings.Handle t = timingPhPlayerName.begin()) {
             Thread.sleep(100L);
         }
-        try (Timings.Timing t = timingPhRandom.begin()) {
+        try (Timings.Handle t = timingPhRandom.begin()) {
             Thread.sleep(10L);
         }
 
-        try (Timings.Timing t = timingInterpret.begin()) {
+        try (Timings.Handle t = timingInterpret.begin()) {
             Thread.sleep(1000L);
         }
 
         Timings.Timing parent = Timings.getTiming("CommandTrigger");
         Timings.Timing timingExMessage2 = parent.getTiming("myCmd2.Executors.#MESSAGE");
 
-        try (Timings.Timing t = timingExMessage2.begin()) {
+        try (Timings.Handle t = timingExMessage2.begin()) {
             Thread.sleep(1L);
         }
 
         //Timings.print(Timings.getTiming(null), System.out);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testConcurrentHandles() throws Exception {
+        Timings.on = true;
+
+        Timings.Timing timing = Timings.getTiming("Concurrent.task");
+        Timings.Handle first = timing.begin();
+        Timings.Handle second = timing.begin();
+        Thread.sleep(5L);
+        second.close();
+        first.close();
+
+        int threads = 4;
+        int iterations = 1000;
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(() -> {
+                for (int j = 0; j < iterations; j++) {
+                    try (Timings.Handle t = timing.begin()) {
+                        // measure nothing
+                    }
+                }
+            });
+            workers[i].start();
+        }
+        for (Thread worker : workers)
+            worker.join();
+
+        Assert.assertEquals(2 + threads * iterations, timing.count());
+        Assert.assertEquals(2 + threads * iterations, Timings.getTiming("Concurrent").count());
+        Assert.assertTrue(timing.max() >= 5.0);
+        Assert.assertTrue(timing.percentile(50) < 5.0);
+        Assert.assertTrue(timing.avg() > 0.0);
+    }
+
+    @Test
+    public void testOff() {
+        Timings.on = false;
+
+        Timings.Timing timing = Timings.getTiming("Off.task");
+        Assert.assertSame(Timings.Handle.NOOP, timing.begin());
+        timing.begin().close();
+
+        Assert.assertEquals(0, timing.count());
+        Assert.assertEquals(-1.0, timing.avg(), 0.0);
+    }
+
+    @Test
+    public void testCachedTiming() {
+        int[] resolved = {0};
+        Timings.CachedTiming cached = new Timings.CachedTiming(() -> {
+            resolved[0]++;
+            return "Cached.trigger";
+        });
+
+        Timings.on = false;
+        Assert.assertSame(Timings.LIMBO, cached.get());
+        Assert.assertEquals(0, resolved[0]);
+
+        Timings.on = true;
+        Timings.Timing timing = cached.get();
+        Assert.assertSame(Timings.getTiming("Cached.trigger"), timing);
+        Assert.assertSame(timing, cached.get());
+        Assert.assertEquals(1, resolved[0]);
+
+        // the previous Timing is no longer in the tree after reset
+        Timings.reset();
+        Timings.Timing timing2 = cached.get();
+        Assert.assertNotSame(timing, timing2);
+        Assert.assertSame(Timings.getTiming("Cached.trigger"), timing2);
+        Assert.assertEquals(2, resolved[0]);
+    }
+
+    @Test
+    public void testGetChild() {
+        Timings.Timing parent = Timings.getTiming("Child.parent");
+        Timings.Timing child = parent.getChild("Executors").getChild("MESSAGE", "#MESSAGE");
+
+        Assert.assertSame(Timings.getTiming("Child.parent.Executors.MESSAGE"), child);
+        Assert.assertEquals("#MESSAGE", child.getDisplayName());
+        Assert.assertSame(child, parent.getChild("Executors").getChild("MESSAGE", "#MESSAGE"));
+        Assert.assertSame(Timings.LIMBO, Timings.LIMBO.getChild("Executors").getChild("MESSAGE", "#MESSAGE"));
+    }
+}
@@ -206,6 +206,7 @@ public class TriggerReactor extends io.github.wysohn.triggerreactor.core.main.Tr
         disablePlugin();
     }
 
+    @Override
     public Lag getTpsHelper() {
         return tpsHelper;
     }
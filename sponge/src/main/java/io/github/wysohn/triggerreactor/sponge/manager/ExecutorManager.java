@@ -43,19 +43,10 @@ public class ExecutorManager extends AbstractExecutorManager implements SpongeSc
             }
         };
 
-        jsExecutors.clear();
-        for (File file : executorFolder.listFiles(filter)) {
-            try {
-                reloadExecutors(file, filter);
-            } catch (ScriptException | IOException e) {
-                e.printStackTrace();
-                plugin.getLogger().warning("Could not load executor " + file.getName());
-                continue;
-            }
-        }
+        Map<String, Executor> executors = loadExecutors(executorFolder, filter);
 
         //manually add CMDOP after reload is done
-        this.jsExecutors.put("CMDOP", new Executor() {
+        executors.put("CMDOP", new Executor() {
 
             @Override
             protected Integer execute(Timings.Timing timing, boolean sync, Map<String, Object> variables, Object e,
@@ -76,6 +67,8 @@ public class ExecutorManager extends AbstractExecutorManager implements SpongeSc
             }
 
         });
+
+        publishExecutors(executors);
     }
 
     @Override
@@ -36,16 +36,7 @@ public class PlaceholderManager extends AbstractPlaceholderManager implements Sp
             }
         };
 
-        jsPlaceholders.clear();
-        for (File file : placeholderFolder.listFiles(filter)) {
-            try {
-                reloadPlaceholders(file, filter);
-            } catch (ScriptException | IOException e) {
-                e.printStackTrace();
-                plugin.getLogger().warning("Could not load placeholder " + file.getName());
-                continue;
-            }
-        }
+        publishPlaceholders(loadPlaceholders(placeholderFolder, filter));
     }
 
     @Override
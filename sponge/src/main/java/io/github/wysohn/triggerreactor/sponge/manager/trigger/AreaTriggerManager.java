@@ -109,25 +109,29 @@ public class AreaTriggerManager extends AbstractAreaTriggerManager {
     }
 
     @Override
-    public void reload() {
-        super.reload();
+    public Runnable prepareReload() {
+        Runnable publish = super.prepareReload();
 
-        //re-register entities
-        for (World w : Sponge.getServer().getWorlds()) {
-            for (Entity e : w.getEntities()) {
-                UUID uuid = e.getUniqueId();
+        return () -> {
+            publish.run();
 
-                if (e.isRemoved() || !e.isLoaded())
-                    continue;
+            //re-register entities
+            for (World w : Sponge.getServer().getWorlds()) {
+                for (Entity e : w.getEntities()) {
+                    UUID uuid = e.getUniqueId();
 
-                SimpleLocation previous = null;
-                SimpleLocation current = LocationUtil.convertToSimpleLocation(e.getLocation());
+                    if (e.isRemoved() || !e.isLoaded())
+                        continue;
 
-                entityLocationMap.put(uuid, current);
-                entityTrackMap.put(uuid, new WeakReference<IEntity>(new SpongeEntity(e)));
-                onEntityBlockMoveAsync(e, previous, current);
+                    SimpleLocation previous = null;
+                    SimpleLocation current = LocationUtil.convertToSimpleLocation(e.getLocation());
+
+                    entityLocationMap.put(uuid, current);
+                    entityTrackMap.put(uuid, new WeakReference<IEntity>(new SpongeEntity(e)));
+                    onEntityBlockMoveAsync(e, previous, current);
+                }
             }
-        }
+        };
     }
 
     @Listener(order = Order.POST)
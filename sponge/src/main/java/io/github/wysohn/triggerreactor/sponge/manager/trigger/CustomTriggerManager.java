@@ -35,7 +35,6 @@ import org.spongepowered.api.event.network.ClientConnectionEvent;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
-import java.util.Map.Entry;
 
 public class CustomTriggerManager extends AbstractCustomTriggerManager {
     static final Map<String, Class<? extends Event>> EVENTS = new TreeMap<String, Class<? extends Event>>(String.CASE_INSENSITIVE_ORDER);
@@ -94,15 +93,6 @@ public class CustomTriggerManager extends AbstractCustomTriggerManager {
         }
     }
 
-    @Override
-    public void reload() {
-        for (Entry<EventHook, EventListener> entry : registeredListeners.entrySet()) {
-            Sponge.getEventManager().unregisterListeners(entry.getValue());
-        }
-        registeredListeners.clear();
-        super.reload();
-    }
-
     private static final String basePackageName = "org.spongepowered.api.event";
 
     public Collection<String> getAbbreviations() {
@@ -134,6 +124,7 @@ public class CustomTriggerManager extends AbstractCustomTriggerManager {
     @SuppressWarnings("unchecked")
     @Override
     protected void registerEvent(TriggerReactorCore plugin, Class<?> clazz, EventHook eventHook) {
+        // one listener per event class; the eventHook dispatches to all the triggers of the event
         EventListener listener = new EventListener() {
 
             @Override